@@ -0,0 +1,109 @@
+// SchemaIndexVerifier.java
+package com.smartcar.monitoring.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Startup check that every index declared by a CREATE INDEX in the migration
+ * scripts is present. An index counts as present when some index on the same
+ * table starts with the same columns, whatever its name. Any gap stops the
+ * application instead of letting the hot queries fall back to table scans.
+ */
+public class SchemaIndexVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaIndexVerifier.class);
+
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)\\s*\\(([^)]*)\\)", Pattern.CASE_INSENSITIVE);
+
+    private static final String INDEX_COLUMNS_SQL = "SELECT TABLE_NAME, INDEX_NAME, COLUMN_NAME "
+            + "FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() "
+            + "ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchemaIndexVerifier(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void verify() {
+        List<ExpectedIndex> expected = loadExpectedIndexes();
+        Map<String, List<List<String>>> actual = loadActualIndexes();
+
+        List<String> missing = new ArrayList<>();
+        for (ExpectedIndex index : expected) {
+            boolean covered = actual.getOrDefault(index.table, List.of()).stream()
+                    .anyMatch(columns -> columns.size() >= index.columns.size()
+                            && columns.subList(0, index.columns.size()).equals(index.columns));
+            if (!covered) {
+                missing.add(index.name + " ON " + index.table + " " + index.columns);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing expected database indexes: " + missing);
+        }
+        logger.info("Verified {} expected database indexes", expected.size());
+    }
+
+    private List<ExpectedIndex> loadExpectedIndexes() {
+        List<ExpectedIndex> expected = new ArrayList<>();
+        try {
+            Resource[] scripts = new PathMatchingResourcePatternResolver()
+                    .getResources("classpath:db/migration/*.sql");
+            for (Resource script : scripts) {
+                String sql = script.getContentAsString(StandardCharsets.UTF_8);
+                Matcher matcher = CREATE_INDEX.matcher(sql);
+                while (matcher.find()) {
+                    List<String> columns = new ArrayList<>();
+                    for (String column : matcher.group(3).split(",")) {
+                        columns.add(column.trim().toLowerCase(Locale.ROOT));
+                    }
+                    expected.add(new ExpectedIndex(matcher.group(1), matcher.group(2).toLowerCase(Locale.ROOT),
+                            columns));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read migration scripts", e);
+        }
+        return expected;
+    }
+
+    // table -> column lists of every index on it
+    private Map<String, List<List<String>>> loadActualIndexes() {
+        Map<String, Map<String, List<String>>> byTable = new HashMap<>();
+        jdbcTemplate.query(INDEX_COLUMNS_SQL, rs -> {
+            byTable.computeIfAbsent(rs.getString(1).toLowerCase(Locale.ROOT), t -> new HashMap<>())
+                    .computeIfAbsent(rs.getString(2), i -> new ArrayList<>())
+                    .add(rs.getString(3).toLowerCase(Locale.ROOT));
+        });
+        Map<String, List<List<String>>> actual = new HashMap<>();
+        byTable.forEach((table, indexes) -> actual.put(table, new ArrayList<>(indexes.values())));
+        return actual;
+    }
+
+    private static final class ExpectedIndex {
+        final String name;
+        final String table;
+        final List<String> columns;
+
+        ExpectedIndex(String name, String table, List<String> columns) {
+            this.name = name;
+            this.table = table;
+            this.columns = columns;
+        }
+    }
+}
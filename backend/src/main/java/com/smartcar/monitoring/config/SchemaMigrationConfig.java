@@ -0,0 +1,30 @@
+// SchemaMigrationConfig.java
+package com.smartcar.monitoring.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Versioned migrations under db/migration. Hibernate still creates tables
+ * (ddl-auto=update), so the migrations run after the entity manager factory
+ * instead of before it as Spring Boot would by default
+ * (spring.flyway.enabled=false); see SchemaMigrations.
+ */
+@Configuration
+public class SchemaMigrationConfig {
+
+    @Bean
+    public SchemaIndexVerifier schemaIndexVerifier(JdbcTemplate jdbcTemplate) {
+        return new SchemaIndexVerifier(jdbcTemplate);
+    }
+
+    @Bean
+    public SchemaMigrations schemaMigrations(DataSource dataSource, SchemaIndexVerifier schemaIndexVerifier,
+            @Value("${schema.index-check.enabled:true}") boolean indexCheckEnabled) {
+        return new SchemaMigrations(dataSource, schemaIndexVerifier, indexCheckEnabled);
+    }
+}
@@ -0,0 +1,48 @@
+// SchemaMigrations.java
+package com.smartcar.monitoring.config;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import javax.sql.DataSource;
+
+/**
+ * Applies the versioned migrations under db/migration, then runs the index
+ * check. Both happen once every singleton is initialised, so after Hibernate
+ * has created the tables (ddl-auto=update) and before the web server starts.
+ * Flyway is built here rather than exposed as a bean: Spring Boot makes the
+ * entity manager factory depend on every Flyway bean, so a Flyway bean that
+ * has to run after it would be a dependency cycle. Existing databases without
+ * a history table are baselined at version 0, so every migration still
+ * applies to them.
+ */
+public class SchemaMigrations implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrations.class);
+
+    private final Flyway flyway;
+    private final SchemaIndexVerifier indexVerifier;
+    private final boolean indexCheckEnabled;
+
+    public SchemaMigrations(DataSource dataSource, SchemaIndexVerifier indexVerifier, boolean indexCheckEnabled) {
+        this.flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+        this.indexVerifier = indexVerifier;
+        this.indexCheckEnabled = indexCheckEnabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int applied = flyway.migrate().migrationsExecuted;
+        logger.info("Applied {} schema migrations", applied);
+        if (indexCheckEnabled) {
+            indexVerifier.verify();
+        }
+    }
+}
@@ -5,7 +5,9 @@ import com.smartcar.monitoring.dto.*;
 import com.smartcar.monitoring.model.Alert;
 import com.smartcar.monitoring.model.Car;
 import com.smartcar.monitoring.model.Trip;
+import com.smartcar.monitoring.service.AlertBulkService;
 import com.smartcar.monitoring.service.AlertService;
+import com.smartcar.monitoring.service.AlertStatsService;
 import com.smartcar.monitoring.service.CarService;
 import com.smartcar.monitoring.service.TripService;
 import jakarta.validation.Valid;
@@ -16,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -26,6 +29,12 @@ public class AlertController {
     @Autowired
     private AlertService alertService;
 
+    @Autowired
+    private AlertStatsService alertStatsService;
+
+    @Autowired
+    private AlertBulkService alertBulkService;
+
     @Autowired
     private CarService carService;
 
@@ -65,6 +74,32 @@ public class AlertController {
         }
     }
 
+    // GET /api/alerts?limit=&cursor=&severity=&type=&carId=&acknowledged=&activeCars=&from=&to= - Get one keyset page of alerts, newest first
+    @GetMapping(params = "limit")
+    public ResponseEntity<ApiResponseDto<CursorPageDto<AlertDto>>> getAlertsPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String severity,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Long carId,
+            @RequestParam(required = false) Boolean acknowledged,
+            @RequestParam(defaultValue = "false") boolean activeCars,
+            @RequestParam(required = false) LocalDateTime from,
+            @RequestParam(required = false) LocalDateTime to) {
+        try {
+            Alert.AlertSeverity alertSeverity = severity != null ? Alert.AlertSeverity.valueOf(severity.toUpperCase())
+                    : null;
+            CursorPageDto<AlertDto> page = alertService.getAlertsPage(alertSeverity, type, carId, acknowledged,
+                    activeCars, from, to, cursor, limit);
+            return ResponseEntity.ok(ApiResponseDto.success("Alerts retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponseDto.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve alerts: " + e.getMessage()));
+        }
+    }
+
     // GET /api/alerts/{id} - Get alert by ID
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponseDto<AlertDto>> getAlertById(@PathVariable Long id) {
@@ -170,75 +205,107 @@ public class AlertController {
         }
     }
 
-    // PUT /api/alerts/acknowledge-all - Acknowledge all active alerts
+    // PUT /api/alerts/acknowledge-all - Queue acknowledging all active alerts, optionally only for a car, type or severity
     @PutMapping("/acknowledge-all")
-    public ResponseEntity<ApiResponseDto<String>> acknowledgeAllAlerts() {
+    public ResponseEntity<ApiResponseDto<Map<String, Object>>> acknowledgeAllAlerts(
+            @RequestParam(required = false) Long carId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Alert.AlertSeverity severity) {
         try {
-            alertService.acknowledgeAllAlerts();
-            return ResponseEntity.ok(ApiResponseDto.success("All alerts acknowledged successfully"));
+            Map<String, Object> operation = alertBulkService.acknowledge(carId, type, severity);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponseDto.success(
+                    "Bulk acknowledge #" + operation.get("operation") + " queued", operation));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(ApiResponseDto.error("Failed to acknowledge all alerts: " + e.getMessage()));
         }
     }
 
-    // GET /api/alerts/stats/count - Get alert count statistics
-    @GetMapping("/stats/count")
-    public ResponseEntity<ApiResponseDto<Object>> getAlertCountStats() {
+    // PUT /api/alerts/deactivate - Queue soft deleting active alerts matching at least one filter
+    @PutMapping("/deactivate")
+    public ResponseEntity<ApiResponseDto<Map<String, Object>>> deactivateAlerts(
+            @RequestParam(required = false) Long carId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Alert.AlertSeverity severity,
+            @RequestParam(required = false) Boolean acknowledged) {
+        if (carId == null && type == null && severity == null && acknowledged == null) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponseDto.error("At least one of carId, type, severity or acknowledged is required"));
+        }
         try {
-            long totalAlerts = alertService.countTotalActiveAlerts();
-            long unacknowledgedAlerts = alertService.countUnacknowledgedAlerts();
-            long criticalAlerts = alertService.countCriticalAlerts();
+            Map<String, Object> operation = alertBulkService.deactivate(carId, type, severity, acknowledged);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponseDto.success(
+                    "Bulk deactivate #" + operation.get("operation") + " queued", operation));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponseDto.error("Failed to deactivate alerts: " + e.getMessage()));
+        }
+    }
 
-            class AlertStats {
-                public final long totalAlerts;
-                public final long unacknowledgedAlerts;
-                public final long criticalAlerts;
+    // GET /api/alerts/bulk-operations - Progress of running and recent bulk operations
+    @GetMapping("/bulk-operations")
+    public ResponseEntity<ApiResponseDto<List<Map<String, Object>>>> getBulkOperations() {
+        try {
+            return ResponseEntity.ok(ApiResponseDto.success("Bulk operations retrieved successfully",
+                    alertBulkService.getOperations()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve bulk operations: " + e.getMessage()));
+        }
+    }
 
-                public AlertStats(long totalAlerts, long unacknowledgedAlerts, long criticalAlerts) {
-                    this.totalAlerts = totalAlerts;
-                    this.unacknowledgedAlerts = unacknowledgedAlerts;
-                    this.criticalAlerts = criticalAlerts;
-                }
+    // GET /api/alerts/bulk-operations/{operationId} - Progress of one bulk operation
+    @GetMapping("/bulk-operations/{operationId}")
+    public ResponseEntity<ApiResponseDto<Map<String, Object>>> getBulkOperation(@PathVariable Long operationId) {
+        try {
+            Map<String, Object> operation = alertBulkService.getOperation(operationId);
+            if (operation == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponseDto.error("Bulk operation not found with id: " + operationId));
             }
-            AlertStats stats = new AlertStats(totalAlerts, unacknowledgedAlerts, criticalAlerts);
-            return ResponseEntity.ok(ApiResponseDto.success("Alert statistics retrieved successfully", stats));
+            return ResponseEntity.ok(ApiResponseDto.success("Bulk operation retrieved successfully", operation));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve bulk operation: " + e.getMessage()));
+        }
+    }
+
+    // GET /api/alerts/stats/count - Get alert count statistics (in-memory counters, no DB access)
+    @GetMapping("/stats/count")
+    public ResponseEntity<ApiResponseDto<Object>> getAlertCountStats() {
+        try {
+            return ResponseEntity.ok(ApiResponseDto.success("Alert statistics retrieved successfully",
+                    alertStatsService.getCounts()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponseDto.error("Failed to retrieve alert statistics: " + e.getMessage()));
         }
     }
 
-    // GET /api/alerts/stats/severity - Get alert statistics by severity
+    // GET /api/alerts/stats/severity - Get alert statistics by severity (in-memory counters, no DB access)
     @GetMapping("/stats/severity")
     public ResponseEntity<ApiResponseDto<Object>> getAlertSeverityStats() {
         try {
-            long lowAlerts = alertService.countAlertsBySeverity(Alert.AlertSeverity.LOW);
-            long mediumAlerts = alertService.countAlertsBySeverity(Alert.AlertSeverity.MEDIUM);
-            long highAlerts = alertService.countAlertsBySeverity(Alert.AlertSeverity.HIGH);
-            long criticalAlerts = alertService.countAlertsBySeverity(Alert.AlertSeverity.CRITICAL);
-
-            class AlertSeverityStats {
-                public final long lowAlerts;
-                public final long mediumAlerts;
-                public final long highAlerts;
-                public final long criticalAlerts;
-
-                public AlertSeverityStats(long lowAlerts, long mediumAlerts, long highAlerts, long criticalAlerts) {
-                    this.lowAlerts = lowAlerts;
-                    this.mediumAlerts = mediumAlerts;
-                    this.highAlerts = highAlerts;
-                    this.criticalAlerts = criticalAlerts;
-                }
-            }
-            AlertSeverityStats stats = new AlertSeverityStats(lowAlerts, mediumAlerts, highAlerts, criticalAlerts);
-            return ResponseEntity.ok(ApiResponseDto.success("Alert severity statistics retrieved successfully", stats));
+            return ResponseEntity.ok(ApiResponseDto.success("Alert severity statistics retrieved successfully",
+                    alertStatsService.getSeverityCounts()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponseDto.error("Failed to retrieve alert severity statistics: " + e.getMessage()));
         }
     }
 
+    // GET /api/alerts/stats/breakdown - Get active alert counts per severity, acknowledged and type
+    @GetMapping("/stats/breakdown")
+    public ResponseEntity<ApiResponseDto<List<Map<String, Object>>>> getAlertBreakdownStats() {
+        try {
+            return ResponseEntity.ok(ApiResponseDto.success("Alert breakdown retrieved successfully",
+                    alertStatsService.getBreakdown()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve alert breakdown: " + e.getMessage()));
+        }
+    }
+
     // DELETE /api/alerts/{id} - Soft delete alert
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponseDto<String>> deactivateAlert(@PathVariable Long id) {
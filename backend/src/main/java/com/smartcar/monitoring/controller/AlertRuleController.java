@@ -0,0 +1,92 @@
+// AlertRuleController.java
+package com.smartcar.monitoring.controller;
+
+import com.smartcar.monitoring.dto.AlertRuleDto;
+import com.smartcar.monitoring.dto.ApiResponseDto;
+import com.smartcar.monitoring.service.AlertRuleEngine;
+import com.smartcar.monitoring.service.AlertRuleService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/alert-rules")
+@CrossOrigin(origins = "*")
+public class AlertRuleController {
+
+    @Autowired
+    private AlertRuleService alertRuleService;
+
+    @Autowired
+    private AlertRuleEngine alertRuleEngine;
+
+    // GET /api/alert-rules - Get all alert rules
+    @GetMapping
+    public ResponseEntity<ApiResponseDto<List<AlertRuleDto>>> getAllRules() {
+        try {
+            List<AlertRuleDto> rules = alertRuleService.getAllRules().stream()
+                    .map(AlertRuleDto::new)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(ApiResponseDto.success("Alert rules retrieved successfully", rules));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve alert rules: " + e.getMessage()));
+        }
+    }
+
+    // POST /api/alert-rules - Create alert rule
+    @PostMapping
+    public ResponseEntity<ApiResponseDto<AlertRuleDto>> createRule(@Valid @RequestBody AlertRuleDto ruleDto) {
+        try {
+            AlertRuleDto created = new AlertRuleDto(alertRuleService.createRule(ruleDto));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponseDto.success("Alert rule created successfully", created));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponseDto.error("Failed to create alert rule: " + e.getMessage()));
+        }
+    }
+
+    // PUT /api/alert-rules/{id} - Update alert rule
+    @PutMapping("/{id}")
+    public ResponseEntity<ApiResponseDto<AlertRuleDto>> updateRule(@PathVariable Long id,
+            @Valid @RequestBody AlertRuleDto ruleDto) {
+        try {
+            AlertRuleDto updated = new AlertRuleDto(alertRuleService.updateRule(id, ruleDto));
+            return ResponseEntity.ok(ApiResponseDto.success("Alert rule updated successfully", updated));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponseDto.error("Failed to update alert rule: " + e.getMessage()));
+        }
+    }
+
+    // DELETE /api/alert-rules/{id} - Deactivate alert rule
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponseDto<String>> deactivateRule(@PathVariable Long id) {
+        try {
+            alertRuleService.deactivateRule(id);
+            return ResponseEntity.ok(ApiResponseDto.success("Alert rule deactivated successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponseDto.error("Failed to deactivate alert rule: " + e.getMessage()));
+        }
+    }
+
+    // POST /api/alert-rules/reload - Recompile rules from the table
+    @PostMapping("/reload")
+    public ResponseEntity<ApiResponseDto<Integer>> reloadRules() {
+        try {
+            alertRuleEngine.reload();
+            return ResponseEntity.ok(ApiResponseDto.success("Alert rules reloaded successfully",
+                    alertRuleEngine.getCompiledRules().size()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to reload alert rules: " + e.getMessage()));
+        }
+    }
+}
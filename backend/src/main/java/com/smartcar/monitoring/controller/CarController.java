@@ -54,6 +54,24 @@ public class CarController {
         }
     }
 
+    // GET /api/cars?limit=&cursor=&status=&assigned= - Get one keyset page of active cars
+    @GetMapping(params = "limit")
+    public ResponseEntity<ApiResponseDto<CursorPageDto<CarDto>>> getCarsPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Boolean assigned) {
+        try {
+            CursorPageDto<CarDto> page = carService.getCarsPage(status, assigned, cursor, limit);
+            return ResponseEntity.ok(ApiResponseDto.success("Cars retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponseDto.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve cars: " + e.getMessage()));
+        }
+    }
+
     // GET /api/cars/{id} - Get car by ID
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponseDto<CarDto>> getCarById(@PathVariable Long id) {
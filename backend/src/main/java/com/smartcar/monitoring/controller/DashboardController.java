@@ -0,0 +1,31 @@
+// DashboardController.java
+package com.smartcar.monitoring.controller;
+
+import com.smartcar.monitoring.dto.ApiResponseDto;
+import com.smartcar.monitoring.dto.DashboardSnapshotDto;
+import com.smartcar.monitoring.service.DashboardSnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "*")
+public class DashboardController {
+
+    @Autowired
+    private DashboardSnapshotService dashboardSnapshotService;
+
+    // GET /api/dashboard/snapshot - Get the shared admin dashboard snapshot (vehicles, alert counts, critical alerts)
+    @GetMapping("/snapshot")
+    public ResponseEntity<ApiResponseDto<DashboardSnapshotDto>> getSnapshot() {
+        try {
+            return ResponseEntity.ok(ApiResponseDto.success("Dashboard snapshot retrieved successfully",
+                    dashboardSnapshotService.getSnapshot()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve dashboard snapshot: " + e.getMessage()));
+        }
+    }
+}
@@ -61,6 +61,23 @@ public class DriverController {
         }
     }
 
+    // GET /api/drivers?limit=&cursor=&assigned= - Get one keyset page of active drivers
+    @GetMapping(params = "limit")
+    public ResponseEntity<ApiResponseDto<CursorPageDto<DriverDto>>> getDriversPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Boolean assigned) {
+        try {
+            CursorPageDto<DriverDto> page = driverService.getDriversPage(assigned, cursor, limit);
+            return ResponseEntity.ok(ApiResponseDto.success("Drivers retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponseDto.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve drivers: " + e.getMessage()));
+        }
+    }
+
     // GET /api/drivers/{id} - Get driver by ID
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponseDto<DriverDto>> getDriverById(@PathVariable Long id) {
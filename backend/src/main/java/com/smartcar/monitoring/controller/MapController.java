@@ -0,0 +1,45 @@
+// MapController.java
+package com.smartcar.monitoring.controller;
+
+import com.smartcar.monitoring.dto.ApiResponseDto;
+import com.smartcar.monitoring.dto.MapFrameDto;
+import com.smartcar.monitoring.dto.MapViewportRequest;
+import com.smartcar.monitoring.service.MapViewportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/map")
+@CrossOrigin(origins = "*")
+public class MapController {
+
+    @Autowired
+    private MapViewportService mapViewportService;
+
+    // STOMP /app/map/viewport - Register or move this session's viewport; frames arrive on /user/queue/map/viewport
+    @MessageMapping("/map/viewport")
+    public void registerViewport(@Payload MapViewportRequest request, SimpMessageHeaderAccessor headers) {
+        mapViewportService.register(headers.getSessionId(), request);
+    }
+
+    // GET /api/map/viewport - Cars or clusters currently inside a bounding box
+    @GetMapping("/viewport")
+    public ResponseEntity<ApiResponseDto<MapFrameDto>> getViewport(
+            @RequestParam double minLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLat,
+            @RequestParam double maxLng,
+            @RequestParam(defaultValue = "12") int zoom) {
+        try {
+            MapFrameDto frame = mapViewportService.snapshot(new MapViewportRequest(minLat, minLng, maxLat, maxLng, zoom));
+            return ResponseEntity.ok(ApiResponseDto.success("Map viewport retrieved successfully", frame));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponseDto.error("Failed to retrieve map viewport: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+// MetricsController.java
+package com.smartcar.monitoring.controller;
+
+import com.smartcar.monitoring.dto.ApiResponseDto;
+import com.smartcar.monitoring.service.AlertBulkService;
+import com.smartcar.monitoring.service.AlertStateTracker;
+import com.smartcar.monitoring.service.AlertStatsService;
+import com.smartcar.monitoring.service.ConflatingPublisher;
+import com.smartcar.monitoring.service.DashboardSnapshotService;
+import com.smartcar.monitoring.service.FineLedger;
+import com.smartcar.monitoring.service.MapViewportService;
+import com.smartcar.monitoring.service.ShardedMessageExecutor;
+import com.smartcar.monitoring.service.TelemetryIngestService;
+import com.smartcar.monitoring.service.TelemetryPartitionService;
+import com.smartcar.monitoring.service.TelemetryRollupService;
+import com.smartcar.monitoring.service.WebSocketService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "*")
+public class MetricsController {
+
+    @Autowired
+    private TelemetryIngestService telemetryIngestService;
+
+    @Autowired
+    private ShardedMessageExecutor shardedMessageExecutor;
+
+    @Autowired
+    private TelemetryRollupService telemetryRollupService;
+
+    @Autowired
+    private TelemetryPartitionService telemetryPartitionService;
+
+    @Autowired
+    private AlertStateTracker alertStateTracker;
+
+    @Autowired
+    private AlertStatsService alertStatsService;
+
+    @Autowired
+    private AlertBulkService alertBulkService;
+
+    @Autowired
+    private FineLedger fineLedger;
+
+    @Autowired
+    private ConflatingPublisher conflatingPublisher;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private MapViewportService mapViewportService;
+
+    @Autowired
+    private DashboardSnapshotService dashboardSnapshotService;
+
+    // GET /api/metrics/ingest - Get MQTT processing, telemetry write, rollup, alert dedup, bulk alert updates, fine ledger, WebSocket fan-out and dashboard cache metrics
+    @GetMapping("/ingest")
+    public ResponseEntity<ApiResponseDto<Map<String, Object>>> getIngestMetrics() {
+        try {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("processing", shardedMessageExecutor.getStatistics());
+            metrics.put("writer", telemetryIngestService.getStatistics());
+            metrics.put("rollup", telemetryRollupService.getStatistics());
+            metrics.put("alerts", alertStateTracker.getStatistics());
+            metrics.put("alertStats", alertStatsService.getStatistics());
+            metrics.put("alertBulk", alertBulkService.getStatistics());
+            metrics.put("fines", fineLedger.getStatistics());
+            metrics.put("websocket", conflatingPublisher.getStatistics());
+            metrics.put("encoding", webSocketService.getStatistics());
+            metrics.put("map", mapViewportService.getStatistics());
+            metrics.put("dashboard", dashboardSnapshotService.getStatistics());
+            return ResponseEntity.ok(ApiResponseDto.success("Ingest metrics retrieved successfully", metrics));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve ingest metrics: " + e.getMessage()));
+        }
+    }
+
+    // GET /api/metrics/storage - Get telemetry partition and retention state
+    @GetMapping("/storage")
+    public ResponseEntity<ApiResponseDto<Map<String, Object>>> getStorageMetrics() {
+        try {
+            return ResponseEntity.ok(ApiResponseDto.success("Storage metrics retrieved successfully",
+                    telemetryPartitionService.getStatistics()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve storage metrics: " + e.getMessage()));
+        }
+    }
+}
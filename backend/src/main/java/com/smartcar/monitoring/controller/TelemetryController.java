@@ -6,14 +6,21 @@ import com.smartcar.monitoring.model.Telemetry;
 import com.smartcar.monitoring.model.Car;
 import com.smartcar.monitoring.service.TelemetryService;
 import com.smartcar.monitoring.service.CarService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @RestController
@@ -27,6 +34,9 @@ public class TelemetryController {
     @Autowired
     private CarService carService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // POST /api/telemetry - Create new telemetry record
     @PostMapping
     public ResponseEntity<ApiResponseDto<TelemetryDto>> createTelemetry(@Valid @RequestBody TelemetryDto telemetryDto) {
@@ -65,6 +75,28 @@ public class TelemetryController {
         }
     }
 
+    // GET /api/telemetry?limit=&cursor= - Get one keyset page of telemetry records
+    @GetMapping(params = "limit")
+    public ResponseEntity<ApiResponseDto<CursorPageDto<TelemetryDto>>> getAllTelemetryPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        try {
+            CursorPageDto<TelemetryDto> page = telemetryService.getAllActiveTelemetryPage(cursor, limit);
+            return ResponseEntity.ok(ApiResponseDto.success("Telemetry retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponseDto.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve telemetry: " + e.getMessage()));
+        }
+    }
+
+    // GET /api/telemetry/stream - Stream all telemetry records as NDJSON
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAllTelemetry(HttpServletResponse response) throws IOException {
+        writeNdjson(response, telemetryService::streamAllActiveTelemetry);
+    }
+
     // GET /api/telemetry/{id} - Get telemetry by ID
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponseDto<TelemetryDto>> getTelemetryById(@PathVariable Long id) {
@@ -97,10 +129,9 @@ public class TelemetryController {
     @GetMapping("/car/{carId}/latest")
     public ResponseEntity<ApiResponseDto<List<TelemetryDto>>> getLatestTelemetryByCar(@PathVariable Long carId) {
         try {
-            List<Telemetry> telemetryList = telemetryService.getLatestTelemetryByCar(carId);
-            List<TelemetryDto> telemetryDtos = telemetryList.stream()
-                    .map(TelemetryDto::new)
-                    .collect(Collectors.toList());
+            List<TelemetryDto> telemetryDtos = telemetryService.getLatestTelemetryStateByCar(carId)
+                    .map(List::of)
+                    .orElse(List.of());
             return ResponseEntity.ok(ApiResponseDto.success("Latest telemetry retrieved successfully", telemetryDtos));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -127,14 +158,77 @@ public class TelemetryController {
         }
     }
 
+    // GET /api/telemetry/car/{carId}/range?limit=&cursor= - Get one keyset page of telemetry by car and time range
+    @GetMapping(value = "/car/{carId}/range", params = "limit")
+    public ResponseEntity<ApiResponseDto<CursorPageDto<TelemetryDto>>> getTelemetryPageByCarAndTimeRange(
+            @PathVariable Long carId,
+            @RequestParam LocalDateTime startTime,
+            @RequestParam LocalDateTime endTime,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        try {
+            CursorPageDto<TelemetryDto> page = telemetryService.getTelemetryPageByCarAndTimestampRange(carId,
+                    startTime, endTime, cursor, limit);
+            return ResponseEntity.ok(ApiResponseDto.success("Telemetry retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponseDto.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve telemetry: " + e.getMessage()));
+        }
+    }
+
+    // GET /api/telemetry/car/{carId}/range/stream - Stream telemetry by car and time range as NDJSON
+    @GetMapping(value = "/car/{carId}/range/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamTelemetryByCarAndTimeRange(
+            @PathVariable Long carId,
+            @RequestParam LocalDateTime startTime,
+            @RequestParam LocalDateTime endTime,
+            HttpServletResponse response) throws IOException {
+        writeNdjson(response,
+                sink -> telemetryService.streamTelemetryByCarAndTimestampRange(carId, startTime, endTime, sink));
+    }
+
+    // GET /api/telemetry/car/{carId}/range?maxPoints= - Get telemetry by car and time range, downsampled for charts
+    @GetMapping(value = "/car/{carId}/range", params = { "maxPoints", "!limit" })
+    public ResponseEntity<ApiResponseDto<List<TelemetryDto>>> getDownsampledTelemetryByCarAndTimeRange(
+            @PathVariable Long carId,
+            @RequestParam LocalDateTime startTime,
+            @RequestParam LocalDateTime endTime,
+            @RequestParam int maxPoints) {
+        try {
+            List<TelemetryDto> telemetryDtos = telemetryService.getDownsampledTelemetryByCarAndTimestampRange(carId,
+                    startTime, endTime, maxPoints);
+            return ResponseEntity.ok(ApiResponseDto.success("Telemetry retrieved successfully", telemetryDtos));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve telemetry: " + e.getMessage()));
+        }
+    }
+
+    // GET /api/telemetry/car/{carId}/buckets - Get min/avg/max telemetry per time bucket
+    @GetMapping("/car/{carId}/buckets")
+    public ResponseEntity<ApiResponseDto<List<TelemetryBucketDto>>> getTelemetryBucketsByCarAndTimeRange(
+            @PathVariable Long carId,
+            @RequestParam LocalDateTime startTime,
+            @RequestParam LocalDateTime endTime,
+            @RequestParam(required = false) Long resolution,
+            @RequestParam(defaultValue = "500") int maxPoints) {
+        try {
+            List<TelemetryBucketDto> buckets = telemetryService.getTelemetryBucketsByCarAndTimestampRange(carId,
+                    startTime, endTime, resolution, maxPoints);
+            return ResponseEntity.ok(ApiResponseDto.success("Telemetry buckets retrieved successfully", buckets));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve telemetry buckets: " + e.getMessage()));
+        }
+    }
+
     // GET /api/telemetry/latest/all - Get latest telemetry for all cars
     @GetMapping("/latest/all")
     public ResponseEntity<ApiResponseDto<List<TelemetryDto>>> getLatestTelemetryForAllCars() {
         try {
-            List<Telemetry> telemetryList = telemetryService.getLatestTelemetryForAllCars();
-            List<TelemetryDto> telemetryDtos = telemetryList.stream()
-                    .map(TelemetryDto::new)
-                    .collect(Collectors.toList());
+            List<TelemetryDto> telemetryDtos = telemetryService.getLatestTelemetryStateForAllCars();
             return ResponseEntity
                     .ok(ApiResponseDto.success("Latest telemetry for all cars retrieved successfully", telemetryDtos));
         } catch (Exception e) {
@@ -202,6 +296,29 @@ public class TelemetryController {
         }
     }
 
+    // GET /api/telemetry/trip/{tripId}?limit=&cursor= - Get one keyset page of telemetry by trip ID
+    @GetMapping(value = "/trip/{tripId}", params = "limit")
+    public ResponseEntity<ApiResponseDto<CursorPageDto<TelemetryDto>>> getTelemetryPageByTrip(
+            @PathVariable Long tripId,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        try {
+            CursorPageDto<TelemetryDto> page = telemetryService.getTelemetryPageByTrip(tripId, cursor, limit);
+            return ResponseEntity.ok(ApiResponseDto.success("Telemetry retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponseDto.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve telemetry: " + e.getMessage()));
+        }
+    }
+
+    // GET /api/telemetry/trip/{tripId}/stream - Stream telemetry by trip ID as NDJSON
+    @GetMapping(value = "/trip/{tripId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamTelemetryByTrip(@PathVariable Long tripId, HttpServletResponse response) throws IOException {
+        writeNdjson(response, sink -> telemetryService.streamTelemetryByTrip(tripId, sink));
+    }
+
     // GET /api/telemetry/trip/{tripId}/range - Get telemetry by trip ID and time
     // range
     @GetMapping("/trip/{tripId}/range")
@@ -233,4 +350,29 @@ public class TelemetryController {
                     .body(ApiResponseDto.error("Failed to retrieve telemetry trip statistics: " + e.getMessage()));
         }
     }
+
+    // Write rows as newline-delimited JSON as they are produced, without buffering the result
+    private void writeNdjson(HttpServletResponse response, Consumer<Consumer<TelemetryDto>> producer)
+            throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())) {
+            producer.accept(dto -> {
+                try {
+                    writer.write(dto);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                        "Failed to stream telemetry: " + e.getMessage());
+            } else {
+                throw e;
+            }
+        }
+    }
 }
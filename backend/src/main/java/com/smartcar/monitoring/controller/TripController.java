@@ -2,9 +2,13 @@
 package com.smartcar.monitoring.controller;
 
 import com.smartcar.monitoring.dto.ApiResponseDto;
+import com.smartcar.monitoring.dto.CursorPageDto;
+import com.smartcar.monitoring.dto.FineSummaryDto;
 import com.smartcar.monitoring.dto.TripDto;
 import com.smartcar.monitoring.dto.TripRequestDto;
+import com.smartcar.monitoring.model.Trip.TripStatus;
 import com.smartcar.monitoring.model.TripCost;
+import com.smartcar.monitoring.repository.FineEventRepository;
 import com.smartcar.monitoring.repository.TripCostRepository;
 import com.smartcar.monitoring.service.TripService;
 import jakarta.validation.Valid;
@@ -13,6 +17,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -28,6 +33,9 @@ public class TripController {
     @Autowired
     private TripCostRepository tripCostRepository;
 
+    @Autowired
+    private FineEventRepository fineEventRepository;
+
     @PostMapping("/request")
     public ResponseEntity<ApiResponseDto<TripDto>> requestTrip(@Valid @RequestBody TripRequestDto req) {
         try {
@@ -127,6 +135,40 @@ public class TripController {
         }
     }
 
+    @GetMapping(value = "/completed", params = "limit")
+    public ResponseEntity<ApiResponseDto<CursorPageDto<TripDto>>> completedTripsPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long driverId,
+            @RequestParam(required = false) Long carId,
+            @RequestParam(required = false) LocalDateTime from,
+            @RequestParam(required = false) LocalDateTime to) {
+        return tripsPage(limit, cursor, TripStatus.COMPLETED.name(), driverId, carId, from, to);
+    }
+
+    // Keyset page of trips, most recently requested first; filters are optional
+    @GetMapping(params = "limit")
+    public ResponseEntity<ApiResponseDto<CursorPageDto<TripDto>>> tripsPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long driverId,
+            @RequestParam(required = false) Long carId,
+            @RequestParam(required = false) LocalDateTime from,
+            @RequestParam(required = false) LocalDateTime to) {
+        try {
+            TripStatus tripStatus = status != null ? TripStatus.valueOf(status.toUpperCase()) : null;
+            CursorPageDto<TripDto> page = tripService.listTripsPage(tripStatus, driverId, carId, from, to, cursor,
+                    limit);
+            return ResponseEntity.ok(ApiResponseDto.success("Trips retrieved", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponseDto.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve trips: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/{tripId}")
     public ResponseEntity<ApiResponseDto<TripDto>> getTripById(@PathVariable Long tripId) {
         try {
@@ -138,6 +180,20 @@ public class TripController {
         }
     }
 
+    // Audit trail of fines accrued on a trip; events reach the table on the ledger's next flush
+    @GetMapping("/{tripId}/fines")
+    public ResponseEntity<ApiResponseDto<List<FineSummaryDto>>> tripFines(@PathVariable Long tripId) {
+        try {
+            List<FineSummaryDto> fines = fineEventRepository.findByTripIdOrderByOccurredAtAsc(tripId).stream()
+                    .map(FineSummaryDto::new)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(ApiResponseDto.success("Trip fines retrieved", fines));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve trip fines: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/costs")
     public ResponseEntity<ApiResponseDto<List<Map<String, Object>>>> listCosts() {
         try {
@@ -88,6 +88,24 @@ public class UserController {
         }
     }
 
+    // GET /api/users?limit=&cursor=&role= - Get one keyset page of active users
+    @GetMapping(params = "limit")
+    public ResponseEntity<ApiResponseDto<CursorPageDto<UserDto>>> getUsersPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String role) {
+        try {
+            User.UserRole userRole = role != null ? User.UserRole.valueOf(role.toUpperCase()) : null;
+            CursorPageDto<UserDto> page = userService.getUsersPage(userRole, cursor, limit);
+            return ResponseEntity.ok(ApiResponseDto.success("Users retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponseDto.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve users: " + e.getMessage()));
+        }
+    }
+
     // GET /api/users/{id} - Get user by ID
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponseDto<UserDto>> getUserById(@PathVariable Long id) {
@@ -32,6 +32,10 @@ public class AlertDto {
     private LocalDateTime creationDate;
     private LocalDateTime lastUpdateOn;
     private Boolean isActive;
+    private Integer occurrenceCount;
+    private Integer peakValue;
+    private LocalDateTime lastSeenAt;
+    private LocalDateTime clearedAt;
 
     // Default constructor
     public AlertDto() {
@@ -49,6 +53,10 @@ public class AlertDto {
         this.creationDate = alert.getCreationDate();
         this.lastUpdateOn = alert.getLastUpdateOn();
         this.isActive = alert.getIsActive();
+        this.occurrenceCount = alert.getOccurrenceCount();
+        this.peakValue = alert.getPeakValue();
+        this.lastSeenAt = alert.getLastSeenAt();
+        this.clearedAt = alert.getClearedAt();
         if (alert.getCar() != null) {
             this.carNumber = alert.getCar().getCarNumber();
             this.carModel = alert.getCar().getCarModel();
@@ -144,6 +152,38 @@ public class AlertDto {
         this.isActive = isActive;
     }
 
+    public Integer getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public void setOccurrenceCount(Integer occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    public Integer getPeakValue() {
+        return peakValue;
+    }
+
+    public void setPeakValue(Integer peakValue) {
+        this.peakValue = peakValue;
+    }
+
+    public LocalDateTime getLastSeenAt() {
+        return lastSeenAt;
+    }
+
+    public void setLastSeenAt(LocalDateTime lastSeenAt) {
+        this.lastSeenAt = lastSeenAt;
+    }
+
+    public LocalDateTime getClearedAt() {
+        return clearedAt;
+    }
+
+    public void setClearedAt(LocalDateTime clearedAt) {
+        this.clearedAt = clearedAt;
+    }
+
     public String getCarNumber() {
         return carNumber;
     }
@@ -0,0 +1,167 @@
+// AlertRuleDto.java
+package com.smartcar.monitoring.dto;
+
+import com.smartcar.monitoring.model.Alert;
+import com.smartcar.monitoring.model.AlertRule;
+import jakarta.validation.constraints.*;
+import java.time.LocalDateTime;
+
+public class AlertRuleDto {
+    private Long id;
+
+    @NotBlank(message = "Alert type is required")
+    private String type;
+
+    @NotNull(message = "Metric is required")
+    private AlertRule.Metric metric;
+
+    @NotNull(message = "Operator is required")
+    private AlertRule.Operator operator;
+
+    @NotNull(message = "Threshold is required")
+    private Integer threshold;
+
+    @NotNull(message = "Severity is required")
+    private Alert.AlertSeverity severity;
+
+    @Min(value = 0, message = "Fine amount cannot be negative")
+    private Integer fineAmount;
+
+    private String messageTemplate;
+
+    // Defaults to THRESHOLD; SUSTAINED and RATE need windowSeconds
+    private AlertRule.Condition condition;
+
+    @Min(value = 1, message = "Window must be at least one second")
+    private Integer windowSeconds;
+
+    private LocalDateTime creationDate;
+    private LocalDateTime lastUpdateOn;
+    private Boolean isActive;
+
+    // Default constructor
+    public AlertRuleDto() {
+    }
+
+    // Constructor from AlertRule entity
+    public AlertRuleDto(AlertRule rule) {
+        this.id = rule.getId();
+        this.type = rule.getType();
+        this.metric = rule.getMetric();
+        this.operator = rule.getOperator();
+        this.threshold = rule.getThreshold();
+        this.severity = rule.getSeverity();
+        this.fineAmount = rule.getFineAmount();
+        this.messageTemplate = rule.getMessageTemplate();
+        this.condition = rule.getCondition();
+        this.windowSeconds = rule.getWindowSeconds();
+        this.creationDate = rule.getCreationDate();
+        this.lastUpdateOn = rule.getLastUpdateOn();
+        this.isActive = rule.getIsActive();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public AlertRule.Metric getMetric() {
+        return metric;
+    }
+
+    public void setMetric(AlertRule.Metric metric) {
+        this.metric = metric;
+    }
+
+    public AlertRule.Operator getOperator() {
+        return operator;
+    }
+
+    public void setOperator(AlertRule.Operator operator) {
+        this.operator = operator;
+    }
+
+    public Integer getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Integer threshold) {
+        this.threshold = threshold;
+    }
+
+    public Alert.AlertSeverity getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(Alert.AlertSeverity severity) {
+        this.severity = severity;
+    }
+
+    public Integer getFineAmount() {
+        return fineAmount;
+    }
+
+    public void setFineAmount(Integer fineAmount) {
+        this.fineAmount = fineAmount;
+    }
+
+    public String getMessageTemplate() {
+        return messageTemplate;
+    }
+
+    public void setMessageTemplate(String messageTemplate) {
+        this.messageTemplate = messageTemplate;
+    }
+
+    public LocalDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    public void setCreationDate(LocalDateTime creationDate) {
+        this.creationDate = creationDate;
+    }
+
+    public LocalDateTime getLastUpdateOn() {
+        return lastUpdateOn;
+    }
+
+    public void setLastUpdateOn(LocalDateTime lastUpdateOn) {
+        this.lastUpdateOn = lastUpdateOn;
+    }
+
+    public Boolean getIsActive() {
+        return isActive;
+    }
+
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+
+    public AlertRule.Condition getCondition() {
+        return condition;
+    }
+
+    public void setCondition(AlertRule.Condition condition) {
+        this.condition = condition;
+    }
+
+    public Integer getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public void setWindowSeconds(Integer windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+}
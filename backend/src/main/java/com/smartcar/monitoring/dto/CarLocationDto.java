@@ -0,0 +1,6 @@
+// CarLocationDto.java
+package com.smartcar.monitoring.dto;
+
+// One entry of a batched map location frame
+public record CarLocationDto(Long carId, String location) {
+}
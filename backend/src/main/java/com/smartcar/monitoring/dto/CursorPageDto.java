@@ -0,0 +1,135 @@
+package com.smartcar.monitoring.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a keyset-paginated result. The cursor is an opaque token that
+ * encodes the (timestamp, id) of the last item returned; pass it back as
+ * {@code cursor} to fetch the next page. List endpoints fetch one row more
+ * than the limit to fill {@code hasMore}, so no COUNT query is needed.
+ */
+public class CursorPageDto<T> {
+
+    // Upper bound for the limit of entity list pages
+    public static final int MAX_LIMIT = 500;
+
+    // Keyset start for ascending pages
+    public static final Cursor FIRST_ASC = new Cursor(LocalDateTime.of(1000, 1, 1, 0, 0), 0L);
+
+    // Keyset start for descending (newest first) pages
+    public static final Cursor FIRST_DESC = new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE);
+
+    private List<T> items;
+    private int size;
+    private boolean hasMore;
+    private String nextCursor;
+
+    // Default constructor
+    public CursorPageDto() {
+    }
+
+    public CursorPageDto(List<T> items, boolean hasMore, String nextCursor) {
+        this.items = items;
+        this.size = items.size();
+        this.hasMore = hasMore;
+        this.nextCursor = nextCursor;
+    }
+
+    // Encode a (timestamp, id) position as an opaque cursor
+    public static String encodeCursor(LocalDateTime timestamp, Long id) {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decode a cursor produced by encodeCursor
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Decode a cursor, or start from the given position when it is missing or blank (e.g. "cursor=")
+    public static Cursor decodeCursor(String cursor, Cursor first) {
+        return cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : first;
+    }
+
+    // Clamp a requested limit to [1, MAX_LIMIT]
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    // Build a page from up to size + 1 rows; the extra row only signals that there is more
+    public static <E, T> CursorPageDto<T> fromRows(List<E> rows, int size, Function<E, T> mapper,
+            Function<E, LocalDateTime> timestamp, Function<E, Long> id) {
+        boolean hasMore = rows.size() > size;
+        List<E> page = hasMore ? rows.subList(0, size) : rows;
+        List<T> items = page.stream().map(mapper).collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasMore) {
+            E last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(timestamp.apply(last), id.apply(last));
+        }
+        return new CursorPageDto<>(items, hasMore, nextCursor);
+    }
+
+    // Decoded keyset position
+    public static class Cursor {
+        private final LocalDateTime timestamp;
+        private final Long id;
+
+        public Cursor(LocalDateTime timestamp, Long id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+
+        public LocalDateTime getTimestamp() {
+            return timestamp;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
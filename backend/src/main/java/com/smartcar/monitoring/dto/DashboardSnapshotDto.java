@@ -0,0 +1,24 @@
+// DashboardSnapshotDto.java
+package com.smartcar.monitoring.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything the admin dashboard shows, built once per refresh and shared by
+ * all readers. Counts use the same field names as /api/alerts/stats/count and
+ * /api/alerts/stats/severity.
+ */
+public record DashboardSnapshotDto(LocalDateTime generatedAt, List<Vehicle> vehicles, AlertCounts alertCounts,
+        SeverityCounts severityCounts, List<AlertDto> criticalUnacknowledged) {
+
+    public record Vehicle(Long carId, String carNumber, String carModel, String driverName, String status,
+            String location, Integer speed, Integer fuelLevel, Integer temperature, LocalDateTime timestamp) {
+    }
+
+    public record AlertCounts(long totalAlerts, long unacknowledgedAlerts, long criticalAlerts) {
+    }
+
+    public record SeverityCounts(long lowAlerts, long mediumAlerts, long highAlerts, long criticalAlerts) {
+    }
+}
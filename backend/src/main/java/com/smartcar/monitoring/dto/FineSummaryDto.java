@@ -0,0 +1,69 @@
+package com.smartcar.monitoring.dto;
+
+import com.smartcar.monitoring.model.FineEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One fine accrued on a trip, as listed by GET /api/trips/{tripId}/fines
+public class FineSummaryDto {
+    private Long id;
+    private Long alertId;
+    private String reason;
+    private BigDecimal amount;
+    private LocalDateTime occurredAt;
+
+    // Default constructor
+    public FineSummaryDto() {
+    }
+
+    // Constructor from entity
+    public FineSummaryDto(FineEvent fineEvent) {
+        this.id = fineEvent.getId();
+        this.alertId = fineEvent.getAlertId();
+        this.reason = fineEvent.getReason();
+        this.amount = fineEvent.getAmount();
+        this.occurredAt = fineEvent.getOccurredAt();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAlertId() {
+        return alertId;
+    }
+
+    public void setAlertId(Long alertId) {
+        this.alertId = alertId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
@@ -0,0 +1,48 @@
+// LiveMessage.java
+package com.smartcar.monitoring.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Envelope of every message pushed over STOMP. Unused fields are left null and
+ * omitted, so each message type keeps the same keys it had as a map.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LiveMessage(String type, Long carId, Object data, String location, String message, Boolean connected,
+        Boolean running, Integer count, LocalDateTime timestamp) {
+
+    public static LiveMessage of(String type, Object data) {
+        return new LiveMessage(type, null, data, null, null, null, null, null, LocalDateTime.now());
+    }
+
+    public static LiveMessage forCar(String type, Long carId, Object data) {
+        return new LiveMessage(type, carId, data, null, null, null, null, null, LocalDateTime.now());
+    }
+
+    public static LiveMessage batch(String type, List<?> data) {
+        return new LiveMessage(type, null, data, null, null, null, null, data.size(), LocalDateTime.now());
+    }
+
+    public static LiveMessage location(Long carId, String location) {
+        return new LiveMessage("CAR_LOCATION", carId, null, location, null, null, null, null, LocalDateTime.now());
+    }
+
+    public static LiveMessage notification(String message) {
+        return new LiveMessage("NOTIFICATION", null, null, null, message, null, null, null, LocalDateTime.now());
+    }
+
+    public static LiveMessage connection(boolean connected) {
+        return new LiveMessage("MQTT_STATUS", null, null, null, null, connected, null, null, LocalDateTime.now());
+    }
+
+    public static LiveMessage simulator(boolean running) {
+        return new LiveMessage("SIMULATOR_STATUS", null, null, null, null, null, running, null, LocalDateTime.now());
+    }
+
+    public static LiveMessage heartbeat() {
+        return new LiveMessage("HEARTBEAT", null, null, null, null, null, null, null, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,30 @@
+// MapFrameDto.java
+package com.smartcar.monitoring.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One map update for a viewport. DETAIL frames list individual cars (all of
+ * them when {@code snapshot}, otherwise only cars that moved, plus the ids
+ * that left the viewport); CLUSTER frames replace the previous clusters.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MapFrameDto(String mode, boolean snapshot, int total, List<Car> cars, List<Long> removed,
+        List<Cluster> clusters) {
+
+    public record Car(Long carId, double lat, double lng, String location) {
+    }
+
+    public record Cluster(double lat, double lng, int count) {
+    }
+
+    public static MapFrameDto detail(boolean snapshot, int total, List<Car> cars, List<Long> removed) {
+        return new MapFrameDto("DETAIL", snapshot, total, cars, removed, null);
+    }
+
+    public static MapFrameDto cluster(int total, List<Cluster> clusters) {
+        return new MapFrameDto("CLUSTER", true, total, null, null, clusters);
+    }
+}
@@ -0,0 +1,6 @@
+// MapViewportRequest.java
+package com.smartcar.monitoring.dto;
+
+// Visible map area registered by a client; minLng > maxLng means the box crosses the antimeridian
+public record MapViewportRequest(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+}
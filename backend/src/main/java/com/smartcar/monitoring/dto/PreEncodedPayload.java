@@ -0,0 +1,54 @@
+// PreEncodedPayload.java
+package com.smartcar.monitoring.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * A value serialized to JSON once and written verbatim wherever it is embedded
+ * in a JSON message, so a telemetry sample that goes into several frames is
+ * only encoded once. Binary generators (CBOR) serialize the original value.
+ */
+@JsonSerialize(using = PreEncodedPayload.Serializer.class)
+public final class PreEncodedPayload {
+
+    private final Object value;
+    private final SerializedString json;
+
+    private PreEncodedPayload(Object value, SerializedString json) {
+        this.value = value;
+        this.json = json;
+    }
+
+    public static PreEncodedPayload encode(ObjectMapper mapper, Object value) throws JsonProcessingException {
+        return new PreEncodedPayload(value, new SerializedString(mapper.writeValueAsString(value)));
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public static final class Serializer extends StdSerializer<PreEncodedPayload> {
+
+        public Serializer() {
+            super(PreEncodedPayload.class);
+        }
+
+        @Override
+        public void serialize(PreEncodedPayload payload, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            if (gen.canWriteBinaryNatively()) {
+                provider.defaultSerializeValue(payload.value, gen);
+            } else {
+                gen.writeRawValue(payload.json);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.smartcar.monitoring.dto;
+
+import java.time.LocalDateTime;
+
+// Aggregated telemetry for one time bucket of a downsampled series
+public class TelemetryBucketDto {
+    private LocalDateTime bucketStart;
+    private long count;
+    private int minSpeed;
+    private double avgSpeed;
+    private int maxSpeed;
+    private int minFuel;
+    private double avgFuel;
+    private int maxFuel;
+    private int minTemperature;
+    private double avgTemperature;
+    private int maxTemperature;
+
+    // Default constructor
+    public TelemetryBucketDto() {
+    }
+
+    // Getters and Setters
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public int getMinSpeed() {
+        return minSpeed;
+    }
+
+    public void setMinSpeed(int minSpeed) {
+        this.minSpeed = minSpeed;
+    }
+
+    public double getAvgSpeed() {
+        return avgSpeed;
+    }
+
+    public void setAvgSpeed(double avgSpeed) {
+        this.avgSpeed = avgSpeed;
+    }
+
+    public int getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public void setMaxSpeed(int maxSpeed) {
+        this.maxSpeed = maxSpeed;
+    }
+
+    public int getMinFuel() {
+        return minFuel;
+    }
+
+    public void setMinFuel(int minFuel) {
+        this.minFuel = minFuel;
+    }
+
+    public double getAvgFuel() {
+        return avgFuel;
+    }
+
+    public void setAvgFuel(double avgFuel) {
+        this.avgFuel = avgFuel;
+    }
+
+    public int getMaxFuel() {
+        return maxFuel;
+    }
+
+    public void setMaxFuel(int maxFuel) {
+        this.maxFuel = maxFuel;
+    }
+
+    public int getMinTemperature() {
+        return minTemperature;
+    }
+
+    public void setMinTemperature(int minTemperature) {
+        this.minTemperature = minTemperature;
+    }
+
+    public double getAvgTemperature() {
+        return avgTemperature;
+    }
+
+    public void setAvgTemperature(double avgTemperature) {
+        this.avgTemperature = avgTemperature;
+    }
+
+    public int getMaxTemperature() {
+        return maxTemperature;
+    }
+
+    public void setMaxTemperature(int maxTemperature) {
+        this.maxTemperature = maxTemperature;
+    }
+}
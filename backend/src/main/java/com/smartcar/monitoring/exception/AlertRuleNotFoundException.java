@@ -0,0 +1,13 @@
+// AlertRuleNotFoundException.java
+package com.smartcar.monitoring.exception;
+
+public class AlertRuleNotFoundException extends RuntimeException {
+
+    public AlertRuleNotFoundException(String message) {
+        super(message);
+    }
+
+    public AlertRuleNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -47,6 +47,21 @@ public class Alert {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
+    // Samples that matched while this alert was open (deduplicated into one row)
+    @Column(name = "occurrence_count")
+    private Integer occurrenceCount = 1;
+
+    // Most extreme value observed while open
+    @Column(name = "peak_value")
+    private Integer peakValue;
+
+    @Column(name = "last_seen_at")
+    private LocalDateTime lastSeenAt;
+
+    // Set when the condition cleared; null while the alert is open
+    @Column(name = "cleared_at")
+    private LocalDateTime clearedAt;
+
     // Enums
     public enum AlertSeverity {
         LOW, MEDIUM, HIGH, CRITICAL
@@ -149,6 +164,38 @@ public class Alert {
         this.isActive = isActive;
     }
 
+    public Integer getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public void setOccurrenceCount(Integer occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    public Integer getPeakValue() {
+        return peakValue;
+    }
+
+    public void setPeakValue(Integer peakValue) {
+        this.peakValue = peakValue;
+    }
+
+    public LocalDateTime getLastSeenAt() {
+        return lastSeenAt;
+    }
+
+    public void setLastSeenAt(LocalDateTime lastSeenAt) {
+        this.lastSeenAt = lastSeenAt;
+    }
+
+    public LocalDateTime getClearedAt() {
+        return clearedAt;
+    }
+
+    public void setClearedAt(LocalDateTime clearedAt) {
+        this.clearedAt = clearedAt;
+    }
+
     // Pre-update hook
     @PreUpdate
     public void preUpdate() {
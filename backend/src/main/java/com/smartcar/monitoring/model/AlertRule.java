@@ -0,0 +1,214 @@
+// AlertRule.java
+package com.smartcar.monitoring.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * One alert rule: raise an alert of {@code type} at {@code severity} when
+ * {@code metric operator threshold} holds. A THRESHOLD rule tests each sample,
+ * SUSTAINED requires the comparison to hold for every sample over the last
+ * {@code windowSeconds}, and RATE compares the change in the metric over that
+ * window instead of its value. Several rules may share a type; the most severe
+ * matching one wins.
+ */
+@Entity
+@Table(name = "alert_rules")
+public class AlertRule {
+
+    public enum Metric {
+        SPEED, FUEL, TEMPERATURE
+    }
+
+    public enum Operator {
+        GT, GTE, LT, LTE
+    }
+
+    public enum Condition {
+        THRESHOLD, SUSTAINED, RATE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    @NotBlank(message = "Alert type is required")
+    private String type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @NotNull(message = "Metric is required")
+    private Metric metric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @NotNull(message = "Operator is required")
+    private Operator operator;
+
+    @Column(nullable = false)
+    @NotNull(message = "Threshold is required")
+    private Integer threshold;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @NotNull(message = "Severity is required")
+    private Alert.AlertSeverity severity;
+
+    // Null on rows created before windowed rules existed; read as THRESHOLD
+    @Enumerated(EnumType.STRING)
+    @Column(name = "condition_kind")
+    private Condition condition = Condition.THRESHOLD;
+
+    // Required for SUSTAINED and RATE rules
+    @Column(name = "window_seconds")
+    private Integer windowSeconds;
+
+    // Added to the active trip's fine when the rule fires on the telemetry path
+    @Column(name = "fine_amount", nullable = false)
+    private Integer fineAmount = 0;
+
+    // "{value}" is replaced with the observed value
+    @Column(name = "message_template")
+    private String messageTemplate;
+
+    @Column(name = "creation_date", nullable = false)
+    private LocalDateTime creationDate;
+
+    @Column(name = "last_update_on")
+    private LocalDateTime lastUpdateOn;
+
+    @Column(name = "is_active", nullable = false)
+    private Boolean isActive = true;
+
+    public AlertRule() {
+        this.creationDate = LocalDateTime.now();
+        this.lastUpdateOn = LocalDateTime.now();
+        this.isActive = true;
+    }
+
+    public AlertRule(String type, Metric metric, Operator operator, Integer threshold, Alert.AlertSeverity severity,
+            Integer fineAmount, String messageTemplate) {
+        this();
+        this.type = type;
+        this.metric = metric;
+        this.operator = operator;
+        this.threshold = threshold;
+        this.severity = severity;
+        this.fineAmount = fineAmount;
+        this.messageTemplate = messageTemplate;
+    }
+
+    public AlertRule(String type, Metric metric, Operator operator, Integer threshold, Alert.AlertSeverity severity,
+            Integer fineAmount, String messageTemplate, Condition condition, Integer windowSeconds) {
+        this(type, metric, operator, threshold, severity, fineAmount, messageTemplate);
+        this.condition = condition;
+        this.windowSeconds = windowSeconds;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public void setMetric(Metric metric) {
+        this.metric = metric;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public void setOperator(Operator operator) {
+        this.operator = operator;
+    }
+
+    public Integer getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Integer threshold) {
+        this.threshold = threshold;
+    }
+
+    public Alert.AlertSeverity getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(Alert.AlertSeverity severity) {
+        this.severity = severity;
+    }
+
+    public Condition getCondition() {
+        return condition != null ? condition : Condition.THRESHOLD;
+    }
+
+    public void setCondition(Condition condition) {
+        this.condition = condition;
+    }
+
+    public Integer getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public void setWindowSeconds(Integer windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+
+    public Integer getFineAmount() {
+        return fineAmount;
+    }
+
+    public void setFineAmount(Integer fineAmount) {
+        this.fineAmount = fineAmount;
+    }
+
+    public String getMessageTemplate() {
+        return messageTemplate;
+    }
+
+    public void setMessageTemplate(String messageTemplate) {
+        this.messageTemplate = messageTemplate;
+    }
+
+    public LocalDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    public void setCreationDate(LocalDateTime creationDate) {
+        this.creationDate = creationDate;
+    }
+
+    public LocalDateTime getLastUpdateOn() {
+        return lastUpdateOn;
+    }
+
+    public void setLastUpdateOn(LocalDateTime lastUpdateOn) {
+        this.lastUpdateOn = lastUpdateOn;
+    }
+
+    public Boolean getIsActive() {
+        return isActive;
+    }
+
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+}
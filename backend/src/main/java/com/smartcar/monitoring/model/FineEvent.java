@@ -0,0 +1,110 @@
+// FineEvent.java
+package com.smartcar.monitoring.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only audit record of one fine accrued against a trip. Rows are
+ * written in batches by FineLedger and never updated; the trip's
+ * additional_fine is the running total of its events.
+ */
+@Entity
+@Table(name = "fine_events", indexes = {
+        @Index(name = "idx_fine_events_trip", columnList = "trip_id, occurred_at")
+})
+public class FineEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "trip_id", nullable = false)
+    private Long tripId;
+
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+
+    // Alert that triggered the fine, if any
+    @Column(name = "alert_id")
+    private Long alertId;
+
+    @Column(nullable = false)
+    private String reason;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    public FineEvent() {
+    }
+
+    public FineEvent(Long tripId, Long carId, Long alertId, String reason, BigDecimal amount,
+            LocalDateTime occurredAt) {
+        this.tripId = tripId;
+        this.carId = carId;
+        this.alertId = alertId;
+        this.reason = reason;
+        this.amount = amount;
+        this.occurredAt = occurredAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTripId() {
+        return tripId;
+    }
+
+    public void setTripId(Long tripId) {
+        this.tripId = tripId;
+    }
+
+    public Long getCarId() {
+        return carId;
+    }
+
+    public void setCarId(Long carId) {
+        this.carId = carId;
+    }
+
+    public Long getAlertId() {
+        return alertId;
+    }
+
+    public void setAlertId(Long alertId) {
+        this.alertId = alertId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
@@ -0,0 +1,57 @@
+// RollupWatermark.java
+package com.smartcar.monitoring.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Highest telemetry id already folded into a rollup. Advanced in the same
+ * transaction as the rollup upsert, so every row is counted exactly once.
+ */
+@Entity
+@Table(name = "rollup_watermarks")
+public class RollupWatermark {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "last_telemetry_id", nullable = false)
+    private Long lastTelemetryId = 0L;
+
+    @Column(name = "last_update_on")
+    private LocalDateTime lastUpdateOn;
+
+    public RollupWatermark() {
+    }
+
+    public RollupWatermark(String name) {
+        this.name = name;
+        this.lastTelemetryId = 0L;
+        this.lastUpdateOn = LocalDateTime.now();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getLastTelemetryId() {
+        return lastTelemetryId;
+    }
+
+    public void setLastTelemetryId(Long lastTelemetryId) {
+        this.lastTelemetryId = lastTelemetryId;
+    }
+
+    public LocalDateTime getLastUpdateOn() {
+        return lastUpdateOn;
+    }
+
+    public void setLastUpdateOn(LocalDateTime lastUpdateOn) {
+        this.lastUpdateOn = lastUpdateOn;
+    }
+}
@@ -14,12 +14,13 @@ public class Telemetry {
 	private Long id;
 
 	@ManyToOne(fetch = FetchType.LAZY)
-	@JoinColumn(name = "car_id", nullable = false)
+	// No FK constraints: MySQL does not allow them on the month-partitioned telemetry table
+	@JoinColumn(name = "car_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
 	@NotNull(message = "Car is required")
 	private Car car;
 
 	@ManyToOne(fetch = FetchType.LAZY)
-	@JoinColumn(name = "trip_id")
+	@JoinColumn(name = "trip_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
 	private Trip trip;
 
 	@Column(nullable = false)
@@ -0,0 +1,186 @@
+// TelemetryRollup.java
+package com.smartcar.monitoring.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Per-car count/sum/min/max of telemetry over a fixed bucket (one minute or
+ * one hour), maintained by TelemetryRollupService from rows past its watermark.
+ */
+@Entity
+@Table(name = "telemetry_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_telemetry_rollup_bucket", columnNames = { "car_id", "resolution_seconds",
+                "bucket_start" })
+})
+public class TelemetryRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+
+    @Column(name = "resolution_seconds", nullable = false)
+    private Integer resolutionSeconds;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount;
+
+    @Column(name = "speed_sum", nullable = false)
+    private Long speedSum;
+
+    @Column(name = "speed_min", nullable = false)
+    private Integer speedMin;
+
+    @Column(name = "speed_max", nullable = false)
+    private Integer speedMax;
+
+    @Column(name = "fuel_sum", nullable = false)
+    private Long fuelSum;
+
+    @Column(name = "fuel_min", nullable = false)
+    private Integer fuelMin;
+
+    @Column(name = "fuel_max", nullable = false)
+    private Integer fuelMax;
+
+    @Column(name = "temperature_sum", nullable = false)
+    private Long temperatureSum;
+
+    @Column(name = "temperature_min", nullable = false)
+    private Integer temperatureMin;
+
+    @Column(name = "temperature_max", nullable = false)
+    private Integer temperatureMax;
+
+    @Column(name = "last_update_on")
+    private LocalDateTime lastUpdateOn;
+
+    public TelemetryRollup() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCarId() {
+        return carId;
+    }
+
+    public void setCarId(Long carId) {
+        this.carId = carId;
+    }
+
+    public Integer getResolutionSeconds() {
+        return resolutionSeconds;
+    }
+
+    public void setResolutionSeconds(Integer resolutionSeconds) {
+        this.resolutionSeconds = resolutionSeconds;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(Long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    public Long getSpeedSum() {
+        return speedSum;
+    }
+
+    public void setSpeedSum(Long speedSum) {
+        this.speedSum = speedSum;
+    }
+
+    public Integer getSpeedMin() {
+        return speedMin;
+    }
+
+    public void setSpeedMin(Integer speedMin) {
+        this.speedMin = speedMin;
+    }
+
+    public Integer getSpeedMax() {
+        return speedMax;
+    }
+
+    public void setSpeedMax(Integer speedMax) {
+        this.speedMax = speedMax;
+    }
+
+    public Long getFuelSum() {
+        return fuelSum;
+    }
+
+    public void setFuelSum(Long fuelSum) {
+        this.fuelSum = fuelSum;
+    }
+
+    public Integer getFuelMin() {
+        return fuelMin;
+    }
+
+    public void setFuelMin(Integer fuelMin) {
+        this.fuelMin = fuelMin;
+    }
+
+    public Integer getFuelMax() {
+        return fuelMax;
+    }
+
+    public void setFuelMax(Integer fuelMax) {
+        this.fuelMax = fuelMax;
+    }
+
+    public Long getTemperatureSum() {
+        return temperatureSum;
+    }
+
+    public void setTemperatureSum(Long temperatureSum) {
+        this.temperatureSum = temperatureSum;
+    }
+
+    public Integer getTemperatureMin() {
+        return temperatureMin;
+    }
+
+    public void setTemperatureMin(Integer temperatureMin) {
+        this.temperatureMin = temperatureMin;
+    }
+
+    public Integer getTemperatureMax() {
+        return temperatureMax;
+    }
+
+    public void setTemperatureMax(Integer temperatureMax) {
+        this.temperatureMax = temperatureMax;
+    }
+
+    public LocalDateTime getLastUpdateOn() {
+        return lastUpdateOn;
+    }
+
+    public void setLastUpdateOn(LocalDateTime lastUpdateOn) {
+        this.lastUpdateOn = lastUpdateOn;
+    }
+}
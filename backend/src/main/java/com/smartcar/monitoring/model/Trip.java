@@ -4,10 +4,13 @@ package com.smartcar.monitoring.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// Only changed columns are written, so saving a trip never overwrites fines applied by FineLedger
 @Entity
+@DynamicUpdate
 @Table(name = "trips")
 public class Trip {
 
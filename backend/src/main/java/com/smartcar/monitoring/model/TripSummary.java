@@ -0,0 +1,255 @@
+// TripSummary.java
+package com.smartcar.monitoring.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "trip_summaries", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_trip_summary_trip", columnNames = { "trip_id" })
+})
+public class TripSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "trip_id", nullable = false)
+    private Long tripId;
+
+    @Column(name = "total_records", nullable = false)
+    private Integer totalRecords = 0;
+
+    @Column(name = "speed_sum", nullable = false)
+    private Long speedSum = 0L;
+
+    @Column(name = "min_speed", nullable = false)
+    private Integer minSpeed = 0;
+
+    @Column(name = "max_speed", nullable = false)
+    private Integer maxSpeed = 0;
+
+    @Column(name = "p50_speed", nullable = false)
+    private Integer p50Speed = 0;
+
+    @Column(name = "p95_speed", nullable = false)
+    private Integer p95Speed = 0;
+
+    @Column(name = "p99_speed", nullable = false)
+    private Integer p99Speed = 0;
+
+    @Column(name = "fuel_sum", nullable = false)
+    private Long fuelSum = 0L;
+
+    @Column(name = "min_fuel", nullable = false)
+    private Integer minFuel = 0;
+
+    @Column(name = "max_fuel", nullable = false)
+    private Integer maxFuel = 0;
+
+    @Column(name = "temperature_sum", nullable = false)
+    private Long temperatureSum = 0L;
+
+    @Column(name = "min_temperature", nullable = false)
+    private Integer minTemperature = 0;
+
+    @Column(name = "max_temperature", nullable = false)
+    private Integer maxTemperature = 0;
+
+    @Column(name = "distance_km", nullable = false)
+    private Double distanceKm = 0.0;
+
+    @Column(name = "alert_count", nullable = false)
+    private Long alertCount = 0L;
+
+    @Column(name = "critical_alert_count", nullable = false)
+    private Long criticalAlertCount = 0L;
+
+    @Column(name = "creation_date", nullable = false)
+    private LocalDateTime creationDate;
+
+    @Column(name = "last_update_on")
+    private LocalDateTime lastUpdateOn;
+
+    @Column(name = "is_active", nullable = false)
+    private Boolean isActive = true;
+
+    public TripSummary() {
+        this.creationDate = LocalDateTime.now();
+        this.lastUpdateOn = LocalDateTime.now();
+        this.isActive = true;
+    }
+
+    public TripSummary(Long tripId) {
+        this();
+        this.tripId = tripId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTripId() {
+        return tripId;
+    }
+
+    public void setTripId(Long tripId) {
+        this.tripId = tripId;
+    }
+
+    public Integer getTotalRecords() {
+        return totalRecords;
+    }
+
+    public void setTotalRecords(Integer totalRecords) {
+        this.totalRecords = totalRecords;
+    }
+
+    public Long getSpeedSum() {
+        return speedSum;
+    }
+
+    public void setSpeedSum(Long speedSum) {
+        this.speedSum = speedSum;
+    }
+
+    public Integer getMinSpeed() {
+        return minSpeed;
+    }
+
+    public void setMinSpeed(Integer minSpeed) {
+        this.minSpeed = minSpeed;
+    }
+
+    public Integer getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public void setMaxSpeed(Integer maxSpeed) {
+        this.maxSpeed = maxSpeed;
+    }
+
+    public Integer getP50Speed() {
+        return p50Speed;
+    }
+
+    public void setP50Speed(Integer p50Speed) {
+        this.p50Speed = p50Speed;
+    }
+
+    public Integer getP95Speed() {
+        return p95Speed;
+    }
+
+    public void setP95Speed(Integer p95Speed) {
+        this.p95Speed = p95Speed;
+    }
+
+    public Integer getP99Speed() {
+        return p99Speed;
+    }
+
+    public void setP99Speed(Integer p99Speed) {
+        this.p99Speed = p99Speed;
+    }
+
+    public Long getFuelSum() {
+        return fuelSum;
+    }
+
+    public void setFuelSum(Long fuelSum) {
+        this.fuelSum = fuelSum;
+    }
+
+    public Integer getMinFuel() {
+        return minFuel;
+    }
+
+    public void setMinFuel(Integer minFuel) {
+        this.minFuel = minFuel;
+    }
+
+    public Integer getMaxFuel() {
+        return maxFuel;
+    }
+
+    public void setMaxFuel(Integer maxFuel) {
+        this.maxFuel = maxFuel;
+    }
+
+    public Long getTemperatureSum() {
+        return temperatureSum;
+    }
+
+    public void setTemperatureSum(Long temperatureSum) {
+        this.temperatureSum = temperatureSum;
+    }
+
+    public Integer getMinTemperature() {
+        return minTemperature;
+    }
+
+    public void setMinTemperature(Integer minTemperature) {
+        this.minTemperature = minTemperature;
+    }
+
+    public Integer getMaxTemperature() {
+        return maxTemperature;
+    }
+
+    public void setMaxTemperature(Integer maxTemperature) {
+        this.maxTemperature = maxTemperature;
+    }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    public Long getAlertCount() {
+        return alertCount;
+    }
+
+    public void setAlertCount(Long alertCount) {
+        this.alertCount = alertCount;
+    }
+
+    public Long getCriticalAlertCount() {
+        return criticalAlertCount;
+    }
+
+    public void setCriticalAlertCount(Long criticalAlertCount) {
+        this.criticalAlertCount = criticalAlertCount;
+    }
+
+    public LocalDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    public void setCreationDate(LocalDateTime creationDate) {
+        this.creationDate = creationDate;
+    }
+
+    public LocalDateTime getLastUpdateOn() {
+        return lastUpdateOn;
+    }
+
+    public void setLastUpdateOn(LocalDateTime lastUpdateOn) {
+        this.lastUpdateOn = lastUpdateOn;
+    }
+
+    public Boolean getIsActive() {
+        return isActive;
+    }
+
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+}
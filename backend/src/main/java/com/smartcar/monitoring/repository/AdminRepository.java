@@ -2,6 +2,7 @@
 package com.smartcar.monitoring.repository;
 
 import com.smartcar.monitoring.model.Admin;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,13 +18,16 @@ public interface AdminRepository extends JpaRepository<Admin, Long> {
     Optional<Admin> findByUserId(Long userId);
 
     // Find all active admins
+    @EntityGraph(attributePaths = "user")
     List<Admin> findByIsActiveTrue();
 
     // Find admins by permissions
+    @EntityGraph(attributePaths = "user")
     List<Admin> findByPermissionsContainingAndIsActiveTrue(String permission);
 
     // Find admins created in date range
     @Query("SELECT a FROM Admin a WHERE a.creationDate BETWEEN :startDate AND :endDate AND a.isActive = true")
+    @EntityGraph(attributePaths = "user")
     List<Admin> findAdminsCreatedBetween(@Param("startDate") java.time.LocalDateTime startDate,
             @Param("endDate") java.time.LocalDateTime endDate);
 
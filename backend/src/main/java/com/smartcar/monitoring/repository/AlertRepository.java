@@ -4,7 +4,13 @@ package com.smartcar.monitoring.repository;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,49 +22,63 @@ import com.smartcar.monitoring.model.Alert.AlertSeverity;
 public interface AlertRepository extends JpaRepository<Alert, Long> {
 
     // Find by car ID
+    @EntityGraph(attributePaths = "car")
     List<Alert> findByCarIdAndIsActiveTrue(Long carId);
 
     // Find by alert type
+    @EntityGraph(attributePaths = "car")
     List<Alert> findByTypeAndIsActiveTrue(String type);
 
     // Find by severity
+    @EntityGraph(attributePaths = "car")
     List<Alert> findBySeverityAndIsActiveTrue(AlertSeverity severity);
 
     // Find by acknowledgment status
+    @EntityGraph(attributePaths = "car")
     List<Alert> findByAcknowledgedAndIsActiveTrue(Boolean acknowledged);
 
     // Find by timestamp range
+    @EntityGraph(attributePaths = "car")
     List<Alert> findByTimestampBetweenAndIsActiveTrue(LocalDateTime startTime, LocalDateTime endTime);
 
     // Find by car ID and timestamp range
+    @EntityGraph(attributePaths = "car")
     List<Alert> findByCarIdAndTimestampBetweenAndIsActiveTrue(Long carId, LocalDateTime startTime,
             LocalDateTime endTime);
 
     // Find unacknowledged alerts
+    @EntityGraph(attributePaths = "car")
     List<Alert> findByAcknowledgedFalseAndIsActiveTrue();
 
     // Find unacknowledged alerts by car
+    @EntityGraph(attributePaths = "car")
     List<Alert> findByCarIdAndAcknowledgedFalseAndIsActiveTrue(Long carId);
 
     // Find unacknowledged alerts by severity
+    @EntityGraph(attributePaths = "car")
     List<Alert> findBySeverityAndAcknowledgedFalseAndIsActiveTrue(AlertSeverity severity);
 
     // Find all active alerts
+    @EntityGraph(attributePaths = "car")
     List<Alert> findByIsActiveTrue();
 
     // Find alerts created in date range
     @Query("SELECT a FROM Alert a WHERE a.creationDate BETWEEN :startDate AND :endDate AND a.isActive = true")
+    @EntityGraph(attributePaths = "car")
     List<Alert> findAlertsCreatedBetween(@Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
 
     // Find critical alerts (HIGH and CRITICAL severity)
     @Query("SELECT a FROM Alert a WHERE a.severity IN ('HIGH', 'CRITICAL') AND a.isActive = true")
+    @EntityGraph(attributePaths = "car")
     List<Alert> findCriticalAlerts();
 
     // Find alerts by car and severity
+    @EntityGraph(attributePaths = "car")
     List<Alert> findByCarIdAndSeverityAndIsActiveTrue(Long carId, AlertSeverity severity);
 
     // Find alerts by car and type
+    @EntityGraph(attributePaths = "car")
     List<Alert> findByCarIdAndTypeAndIsActiveTrue(Long carId, String type);
 
     // Count alerts by car
@@ -79,6 +99,73 @@ public interface AlertRepository extends JpaRepository<Alert, Long> {
     // Count alerts in time range
     long countByTimestampBetweenAndIsActiveTrue(LocalDateTime startTime, LocalDateTime endTime);
 
+    // Active alert counts per (severity, acknowledged, type) in one scan
+    @Query("SELECT a.severity, a.acknowledged, a.type, COUNT(a) FROM Alert a WHERE a.isActive = true "
+            + "GROUP BY a.severity, a.acknowledged, a.type")
+    List<Object[]> countActiveBySeverityAndAcknowledgedAndType();
+
     // Count critical alerts
     long countBySeverityInAndIsActiveTrue(List<AlertSeverity> severities);
+
+    // Count alerts raised during a trip
+    long countByTripIdAndIsActiveTrue(Long tripId);
+
+    // Count alerts of a severity raised during a trip
+    long countByTripIdAndSeverityAndIsActiveTrue(Long tripId, AlertSeverity severity);
+
+    // Count alerts raised during a trip before an instant
+    long countByTripIdAndTimestampBeforeAndIsActiveTrue(Long tripId, LocalDateTime before);
+
+    // Count alerts of a severity raised during a trip before an instant
+    long countByTripIdAndSeverityAndTimestampBeforeAndIsActiveTrue(Long tripId, AlertSeverity severity,
+            LocalDateTime before);
+
+    // Keyset page of active alerts, newest first, with optional filters
+    @EntityGraph(attributePaths = "car")
+    @Query("SELECT a FROM Alert a WHERE a.isActive = true "
+            + "AND (:severity IS NULL OR a.severity = :severity) AND (:type IS NULL OR a.type = :type) "
+            + "AND (:carId IS NULL OR a.car.id = :carId) AND (:acknowledged IS NULL OR a.acknowledged = :acknowledged) "
+            + "AND (:activeCars = false OR a.car.isActive = true) "
+            + "AND (:from IS NULL OR a.timestamp >= :from) AND (:to IS NULL OR a.timestamp <= :to) "
+            + "AND (a.timestamp < :beforeTimestamp OR (a.timestamp = :beforeTimestamp AND a.id < :beforeId)) "
+            + "ORDER BY a.timestamp DESC, a.id DESC")
+    List<Alert> findPage(@Param("severity") AlertSeverity severity, @Param("type") String type,
+            @Param("carId") Long carId, @Param("acknowledged") Boolean acknowledged,
+            @Param("activeCars") boolean activeCars, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to, @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+            @Param("beforeId") Long beforeId, Pageable pageable);
+
+    // Active alerts matching the bulk filters
+    @Query("SELECT COUNT(a) FROM Alert a WHERE a.isActive = true "
+            + "AND (:carId IS NULL OR a.car.id = :carId) AND (:type IS NULL OR a.type = :type) "
+            + "AND (:severity IS NULL OR a.severity = :severity) AND (:acknowledged IS NULL OR a.acknowledged = :acknowledged)")
+    long countBulkTargets(@Param("carId") Long carId, @Param("type") String type,
+            @Param("severity") AlertSeverity severity, @Param("acknowledged") Boolean acknowledged);
+
+    // Next chunk of active alerts matching the bulk filters after an id, as (id, severity, acknowledged, type);
+    // the rows stay locked until the chunk's transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a.id, a.severity, a.acknowledged, a.type FROM Alert a WHERE a.isActive = true AND a.id > :afterId "
+            + "AND (:carId IS NULL OR a.car.id = :carId) AND (:type IS NULL OR a.type = :type) "
+            + "AND (:severity IS NULL OR a.severity = :severity) AND (:acknowledged IS NULL OR a.acknowledged = :acknowledged) "
+            + "ORDER BY a.id")
+    List<Object[]> findBulkTargets(@Param("afterId") Long afterId, @Param("carId") Long carId,
+            @Param("type") String type, @Param("severity") AlertSeverity severity,
+            @Param("acknowledged") Boolean acknowledged, Pageable pageable);
+
+    // Acknowledge alerts by id
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Alert a SET a.acknowledged = true, a.lastUpdateOn = :now WHERE a.id IN :ids")
+    int acknowledgeByIds(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    // Soft delete alerts by id
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Alert a SET a.isActive = false, a.lastUpdateOn = :now WHERE a.id IN :ids")
+    int deactivateByIds(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    // Open and recently cleared unacknowledged alerts, oldest first, to rebuild dedup state after a restart
+    @Query("SELECT a FROM Alert a JOIN FETCH a.car LEFT JOIN FETCH a.trip WHERE a.isActive = true "
+            + "AND a.acknowledged = false AND (a.clearedAt IS NULL OR a.clearedAt >= :clearedSince) "
+            + "ORDER BY a.timestamp, a.id")
+    List<Alert> findTrackedAlerts(@Param("clearedSince") LocalDateTime clearedSince);
 }
@@ -0,0 +1,25 @@
+// AlertRuleRepository.java
+package com.smartcar.monitoring.repository;
+
+import com.smartcar.monitoring.model.AlertRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AlertRuleRepository extends JpaRepository<AlertRule, Long> {
+
+    List<AlertRule> findByIsActiveTrue();
+
+    // Any per-sample (threshold) rule, active or not
+    boolean existsByWindowSecondsIsNull();
+
+    // Any windowed rule, active or not
+    boolean existsByWindowSecondsIsNotNull();
+
+    // Row count and newest change, used to detect edits made directly in the table
+    @Query("SELECT COUNT(r), MAX(r.lastUpdateOn) FROM AlertRule r")
+    List<Object[]> findVersionFingerprint();
+}
@@ -2,6 +2,8 @@
 package com.smartcar.monitoring.repository;
 
 import com.smartcar.monitoring.model.Car;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,38 +16,49 @@ import java.util.Optional;
 public interface CarRepository extends JpaRepository<Car, Long> {
 
     // Find by driver ID
+    @EntityGraph(attributePaths = "driver.user")
     List<Car> findByDriverIdAndIsActiveTrue(Long driverId);
 
     // Find by status
+    @EntityGraph(attributePaths = "driver.user")
     List<Car> findByStatusAndIsActiveTrue(String status);
 
     // Find cars by fuel level threshold
+    @EntityGraph(attributePaths = "driver.user")
     List<Car> findByFuelLevelLessThanAndIsActiveTrue(Integer fuelThreshold);
 
     // Find cars by temperature range
+    @EntityGraph(attributePaths = "driver.user")
     List<Car> findByTemperatureBetweenAndIsActiveTrue(Integer minTemp, Integer maxTemp);
 
     // Find cars by speed range
+    @EntityGraph(attributePaths = "driver.user")
     List<Car> findBySpeedBetweenAndIsActiveTrue(Integer minSpeed, Integer maxSpeed);
 
     // Find cars by location
+    @EntityGraph(attributePaths = "driver.user")
     List<Car> findByLocationContainingAndIsActiveTrue(String location);
 
     // Find all active cars
+    @EntityGraph(attributePaths = "driver.user")
     List<Car> findByIsActiveTrue();
 
     // Find cars without assigned drivers
+    @EntityGraph(attributePaths = "driver.user")
     List<Car> findByDriverIsNullAndIsActiveTrue();
 
     // Find cars with assigned drivers
+    @EntityGraph(attributePaths = "driver.user")
     List<Car> findByDriverIsNotNullAndIsActiveTrue();
 
     // Find cars updated in time range (for real-time monitoring)
     @Query("SELECT c FROM Car c WHERE c.lastUpdateOn >= :since AND c.isActive = true")
+    @EntityGraph(attributePaths = "driver.user")
     List<Car> findCarsUpdatedSince(@Param("since") java.time.LocalDateTime since);
 
     // Find cars by creation date range
     @Query("SELECT c FROM Car c WHERE c.creationDate BETWEEN :startDate AND :endDate AND c.isActive = true")
+    @EntityGraph(attributePaths = "driver.user")
     List<Car> findCarsCreatedBetween(@Param("startDate") java.time.LocalDateTime startDate,
             @Param("endDate") java.time.LocalDateTime endDate);
 
@@ -63,4 +76,14 @@ public interface CarRepository extends JpaRepository<Car, Long> {
 
     // Count cars with drivers
     long countByDriverIsNotNullAndIsActiveTrue();
+
+    // Keyset page of active cars in creation order, with optional filters
+    @EntityGraph(attributePaths = "driver.user")
+    @Query("SELECT c FROM Car c WHERE c.isActive = true AND (:status IS NULL OR c.status = :status) "
+            + "AND (:assigned IS NULL OR (:assigned = true AND c.driver IS NOT NULL) OR (:assigned = false AND c.driver IS NULL)) "
+            + "AND (c.creationDate > :afterTimestamp OR (c.creationDate = :afterTimestamp AND c.id > :afterId)) "
+            + "ORDER BY c.creationDate ASC, c.id ASC")
+    List<Car> findPage(@Param("status") String status, @Param("assigned") Boolean assigned,
+            @Param("afterTimestamp") java.time.LocalDateTime afterTimestamp, @Param("afterId") Long afterId,
+            Pageable pageable);
 }
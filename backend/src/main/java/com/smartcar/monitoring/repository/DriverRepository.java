@@ -2,6 +2,8 @@
 package com.smartcar.monitoring.repository;
 
 import com.smartcar.monitoring.model.Driver;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,16 +22,20 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
     Optional<Driver> findByAssignedCarId(Long carId);
 
     // Find all active drivers
+    @EntityGraph(attributePaths = "user")
     List<Driver> findByIsActiveTrue();
 
     // Find drivers without assigned cars
+    @EntityGraph(attributePaths = "user")
     List<Driver> findByAssignedCarIdIsNullAndIsActiveTrue();
 
     // Find drivers with assigned cars
+    @EntityGraph(attributePaths = "user")
     List<Driver> findByAssignedCarIdIsNotNullAndIsActiveTrue();
 
     // Find drivers created in date range
     @Query("SELECT d FROM Driver d WHERE d.creationDate BETWEEN :startDate AND :endDate AND d.isActive = true")
+    @EntityGraph(attributePaths = "user")
     List<Driver> findDriversCreatedBetween(@Param("startDate") java.time.LocalDateTime startDate,
             @Param("endDate") java.time.LocalDateTime endDate);
 
@@ -41,4 +47,15 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
 
     // Count drivers without assigned cars
     long countByAssignedCarIdIsNullAndIsActiveTrue();
+
+    // Keyset page of active drivers in creation order, optionally by car assignment
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT d FROM Driver d WHERE d.isActive = true "
+            + "AND (:assigned IS NULL OR (:assigned = true AND d.assignedCarId IS NOT NULL) "
+            + "OR (:assigned = false AND d.assignedCarId IS NULL)) "
+            + "AND (d.creationDate > :afterTimestamp OR (d.creationDate = :afterTimestamp AND d.id > :afterId)) "
+            + "ORDER BY d.creationDate ASC, d.id ASC")
+    List<Driver> findPage(@Param("assigned") Boolean assigned,
+            @Param("afterTimestamp") java.time.LocalDateTime afterTimestamp, @Param("afterId") Long afterId,
+            Pageable pageable);
 }
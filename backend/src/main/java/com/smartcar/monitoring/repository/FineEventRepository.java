@@ -0,0 +1,14 @@
+// FineEventRepository.java
+package com.smartcar.monitoring.repository;
+
+import com.smartcar.monitoring.model.FineEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FineEventRepository extends JpaRepository<FineEvent, Long> {
+
+    List<FineEvent> findByTripIdOrderByOccurredAtAsc(Long tripId);
+}
@@ -0,0 +1,18 @@
+// RollupWatermarkRepository.java
+package com.smartcar.monitoring.repository;
+
+import com.smartcar.monitoring.model.RollupWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermark, String> {
+
+    // Lock the watermark row so concurrent compactors take turns
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<RollupWatermark> findByName(String name);
+}
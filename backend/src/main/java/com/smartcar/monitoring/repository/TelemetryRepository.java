@@ -2,13 +2,19 @@
 package com.smartcar.monitoring.repository;
 
 import com.smartcar.monitoring.model.Telemetry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TelemetryRepository extends JpaRepository<Telemetry, Long> {
@@ -53,11 +59,104 @@ public interface TelemetryRepository extends JpaRepository<Telemetry, Long> {
 	@Query("SELECT t FROM Telemetry t WHERE t.car.id = :carId AND t.isActive = true ORDER BY t.timestamp DESC")
 	List<Telemetry> findLatestTelemetryByCarId(@Param("carId") Long carId);
 
+	// Latest active row of one car
+	Optional<Telemetry> findFirstByCarIdAndIsActiveTrueOrderByTimestampDescIdDesc(Long carId);
+
 	// Find telemetry records created in date range
 	@Query("SELECT t FROM Telemetry t WHERE t.creationDate BETWEEN :startDate AND :endDate AND t.isActive = true")
 	List<Telemetry> findTelemetryCreatedBetween(@Param("startDate") LocalDateTime startDate,
 			@Param("endDate") LocalDateTime endDate);
 
+	// Keyset page of a car's telemetry in a time range, ordered by (timestamp, id)
+	@Query("SELECT t FROM Telemetry t WHERE t.car.id = :carId AND t.isActive = true AND t.timestamp BETWEEN :startTime AND :endTime "
+			+ "AND (t.timestamp > :afterTimestamp OR (t.timestamp = :afterTimestamp AND t.id > :afterId)) "
+			+ "ORDER BY t.timestamp ASC, t.id ASC")
+	List<Telemetry> findPageByCarIdAndTimestampBetween(@Param("carId") Long carId,
+			@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime,
+			@Param("afterTimestamp") LocalDateTime afterTimestamp, @Param("afterId") Long afterId, Pageable pageable);
+
+	// Keyset page of a trip's telemetry, ordered by (timestamp, id)
+	@Query("SELECT t FROM Telemetry t WHERE t.trip.id = :tripId AND t.isActive = true "
+			+ "AND (t.timestamp > :afterTimestamp OR (t.timestamp = :afterTimestamp AND t.id > :afterId)) "
+			+ "ORDER BY t.timestamp ASC, t.id ASC")
+	List<Telemetry> findPageByTripId(@Param("tripId") Long tripId,
+			@Param("afterTimestamp") LocalDateTime afterTimestamp, @Param("afterId") Long afterId, Pageable pageable);
+
+	// Keyset page of all active telemetry, ordered by (timestamp, id)
+	@Query("SELECT t FROM Telemetry t WHERE t.isActive = true "
+			+ "AND (t.timestamp > :afterTimestamp OR (t.timestamp = :afterTimestamp AND t.id > :afterId)) "
+			+ "ORDER BY t.timestamp ASC, t.id ASC")
+	List<Telemetry> findPageAfter(@Param("afterTimestamp") LocalDateTime afterTimestamp,
+			@Param("afterId") Long afterId, Pageable pageable);
+
+	// Fetch size for the streaming queries below. MySQL Connector/J streams rows one
+	// at a time for Integer.MIN_VALUE instead of buffering the whole result; this
+	// applies to these statements only, not to the connection pool.
+	String STREAM_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+	// Stream a car's telemetry in a time range row by row
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("SELECT t FROM Telemetry t WHERE t.car.id = :carId AND t.isActive = true AND t.timestamp BETWEEN :startTime AND :endTime "
+			+ "ORDER BY t.timestamp ASC, t.id ASC")
+	Stream<Telemetry> streamByCarIdAndTimestampBetween(@Param("carId") Long carId,
+			@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+	// Stream a trip's telemetry row by row
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("SELECT t FROM Telemetry t WHERE t.trip.id = :tripId AND t.isActive = true ORDER BY t.timestamp ASC, t.id ASC")
+	Stream<Telemetry> streamByTripId(@Param("tripId") Long tripId);
+
+	// Stream a trip's telemetry stored before an instant, row by row
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("SELECT t FROM Telemetry t WHERE t.trip.id = :tripId AND t.isActive = true AND t.timestamp < :before "
+			+ "ORDER BY t.timestamp ASC, t.id ASC")
+	Stream<Telemetry> streamByTripIdAndTimestampBefore(@Param("tripId") Long tripId,
+			@Param("before") LocalDateTime before);
+
+	// Stream all active telemetry row by row
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("SELECT t FROM Telemetry t WHERE t.isActive = true ORDER BY t.timestamp ASC, t.id ASC")
+	Stream<Telemetry> streamAllActive();
+
+	// Count/avg/min/max of a car's telemetry in a time range, as one row
+	@Query("SELECT COUNT(t), AVG(t.speed), MIN(t.speed), MAX(t.speed), AVG(t.fuel), MIN(t.fuel), MAX(t.fuel), "
+			+ "AVG(t.temperature), MIN(t.temperature), MAX(t.temperature) FROM Telemetry t "
+			+ "WHERE t.car.id = :carId AND t.isActive = true AND t.timestamp BETWEEN :startTime AND :endTime")
+	List<Object[]> aggregateByCarIdAndTimestampBetween(@Param("carId") Long carId,
+			@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+	// Speed histogram (speed, count) of a car's telemetry in a time range, for percentiles
+	@Query("SELECT t.speed, COUNT(t) FROM Telemetry t "
+			+ "WHERE t.car.id = :carId AND t.isActive = true AND t.timestamp BETWEEN :startTime AND :endTime "
+			+ "GROUP BY t.speed ORDER BY t.speed")
+	List<Object[]> speedHistogramByCarIdAndTimestampBetween(@Param("carId") Long carId,
+			@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+	// Per-bucket count/sum/min/max of a car's telemetry past afterId; bucket = whole bucketSeconds since origin
+	// Row: bucket, count, speed sum/min/max, fuel sum/min/max, temperature sum/min/max
+	@Query(value = "SELECT FLOOR(TIMESTAMPDIFF(SECOND, :origin, t.timestamp) / :bucketSeconds) AS bucket, COUNT(*), "
+			+ "SUM(t.speed), MIN(t.speed), MAX(t.speed), SUM(t.fuel), MIN(t.fuel), MAX(t.fuel), "
+			+ "SUM(t.temperature), MIN(t.temperature), MAX(t.temperature) "
+			+ "FROM telemetry t WHERE t.car_id = :carId AND t.is_active = true AND t.timestamp BETWEEN :startTime AND :endTime "
+			+ "AND t.id > :afterId GROUP BY bucket ORDER BY bucket", nativeQuery = true)
+	List<Object[]> aggregateByCarIdAndTimeBucket(@Param("carId") Long carId, @Param("origin") LocalDateTime origin,
+			@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime,
+			@Param("bucketSeconds") long bucketSeconds, @Param("afterId") long afterId);
+
+	// Same as aggregateByCarIdAndTimeBucket over [startTime, endTime), for ranges that meet another one at endTime
+	@Query(value = "SELECT FLOOR(TIMESTAMPDIFF(SECOND, :origin, t.timestamp) / :bucketSeconds) AS bucket, COUNT(*), "
+			+ "SUM(t.speed), MIN(t.speed), MAX(t.speed), SUM(t.fuel), MIN(t.fuel), MAX(t.fuel), "
+			+ "SUM(t.temperature), MIN(t.temperature), MAX(t.temperature) "
+			+ "FROM telemetry t WHERE t.car_id = :carId AND t.is_active = true AND t.timestamp >= :startTime "
+			+ "AND t.timestamp < :endTime AND t.id > :afterId GROUP BY bucket ORDER BY bucket", nativeQuery = true)
+	List<Object[]> aggregateByCarIdAndTimeBucketBefore(@Param("carId") Long carId, @Param("origin") LocalDateTime origin,
+			@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime,
+			@Param("bucketSeconds") long bucketSeconds, @Param("afterId") long afterId);
+
 	// Count telemetry records by car
 	long countByCarIdAndIsActiveTrue(Long carId);
 
@@ -0,0 +1,29 @@
+// TelemetryRollupRepository.java
+package com.smartcar.monitoring.repository;
+
+import com.smartcar.monitoring.model.TelemetryRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TelemetryRollupRepository extends JpaRepository<TelemetryRollup, Long> {
+
+    // Re-bucket a car's rollups of one resolution starting in [startTime, endTime) into bucketSeconds-wide buckets
+    // counted from origin. Row: bucket, count, speed sum/min/max, fuel sum/min/max, temperature sum/min/max
+    @Query(value = "SELECT FLOOR(TIMESTAMPDIFF(SECOND, :origin, r.bucket_start) / :bucketSeconds) AS bucket, "
+            + "SUM(r.sample_count), SUM(r.speed_sum), MIN(r.speed_min), MAX(r.speed_max), "
+            + "SUM(r.fuel_sum), MIN(r.fuel_min), MAX(r.fuel_max), "
+            + "SUM(r.temperature_sum), MIN(r.temperature_min), MAX(r.temperature_max) "
+            + "FROM telemetry_rollups r WHERE r.car_id = :carId AND r.resolution_seconds = :resolutionSeconds "
+            + "AND r.bucket_start >= :startTime AND r.bucket_start < :endTime "
+            + "GROUP BY bucket ORDER BY bucket", nativeQuery = true)
+    List<Object[]> aggregateByCarIdAndTimeBucket(@Param("carId") Long carId,
+            @Param("resolutionSeconds") int resolutionSeconds, @Param("origin") LocalDateTime origin,
+            @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime,
+            @Param("bucketSeconds") long bucketSeconds);
+}
@@ -3,18 +3,26 @@ package com.smartcar.monitoring.repository;
 
 import com.smartcar.monitoring.model.Trip;
 import com.smartcar.monitoring.model.Trip.TripStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TripRepository extends JpaRepository<Trip, Long> {
+    @EntityGraph(attributePaths = { "driver.user", "car" })
     List<Trip> findByDriverIdAndIsActiveTrue(Long driverId);
 
+    @EntityGraph(attributePaths = { "driver.user", "car" })
     List<Trip> findByStatus(TripStatus status);
 
+    @EntityGraph(attributePaths = { "driver.user", "car" })
     List<Trip> findByStatusIn(List<TripStatus> statuses);
 
     Optional<Trip> findFirstByDriverIdAndStatusInOrderByCreationDateDesc(Long driverId, List<TripStatus> statuses);
@@ -23,5 +31,18 @@ public interface TripRepository extends JpaRepository<Trip, Long> {
 
     Optional<Trip> findFirstByCarIdAndStatus(Long carId, TripStatus status);
 
+    @EntityGraph(attributePaths = { "driver.user", "car" })
     List<Trip> findByCarIdAndStatus(Long carId, TripStatus status);
-}
\ No newline at end of file
+
+    // Keyset page of trips, most recently requested first, with optional filters
+    @EntityGraph(attributePaths = { "driver.user", "car" })
+    @Query("SELECT t FROM Trip t WHERE (:status IS NULL OR t.status = :status) "
+            + "AND (:driverId IS NULL OR t.driver.id = :driverId) AND (:carId IS NULL OR t.car.id = :carId) "
+            + "AND (:from IS NULL OR t.requestedAt >= :from) AND (:to IS NULL OR t.requestedAt <= :to) "
+            + "AND (t.requestedAt < :beforeTimestamp OR (t.requestedAt = :beforeTimestamp AND t.id < :beforeId)) "
+            + "ORDER BY t.requestedAt DESC, t.id DESC")
+    List<Trip> findPage(@Param("status") TripStatus status, @Param("driverId") Long driverId,
+            @Param("carId") Long carId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("beforeTimestamp") LocalDateTime beforeTimestamp, @Param("beforeId") Long beforeId,
+            Pageable pageable);
+}
@@ -0,0 +1,15 @@
+// TripSummaryRepository.java
+package com.smartcar.monitoring.repository;
+
+import com.smartcar.monitoring.model.TripSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TripSummaryRepository extends JpaRepository<TripSummary, Long> {
+    Optional<TripSummary> findByTripIdAndIsActiveTrue(Long tripId);
+
+    Optional<TripSummary> findByTripId(Long tripId);
+}
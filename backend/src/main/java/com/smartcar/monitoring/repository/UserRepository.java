@@ -3,6 +3,7 @@ package com.smartcar.monitoring.repository;
 
 import com.smartcar.monitoring.model.User;
 import com.smartcar.monitoring.model.User.UserRole;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -61,4 +62,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     // Count total active users
     long countByIsActiveTrue();
+
+    // Keyset page of active users in creation order, optionally by role
+    @Query("SELECT u FROM User u WHERE u.isActive = true AND (:role IS NULL OR u.role = :role) "
+            + "AND (u.creationDate > :afterTimestamp OR (u.creationDate = :afterTimestamp AND u.id > :afterId)) "
+            + "ORDER BY u.creationDate ASC, u.id ASC")
+    List<User> findPage(@Param("role") UserRole role,
+            @Param("afterTimestamp") java.time.LocalDateTime afterTimestamp, @Param("afterId") Long afterId,
+            Pageable pageable);
 }
@@ -0,0 +1,65 @@
+package com.smartcar.monitoring.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory carId -> active tripId index. TripService keeps it current when a
+ * trip starts or stops, so the telemetry path can resolve a car's active trip
+ * without querying the trips table. Cars known to have no active trip are
+ * cached too, so a cold miss is only paid once per car.
+ */
+@Service
+public class ActiveTripRegistry {
+
+    private final Map<Long, Optional<Long>> tripByCar = new ConcurrentHashMap<>();
+
+    // Look up the active trip for a car, loading it once on a cold miss
+    public Optional<Long> getActiveTripId(Long carId, Function<Long, Optional<Long>> loader) {
+        Optional<Long> cached = tripByCar.get(carId);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<Long> loaded = loader.apply(carId);
+        Optional<Long> raced = tripByCar.putIfAbsent(carId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    // Record that a trip became active on a car, once the surrounding transaction commits
+    public void tripStarted(Long carId, Long tripId) {
+        afterCommit(() -> tripByCar.put(carId, Optional.of(tripId)));
+    }
+
+    // Record that a car no longer has an active trip, once the surrounding transaction commits
+    public void tripEnded(Long carId) {
+        afterCommit(() -> tripByCar.put(carId, Optional.empty()));
+    }
+
+    // Forget what is known about a car so the next lookup goes to the database
+    public void evict(Long carId) {
+        tripByCar.remove(carId);
+    }
+
+    public int size() {
+        return tripByCar.size();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.model.Alert.AlertSeverity;
+import com.smartcar.monitoring.repository.AlertRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Set-based bulk acknowledge and soft delete of alerts. An operation is queued
+ * and the request returns its id right away; a single worker walks the
+ * matching alerts in id order, chunk-size ids at a time, locking each chunk
+ * with a keyset SELECT and changing it with one UPDATE by id in its own short
+ * transaction, so row locks are held briefly and live alert inserts are not
+ * blocked behind one large statement. Each chunk is reported to
+ * AlertStatsService as counter transitions and its ids are dropped from
+ * AlertStateTracker. Progress of queued, running and recent operations is kept
+ * in memory; when an operation finishes one summary is broadcast on
+ * /topic/alerts.
+ */
+@Service
+public class AlertBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertBulkService.class);
+
+    // Finished operations kept for the progress endpoint
+    private static final int RECENT_OPERATIONS = 50;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private AlertStatsService alertStatsService;
+
+    @Autowired
+    private AlertStateTracker alertStateTracker;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // One operation at a time, so two bulk updates never contend for the same rows
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "alert-bulk-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Where queued operations run
+    private Executor executor = worker;
+
+    // Ids covered by one UPDATE (and one transaction)
+    @Value("${alerts.bulk.chunk-size:5000}")
+    private int chunkSize;
+
+    private final Map<Long, Operation> operations = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong alertsUpdated = new AtomicLong();
+    private final AtomicLong statements = new AtomicLong();
+
+    public AlertBulkService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    // Queue acknowledging every active unacknowledged alert matching the filters (null = any)
+    public Map<String, Object> acknowledge(Long carId, String type, AlertSeverity severity) {
+        Operation operation = start("ACKNOWLEDGE", carId, type, severity, null);
+        return submit(operation, carId, type, severity, false, alertRepository::acknowledgeByIds,
+                key -> new AlertStatsService.Key(key.severity(), true, key.type()));
+    }
+
+    // Queue soft deleting every active alert matching the filters (null = any)
+    public Map<String, Object> deactivate(Long carId, String type, AlertSeverity severity, Boolean acknowledged) {
+        Operation operation = start("DEACTIVATE", carId, type, severity, acknowledged);
+        return submit(operation, carId, type, severity, acknowledged, alertRepository::deactivateByIds,
+                key -> null);
+    }
+
+    private Map<String, Object> submit(Operation operation, Long carId, String type, AlertSeverity severity,
+            Boolean acknowledged, BiFunction<List<Long>, LocalDateTime, Integer> update,
+            UnaryOperator<AlertStatsService.Key> counterKeyAfter) {
+        Map<String, Object> queued = operation.toMap();
+        executor.execute(() -> run(operation, carId, type, severity, acknowledged, update, counterKeyAfter));
+        return queued;
+    }
+
+    private void run(Operation operation, Long carId, String type, AlertSeverity severity, Boolean acknowledged,
+            BiFunction<List<Long>, LocalDateTime, Integer> update,
+            UnaryOperator<AlertStatsService.Key> counterKeyAfter) {
+        operation.status = "RUNNING";
+        try {
+            int size = Math.max(1, chunkSize);
+            long matched = alertRepository.countBulkTargets(carId, type, severity, acknowledged);
+            operation.chunksTotal = (matched + size - 1) / size;
+            long afterId = 0;
+            while (true) {
+                long from = afterId;
+                Chunk chunk = transactionTemplate.execute(status -> {
+                    List<Object[]> rows = alertRepository.findBulkTargets(from, carId, type, severity,
+                            acknowledged, PageRequest.of(0, size));
+                    List<Long> ids = new ArrayList<>(rows.size());
+                    Map<AlertStatsService.Key, Long> byKey = new LinkedHashMap<>();
+                    for (Object[] row : rows) {
+                        ids.add(((Number) row[0]).longValue());
+                        byKey.merge(new AlertStatsService.Key((AlertSeverity) row[1], Boolean.TRUE.equals(row[2]),
+                                (String) row[3]), 1L, Long::sum);
+                    }
+                    if (ids.isEmpty()) {
+                        return null;
+                    }
+                    // The rows are locked, so these are exactly the rows the UPDATE changes; applied on commit
+                    byKey.forEach((key, count) -> alertStatsService.transitionAll(key, counterKeyAfter.apply(key),
+                            count));
+                    return new Chunk(ids, update.apply(ids, LocalDateTime.now()));
+                });
+                if (chunk == null) {
+                    break;
+                }
+                statements.incrementAndGet();
+                operation.updated.addAndGet(chunk.changed());
+                operation.chunksDone.incrementAndGet();
+                alertStateTracker.forget(chunk.ids());
+                afterId = chunk.ids().get(chunk.ids().size() - 1);
+                if (chunk.ids().size() < size) {
+                    break;
+                }
+            }
+            operation.status = "COMPLETED";
+            completed.incrementAndGet();
+        } catch (RuntimeException e) {
+            // Chunks already committed stay applied; the summary reports how far it got
+            operation.status = "FAILED";
+            operation.error = e.getMessage();
+            failed.incrementAndGet();
+            logger.error("Bulk alert {} #{} failed after {} of {} chunks", operation.kind, operation.id,
+                    operation.chunksDone.get(), operation.chunksTotal, e);
+        } finally {
+            operation.finishedAt = LocalDateTime.now();
+            alertsUpdated.addAndGet(operation.updated.get());
+            trim();
+        }
+
+        webSocketService.broadcastAlertBulkUpdate(operation.toMap());
+        logger.info("Bulk alert {} #{} {}: {} alerts in {} chunks", operation.kind, operation.id, operation.status,
+                operation.updated.get(), operation.chunksDone.get());
+    }
+
+    // Ids of one committed chunk and how many rows its UPDATE changed
+    private record Chunk(List<Long> ids, int changed) {
+    }
+
+    private Operation start(String kind, Long carId, String type, AlertSeverity severity, Boolean acknowledged) {
+        Operation operation = new Operation(sequence.incrementAndGet(), kind);
+        operation.filters.put("carId", carId);
+        operation.filters.put("type", type);
+        operation.filters.put("severity", severity);
+        if ("DEACTIVATE".equals(kind)) {
+            operation.filters.put("acknowledged", acknowledged);
+        }
+        operations.put(operation.id, operation);
+        return operation;
+    }
+
+    // Drop the oldest finished operations beyond the retention count
+    private void trim() {
+        long cutoff = sequence.get() - RECENT_OPERATIONS;
+        operations.values().removeIf(operation -> operation.id <= cutoff && operation.finishedAt != null);
+    }
+
+    // Queued, running and recent operations, newest first
+    public List<Map<String, Object>> getOperations() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        operations.values().stream()
+                .sorted(Comparator.comparingLong((Operation operation) -> operation.id).reversed())
+                .forEach(operation -> result.add(operation.toMap()));
+        return result;
+    }
+
+    // Progress of one operation, or null when it is unknown or no longer retained
+    public Map<String, Object> getOperation(long operationId) {
+        Operation operation = operations.get(operationId);
+        return operation != null ? operation.toMap() : null;
+    }
+
+    // Get bulk operation statistics
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("chunkSize", chunkSize);
+        stats.put("operations", sequence.get());
+        stats.put("running", operations.values().stream().filter(operation -> operation.finishedAt == null).count());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("alertsUpdated", alertsUpdated.get());
+        stats.put("updateStatements", statements.get());
+        return stats;
+    }
+
+    private static final class Operation {
+        private final long id;
+        private final String kind;
+        private final Map<String, Object> filters = new LinkedHashMap<>();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong chunksDone = new AtomicLong();
+        private final AtomicLong updated = new AtomicLong();
+        private volatile long chunksTotal;
+        private volatile String status = "QUEUED";
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        Operation(long id, String kind) {
+            this.id = id;
+            this.kind = kind;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("operation", id);
+            map.put("kind", kind);
+            map.put("status", status);
+            map.put("filters", filters);
+            map.put("updated", updated.get());
+            map.put("chunksDone", chunksDone.get());
+            map.put("chunksTotal", chunksTotal);
+            map.put("progress", "COMPLETED".equals(status) ? 1.0
+                    : chunksTotal == 0 ? 0.0 : Math.min(1.0, (double) chunksDone.get() / chunksTotal));
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            if (error != null) {
+                map.put("error", error);
+            }
+            return map;
+        }
+    }
+}
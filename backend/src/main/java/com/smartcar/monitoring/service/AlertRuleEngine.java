@@ -0,0 +1,510 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.model.Alert;
+import com.smartcar.monitoring.model.AlertRule;
+import com.smartcar.monitoring.repository.AlertRuleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alert rules from the alert_rules table, compiled into flat primitive arrays
+ * grouped by alert type (most severe rule first). Evaluating a sample walks
+ * those arrays and writes matches into a per-thread buffer, so the ingest path
+ * allocates nothing unless a rule fires. Rules are recompiled when the table
+ * changes, without a restart.
+ *
+ * <p>SUSTAINED and RATE rules look back over a time window. Each car keeps a
+ * fixed-capacity ring of its recent samples plus per-rule cursors into it, so
+ * a windowed rule costs O(1) amortized per sample and never re-reads history
+ * from the database.
+ */
+@Service
+public class AlertRuleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertRuleEngine.class);
+
+    @Autowired
+    private AlertRuleRepository alertRuleRepository;
+
+    private volatile CompiledRules compiled = CompiledRules.compile(List.of());
+    private volatile List<Object> fingerprint = List.of();
+
+    // Samples kept per car; bounds how far back RATE rules can see at the ingest interval
+    @Value("${alerts.window.capacity:128}")
+    private int windowCapacity;
+
+    private final Map<Long, CarWindow> windowsByCar = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Matches> matches = ThreadLocal.withInitial(Matches::new);
+
+    @PostConstruct
+    public void init() {
+        try {
+            seedDefaultRules();
+            reload();
+        } catch (Exception e) {
+            logger.error("Failed to load alert rules", e);
+        }
+    }
+
+    /**
+     * Rules matching a sample, at most one per alert type. The result is a
+     * per-thread object reused by the next call on the same thread. Windowed
+     * rules never match here since there is no history to look at.
+     */
+    public Matches evaluate(int speed, int fuel, int temperature) {
+        Matches result = matches.get();
+        compiled.evaluate(speed, fuel, temperature, null, 0L, result);
+        return result;
+    }
+
+    /**
+     * Same as {@link #evaluate(int, int, int)}, but first appends the sample to
+     * the car's window so SUSTAINED and RATE rules are evaluated as well.
+     */
+    public Matches evaluate(Long carId, long timestampMs, int speed, int fuel, int temperature) {
+        Matches result = matches.get();
+        CompiledRules rules = compiled;
+        if (!rules.windowed) {
+            rules.evaluate(speed, fuel, temperature, null, timestampMs, result);
+            return result;
+        }
+        CarWindow window = windowsByCar.computeIfAbsent(carId, id -> new CarWindow(windowCapacity));
+        synchronized (window) {
+            window.bind(rules);
+            window.append(timestampMs, speed, fuel, temperature);
+            rules.evaluate(speed, fuel, temperature, window, timestampMs, result);
+        }
+        return result;
+    }
+
+    // Recompile from the table
+    public synchronized void reload() {
+        List<Object> current = currentFingerprint();
+        compiled = CompiledRules.compile(alertRuleRepository.findByIsActiveTrue());
+        fingerprint = current;
+        logger.info("Loaded {} alert rules in {} groups", compiled.size(), compiled.groupCount);
+    }
+
+    // Pick up rows edited directly in the database
+    @Scheduled(fixedDelayString = "${alerts.rules.refresh-ms:30000}")
+    public void refreshIfChanged() {
+        try {
+            if (!currentFingerprint().equals(fingerprint)) {
+                reload();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to refresh alert rules", e);
+        }
+    }
+
+    /**
+     * Whether a sample is far enough back inside the least severe rule of a
+     * type (by {@code margin}) for an open alert of that type to clear. A type
+     * with no rules left always clears. For windowed rules this uses the value
+     * the car's last evaluation observed (the change, for RATE rules).
+     */
+    public boolean isClear(Long carId, String type, int speed, int fuel, int temperature, int margin) {
+        CompiledRules rules = compiled;
+        if (!rules.windowed) {
+            return rules.isClear(type, speed, fuel, temperature, null, margin);
+        }
+        CarWindow window = windowsByCar.get(carId);
+        if (window == null) {
+            return rules.isClear(type, speed, fuel, temperature, null, margin);
+        }
+        synchronized (window) {
+            return rules.isClear(type, speed, fuel, temperature, window.rules == rules ? window : null, margin);
+        }
+    }
+
+    public List<Rule> getCompiledRules() {
+        return List.of(compiled.rules);
+    }
+
+    private List<Object> currentFingerprint() {
+        List<Object[]> rows = alertRuleRepository.findVersionFingerprint();
+        return rows.isEmpty() ? List.of() : Arrays.asList(rows.get(0));
+    }
+
+    // Thresholds previously hard-coded on the MQTT telemetry path, plus default windowed rules
+    private void seedDefaultRules() {
+        if (!alertRuleRepository.existsByWindowSecondsIsNull()) {
+            alertRuleRepository.saveAll(List.of(
+                    new AlertRule("LOW_FUEL", AlertRule.Metric.FUEL, AlertRule.Operator.LT, 20,
+                            Alert.AlertSeverity.HIGH, 10, "Low fuel level: {value}%"),
+                    new AlertRule("LOW_FUEL", AlertRule.Metric.FUEL, AlertRule.Operator.LT, 10,
+                            Alert.AlertSeverity.CRITICAL, 20, "Low fuel level: {value}%"),
+                    new AlertRule("HIGH_TEMPERATURE", AlertRule.Metric.TEMPERATURE, AlertRule.Operator.GT, 100,
+                            Alert.AlertSeverity.HIGH, 10, "High temperature: {value}°C"),
+                    new AlertRule("HIGH_TEMPERATURE", AlertRule.Metric.TEMPERATURE, AlertRule.Operator.GT, 110,
+                            Alert.AlertSeverity.CRITICAL, 20, "High temperature: {value}°C"),
+                    new AlertRule("HIGH_SPEED", AlertRule.Metric.SPEED, AlertRule.Operator.GT, 120,
+                            Alert.AlertSeverity.HIGH, 10, "High speed: {value} km/h"),
+                    new AlertRule("HIGH_SPEED", AlertRule.Metric.SPEED, AlertRule.Operator.GT, 150,
+                            Alert.AlertSeverity.CRITICAL, 20, "High speed: {value} km/h")));
+            logger.info("Seeded default alert rules");
+        }
+        // RATE thresholds are the change over the window, so a fuel drop is a negative bound
+        if (!alertRuleRepository.existsByWindowSecondsIsNotNull()) {
+            alertRuleRepository.saveAll(List.of(
+                    new AlertRule("SUSTAINED_HIGH_SPEED", AlertRule.Metric.SPEED, AlertRule.Operator.GT, 120,
+                            Alert.AlertSeverity.HIGH, 15, "Speed above 120 km/h for 30s: {value} km/h",
+                            AlertRule.Condition.SUSTAINED, 30),
+                    new AlertRule("TEMPERATURE_RISE", AlertRule.Metric.TEMPERATURE, AlertRule.Operator.GT, 5,
+                            Alert.AlertSeverity.MEDIUM, 0, "Temperature rose {value}°C within 1 min",
+                            AlertRule.Condition.RATE, 60),
+                    new AlertRule("FUEL_DROP", AlertRule.Metric.FUEL, AlertRule.Operator.LT, -10,
+                            Alert.AlertSeverity.HIGH, 0, "Fuel level changed by {value}% within 1 min",
+                            AlertRule.Condition.RATE, 60)));
+            logger.info("Seeded default windowed alert rules");
+        }
+    }
+
+    // Immutable view of one compiled rule
+    public static final class Rule {
+        private final Long id;
+        private final String type;
+        private final AlertRule.Metric metric;
+        private final AlertRule.Operator operator;
+        private final int threshold;
+        private final Alert.AlertSeverity severity;
+        private final int fineAmount;
+        private final String messageTemplate;
+        private final AlertRule.Condition condition;
+        private final int windowSeconds;
+
+        Rule(AlertRule rule) {
+            this.id = rule.getId();
+            this.type = rule.getType();
+            this.metric = rule.getMetric();
+            this.operator = rule.getOperator();
+            this.threshold = rule.getThreshold();
+            this.severity = rule.getSeverity();
+            this.fineAmount = rule.getFineAmount() != null ? rule.getFineAmount() : 0;
+            this.messageTemplate = rule.getMessageTemplate() != null ? rule.getMessageTemplate()
+                    : rule.getType() + ": {value}";
+            this.condition = rule.getCondition();
+            this.windowSeconds = rule.getWindowSeconds() != null ? rule.getWindowSeconds() : 0;
+        }
+
+        public String message(int value) {
+            return messageTemplate.replace("{value}", Integer.toString(value));
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public AlertRule.Metric getMetric() {
+            return metric;
+        }
+
+        public AlertRule.Operator getOperator() {
+            return operator;
+        }
+
+        public int getThreshold() {
+            return threshold;
+        }
+
+        public Alert.AlertSeverity getSeverity() {
+            return severity;
+        }
+
+        public int getFineAmount() {
+            return fineAmount;
+        }
+
+        public AlertRule.Condition getCondition() {
+            return condition;
+        }
+
+        public int getWindowSeconds() {
+            return windowSeconds;
+        }
+    }
+
+    // Reusable result of one evaluation
+    public static final class Matches {
+        private Rule[] rules = new Rule[0];
+        private int[] ruleIndex = new int[8];
+        private int[] values = new int[8];
+        private int size;
+
+        public int size() {
+            return size;
+        }
+
+        public Rule rule(int i) {
+            return rules[ruleIndex[i]];
+        }
+
+        public int value(int i) {
+            return values[i];
+        }
+
+        void reset(Rule[] rules, int capacity) {
+            this.rules = rules;
+            this.size = 0;
+            if (ruleIndex.length < capacity) {
+                ruleIndex = new int[capacity];
+                values = new int[capacity];
+            }
+        }
+
+        void add(int index, int value) {
+            ruleIndex[size] = index;
+            values[size] = value;
+            size++;
+        }
+    }
+
+    /**
+     * Recent samples of one car in a ring indexed by sample sequence, plus the
+     * per-rule state of the compiled rule set it was last evaluated against.
+     */
+    private static final class CarWindow {
+        final int capacity;
+        final long[] timestamps;
+        // Indexed by metric ordinal, then ring slot
+        final int[][] series;
+        // Sequence of the next sample; the newest is next - 1
+        long next;
+
+        CompiledRules rules;
+        // RATE: sequence of the oldest sample inside the window
+        long[] cursor;
+        // SUSTAINED: timestamp the comparison started holding, or -1
+        long[] holdingSince;
+        // Value the rule compared on the last sample (the change, for RATE)
+        int[] observed;
+
+        CarWindow(int capacity) {
+            this.capacity = Math.max(2, capacity);
+            this.timestamps = new long[this.capacity];
+            this.series = new int[AlertRule.Metric.values().length][this.capacity];
+        }
+
+        // Reset per-rule state after the rules were recompiled; samples are kept
+        void bind(CompiledRules compiled) {
+            if (rules == compiled) {
+                return;
+            }
+            rules = compiled;
+            cursor = new long[compiled.size()];
+            holdingSince = new long[compiled.size()];
+            Arrays.fill(holdingSince, -1L);
+            observed = new int[compiled.size()];
+        }
+
+        void append(long timestampMs, int speed, int fuel, int temperature) {
+            int slot = (int) (next % capacity);
+            timestamps[slot] = timestampMs;
+            series[CompiledRules.SPEED][slot] = speed;
+            series[CompiledRules.FUEL][slot] = fuel;
+            series[CompiledRules.TEMPERATURE][slot] = temperature;
+            next++;
+        }
+
+        long oldest() {
+            return Math.max(0, next - capacity);
+        }
+
+        long timestampAt(long sequence) {
+            return timestamps[(int) (sequence % capacity)];
+        }
+
+        int valueAt(int metric, long sequence) {
+            return series[metric][(int) (sequence % capacity)];
+        }
+    }
+
+    private static final class CompiledRules {
+        private static final int GT = AlertRule.Operator.GT.ordinal();
+        private static final int GTE = AlertRule.Operator.GTE.ordinal();
+        private static final int LT = AlertRule.Operator.LT.ordinal();
+        private static final int LTE = AlertRule.Operator.LTE.ordinal();
+        private static final int SPEED = AlertRule.Metric.SPEED.ordinal();
+        private static final int FUEL = AlertRule.Metric.FUEL.ordinal();
+        private static final int TEMPERATURE = AlertRule.Metric.TEMPERATURE.ordinal();
+        private static final int THRESHOLD = AlertRule.Condition.THRESHOLD.ordinal();
+        private static final int SUSTAINED = AlertRule.Condition.SUSTAINED.ordinal();
+
+        final Rule[] rules;
+        final int[] metric;
+        final int[] operator;
+        final int[] threshold;
+        final int[] condition;
+        final long[] windowMs;
+        // Whether any rule needs per-car history
+        final boolean windowed;
+        // Rules [groupStart[g], groupStart[g + 1]) share one alert type, most severe first
+        final int[] groupStart;
+        final int groupCount;
+        final Map<String, Integer> groupByType = new HashMap<>();
+
+        private CompiledRules(Rule[] rules, int[] groupStart, int groupCount) {
+            this.rules = rules;
+            this.groupStart = groupStart;
+            this.groupCount = groupCount;
+            for (int g = 0; g < groupCount; g++) {
+                groupByType.put(rules[groupStart[g]].type, g);
+            }
+            this.metric = new int[rules.length];
+            this.operator = new int[rules.length];
+            this.threshold = new int[rules.length];
+            this.condition = new int[rules.length];
+            this.windowMs = new long[rules.length];
+            boolean anyWindowed = false;
+            for (int i = 0; i < rules.length; i++) {
+                metric[i] = rules[i].metric.ordinal();
+                operator[i] = rules[i].operator.ordinal();
+                threshold[i] = rules[i].threshold;
+                condition[i] = rules[i].condition.ordinal();
+                windowMs[i] = rules[i].windowSeconds * 1000L;
+                anyWindowed |= condition[i] != THRESHOLD;
+            }
+            this.windowed = anyWindowed;
+        }
+
+        static CompiledRules compile(List<AlertRule> source) {
+            List<Rule> sorted = new ArrayList<>();
+            for (AlertRule rule : source) {
+                if (rule.getMetric() != null && rule.getOperator() != null && rule.getThreshold() != null
+                        && rule.getSeverity() != null && rule.getType() != null
+                        && (rule.getCondition() == AlertRule.Condition.THRESHOLD
+                                || (rule.getWindowSeconds() != null && rule.getWindowSeconds() > 0))) {
+                    sorted.add(new Rule(rule));
+                }
+            }
+            sorted.sort(Comparator.comparing((Rule r) -> r.type)
+                    .thenComparing(r -> r.severity, Comparator.reverseOrder()));
+            Rule[] rules = sorted.toArray(new Rule[0]);
+            int[] groupStart = new int[rules.length + 1];
+            int groups = 0;
+            for (int i = 0; i < rules.length; i++) {
+                if (i == 0 || !rules[i].type.equals(rules[i - 1].type)) {
+                    groupStart[groups++] = i;
+                }
+            }
+            groupStart[groups] = rules.length;
+            return new CompiledRules(rules, Arrays.copyOf(groupStart, groups + 1), groups);
+        }
+
+        int size() {
+            return rules.length;
+        }
+
+        boolean isClear(String type, int speed, int fuel, int temperature, CarWindow window, int margin) {
+            Integer group = groupByType.get(type);
+            if (group == null) {
+                return true;
+            }
+            // Least severe rule of the group is the raise boundary
+            int i = groupStart[group + 1] - 1;
+            int value;
+            if (condition[i] == THRESHOLD) {
+                value = metric[i] == SPEED ? speed : metric[i] == FUEL ? fuel : temperature;
+            } else if (window != null) {
+                value = window.observed[i];
+            } else {
+                return true;
+            }
+            if (operator[i] == GT || operator[i] == GTE) {
+                return value <= threshold[i] - margin;
+            }
+            return value >= threshold[i] + margin;
+        }
+
+        // Windowed rules are skipped when window is null; otherwise every one is stepped so its state stays current
+        void evaluate(int speed, int fuel, int temperature, CarWindow window, long now, Matches out) {
+            out.reset(rules, groupCount);
+            for (int g = 0; g < groupCount; g++) {
+                int matched = -1;
+                int matchedValue = 0;
+                for (int i = groupStart[g]; i < groupStart[g + 1]; i++) {
+                    int value = metric[i] == SPEED ? speed : metric[i] == FUEL ? fuel : temperature;
+                    boolean hit;
+                    if (condition[i] == THRESHOLD) {
+                        if (matched >= 0 && window == null) {
+                            break;
+                        }
+                        hit = test(operator[i], value, threshold[i]);
+                    } else if (window == null) {
+                        continue;
+                    } else if (condition[i] == SUSTAINED) {
+                        hit = stepSustained(i, value, window, now);
+                    } else {
+                        value = stepRate(i, value, window, now);
+                        hit = test(operator[i], value, threshold[i]);
+                    }
+                    if (hit && matched < 0) {
+                        matched = i;
+                        matchedValue = value;
+                    }
+                }
+                if (matched >= 0) {
+                    out.add(matched, matchedValue);
+                }
+            }
+        }
+
+        // Holds once every sample for the last windowMs matched; a gap longer than the window restarts it
+        private boolean stepSustained(int i, int value, CarWindow window, long now) {
+            window.observed[i] = value;
+            if (!test(operator[i], value, threshold[i])) {
+                window.holdingSince[i] = -1L;
+                return false;
+            }
+            long previous = window.next >= 2 ? window.timestampAt(window.next - 2) : now;
+            if (window.holdingSince[i] < 0 || now - previous > windowMs[i]) {
+                window.holdingSince[i] = now;
+            }
+            return now - window.holdingSince[i] >= windowMs[i];
+        }
+
+        // Change since the oldest sample still inside the window; the cursor only moves forward
+        private int stepRate(int i, int value, CarWindow window, long now) {
+            long newest = window.next - 1;
+            long cursor = Math.max(window.cursor[i], window.oldest());
+            while (cursor < newest && now - window.timestampAt(cursor) > windowMs[i]) {
+                cursor++;
+            }
+            window.cursor[i] = cursor;
+            int change = cursor < newest ? value - window.valueAt(metric[i], cursor) : 0;
+            window.observed[i] = change;
+            return change;
+        }
+
+        private static boolean test(int operator, int value, int threshold) {
+            if (operator == GT) {
+                return value > threshold;
+            }
+            if (operator == GTE) {
+                return value >= threshold;
+            }
+            if (operator == LT) {
+                return value < threshold;
+            }
+            return operator == LTE && value <= threshold;
+        }
+    }
+}
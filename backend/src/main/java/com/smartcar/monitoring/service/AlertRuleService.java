@@ -0,0 +1,94 @@
+// AlertRuleService.java
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.AlertRuleDto;
+import com.smartcar.monitoring.exception.AlertRuleNotFoundException;
+import com.smartcar.monitoring.model.AlertRule;
+import com.smartcar.monitoring.repository.AlertRuleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Transactional
+public class AlertRuleService {
+
+    @Autowired
+    private AlertRuleRepository alertRuleRepository;
+
+    @Autowired
+    private AlertRuleEngine alertRuleEngine;
+
+    // Get all rules, including deactivated ones
+    public List<AlertRule> getAllRules() {
+        return alertRuleRepository.findAll();
+    }
+
+    // Get rule by ID
+    public AlertRule getRuleById(Long id) {
+        return alertRuleRepository.findById(id)
+                .orElseThrow(() -> new AlertRuleNotFoundException("Alert rule not found with ID: " + id));
+    }
+
+    // Create new rule
+    public AlertRule createRule(AlertRuleDto dto) {
+        AlertRule rule = new AlertRule();
+        apply(rule, dto);
+        AlertRule saved = alertRuleRepository.save(rule);
+        reloadAfterCommit();
+        return saved;
+    }
+
+    // Update rule
+    public AlertRule updateRule(Long id, AlertRuleDto dto) {
+        AlertRule rule = getRuleById(id);
+        apply(rule, dto);
+        rule.setLastUpdateOn(LocalDateTime.now());
+        AlertRule saved = alertRuleRepository.save(rule);
+        reloadAfterCommit();
+        return saved;
+    }
+
+    // Soft delete rule
+    public void deactivateRule(Long id) {
+        AlertRule rule = getRuleById(id);
+        rule.setIsActive(false);
+        rule.setLastUpdateOn(LocalDateTime.now());
+        alertRuleRepository.save(rule);
+        reloadAfterCommit();
+    }
+
+    private void apply(AlertRule rule, AlertRuleDto dto) {
+        AlertRule.Condition condition = dto.getCondition() != null ? dto.getCondition() : AlertRule.Condition.THRESHOLD;
+        if (condition != AlertRule.Condition.THRESHOLD && dto.getWindowSeconds() == null) {
+            throw new IllegalArgumentException(condition + " rules require windowSeconds");
+        }
+        rule.setType(dto.getType().toUpperCase());
+        rule.setMetric(dto.getMetric());
+        rule.setOperator(dto.getOperator());
+        rule.setThreshold(dto.getThreshold());
+        rule.setSeverity(dto.getSeverity());
+        rule.setFineAmount(dto.getFineAmount() != null ? dto.getFineAmount() : 0);
+        rule.setMessageTemplate(dto.getMessageTemplate());
+        rule.setCondition(condition);
+        rule.setWindowSeconds(condition == AlertRule.Condition.THRESHOLD ? null : dto.getWindowSeconds());
+        if (dto.getIsActive() != null) {
+            rule.setIsActive(dto.getIsActive());
+        }
+    }
+
+    // Recompile once the change is visible to the engine's own read
+    private void reloadAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                alertRuleEngine.reload();
+            }
+        });
+    }
+}
@@ -5,9 +5,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.smartcar.monitoring.dto.AlertDto;
+import com.smartcar.monitoring.dto.CursorPageDto;
 import com.smartcar.monitoring.exception.AlertNotFoundException;
 import com.smartcar.monitoring.model.Alert;
 import com.smartcar.monitoring.model.Alert.AlertSeverity;
@@ -22,6 +26,17 @@ public class AlertService {
     @Autowired
     private AlertRepository alertRepository;
 
+    @Autowired
+    private TripStatsTracker tripStatsTracker;
+
+    @Autowired
+    private AlertStatsService alertStatsService;
+
+    // Lazy: the tracker creates its rows through this service
+    @Autowired
+    @Lazy
+    private AlertStateTracker alertStateTracker;
+
     // Create new alert
     public Alert createAlert(Car car, String type, String severity, String message) {
         return createAlert(car, null, type, severity, message);
@@ -29,6 +44,11 @@ public class AlertService {
 
     // Create new alert with trip
     public Alert createAlert(Car car, Trip trip, String type, String severity, String message) {
+        return createAlert(car, trip, type, severity, message, null);
+    }
+
+    // Create new alert with trip and the value that triggered it
+    public Alert createAlert(Car car, Trip trip, String type, String severity, String message, Integer value) {
         Alert alert = new Alert();
         alert.setCar(car);
         alert.setTrip(trip);
@@ -39,8 +59,16 @@ public class AlertService {
         alert.setCreationDate(LocalDateTime.now());
         alert.setLastUpdateOn(LocalDateTime.now());
         alert.setIsActive(true);
-
-        return alertRepository.save(alert);
+        alert.setOccurrenceCount(1);
+        alert.setPeakValue(value);
+        alert.setLastSeenAt(alert.getTimestamp());
+
+        Alert saved = alertRepository.save(alert);
+        alertStatsService.transition(null, AlertStatsService.keyOf(saved));
+        if (trip != null) {
+            tripStatsTracker.recordAlert(trip.getId(), saved.getSeverity() == AlertSeverity.CRITICAL);
+        }
+        return saved;
     }
 
     // Get alert by ID
@@ -99,6 +127,18 @@ public class AlertService {
         return alertRepository.findCriticalAlerts();
     }
 
+    // Get one keyset page of active alerts, newest first; null filters are ignored
+    @Transactional(readOnly = true)
+    public CursorPageDto<AlertDto> getAlertsPage(AlertSeverity severity, String type, Long carId,
+            Boolean acknowledged, boolean activeCarsOnly, LocalDateTime from, LocalDateTime to, String cursor,
+            int limit) {
+        CursorPageDto.Cursor before = CursorPageDto.decodeCursor(cursor, CursorPageDto.FIRST_DESC);
+        int size = CursorPageDto.clampLimit(limit);
+        List<Alert> rows = alertRepository.findPage(severity, type, carId, acknowledged, activeCarsOnly, from, to,
+                before.getTimestamp(), before.getId(), PageRequest.of(0, size + 1));
+        return CursorPageDto.fromRows(rows, size, AlertDto::new, Alert::getTimestamp, Alert::getId);
+    }
+
     // Get alerts by car and severity
     public List<Alert> getAlertsByCarAndSeverity(Long carId, AlertSeverity severity) {
         return alertRepository.findByCarIdAndSeverityAndIsActiveTrue(carId, severity);
@@ -112,47 +152,66 @@ public class AlertService {
     // Acknowledge alert
     public Alert acknowledgeAlert(Long id) {
         Alert alert = getAlertById(id);
+        AlertStatsService.Key before = AlertStatsService.keyOf(alert);
         alert.setAcknowledged(true);
         alert.setLastUpdateOn(LocalDateTime.now());
-        return alertRepository.save(alert);
-    }
-
-    // Acknowledge all active alerts
-    public void acknowledgeAllAlerts() {
-        List<Alert> alerts = alertRepository.findByAcknowledgedFalseAndIsActiveTrue();
-        for (Alert alert : alerts) {
-            alert.setAcknowledged(true);
-            alert.setLastUpdateOn(LocalDateTime.now());
-        }
-        alertRepository.saveAll(alerts);
+        Alert saved = alertRepository.save(alert);
+        alertStatsService.transition(before, AlertStatsService.keyOf(saved));
+        alertStateTracker.forget(List.of(id));
+        return saved;
     }
 
     // Update alert
     public Alert updateAlert(Long id, Alert alertDetails) {
         Alert alert = getAlertById(id);
+        AlertStatsService.Key before = AlertStatsService.keyOf(alert);
 
         alert.setType(alertDetails.getType());
         alert.setSeverity(alertDetails.getSeverity());
         alert.setAcknowledged(alertDetails.getAcknowledged());
         alert.setLastUpdateOn(LocalDateTime.now());
 
-        return alertRepository.save(alert);
+        Alert saved = alertRepository.save(alert);
+        alertStatsService.transition(before, AlertStatsService.keyOf(saved));
+        if (Boolean.TRUE.equals(saved.getAcknowledged())) {
+            alertStateTracker.forget(List.of(id));
+        }
+        return saved;
+    }
+
+    // Record the deduplicated state of an open alert: severity, occurrences, peak, and whether it cleared
+    public Alert updateAlertState(Long id, AlertSeverity severity, int occurrenceCount, Integer peakValue,
+            LocalDateTime lastSeenAt, LocalDateTime clearedAt) {
+        Alert alert = getAlertById(id);
+        AlertStatsService.Key before = AlertStatsService.keyOf(alert);
+        alert.setSeverity(severity);
+        alert.setOccurrenceCount(occurrenceCount);
+        alert.setPeakValue(peakValue);
+        alert.setLastSeenAt(lastSeenAt);
+        alert.setClearedAt(clearedAt);
+        alert.setLastUpdateOn(LocalDateTime.now());
+        Alert saved = alertRepository.save(alert);
+        alertStatsService.transition(before, AlertStatsService.keyOf(saved));
+        return saved;
     }
 
     // Soft delete alert
     public void deactivateAlert(Long id) {
         Alert alert = getAlertById(id);
+        AlertStatsService.Key before = AlertStatsService.keyOf(alert);
         alert.setIsActive(false);
         alert.setLastUpdateOn(LocalDateTime.now());
-        alertRepository.save(alert);
+        alertStatsService.transition(before, AlertStatsService.keyOf(alertRepository.save(alert)));
+        alertStateTracker.forget(List.of(id));
     }
 
     // Reactivate alert
     public void reactivateAlert(Long id) {
         Alert alert = getAlertById(id);
+        AlertStatsService.Key before = AlertStatsService.keyOf(alert);
         alert.setIsActive(true);
         alert.setLastUpdateOn(LocalDateTime.now());
-        alertRepository.save(alert);
+        alertStatsService.transition(before, AlertStatsService.keyOf(alertRepository.save(alert)));
     }
 
     // Count alerts by car
@@ -0,0 +1,416 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.model.Alert;
+import com.smartcar.monitoring.model.Alert.AlertSeverity;
+import com.smartcar.monitoring.model.AlertRule;
+import com.smartcar.monitoring.model.Car;
+import com.smartcar.monitoring.model.Trip;
+import com.smartcar.monitoring.repository.AlertRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.BiPredicate;
+
+/**
+ * Per (car, trip, alert type) state machine in front of the alerts table. A
+ * rule match opens one alert row; further matches only bump its occurrence
+ * count and peak in memory (flushed periodically), a more severe match
+ * escalates it, and it closes once the value has been back past the threshold
+ * by a margin for several consecutive samples. A condition that returns within
+ * the cooldown reopens the same row instead of raising a new one.
+ *
+ * <p>State changes are decided under the car's lock; the database writes and
+ * listener callbacks they cause run after the lock is released. Each write
+ * carries a copy of the state taken under the lock and a per-alert version;
+ * writes of one alert are serialized and a copy older than the last one
+ * stored is skipped, so a slow write cannot overwrite newer state. Listeners
+ * get that copy, never the row shared with other threads. An alert that
+ * is acknowledged, deactivated or belongs to an ended trip is forgotten, so
+ * the next match raises a new row. Open rows are loaded back at startup.
+ */
+@Service
+public class AlertStateTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertStateTracker.class);
+
+    // Side effects owned by the caller (broadcasts, fines)
+    public interface Listener {
+        default void raised(Alert alert, AlertRuleEngine.Rule rule) {
+        }
+
+        default void escalated(Alert alert, AlertRuleEngine.Rule rule) {
+        }
+
+        default void updated(Alert alert) {
+        }
+
+        default void cleared(Alert alert) {
+        }
+    }
+
+    private static final Listener NO_OP = new Listener() {
+    };
+
+    @Autowired
+    private AlertRuleEngine alertRuleEngine;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Value("${alerts.dedup.clear-margin:5}")
+    private int clearMargin;
+
+    @Value("${alerts.dedup.clear-samples:3}")
+    private int clearSamples;
+
+    @Value("${alerts.dedup.cooldown-ms:60000}")
+    private long cooldownMs;
+
+    private final Map<Long, CarAlerts> alertsByCar = new ConcurrentHashMap<>();
+
+    private final AtomicLong raised = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong escalated = new AtomicLong();
+    private final AtomicLong reopened = new AtomicLong();
+    private final AtomicLong cleared = new AtomicLong();
+    private final AtomicLong forgotten = new AtomicLong();
+    private final AtomicLong restored = new AtomicLong();
+    private final AtomicLong supersededWrites = new AtomicLong();
+
+    // Run one sample through the rules and the per-type state machines of its car
+    public void process(Car car, Trip trip, int speed, int fuel, int temperature, Listener listener) {
+        Listener events = listener != null ? listener : NO_OP;
+        Long tripId = trip != null ? trip.getId() : null;
+        CarAlerts carAlerts = alertsByCar.computeIfAbsent(car.getId(), id -> new CarAlerts());
+        List<Runnable> writes = new ArrayList<>();
+        synchronized (carAlerts) {
+            long sample = ++carAlerts.sequence;
+            long now = System.currentTimeMillis();
+
+            AlertRuleEngine.Matches matches = alertRuleEngine.evaluate(car.getId(), now, speed, fuel,
+                    temperature);
+            for (int i = 0; i < matches.size(); i++) {
+                onMatch(car, trip, new AlertKey(tripId, matches.rule(i).getType()), carAlerts, sample, now,
+                        matches.rule(i), matches.value(i), events, writes);
+            }
+
+            for (OpenAlert open : carAlerts.byKey.values()) {
+                if (open.closed || open.lastMatchedSample == sample) {
+                    continue;
+                }
+                if (alertRuleEngine.isClear(car.getId(), open.type, speed, fuel, temperature, clearMargin)) {
+                    if (++open.clearStreak >= clearSamples) {
+                        open.closed = true;
+                        open.closedAtMs = now;
+                        open.dirty = true;
+                        cleared.incrementAndGet();
+                        writes.add(write(carAlerts, open, events::cleared));
+                    }
+                } else {
+                    open.clearStreak = 0;
+                }
+            }
+        }
+        run(writes);
+    }
+
+    private void onMatch(Car car, Trip trip, AlertKey key, CarAlerts carAlerts, long sample, long now,
+            AlertRuleEngine.Rule rule, int value, Listener events, List<Runnable> writes) {
+        OpenAlert open = carAlerts.byKey.get(key);
+        if (open == null || (open.closed && now - open.closedAtMs >= cooldownMs)) {
+            OpenAlert created = new OpenAlert(key.type, rule.getSeverity(), rule.getOperator() == AlertRule.Operator.GT
+                    || rule.getOperator() == AlertRule.Operator.GTE, value, now);
+            created.lastMatchedSample = sample;
+            carAlerts.byKey.put(key, created);
+            raised.incrementAndGet();
+            writes.add(() -> raise(carAlerts, key, created, car, trip, rule, value, events));
+            return;
+        }
+
+        open.lastMatchedSample = sample;
+        open.clearStreak = 0;
+        open.occurrences++;
+        open.peak = open.higherIsWorse ? Math.max(open.peak, value) : Math.min(open.peak, value);
+        open.lastSeenMs = now;
+        open.dirty = true;
+
+        if (open.closed) {
+            open.closed = false;
+            reopened.incrementAndGet();
+            writes.add(write(carAlerts, open, events::updated));
+        } else if (rule.getSeverity().compareTo(open.severity) > 0) {
+            open.severity = rule.getSeverity();
+            escalated.incrementAndGet();
+            writes.add(write(carAlerts, open, alert -> events.escalated(alert, rule)));
+        } else {
+            deduplicated.incrementAndGet();
+        }
+    }
+
+    // Insert the row of a newly opened alert; state gathered meanwhile is written by the next flush
+    private void raise(CarAlerts carAlerts, AlertKey key, OpenAlert open, Car car, Trip trip,
+            AlertRuleEngine.Rule rule, int value, Listener events) {
+        Alert alert;
+        try {
+            alert = alertService.createAlert(car, trip, rule.getType(), rule.getSeverity().toString(),
+                    rule.message(value), value);
+        } catch (RuntimeException e) {
+            synchronized (carAlerts) {
+                carAlerts.byKey.remove(key, open);
+            }
+            throw e;
+        }
+        synchronized (carAlerts) {
+            open.alert = alert;
+        }
+        events.raised(alert, rule);
+    }
+
+    /**
+     * Captures the alert's current state under the car lock and returns the
+     * write that stores it. While the row is still being inserted there is
+     * nothing to write to yet; the state stays dirty for the next flush.
+     */
+    private Runnable write(CarAlerts carAlerts, OpenAlert open, Consumer<Alert> event) {
+        if (open.alert == null) {
+            return () -> {
+            };
+        }
+        long version = ++open.version;
+        Alert snapshot = snapshot(open);
+        open.dirty = false;
+        return () -> {
+            synchronized (open.writeLock) {
+                if (version > open.writtenVersion) {
+                    try {
+                        alertService.updateAlertState(snapshot.getId(), snapshot.getSeverity(),
+                                snapshot.getOccurrenceCount(), snapshot.getPeakValue(), snapshot.getLastSeenAt(),
+                                snapshot.getClearedAt());
+                    } catch (RuntimeException e) {
+                        synchronized (carAlerts) {
+                            open.dirty = true;
+                        }
+                        throw e;
+                    }
+                    open.writtenVersion = version;
+                } else {
+                    // A newer state of this alert is already stored
+                    supersededWrites.incrementAndGet();
+                }
+            }
+            event.accept(snapshot);
+        };
+    }
+
+    // Detached copy of the row carrying the tracked state, for the write and the listeners
+    private static Alert snapshot(OpenAlert open) {
+        Alert row = open.alert;
+        Alert snapshot = new Alert(row.getCar(), row.getType(), open.severity);
+        snapshot.setId(row.getId());
+        snapshot.setTrip(row.getTrip());
+        snapshot.setTimestamp(row.getTimestamp());
+        snapshot.setAcknowledged(row.getAcknowledged());
+        snapshot.setIsActive(row.getIsActive());
+        snapshot.setCreationDate(row.getCreationDate());
+        snapshot.setOccurrenceCount(open.occurrences);
+        snapshot.setPeakValue(open.peak);
+        snapshot.setLastSeenAt(toLocal(open.lastSeenMs));
+        snapshot.setClearedAt(open.closed ? toLocal(open.closedAtMs) : null);
+        return snapshot;
+    }
+
+    private static void run(List<Runnable> writes) {
+        for (Runnable write : writes) {
+            try {
+                write.run();
+            } catch (Exception e) {
+                logger.error("Failed to write alert state", e);
+            }
+        }
+    }
+
+    // Write pending occurrence counts and peaks, and forget alerts closed longer than the cooldown
+    @Scheduled(fixedDelayString = "${alerts.dedup.flush-ms:10000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (CarAlerts carAlerts : alertsByCar.values()) {
+            List<Runnable> writes = new ArrayList<>();
+            synchronized (carAlerts) {
+                Iterator<OpenAlert> it = carAlerts.byKey.values().iterator();
+                while (it.hasNext()) {
+                    OpenAlert open = it.next();
+                    if (open.dirty && open.alert != null) {
+                        writes.add(write(carAlerts, open, alert -> {
+                        }));
+                    }
+                    if (open.closed && now - open.closedAtMs >= cooldownMs) {
+                        it.remove();
+                    }
+                }
+            }
+            run(writes);
+        }
+    }
+
+    // Stop tracking alerts that were acknowledged or deactivated; the next match raises a new row
+    public void forget(Collection<Long> alertIds) {
+        if (alertIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(alertIds);
+        removeIf((key, open) -> open.alert != null && ids.contains(open.alert.getId()));
+    }
+
+    // Stop tracking the alerts of an ended trip
+    public void forgetTrip(Long tripId) {
+        if (tripId != null) {
+            removeIf((key, open) -> tripId.equals(key.tripId()));
+        }
+    }
+
+    private void removeIf(BiPredicate<AlertKey, OpenAlert> condition) {
+        for (CarAlerts carAlerts : alertsByCar.values()) {
+            synchronized (carAlerts) {
+                Iterator<Map.Entry<AlertKey, OpenAlert>> it = carAlerts.byKey.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<AlertKey, OpenAlert> entry = it.next();
+                    if (condition.test(entry.getKey(), entry.getValue())) {
+                        it.remove();
+                        forgotten.incrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
+    // Load open and recently cleared rows so a restart does not raise duplicates of them
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        try {
+            Map<String, Boolean> higherIsWorse = new HashMap<>();
+            for (AlertRuleEngine.Rule rule : alertRuleEngine.getCompiledRules()) {
+                higherIsWorse.putIfAbsent(rule.getType(), rule.getOperator() == AlertRule.Operator.GT
+                        || rule.getOperator() == AlertRule.Operator.GTE);
+            }
+            LocalDateTime clearedSince = toLocal(System.currentTimeMillis() - cooldownMs);
+            for (Alert alert : alertRepository.findTrackedAlerts(clearedSince)) {
+                Long tripId = alert.getTrip() != null ? alert.getTrip().getId() : null;
+                CarAlerts carAlerts = alertsByCar.computeIfAbsent(alert.getCar().getId(), id -> new CarAlerts());
+                OpenAlert open = OpenAlert.restore(alert, higherIsWorse.getOrDefault(alert.getType(), true));
+                synchronized (carAlerts) {
+                    // Oldest first, so the newest row of a key wins
+                    carAlerts.byKey.put(new AlertKey(tripId, alert.getType()), open);
+                }
+                restored.incrementAndGet();
+            }
+            logger.info("Restored {} tracked alerts", restored.get());
+        } catch (Exception e) {
+            logger.error("Failed to restore tracked alerts", e);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        int open = 0;
+        for (CarAlerts carAlerts : alertsByCar.values()) {
+            synchronized (carAlerts) {
+                for (OpenAlert alert : carAlerts.byKey.values()) {
+                    if (!alert.closed) {
+                        open++;
+                    }
+                }
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("openAlerts", open);
+        stats.put("raised", raised.get());
+        stats.put("deduplicated", deduplicated.get());
+        stats.put("escalated", escalated.get());
+        stats.put("reopened", reopened.get());
+        stats.put("cleared", cleared.get());
+        stats.put("forgotten", forgotten.get());
+        stats.put("restored", restored.get());
+        stats.put("supersededWrites", supersededWrites.get());
+        return stats;
+    }
+
+    private static LocalDateTime toLocal(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record AlertKey(Long tripId, String type) {
+    }
+
+    private static final class CarAlerts {
+        long sequence;
+        final Map<AlertKey, OpenAlert> byKey = new HashMap<>();
+    }
+
+    private static final class OpenAlert {
+        final String type;
+        final boolean higherIsWorse;
+        // Row as created, kept so broadcasts carry its loaded car and trip; null until inserted
+        Alert alert;
+        AlertSeverity severity;
+        int occurrences = 1;
+        int peak;
+        long lastSeenMs;
+        long lastMatchedSample;
+        int clearStreak;
+        boolean closed;
+        long closedAtMs;
+        boolean dirty;
+        // Version of the last state captured for a write (under the car lock) and of the last one stored
+        long version;
+        long writtenVersion;
+        final Object writeLock = new Object();
+
+        OpenAlert(String type, AlertSeverity severity, boolean higherIsWorse, int value, long now) {
+            this.type = type;
+            this.severity = severity;
+            this.higherIsWorse = higherIsWorse;
+            this.peak = value;
+            this.lastSeenMs = now;
+        }
+
+        static OpenAlert restore(Alert alert, boolean higherIsWorse) {
+            LocalDateTime lastSeen = alert.getLastSeenAt() != null ? alert.getLastSeenAt() : alert.getTimestamp();
+            OpenAlert open = new OpenAlert(alert.getType(), alert.getSeverity(), higherIsWorse,
+                    alert.getPeakValue() != null ? alert.getPeakValue() : 0, toEpochMillis(lastSeen));
+            open.alert = alert;
+            open.occurrences = alert.getOccurrenceCount() != null ? alert.getOccurrenceCount() : 1;
+            if (alert.getClearedAt() != null) {
+                open.closed = true;
+                open.closedAtMs = toEpochMillis(alert.getClearedAt());
+            }
+            return open;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.DashboardSnapshotDto;
+import com.smartcar.monitoring.model.Alert;
+import com.smartcar.monitoring.model.Alert.AlertSeverity;
+import com.smartcar.monitoring.repository.AlertRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Active alert counts per (severity, acknowledged, type), held in memory so
+ * stats reads never touch the database. The counters are loaded with one
+ * GROUP BY query at startup and on a reconcile interval; in between,
+ * AlertService reports every create, acknowledge, update and (de)activation
+ * as a transition from the alert's old key to its new one, applied after the
+ * transaction commits.
+ *
+ * A reconcile runs its query while transitions keep committing, and a
+ * transition applied after commit cannot tell whether the query saw its
+ * rows. Every transition applied while the query runs is therefore
+ * journaled and replayed onto the fresh counts: one that committed just
+ * before the query started is counted twice until the next reconcile, but
+ * none is lost. Transitions applied before the reconcile starts are already
+ * in the database when it queries. Reconciles run one at a time.
+ */
+@Service
+public class AlertStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertStatsService.class);
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    private final Map<Key, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    // Guards applying transitions against the swap at the end of a reconcile
+    private final Object lock = new Object();
+
+    // Serializes reconciles (startup, schedule)
+    private final Object reconcileLock = new Object();
+
+    // Deltas applied while a reconcile query runs, replayed onto its result; null otherwise
+    private Map<Key, Long> journal;
+
+    private volatile boolean loaded = false;
+
+    private final AtomicLong transitions = new AtomicLong();
+    private final AtomicLong reconciles = new AtomicLong();
+    private final AtomicLong drift = new AtomicLong();
+    private final AtomicLong journaled = new AtomicLong();
+    private volatile long lastReconcileMs;
+
+    // What an active alert is counted under
+    public record Key(AlertSeverity severity, boolean acknowledged, String type) {
+    }
+
+    // Counting key of an alert, or null when it is not active (not counted)
+    public static Key keyOf(Alert alert) {
+        if (alert == null || !Boolean.TRUE.equals(alert.getIsActive()) || alert.getSeverity() == null) {
+            return null;
+        }
+        return new Key(alert.getSeverity(), Boolean.TRUE.equals(alert.getAcknowledged()), alert.getType());
+    }
+
+    // Move one alert from its old key to its new one once the current transaction commits
+    public void transition(Key before, Key after) {
+        transitionAll(before, after, 1);
+    }
+
+    // Move several alerts that shared the same old key (bulk updates), after commit
+    public void transitionAll(Key before, Key after, long count) {
+        if (count <= 0 || (before == null ? after == null : before.equals(after))) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(before, after, count);
+                }
+            });
+        } else {
+            apply(before, after, count);
+        }
+    }
+
+    private void apply(Key before, Key after, long count) {
+        synchronized (lock) {
+            if (before != null) {
+                counts.computeIfAbsent(before, k -> new AtomicLong()).addAndGet(-count);
+            }
+            if (after != null) {
+                counts.computeIfAbsent(after, k -> new AtomicLong()).addAndGet(count);
+            }
+            // A reconcile query is running and may not see this commit: replay onto the fresh counts
+            if (journal != null) {
+                if (before != null) {
+                    journal.merge(before, -count, Long::sum);
+                }
+                if (after != null) {
+                    journal.merge(after, count, Long::sum);
+                }
+                journaled.addAndGet(count);
+            }
+            transitions.addAndGet(count);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to load alert statistics: {}", e.getMessage());
+        }
+    }
+
+    // Replace the counters with a fresh grouped count; corrects drift from writes outside AlertService
+    @Scheduled(fixedDelayString = "${alerts.stats.reconcile-ms:300000}", initialDelayString = "${alerts.stats.reconcile-ms:300000}")
+    public void reconcile() {
+        synchronized (reconcileLock) {
+            long start = System.currentTimeMillis();
+            synchronized (lock) {
+                journal = new HashMap<>();
+            }
+            Map<Key, Long> fresh = new HashMap<>();
+            try {
+                for (Object[] row : alertRepository.countActiveBySeverityAndAcknowledgedAndType()) {
+                    fresh.merge(new Key((AlertSeverity) row[0], Boolean.TRUE.equals(row[1]), (String) row[2]),
+                            ((Number) row[3]).longValue(), Long::sum);
+                }
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    journal = null;
+                }
+                throw e;
+            }
+
+            long diff = 0;
+            synchronized (lock) {
+                // Transitions applied while the query ran may not be in it
+                journal.forEach((key, delta) -> fresh.merge(key, delta, Long::sum));
+                journal = null;
+                for (Key key : counts.keySet()) {
+                    if (!fresh.containsKey(key)) {
+                        diff += Math.abs(counts.remove(key).get());
+                    }
+                }
+                for (Map.Entry<Key, Long> entry : fresh.entrySet()) {
+                    long previous = counts.computeIfAbsent(entry.getKey(), k -> new AtomicLong())
+                            .getAndSet(entry.getValue());
+                    diff += Math.abs(previous - entry.getValue());
+                }
+            }
+            if (loaded && diff > 0) {
+                drift.addAndGet(diff);
+                logger.info("Alert statistics reconciled; corrected {} counts", diff);
+            }
+            loaded = true;
+            reconciles.incrementAndGet();
+            lastReconcileMs = System.currentTimeMillis() - start;
+        }
+    }
+
+    // Total, unacknowledged and CRITICAL active alerts
+    public DashboardSnapshotDto.AlertCounts getCounts() {
+        long total = 0;
+        long unacknowledged = 0;
+        long critical = 0;
+        for (Map.Entry<Key, AtomicLong> entry : counts.entrySet()) {
+            long count = entry.getValue().get();
+            total += count;
+            if (!entry.getKey().acknowledged()) {
+                unacknowledged += count;
+            }
+            if (entry.getKey().severity() == AlertSeverity.CRITICAL) {
+                critical += count;
+            }
+        }
+        return new DashboardSnapshotDto.AlertCounts(total, unacknowledged, critical);
+    }
+
+    // Active alerts per severity
+    public DashboardSnapshotDto.SeverityCounts getSeverityCounts() {
+        Map<AlertSeverity, Long> bySeverity = new EnumMap<>(AlertSeverity.class);
+        counts.forEach((key, count) -> bySeverity.merge(key.severity(), count.get(), Long::sum));
+        return new DashboardSnapshotDto.SeverityCounts(bySeverity.getOrDefault(AlertSeverity.LOW, 0L),
+                bySeverity.getOrDefault(AlertSeverity.MEDIUM, 0L), bySeverity.getOrDefault(AlertSeverity.HIGH, 0L),
+                bySeverity.getOrDefault(AlertSeverity.CRITICAL, 0L));
+    }
+
+    // Non-zero counts per (severity, acknowledged, type)
+    public List<Map<String, Object>> getBreakdown() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        counts.entrySet().stream()
+                .filter(entry -> entry.getValue().get() != 0)
+                .sorted(Comparator.comparing((Map.Entry<Key, AtomicLong> entry) -> entry.getKey().severity())
+                        .thenComparing(entry -> entry.getKey().acknowledged())
+                        .thenComparing(entry -> String.valueOf(entry.getKey().type())))
+                .forEach(entry -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("severity", entry.getKey().severity());
+                    row.put("acknowledged", entry.getKey().acknowledged());
+                    row.put("type", entry.getKey().type());
+                    row.put("count", entry.getValue().get());
+                    rows.add(row);
+                });
+        return rows;
+    }
+
+    // Get counter maintenance statistics
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("keys", counts.size());
+        stats.put("transitions", transitions.get());
+        stats.put("reconciles", reconciles.get());
+        stats.put("correctedDrift", drift.get());
+        stats.put("journaledTransitions", journaled.get());
+        stats.put("lastReconcileMs", lastReconcileMs);
+        return stats;
+    }
+}
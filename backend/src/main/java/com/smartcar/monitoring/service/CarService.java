@@ -1,6 +1,9 @@
 // CarService.java
 package com.smartcar.monitoring.service;
 
+import com.smartcar.monitoring.dto.CarDto;
+import com.smartcar.monitoring.dto.CursorPageDto;
+import com.smartcar.monitoring.dto.TelemetryDto;
 import com.smartcar.monitoring.model.Car;
 import com.smartcar.monitoring.model.Driver;
 import com.smartcar.monitoring.model.Telemetry;
@@ -10,6 +13,7 @@ import com.smartcar.monitoring.repository.TelemetryRepository;
 import com.smartcar.monitoring.exception.CarNotFoundException;
 import com.smartcar.monitoring.exception.DriverNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,6 +37,15 @@ public class CarService {
 	@Autowired
 	private AlertService alertService;
 
+	@Autowired
+	private AlertStateTracker alertStateTracker;
+
+	@Autowired
+	private VehicleStateCache vehicleStateCache;
+
+	@Autowired
+	private MapViewportService mapViewportService;
+
 	// Create new car
 	public Car createCar(Car car) {
 		car.setCreationDate(LocalDateTime.now());
@@ -63,6 +76,16 @@ public class CarService {
 		return carRepository.findByIsActiveTrue();
 	}
 
+	// Get one keyset page of active cars in creation order; null filters are ignored
+	@Transactional(readOnly = true)
+	public CursorPageDto<CarDto> getCarsPage(String status, Boolean assigned, String cursor, int limit) {
+		CursorPageDto.Cursor after = CursorPageDto.decodeCursor(cursor, CursorPageDto.FIRST_ASC);
+		int size = CursorPageDto.clampLimit(limit);
+		List<Car> rows = carRepository.findPage(status, assigned, after.getTimestamp(), after.getId(),
+				PageRequest.of(0, size + 1));
+		return CursorPageDto.fromRows(rows, size, CarDto::new, Car::getCreationDate, Car::getId);
+	}
+
 	// Get cars by driver
 	public List<Car> getCarsByDriver(Long driverId) {
 		return carRepository.findByDriverIdAndIsActiveTrue(driverId);
@@ -118,7 +141,7 @@ public class CarService {
 		telemetry.setFuel(fuelLevel);
 		telemetry.setTemperature(temperature);
 		telemetry.setLocation(location);
-		telemetryRepository.save(telemetry);
+		vehicleStateCache.update(new TelemetryDto(telemetryRepository.save(telemetry)));
 
 		// Check for alerts based on thresholds
 		checkAndCreateAlerts(car);
@@ -181,6 +204,7 @@ public class CarService {
 		car.setIsActive(false);
 		car.setLastUpdateOn(LocalDateTime.now());
 		carRepository.save(car);
+		mapViewportService.remove(id);
 	}
 
 	// Reactivate car
@@ -226,27 +250,8 @@ public class CarService {
 		return carRepository.countByDriverIsNotNullAndIsActiveTrue();
 	}
 
-	// Check and create alerts based on thresholds
+	// Check and create alerts based on thresholds (deduplicated per car and type)
 	private void checkAndCreateAlerts(Car car) {
-		// Check fuel level
-		if (car.getFuelLevel() < 20) {
-			alertService.createAlert(car, "LOW_FUEL",
-					car.getFuelLevel() < 10 ? "CRITICAL" : "HIGH",
-					"Fuel level is critically low: " + car.getFuelLevel() + "%");
-		}
-
-		// Check temperature
-		if (car.getTemperature() > 50) {
-			alertService.createAlert(car, "HIGH_TEMPERATURE",
-					car.getTemperature() > 60 ? "CRITICAL" : "HIGH",
-					"Engine temperature is high: " + car.getTemperature() + "°C");
-		}
-
-		// Check speed
-		if (car.getSpeed() > 120) {
-			alertService.createAlert(car, "HIGH_SPEED",
-					car.getSpeed() > 150 ? "CRITICAL" : "MEDIUM",
-					"Vehicle speed is high: " + car.getSpeed() + " km/h");
-		}
+		alertStateTracker.process(car, null, car.getSpeed(), car.getFuelLevel(), car.getTemperature(), null);
 	}
 }
@@ -0,0 +1,131 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.CarLocationDto;
+import com.smartcar.monitoring.dto.PreEncodedPayload;
+import com.smartcar.monitoring.dto.TelemetryDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conflates live telemetry before it goes out over STOMP. Only the latest
+ * sample per car is kept; on each tick every car that changed is sent in one
+ * batched frame on /topic/telemetry and one on /topic/map/locations, plus its
+ * latest state on the per-car topics. Clients see at most one frame per topic
+ * per tick however fast cars report. Each sample is JSON-encoded once per tick
+ * and embedded as-is in both the batch frame and its car's frame, and nothing
+ * is built for a destination without subscribers.
+ */
+@Service
+public class ConflatingPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConflatingPublisher.class);
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private MapViewportService mapViewportService;
+
+    // When disabled every sample is sent immediately, one message per topic
+    @Value("${websocket.conflation.enabled:true}")
+    private boolean enabled;
+
+    private final Map<Long, TelemetryDto> latestByCar = new ConcurrentHashMap<>();
+
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong carUpdatesSent = new AtomicLong();
+
+    // Queue a sample for the next frame, replacing any unsent sample of the same car
+    public void publishTelemetry(TelemetryDto telemetryDto) {
+        // Viewport subscribers are served from the spatial index on its own tick
+        mapViewportService.record(telemetryDto.getCarId(), telemetryDto.getLocation());
+        if (!enabled) {
+            webSocketService.broadcastTelemetryUpdate(telemetryDto);
+            webSocketService.sendTelemetryToCar(telemetryDto.getCarId(), telemetryDto);
+            webSocketService.broadcastCarLocation(telemetryDto.getCarId(), telemetryDto.getLocation());
+            return;
+        }
+        offered.incrementAndGet();
+        if (latestByCar.put(telemetryDto.getCarId(), telemetryDto) != null) {
+            superseded.incrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedRateString = "${websocket.conflation.flush-ms:250}")
+    public void flush() {
+        if (latestByCar.isEmpty()) {
+            return;
+        }
+        // A sample arriving after its car was taken goes out on the next tick
+        List<TelemetryDto> batch = new ArrayList<>(latestByCar.size());
+        for (Long carId : latestByCar.keySet()) {
+            TelemetryDto latest = latestByCar.remove(carId);
+            if (latest != null) {
+                batch.add(latest);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            // Samples are only encoded for destinations someone is subscribed to
+            boolean toAll = webSocketService.hasSubscribers("/topic/telemetry");
+            boolean toMap = webSocketService.hasSubscribers("/topic/map/locations");
+            List<PreEncodedPayload> encoded = toAll ? new ArrayList<>(batch.size()) : null;
+            List<CarLocationDto> locations = toMap ? new ArrayList<>(batch.size()) : null;
+            for (TelemetryDto telemetry : batch) {
+                Long carId = telemetry.getCarId();
+                boolean toCar = webSocketService.hasSubscribers("/topic/car/" + carId + "/telemetry");
+                if (toAll || toCar) {
+                    PreEncodedPayload payload = webSocketService.preEncode(telemetry);
+                    if (toAll) {
+                        encoded.add(payload);
+                    }
+                    if (toCar) {
+                        webSocketService.sendTelemetryToCar(carId, payload);
+                    }
+                }
+                if (telemetry.getLocation() != null) {
+                    if (toMap) {
+                        locations.add(new CarLocationDto(carId, telemetry.getLocation()));
+                    }
+                    webSocketService.sendCarLocation(carId, telemetry.getLocation());
+                }
+            }
+            if (toAll) {
+                webSocketService.broadcastTelemetryBatch(encoded);
+            }
+            if (toMap && !locations.isEmpty()) {
+                webSocketService.broadcastCarLocations(locations);
+            }
+            frames.incrementAndGet();
+            carUpdatesSent.addAndGet(batch.size());
+        } catch (Exception e) {
+            logger.error("Error flushing conflated telemetry frame", e);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pendingCars", latestByCar.size());
+        stats.put("offered", offered.get());
+        stats.put("superseded", superseded.get());
+        stats.put("frames", frames.get());
+        stats.put("carUpdatesSent", carUpdatesSent.get());
+        return stats;
+    }
+}
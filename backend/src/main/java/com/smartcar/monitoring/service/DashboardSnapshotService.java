@@ -0,0 +1,166 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.AlertDto;
+import com.smartcar.monitoring.dto.CursorPageDto;
+import com.smartcar.monitoring.dto.DashboardSnapshotDto;
+import com.smartcar.monitoring.dto.TelemetryDto;
+import com.smartcar.monitoring.model.Alert.AlertSeverity;
+import com.smartcar.monitoring.model.Car;
+import com.smartcar.monitoring.model.Driver;
+import com.smartcar.monitoring.repository.AlertRepository;
+import com.smartcar.monitoring.repository.CarRepository;
+import com.smartcar.monitoring.repository.DriverRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Cached admin dashboard. The snapshot is rebuilt on a fixed interval with
+ * three queries (active cars, assigned drivers, newest unacknowledged critical
+ * alerts) joined with the in-memory vehicle state and alert counters,
+ * and every reader gets the same instance. Rebuilds pause while nobody has
+ * read the snapshot for the idle window; the next read after that rebuilds
+ * it synchronously.
+ */
+@Service
+public class DashboardSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardSnapshotService.class);
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private VehicleStateCache vehicleStateCache;
+
+    @Autowired
+    private AlertStatsService alertStatsService;
+
+    @Value("${dashboard.snapshot.refresh-ms:5000}")
+    private long refreshMs;
+
+    // Stop rebuilding when the snapshot has not been read for this long
+    @Value("${dashboard.snapshot.idle-ms:60000}")
+    private long idleMs;
+
+    // Newest unacknowledged critical alerts carried in the snapshot
+    @Value("${dashboard.snapshot.critical-limit:50}")
+    private int criticalLimit;
+
+    private volatile DashboardSnapshotDto snapshot;
+    private volatile long builtAt;
+    private volatile long lastReadAt;
+
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong skippedIdle = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long lastBuildMs;
+
+    // Current snapshot; rebuilt first if the scheduler has let it go stale
+    public DashboardSnapshotDto getSnapshot() {
+        reads.incrementAndGet();
+        lastReadAt = System.currentTimeMillis();
+        DashboardSnapshotDto current = snapshot;
+        if (current == null || lastReadAt - builtAt > 2 * refreshMs) {
+            current = rebuild(2 * refreshMs);
+        }
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.snapshot.refresh-ms:5000}")
+    public void refresh() {
+        if (System.currentTimeMillis() - lastReadAt > idleMs) {
+            skippedIdle.incrementAndGet();
+            return;
+        }
+        try {
+            rebuild(0);
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            logger.warn("Dashboard snapshot refresh failed: {}", e.getMessage());
+        }
+    }
+
+    // Rebuild unless another caller already did within maxAgeMs
+    private synchronized DashboardSnapshotDto rebuild(long maxAgeMs) {
+        long start = System.currentTimeMillis();
+        if (snapshot != null && maxAgeMs > 0 && start - builtAt <= maxAgeMs) {
+            return snapshot;
+        }
+        DashboardSnapshotDto built = build();
+        snapshot = built;
+        builtAt = System.currentTimeMillis();
+        lastBuildMs = builtAt - start;
+        rebuilds.incrementAndGet();
+        return built;
+    }
+
+    private DashboardSnapshotDto build() {
+        Map<Long, Car> carsById = new HashMap<>();
+        for (Car car : carRepository.findByIsActiveTrue()) {
+            carsById.put(car.getId(), car);
+        }
+        Map<Long, String> driverNameByCarId = new HashMap<>();
+        for (Driver driver : driverRepository.findByAssignedCarIdIsNotNullAndIsActiveTrue()) {
+            if (driver.getUser() != null) {
+                String name = driver.getUser().getName();
+                driverNameByCarId.put(driver.getAssignedCarId(),
+                        name != null ? name : driver.getUser().getUsername());
+            }
+        }
+
+        List<DashboardSnapshotDto.Vehicle> vehicles = new ArrayList<>();
+        for (TelemetryDto latest : vehicleStateCache.getAll()) {
+            Car car = carsById.get(latest.getCarId());
+            if (car == null) {
+                continue;
+            }
+            vehicles.add(new DashboardSnapshotDto.Vehicle(car.getId(), car.getCarNumber(), car.getCarModel(),
+                    driverNameByCarId.get(car.getId()), car.getStatus(), latest.getLocation(), latest.getSpeed(),
+                    latest.getFuelLevel(), latest.getTemperature(), latest.getTimestamp()));
+        }
+        vehicles.sort(Comparator.comparing(DashboardSnapshotDto.Vehicle::carId));
+
+        CursorPageDto.Cursor first = CursorPageDto.FIRST_DESC;
+        List<AlertDto> criticalUnacknowledged = alertRepository.findPage(AlertSeverity.CRITICAL, null, null, false,
+                false, null, null, first.getTimestamp(), first.getId(), PageRequest.of(0, criticalLimit))
+                .stream().map(AlertDto::new).collect(Collectors.toList());
+
+        return new DashboardSnapshotDto(LocalDateTime.now(), List.copyOf(vehicles),
+                alertStatsService.getCounts(), alertStatsService.getSeverityCounts(),
+                List.copyOf(criticalUnacknowledged));
+    }
+
+    // Get snapshot cache statistics
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("reads", reads.get());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("skippedIdle", skippedIdle.get());
+        stats.put("failures", failures.get());
+        stats.put("lastBuildMs", lastBuildMs);
+        stats.put("ageMs", snapshot != null ? System.currentTimeMillis() - builtAt : null);
+        return stats;
+    }
+}
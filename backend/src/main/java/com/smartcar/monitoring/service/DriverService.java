@@ -1,6 +1,8 @@
 // DriverService.java
 package com.smartcar.monitoring.service;
 
+import com.smartcar.monitoring.dto.CursorPageDto;
+import com.smartcar.monitoring.dto.DriverDto;
 import com.smartcar.monitoring.model.Driver;
 import com.smartcar.monitoring.model.User;
 import com.smartcar.monitoring.repository.DriverRepository;
@@ -8,6 +10,7 @@ import com.smartcar.monitoring.repository.UserRepository;
 import com.smartcar.monitoring.exception.DriverNotFoundException;
 import com.smartcar.monitoring.exception.UserNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -63,6 +66,16 @@ public class DriverService {
         return driverRepository.findByIsActiveTrue();
     }
 
+    // Get one keyset page of active drivers in creation order, optionally by car assignment
+    @Transactional(readOnly = true)
+    public CursorPageDto<DriverDto> getDriversPage(Boolean assigned, String cursor, int limit) {
+        CursorPageDto.Cursor after = CursorPageDto.decodeCursor(cursor, CursorPageDto.FIRST_ASC);
+        int size = CursorPageDto.clampLimit(limit);
+        List<Driver> rows = driverRepository.findPage(assigned, after.getTimestamp(), after.getId(),
+                PageRequest.of(0, size + 1));
+        return CursorPageDto.fromRows(rows, size, DriverDto::new, Driver::getCreationDate, Driver::getId);
+    }
+
     // Get drivers without assigned cars
     public List<Driver> getDriversWithoutCars() {
         return driverRepository.findByAssignedCarIdIsNullAndIsActiveTrue();
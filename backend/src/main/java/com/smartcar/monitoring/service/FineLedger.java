@@ -0,0 +1,215 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.model.FineEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory per-trip fine totals. Alerts accrue fines here instead of
+ * updating the trip row each time; the pending amount of a trip is folded into
+ * trips.additional_fine / total_cost with one UPDATE per flush, and when the
+ * trip stops. Every accrual is also queued as a FineEvent and batch-inserted
+ * into the append-only fine_events table.
+ *
+ * Fines only apply to ACTIVE trips: once a trip is closed (stopped) further
+ * accruals for it are rejected, and the UPDATE only touches ACTIVE rows, so an
+ * amount that slipped in while the trip was stopping is dropped rather than
+ * changing the total of a COMPLETED trip. Rejections are counted.
+ */
+@Service
+public class FineLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(FineLedger.class);
+
+    // total_cost is computed from the old additional_fine plus the same amount, independent of SET order
+    private static final String APPLY_SQL = "UPDATE trips SET total_cost = base_cost + additional_fine + ?, "
+            + "additional_fine = additional_fine + ?, last_update_on = ? WHERE id = ? AND status = 'ACTIVE'";
+
+    // How long a closed trip's id keeps rejecting late accruals
+    private static final Duration CLOSED_TTL = Duration.ofMinutes(10);
+
+    private static final String INSERT_EVENT_SQL = "INSERT INTO fine_events "
+            + "(trip_id, car_id, alert_id, reason, amount, occurred_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // tripId -> amount accrued since the last flush; updated atomically per key with merge/remove
+    private final Map<Long, Long> pendingByTrip = new ConcurrentHashMap<>();
+
+    // tripId -> when it was closed
+    private final Map<Long, LocalDateTime> closedTrips = new ConcurrentHashMap<>();
+
+    private final Queue<FineEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingEventCount = new AtomicInteger();
+
+    private final AtomicLong accrued = new AtomicLong();
+    private final AtomicLong tripUpdates = new AtomicLong();
+    private final AtomicLong eventsWritten = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong rejectedAmount = new AtomicLong();
+
+    // Add a fine to an active trip; visible on the trip row after the next flush
+    public void accrue(Long tripId, Long carId, Long alertId, String reason, int amount) {
+        if (tripId == null || amount <= 0) {
+            return;
+        }
+        if (closedTrips.containsKey(tripId)) {
+            rejected.incrementAndGet();
+            rejectedAmount.addAndGet(amount);
+            logger.debug("Rejected fine of {} for closed trip {}", amount, tripId);
+            return;
+        }
+        pendingByTrip.merge(tripId, (long) amount, Long::sum);
+        pendingEvents.add(new FineEvent(tripId, carId, alertId, reason, BigDecimal.valueOf(amount),
+                LocalDateTime.now()));
+        pendingEventCount.incrementAndGet();
+        accrued.incrementAndGet();
+    }
+
+    // Amount accrued for a trip that is not on its row yet
+    public long getPendingAmount(Long tripId) {
+        return pendingByTrip.getOrDefault(tripId, 0L);
+    }
+
+    @Scheduled(fixedDelayString = "${fines.flush-ms:5000}")
+    public void flush() {
+        for (Long tripId : pendingByTrip.keySet()) {
+            try {
+                flushTrip(tripId);
+            } catch (Exception e) {
+                logger.error("Failed to apply pending fines to trip {}", tripId, e);
+            }
+        }
+        flushEvents();
+    }
+
+    /**
+     * Apply a stopping trip's pending amount and reject fines for it from now
+     * on. Joins the caller's transaction; if that rolls back the trip accepts
+     * fines again.
+     */
+    public void closeTrip(Long tripId) {
+        LocalDateTime now = LocalDateTime.now();
+        closedTrips.values().removeIf(closedAt -> closedAt.isBefore(now.minus(CLOSED_TTL)));
+        closedTrips.put(tripId, now);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        closedTrips.remove(tripId, now);
+                    }
+                }
+            });
+        }
+        flushTrip(tripId);
+    }
+
+    /**
+     * Apply a trip's pending amount to its row. Joins the caller's transaction
+     * when there is one and puts the amount back if that transaction rolls back.
+     */
+    public void flushTrip(Long tripId) {
+        Long amount = pendingByTrip.remove(tripId);
+        if (amount == null) {
+            return;
+        }
+        int rows;
+        try {
+            rows = jdbcTemplate.update(APPLY_SQL, BigDecimal.valueOf(amount), BigDecimal.valueOf(amount),
+                    Timestamp.valueOf(LocalDateTime.now()), tripId);
+        } catch (RuntimeException e) {
+            pendingByTrip.merge(tripId, amount, Long::sum);
+            throw e;
+        }
+        if (rows == 0) {
+            // The trip is no longer ACTIVE (or gone); its total stays as it was stopped with
+            rejected.incrementAndGet();
+            rejectedAmount.addAndGet(amount);
+            logger.warn("Dropped {} in fines accrued for trip {} after it ended", amount, tripId);
+            return;
+        }
+        tripUpdates.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        pendingByTrip.merge(tripId, amount, Long::sum);
+                    }
+                }
+            });
+        }
+    }
+
+    private void flushEvents() {
+        List<FineEvent> batch = new ArrayList<>();
+        FineEvent event;
+        while ((event = pendingEvents.poll()) != null) {
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        pendingEventCount.addAndGet(-batch.size());
+        try {
+            jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, batch, batch.size(), (ps, e) -> {
+                ps.setLong(1, e.getTripId());
+                ps.setLong(2, e.getCarId());
+                ps.setObject(3, e.getAlertId());
+                ps.setString(4, e.getReason());
+                ps.setBigDecimal(5, e.getAmount());
+                ps.setTimestamp(6, Timestamp.valueOf(e.getOccurredAt()));
+            });
+            eventsWritten.addAndGet(batch.size());
+        } catch (Exception e) {
+            logger.error("Failed to write {} fine events, retrying on next flush", batch.size(), e);
+            pendingEvents.addAll(batch);
+            pendingEventCount.addAndGet(batch.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public Map<String, Object> getStatistics() {
+        long pendingAmount = 0;
+        for (Long amount : pendingByTrip.values()) {
+            pendingAmount += amount;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pendingTrips", pendingByTrip.size());
+        stats.put("pendingAmount", pendingAmount);
+        stats.put("pendingEvents", pendingEventCount.get());
+        stats.put("accrued", accrued.get());
+        stats.put("tripUpdates", tripUpdates.get());
+        stats.put("eventsWritten", eventsWritten.get());
+        stats.put("rejected", rejected.get());
+        stats.put("rejectedAmount", rejectedAmount.get());
+        return stats;
+    }
+}
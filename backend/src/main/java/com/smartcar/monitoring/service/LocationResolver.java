@@ -0,0 +1,54 @@
+package com.smartcar.monitoring.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Turns the free-text location reported by cars into coordinates. Accepts a
+ * "lat,lng" pair, or one of the place names the simulator and the map page
+ * use; anything else cannot be placed and is left off the map stream.
+ */
+@Service
+public class LocationResolver {
+
+    private static final Map<String, double[]> PLACES = Map.ofEntries(
+            Map.entry("Shivajinagar, Pune", new double[] { 18.5308, 73.8475 }),
+            Map.entry("Kothrud, Pune", new double[] { 18.5074, 73.8077 }),
+            Map.entry("Hinjewadi, Pune", new double[] { 18.5913, 73.7389 }),
+            Map.entry("Viman Nagar, Pune", new double[] { 18.5679, 73.9143 }),
+            Map.entry("Kalyani Nagar, Pune", new double[] { 18.5463, 73.9033 }),
+            Map.entry("New York, NY", new double[] { 40.7128, -74.0060 }),
+            Map.entry("Los Angeles, CA", new double[] { 34.0522, -118.2437 }),
+            Map.entry("Chicago, IL", new double[] { 41.8781, -87.6298 }),
+            Map.entry("Houston, TX", new double[] { 29.7604, -95.3698 }),
+            Map.entry("Phoenix, AZ", new double[] { 33.4484, -112.0740 }),
+            Map.entry("Philadelphia, PA", new double[] { 39.9526, -75.1652 }),
+            Map.entry("San Antonio, TX", new double[] { 29.4241, -98.4936 }),
+            Map.entry("San Diego, CA", new double[] { 32.7157, -117.1611 }),
+            Map.entry("Dallas, TX", new double[] { 32.7767, -96.7970 }),
+            Map.entry("San Jose, CA", new double[] { 37.3382, -121.8863 }));
+
+    // [lat, lng], or null when the location cannot be placed
+    public double[] resolve(String location) {
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        double[] known = PLACES.get(location.trim());
+        if (known != null) {
+            return known;
+        }
+        int comma = location.indexOf(',');
+        if (comma > 0) {
+            try {
+                double lat = Double.parseDouble(location.substring(0, comma).trim());
+                double lng = Double.parseDouble(location.substring(comma + 1).trim());
+                if (lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180) {
+                    return new double[] { lat, lng };
+                }
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        return null;
+    }
+}
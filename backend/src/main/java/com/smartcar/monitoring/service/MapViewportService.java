@@ -0,0 +1,432 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.LiveMessage;
+import com.smartcar.monitoring.dto.MapFrameDto;
+import com.smartcar.monitoring.dto.MapViewportRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-session map stream. Car positions are kept in a uniform lat/lng grid
+ * whose cells also carry a running count and coordinate sum; each STOMP
+ * session registers the box it is looking at and receives only what falls
+ * inside it on /user/queue/map/viewport. Zoomed in, that is the individual
+ * cars that moved (or left); zoomed out, or when too many cars are visible,
+ * it is a cluster summary built from the cell aggregates. Either way a
+ * frame's size depends on the viewport, not on the fleet.
+ */
+@Service
+public class MapViewportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapViewportService.class);
+
+    public static final String DESTINATION = "/queue/map/viewport";
+
+    @Autowired
+    private LocationResolver locationResolver;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    // Grid cell edge; 0.01 degrees is roughly 1 km
+    @Value("${websocket.map.cell-degrees:0.01}")
+    private double cellDegrees;
+
+    // Below this zoom viewports get clusters instead of cars
+    @Value("${websocket.map.detail-zoom:11}")
+    private int detailZoom;
+
+    // A zoomed-in viewport with more cars than this also gets clusters
+    @Value("${websocket.map.max-detail-cars:500}")
+    private int maxDetailCars;
+
+    // Cars not heard from for this long are dropped from the grid
+    @Value("${websocket.map.stale-after-ms:600000}")
+    private long staleAfterMs;
+
+    // Held from building a session's frames until they are sent, so a full frame and a delta reach it in the order they were built
+    private final Object sendLock = new Object();
+
+    // Everything below is guarded by lock
+    private final Object lock = new Object();
+    private final Map<Long, Position> positionByCar = new HashMap<>();
+    // When each car last reported, oldest first
+    private final LinkedHashMap<Long, Long> lastSeenByCar = new LinkedHashMap<>();
+    private final Map<Long, Cell> cells = new HashMap<>();
+    // Cars that moved since the last flush, with where they were before (null if new)
+    private final Map<Long, Position> changedFrom = new HashMap<>();
+    private final Map<String, Viewport> viewports = new HashMap<>();
+
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong evictedCars = new AtomicLong();
+
+    // Update a car's position from its reported location
+    public void record(Long carId, String location) {
+        double[] coords = locationResolver.resolve(location);
+        if (carId == null || coords == null) {
+            return;
+        }
+        synchronized (lock) {
+            lastSeenByCar.remove(carId);
+            lastSeenByCar.put(carId, System.currentTimeMillis());
+            Position previous = positionByCar.get(carId);
+            if (previous != null && previous.lat == coords[0] && previous.lng == coords[1]) {
+                return;
+            }
+            Position next = new Position(carId, coords[0], coords[1], location);
+            if (previous != null) {
+                removeFromGrid(previous);
+            }
+            addToGrid(next);
+            positionByCar.put(carId, next);
+            if (!changedFrom.containsKey(carId)) {
+                changedFrom.put(carId, previous);
+            }
+        }
+    }
+
+    // Register or move a session's viewport; the session gets a full frame straight away
+    public void register(String sessionId, MapViewportRequest request) {
+        synchronized (sendLock) {
+            MapFrameDto frame;
+            synchronized (lock) {
+                Viewport viewport = new Viewport(request);
+                viewports.put(sessionId, viewport);
+                frame = frameFor(viewport, null);
+            }
+            send(sessionId, frame);
+        }
+    }
+
+    // Drop a deactivated car from the map once the deactivation commits; viewers see it removed on the next flush
+    public void remove(Long carId) {
+        if (carId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            synchronized (lock) {
+                lastSeenByCar.remove(carId);
+                evict(carId);
+            }
+        });
+    }
+
+    public void unregister(String sessionId) {
+        synchronized (lock) {
+            viewports.remove(sessionId);
+        }
+    }
+
+    // One-off frame for a box, for clients that poll instead of subscribing
+    public MapFrameDto snapshot(MapViewportRequest request) {
+        synchronized (lock) {
+            return frameFor(new Viewport(request), null);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        unregister(event.getSessionId());
+    }
+
+    @Scheduled(fixedRateString = "${websocket.map.flush-ms:500}")
+    public void flush() {
+        synchronized (sendLock) {
+            Map<String, MapFrameDto> outgoing = new HashMap<>();
+            synchronized (lock) {
+                evictStale(System.currentTimeMillis() - staleAfterMs);
+                if (changedFrom.isEmpty()) {
+                    return;
+                }
+                for (Map.Entry<String, Viewport> entry : viewports.entrySet()) {
+                    MapFrameDto frame = frameFor(entry.getValue(), changedFrom);
+                    if (frame != null) {
+                        outgoing.put(entry.getKey(), frame);
+                    }
+                }
+                changedFrom.clear();
+            }
+            outgoing.forEach(this::send);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (lock) {
+            stats.put("viewports", viewports.size());
+            stats.put("trackedCars", positionByCar.size());
+            stats.put("occupiedCells", cells.size());
+        }
+        stats.put("framesSent", framesSent.get());
+        stats.put("evictedCars", evictedCars.get());
+        return stats;
+    }
+
+    // lastSeenByCar is in report order, so only the stale head is visited
+    private void evictStale(long cutoff) {
+        Iterator<Map.Entry<Long, Long>> it = lastSeenByCar.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Long> entry = it.next();
+            if (entry.getValue() >= cutoff) {
+                break;
+            }
+            it.remove();
+            evict(entry.getKey());
+        }
+    }
+
+    // Take a car off the grid and record it as changed so viewports showing it get a removal
+    private void evict(Long carId) {
+        Position previous = positionByCar.remove(carId);
+        if (previous == null) {
+            return;
+        }
+        removeFromGrid(previous);
+        if (!changedFrom.containsKey(carId)) {
+            changedFrom.put(carId, previous);
+        } else if (changedFrom.get(carId) == null) {
+            // Appeared and left within one flush; nobody has seen it
+            changedFrom.remove(carId);
+        }
+        evictedCars.incrementAndGet();
+    }
+
+    // Frame for a viewport: full when changed is null, otherwise only what changed inside it (null if nothing did)
+    private MapFrameDto frameFor(Viewport viewport, Map<Long, Position> changed) {
+        if (changed != null && !affected(viewport, changed)) {
+            return null;
+        }
+        List<Cell> visible = cellsIn(viewport);
+        int total = 0;
+        for (Cell cell : visible) {
+            total += cell.cars.size();
+        }
+        if (viewport.zoom < detailZoom || total > maxDetailCars) {
+            viewport.detail = false;
+            return MapFrameDto.cluster(total, clusters(viewport, visible));
+        }
+
+        if (changed == null || !viewport.detail) {
+            viewport.detail = true;
+            List<MapFrameDto.Car> cars = new ArrayList<>();
+            for (Cell cell : visible) {
+                for (Position position : cell.cars.values()) {
+                    if (viewport.contains(position)) {
+                        cars.add(position.toDto());
+                    }
+                }
+            }
+            return MapFrameDto.detail(true, cars.size(), cars, null);
+        }
+
+        List<MapFrameDto.Car> moved = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        for (Map.Entry<Long, Position> entry : changed.entrySet()) {
+            Position now = positionByCar.get(entry.getKey());
+            Position before = entry.getValue();
+            if (now != null && viewport.contains(now)) {
+                moved.add(now.toDto());
+            } else if (before != null && viewport.contains(before)) {
+                removed.add(entry.getKey());
+            }
+        }
+        return MapFrameDto.detail(false, total, moved, removed);
+    }
+
+    private boolean affected(Viewport viewport, Map<Long, Position> changed) {
+        for (Map.Entry<Long, Position> entry : changed.entrySet()) {
+            Position now = positionByCar.get(entry.getKey());
+            Position before = entry.getValue();
+            if ((now != null && viewport.contains(now)) || (before != null && viewport.contains(before))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Group visible cells into clusters about a quarter of a 256px tile wide at the viewport's zoom
+    private List<MapFrameDto.Cluster> clusters(Viewport viewport, List<Cell> visible) {
+        double clusterDegrees = Math.max(cellDegrees, 360.0 / (1L << Math.max(0, Math.min(viewport.zoom, 30))) / 4);
+        Map<Long, double[]> sums = new HashMap<>();
+        for (Cell cell : visible) {
+            int count = cell.cars.size();
+            double lat = cell.sumLat / count;
+            double lng = cell.sumLng / count;
+            long key = key((int) Math.floor((lat + 90) / clusterDegrees), (int) Math.floor((lng + 180) / clusterDegrees));
+            double[] sum = sums.computeIfAbsent(key, k -> new double[3]);
+            sum[0] += cell.sumLat;
+            sum[1] += cell.sumLng;
+            sum[2] += count;
+        }
+        List<MapFrameDto.Cluster> clusters = new ArrayList<>(sums.size());
+        for (double[] sum : sums.values()) {
+            clusters.add(new MapFrameDto.Cluster(sum[0] / sum[2], sum[1] / sum[2], (int) sum[2]));
+        }
+        return clusters;
+    }
+
+    // Occupied cells overlapping the viewport; scans the occupied cells when that is cheaper than the cell range
+    private List<Cell> cellsIn(Viewport viewport) {
+        int rowMin = row(viewport.minLat);
+        int rowMax = row(viewport.maxLat);
+        int colMin = col(viewport.minLng);
+        int colMax = col(viewport.maxLng);
+        List<Cell> result = new ArrayList<>();
+        long range = (long) (rowMax - rowMin + 1) * (colMax - colMin + 1);
+        if (viewport.wraps || range > cells.size()) {
+            for (Cell cell : cells.values()) {
+                boolean colInside = viewport.wraps ? cell.col >= colMin || cell.col <= colMax
+                        : cell.col >= colMin && cell.col <= colMax;
+                if (cell.row >= rowMin && cell.row <= rowMax && colInside) {
+                    result.add(cell);
+                }
+            }
+            return result;
+        }
+        for (int r = rowMin; r <= rowMax; r++) {
+            for (int c = colMin; c <= colMax; c++) {
+                Cell cell = cells.get(key(r, c));
+                if (cell != null) {
+                    result.add(cell);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void addToGrid(Position position) {
+        int row = row(position.lat);
+        int col = col(position.lng);
+        cells.computeIfAbsent(key(row, col), k -> new Cell(row, col)).add(position);
+    }
+
+    // Empty cells are dropped so scans only touch occupied ones
+    private void removeFromGrid(Position position) {
+        long key = key(row(position.lat), col(position.lng));
+        Cell cell = cells.get(key);
+        if (cell != null) {
+            cell.remove(position);
+            if (cell.cars.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((lat + 90) / cellDegrees);
+    }
+
+    private int col(double lng) {
+        return (int) Math.floor((lng + 180) / cellDegrees);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private void send(String sessionId, MapFrameDto frame) {
+        try {
+            // Addressed by session id, so anonymous sessions can receive it on /user/queue/map/viewport
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setSessionId(sessionId);
+            headers.setLeaveMutable(true);
+            messagingTemplate.convertAndSendToUser(sessionId, DESTINATION, LiveMessage.of("MAP_VIEWPORT", frame),
+                    headers.getMessageHeaders());
+            framesSent.incrementAndGet();
+        } catch (Exception e) {
+            logger.error("Error sending map frame to session {}", sessionId, e);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Position(Long carId, double lat, double lng, String location) {
+        MapFrameDto.Car toDto() {
+            return new MapFrameDto.Car(carId, lat, lng, location);
+        }
+    }
+
+    private static final class Cell {
+        final int row;
+        final int col;
+        final Map<Long, Position> cars = new HashMap<>();
+        double sumLat;
+        double sumLng;
+
+        Cell(int row, int col) {
+            this.row = row;
+            this.col = col;
+        }
+
+        void add(Position position) {
+            cars.put(position.carId(), position);
+            sumLat += position.lat();
+            sumLng += position.lng();
+        }
+
+        void remove(Position position) {
+            if (cars.remove(position.carId()) != null) {
+                sumLat -= position.lat();
+                sumLng -= position.lng();
+            }
+        }
+    }
+
+    private static final class Viewport {
+        final double minLat;
+        final double minLng;
+        final double maxLat;
+        final double maxLng;
+        final int zoom;
+        final boolean wraps;
+        // Whether the last frame sent was a DETAIL frame, so deltas can follow it
+        boolean detail;
+
+        Viewport(MapViewportRequest request) {
+            this.minLat = Math.min(request.minLat(), request.maxLat());
+            this.maxLat = Math.max(request.minLat(), request.maxLat());
+            this.minLng = request.minLng();
+            this.maxLng = request.maxLng();
+            this.zoom = request.zoom();
+            this.wraps = request.minLng() > request.maxLng();
+        }
+
+        boolean contains(Position position) {
+            if (position.lat() < minLat || position.lat() > maxLat) {
+                return false;
+            }
+            return wraps ? position.lng() >= minLng || position.lng() <= maxLng
+                    : position.lng() >= minLng && position.lng() <= maxLng;
+        }
+    }
+}
@@ -5,7 +5,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartcar.monitoring.dto.TelemetryDto;
 import com.smartcar.monitoring.model.Alert;
 import com.smartcar.monitoring.model.Car;
-import com.smartcar.monitoring.model.Telemetry;
 import com.smartcar.monitoring.model.Trip;
 import org.eclipse.paho.client.mqttv3.*;
 import org.slf4j.Logger;
@@ -31,23 +30,38 @@ public class MqttService {
     private MqttClient mqttClient;
 
     @Autowired
-    private TelemetryService telemetryService;
+    private TelemetryIngestService telemetryIngestService;
+
+    @Autowired
+    private VehicleStateCache vehicleStateCache;
+
+    @Autowired
+    private TripStatsTracker tripStatsTracker;
 
     @Autowired
     private CarService carService;
 
     @Autowired
-    private AlertService alertService;
+    private AlertStateTracker alertStateTracker;
 
     @Autowired
     private WebSocketService webSocketService;
 
+    @Autowired
+    private ConflatingPublisher conflatingPublisher;
+
     @Autowired
     private TripService tripService;
 
+    @Autowired
+    private FineLedger fineLedger;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ShardedMessageExecutor shardedMessageExecutor;
+
     @Value("${mqtt.topic.prefix}")
     private String topicPrefix;
 
@@ -95,7 +109,8 @@ public class MqttService {
             @Override
             public void messageArrived(String topic, MqttMessage message) {
                 try {
-                    handleIncomingMessage(topic, message);
+                    // Hand off to the car's shard so the Paho callback thread returns immediately
+                    shardedMessageExecutor.submit(shardKey(topic), () -> handleIncomingMessage(topic, message));
                 } catch (Exception e) {
                     logger.error("Error handling incoming MQTT message", e);
                 }
@@ -126,6 +141,12 @@ public class MqttService {
         }
     }
 
+    // Topics are <prefix>/<carId>/<type>; the car segment keeps a car on one shard
+    private String shardKey(String topic) {
+        String[] topicParts = topic.split("/");
+        return topicParts.length >= 2 ? topicParts[1] : topic;
+    }
+
     private void handleIncomingMessage(String topic, MqttMessage message) {
         try {
             String payload = new String(message.getPayload());
@@ -161,35 +182,20 @@ public class MqttService {
             telemetryDto.setTimestamp(LocalDateTime.now());
 
             Car car = carService.getCarById(carId);
-            Telemetry telemetry = new Telemetry();
-            telemetry.setCar(car);
-            telemetry.setSpeed(telemetryDto.getSpeed());
-            telemetry.setFuel(telemetryDto.getFuelLevel());
-            telemetry.setTemperature(telemetryDto.getTemperature());
-            telemetry.setLocation(telemetryDto.getLocation());
-            telemetry.setTimestamp(telemetryDto.getTimestamp());
-
-            // Link to active trip by fetching managed entity
-            Trip activeTrip = tripService.getActiveTripForCar(carId).orElse(null);
-            telemetry.setTrip(activeTrip);
-
-            telemetryService.createTelemetry(telemetry);
 
+            // Link to active trip via the in-memory registry (no query unless the car is unknown)
+            Trip activeTrip = tripService.getActiveTripReferenceForCar(carId).orElse(null);
             telemetryDto.setTripId(activeTrip != null ? activeTrip.getId() : null);
 
-            Alert createdAlert = checkAndCreateAlerts(car, telemetryDto);
+            // Persisted asynchronously in batches by the ingest writer
+            telemetryIngestService.enqueue(telemetryDto);
+            vehicleStateCache.update(telemetryDto);
+            tripStatsTracker.recordActiveTrip(telemetryDto);
 
-            webSocketService.broadcastTelemetryUpdate(telemetryDto);
-            webSocketService.sendTelemetryToCar(carId, telemetryDto);
-            webSocketService.broadcastCarLocation(carId, telemetryDto.getLocation());
+            checkAndCreateAlerts(car, activeTrip, telemetryDto);
 
-            if (createdAlert != null && createdAlert.getSeverity() == Alert.AlertSeverity.CRITICAL) {
-                webSocketService.sendCriticalAlertToAdmins(createdAlert);
-                try {
-                    tripService.addFineForCritical(carId, 100);
-                } catch (Exception ignore) {
-                }
-            }
+            // Sent with the next conflated frame
+            conflatingPublisher.publishTelemetry(telemetryDto);
 
             logger.info("Telemetry processed for car {} with trip {}", carId, telemetryDto.getTripId());
 
@@ -209,79 +215,48 @@ public class MqttService {
         }
     }
 
-    private Alert checkAndCreateAlerts(Car car, TelemetryDto telemetryDto) {
+    // Feed the sample to the per-car alert state machine; side effects fire on state changes only
+    private void checkAndCreateAlerts(Car car, Trip activeTrip, TelemetryDto telemetryDto) {
         try {
-            Alert createdAlert = null;
-
-            // Get the active trip for this car to link alerts
-            Trip activeTrip = null;
-            try {
-                activeTrip = tripService.getActiveTripForCar(car.getId()).orElse(null);
-            } catch (Exception e) {
-                logger.warn("Could not get active trip for car {}: {}", car.getId(), e.getMessage());
-            }
-
-            if (telemetryDto.getFuelLevel() < 20) {
-                String msg = "Low fuel level: " + telemetryDto.getFuelLevel() + "%";
-                Alert.AlertSeverity sev = telemetryDto.getFuelLevel() < 10 ? Alert.AlertSeverity.CRITICAL
-                        : Alert.AlertSeverity.HIGH;
-                createdAlert = alertService.createAlert(car, activeTrip, "LOW_FUEL", sev.toString(), msg);
-                webSocketService.broadcastAlertUpdate(createdAlert);
-                if (sev == Alert.AlertSeverity.HIGH) {
-                    try {
-                        tripService.addFineForCritical(car.getId(), 10);
-                    } catch (Exception ignore) {
-                    }
-                }
-                if (sev == Alert.AlertSeverity.CRITICAL) {
-                    try {
-                        tripService.addFineForCritical(car.getId(), 20);
-                    } catch (Exception ignore) {
-                    }
-                }
-            }
-            if (telemetryDto.getTemperature() > 100) {
-                String msg = "High temperature: " + telemetryDto.getTemperature() + "°C";
-                Alert.AlertSeverity sev = telemetryDto.getTemperature() > 110 ? Alert.AlertSeverity.CRITICAL
-                        : Alert.AlertSeverity.HIGH;
-                createdAlert = alertService.createAlert(car, activeTrip, "HIGH_TEMPERATURE", sev.toString(), msg);
-                webSocketService.broadcastAlertUpdate(createdAlert);
-                if (sev == Alert.AlertSeverity.HIGH) {
-                    try {
-                        tripService.addFineForCritical(car.getId(), 10);
-                    } catch (Exception ignore) {
-                    }
-                }
-                if (sev == Alert.AlertSeverity.CRITICAL) {
-                    try {
-                        tripService.addFineForCritical(car.getId(), 20);
-                    } catch (Exception ignore) {
-                    }
-                }
-            }
-            if (telemetryDto.getSpeed() > 120) {
-                String msg = "High speed: " + telemetryDto.getSpeed() + " km/h";
-                Alert.AlertSeverity sev = telemetryDto.getSpeed() > 150 ? Alert.AlertSeverity.CRITICAL
-                        : Alert.AlertSeverity.HIGH;
-                createdAlert = alertService.createAlert(car, activeTrip, "HIGH_SPEED", sev.toString(), msg);
-                webSocketService.broadcastAlertUpdate(createdAlert);
-                if (sev == Alert.AlertSeverity.HIGH) {
-                    try {
-                        tripService.addFineForCritical(car.getId(), 10);
-                    } catch (Exception ignore) {
-                    }
-                }
-                if (sev == Alert.AlertSeverity.CRITICAL) {
-                    try {
-                        tripService.addFineForCritical(car.getId(), 20);
-                    } catch (Exception ignore) {
-                    }
-                }
-            }
-            return createdAlert;
+            alertStateTracker.process(car, activeTrip, telemetryDto.getSpeed(), telemetryDto.getFuelLevel(),
+                    telemetryDto.getTemperature(), alertListener);
         } catch (Exception e) {
             logger.error("Error checking alerts for car {}", car.getId(), e);
-            return null;
+        }
+    }
+
+    private final AlertStateTracker.Listener alertListener = new AlertStateTracker.Listener() {
+        @Override
+        public void raised(Alert alert, AlertRuleEngine.Rule rule) {
+            onRaisedOrEscalated(alert, rule);
+        }
+
+        @Override
+        public void escalated(Alert alert, AlertRuleEngine.Rule rule) {
+            onRaisedOrEscalated(alert, rule);
+        }
+
+        @Override
+        public void updated(Alert alert) {
+            webSocketService.broadcastAlertUpdate(alert);
+        }
+
+        @Override
+        public void cleared(Alert alert) {
+            webSocketService.broadcastAlertUpdate(alert);
+        }
+    };
+
+    // Fines go to the in-memory ledger and reach the trip row on its next flush
+    private void onRaisedOrEscalated(Alert alert, AlertRuleEngine.Rule rule) {
+        webSocketService.broadcastAlertUpdate(alert);
+        Long tripId = alert.getTrip() != null ? alert.getTrip().getId() : null;
+        Long carId = alert.getCar().getId();
+        fineLedger.accrue(tripId, carId, alert.getId(), rule.getType() + " " + rule.getSeverity(),
+                rule.getFineAmount());
+        if (alert.getSeverity() == Alert.AlertSeverity.CRITICAL) {
+            webSocketService.sendCriticalAlertToAdmins(alert);
+            fineLedger.accrue(tripId, carId, alert.getId(), "CRITICAL_ALERT", 100);
         }
     }
 
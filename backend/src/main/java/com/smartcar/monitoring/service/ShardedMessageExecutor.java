@@ -0,0 +1,180 @@
+package com.smartcar.monitoring.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed pool of single-threaded shards. Work submitted with the same key
+ * always lands on the same shard, so messages for one car are processed in
+ * arrival order while different cars run in parallel.
+ */
+@Service
+public class ShardedMessageExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedMessageExecutor.class);
+
+    @Value("${mqtt.processing.shards:0}")
+    private int shardCount;
+
+    @Value("${mqtt.processing.shard-queue-capacity:1000}")
+    private int shardQueueCapacity;
+
+    private Shard[] shards;
+
+    @PostConstruct
+    public void init() {
+        if (shardCount <= 0) {
+            shardCount = Runtime.getRuntime().availableProcessors();
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, shardQueueCapacity);
+            shards[i].start();
+        }
+        logger.info("Sharded message executor started with {} shards (queue capacity {})", shardCount,
+                shardQueueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Shard shard : shards) {
+            shard.stop();
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.info("Sharded message executor stopped");
+    }
+
+    /**
+     * Queues work on the shard owning the key. Blocks the caller when that
+     * shard is full, which pushes back on the MQTT client instead of growing
+     * memory without bound.
+     */
+    public void submit(Object key, Runnable task) {
+        Shard shard = shards[Math.floorMod(key != null ? key.hashCode() : 0, shards.length)];
+        try {
+            shard.queue.put(new Task(task));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            shard.rejected.incrementAndGet();
+            logger.warn("Interrupted while queueing work on shard {}", shard.index);
+        }
+    }
+
+    public int getTotalQueueDepth() {
+        int depth = 0;
+        for (Shard shard : shards) {
+            depth += shard.queue.size();
+        }
+        return depth;
+    }
+
+    // Queue depth, throughput and lag per shard
+    public Map<String, Object> getStatistics() {
+        List<Map<String, Object>> perShard = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("shard", shard.index);
+            s.put("queueDepth", shard.queue.size());
+            s.put("processed", shard.processed.get());
+            s.put("failed", shard.failed.get());
+            s.put("rejected", shard.rejected.get());
+            s.put("lastLagMs", shard.lastLagMs);
+            s.put("maxLagMs", shard.maxLagMs.get());
+            s.put("oldestPendingMs", shard.oldestPendingMs());
+            perShard.add(s);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("shardCount", shards.length);
+        stats.put("shardQueueCapacity", shardQueueCapacity);
+        stats.put("totalQueueDepth", getTotalQueueDepth());
+        stats.put("shards", perShard);
+        return stats;
+    }
+
+    private static final class Task {
+        final long enqueuedAtNanos = System.nanoTime();
+        final Runnable runnable;
+
+        Task(Runnable runnable) {
+            this.runnable = runnable;
+        }
+    }
+
+    private static final class Shard implements Runnable {
+        final int index;
+        final BlockingQueue<Task> queue;
+        final Thread thread;
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong maxLagMs = new AtomicLong();
+        volatile long lastLagMs;
+        volatile boolean running = true;
+
+        Shard(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, "mqtt-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void stop() {
+            running = false;
+            thread.interrupt();
+        }
+
+        long oldestPendingMs() {
+            Task head = queue.peek();
+            return head == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.enqueuedAtNanos);
+        }
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                Task task;
+                try {
+                    task = queue.poll(500, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // stop() interrupts; the loop condition drains what is left
+                    continue;
+                }
+                if (task == null) {
+                    continue;
+                }
+                long lag = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.enqueuedAtNanos);
+                lastLagMs = lag;
+                maxLagMs.accumulateAndGet(lag, Math::max);
+                try {
+                    task.runnable.run();
+                    processed.incrementAndGet();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    logger.error("Error processing message on shard {}", index, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.smartcar.monitoring.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live STOMP subscriptions on this node, counted per destination from the
+ * session SUBSCRIBE / UNSUBSCRIBE / DISCONNECT events. Publishers ask it
+ * before building a message so destinations nobody listens to cost nothing.
+ * Pattern subscriptions ({@code /topic/car/*}) are matched the way the simple
+ * broker matches them. With the broker relay, subscribers on other nodes are
+ * invisible here, so every destination is reported as subscribed.
+ */
+@Service
+public class SubscriptionRegistry {
+
+    @Value("${websocket.subscriptions.skip-unsubscribed:true}")
+    private boolean skipUnsubscribed;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    private final Map<String, Integer> countByDestination = new ConcurrentHashMap<>();
+    private final Map<String, Integer> countByPattern = new ConcurrentHashMap<>();
+    // sessionId -> subscriptionId -> destination
+    private final Map<String, Map<String, String>> subscriptionsBySession = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        String destination = accessor.getDestination();
+        if (sessionId == null || subscriptionId == null || destination == null) {
+            return;
+        }
+        String previous = subscriptionsBySession.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, destination);
+        if (previous != null) {
+            release(previous);
+        }
+        counts(destination).merge(destination, 1, Integer::sum);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = subscriptionsBySession.get(accessor.getSessionId());
+        if (subscriptions != null && accessor.getSubscriptionId() != null) {
+            String destination = subscriptions.remove(accessor.getSubscriptionId());
+            if (destination != null) {
+                release(destination);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = subscriptionsBySession.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    // Whether a message sent to the destination would reach anyone
+    public boolean hasSubscribers(String destination) {
+        if (!skipUnsubscribed || "relay".equalsIgnoreCase(brokerMode)) {
+            return true;
+        }
+        if (countByDestination.containsKey(destination)) {
+            return true;
+        }
+        if (!countByPattern.isEmpty()) {
+            for (String pattern : countByPattern.keySet()) {
+                if (matcher.match(pattern, destination)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("skipUnsubscribed", skipUnsubscribed && !"relay".equalsIgnoreCase(brokerMode));
+        stats.put("sessions", subscriptionsBySession.size());
+        stats.put("destinations", countByDestination.size());
+        stats.put("patterns", countByPattern.size());
+        return stats;
+    }
+
+    private void release(String destination) {
+        counts(destination).computeIfPresent(destination, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private Map<String, Integer> counts(String destination) {
+        return matcher.isPattern(destination) ? countByPattern : countByDestination;
+    }
+}
@@ -0,0 +1,107 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.TelemetryDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming Largest-Triangle-Three-Buckets downsampler over speed. Samples
+ * must arrive in timestamp order. The range is split into equal time buckets
+ * and one representative sample is kept per bucket, so only two buckets are
+ * ever held in memory regardless of how many rows are streamed through.
+ */
+public class TelemetryDownsampler implements Consumer<TelemetryDto> {
+
+    private final long startMillis;
+    private final double bucketWidthMillis;
+    private final int bucketCount;
+    private final List<TelemetryDto> selected;
+
+    private TelemetryDto anchor;
+    private TelemetryDto last;
+    private List<TelemetryDto> current = new ArrayList<>();
+    private List<TelemetryDto> next = new ArrayList<>();
+    private int nextBucket = -1;
+    private double nextSumX;
+    private double nextSumY;
+
+    public TelemetryDownsampler(LocalDateTime startTime, LocalDateTime endTime, int maxPoints) {
+        // First and last samples are always kept; the rest get one slot per bucket
+        this.bucketCount = Math.max(1, maxPoints - 2);
+        this.startMillis = toMillis(startTime);
+        this.bucketWidthMillis = Math.max(1.0, (double) (toMillis(endTime) - startMillis) / bucketCount);
+        this.selected = new ArrayList<>(maxPoints);
+    }
+
+    @Override
+    public void accept(TelemetryDto sample) {
+        if (anchor == null) {
+            anchor = sample;
+            selected.add(sample);
+            return;
+        }
+        last = sample;
+        int bucket = (int) Math.min(bucketCount - 1, (toMillis(sample.getTimestamp()) - startMillis) / bucketWidthMillis);
+        if (bucket > nextBucket) {
+            // The pending bucket is complete, so the one before it can now pick its point
+            if (!current.isEmpty()) {
+                select(current, nextSumX / next.size(), nextSumY / next.size());
+            }
+            List<TelemetryDto> recycled = current;
+            recycled.clear();
+            current = next;
+            next = recycled;
+            nextBucket = bucket;
+            nextSumX = 0;
+            nextSumY = 0;
+        }
+        next.add(sample);
+        nextSumX += toMillis(sample.getTimestamp());
+        nextSumY += sample.getSpeed();
+    }
+
+    // Flush the buffered buckets and return the downsampled series
+    public List<TelemetryDto> finish() {
+        if (last == null) {
+            return selected;
+        }
+        if (!current.isEmpty()) {
+            select(current, nextSumX / next.size(), nextSumY / next.size());
+        }
+        next.remove(last);
+        if (!next.isEmpty()) {
+            select(next, toMillis(last.getTimestamp()), last.getSpeed());
+        }
+        selected.add(last);
+        current.clear();
+        next.clear();
+        return selected;
+    }
+
+    // Keep the sample forming the largest triangle with the previous pick and the next bucket's average
+    private void select(List<TelemetryDto> bucket, double avgX, double avgY) {
+        double ax = toMillis(anchor.getTimestamp());
+        double ay = anchor.getSpeed();
+        TelemetryDto best = bucket.get(0);
+        double bestArea = -1;
+        for (TelemetryDto candidate : bucket) {
+            double bx = toMillis(candidate.getTimestamp());
+            double by = candidate.getSpeed();
+            double area = Math.abs((ax - avgX) * (by - ay) - (ax - bx) * (avgY - ay));
+            if (area > bestArea) {
+                bestArea = area;
+                best = candidate;
+            }
+        }
+        selected.add(best);
+        anchor = best;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,495 @@
+package com.smartcar.monitoring.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcar.monitoring.dto.TelemetryDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers incoming telemetry in a bounded queue and writes it to the
+ * telemetry table with JDBC batch inserts from a single background writer.
+ * A batch is flushed when it reaches the configured size or when the flush
+ * interval elapses, whichever comes first. A batch the database rejects
+ * is split in halves until the offending rows are isolated; those go to a
+ * ".rejected" file next to the spill file, and batches that fail for other
+ * reasons (database unavailable) are spilled and replayed later. A replay
+ * stops at the first batch that fails, keeps the unwritten rest for the next
+ * pass and waits an exponentially growing backoff before trying again, so a
+ * database outage does not keep the writer busy re-reading the spill file.
+ */
+@Service
+public class TelemetryIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryIngestService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO telemetry "
+            + "(car_id, trip_id, timestamp, speed, fuel, temperature, location, creation_date, last_update_on, is_active) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // What to do with a sample when the queue is full
+    public enum Backpressure {
+        BLOCK, DROP_OLDEST, SPILL
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private VehicleStateCache vehicleStateCache;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${telemetry.ingest.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${telemetry.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${telemetry.ingest.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${telemetry.ingest.backpressure:BLOCK}")
+    private Backpressure backpressure;
+
+    @Value("${telemetry.ingest.spill-file:${java.io.tmpdir}/smart-car-telemetry-spill.ndjson}")
+    private String spillFile;
+
+    @Value("${telemetry.ingest.replay-backoff-ms:1000}")
+    private long replayBackoffMs;
+
+    @Value("${telemetry.ingest.replay-max-backoff-ms:60000}")
+    private long replayMaxBackoffMs;
+
+    // Backoff after the last failed replay (0 after a successful one) and when the next replay may start
+    private long currentReplayBackoffMs;
+    private long nextReplayAt;
+
+    private BlockingQueue<TelemetryDto> queue;
+    private Thread writerThread;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Object spillLock = new Object();
+    private BufferedWriter spillWriter;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong bisected = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong malformed = new AtomicLong();
+    private final AtomicLong failedReplays = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running.set(true);
+        writerThread = new Thread(this::drainLoop, "telemetry-ingest-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info("Telemetry ingest pipeline started. Capacity: {}, batch size: {}, flush interval: {}ms, backpressure: {}",
+                queueCapacity, batchSize, flushIntervalMs, backpressure);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running.set(false);
+        if (writerThread != null) {
+            writerThread.interrupt();
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Whatever the writer did not get to goes out in one last pass
+        List<TelemetryDto> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        flush(remaining);
+        closeSpillWriter();
+        logger.info("Telemetry ingest pipeline stopped. Written: {}, dropped: {}, spilled: {}",
+                written.get(), dropped.get(), spilled.get());
+    }
+
+    /**
+     * Hands a telemetry sample to the writer. Returns once the sample is
+     * queued (or dropped/spilled, depending on the backpressure policy); the
+     * database write happens later on the writer thread.
+     */
+    public void enqueue(TelemetryDto telemetryDto) {
+        if (telemetryDto.getTimestamp() == null) {
+            telemetryDto.setTimestamp(LocalDateTime.now());
+        }
+        enqueued.incrementAndGet();
+        switch (backpressure) {
+            case BLOCK:
+                try {
+                    queue.put(telemetryDto);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(telemetryDto)) {
+                    if (queue.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                break;
+            case SPILL:
+                if (!queue.offer(telemetryDto)) {
+                    spill(telemetryDto);
+                }
+                break;
+        }
+    }
+
+    private void drainLoop() {
+        List<TelemetryDto> batch = new ArrayList<>(batchSize);
+        long deadline = System.currentTimeMillis() + flushIntervalMs;
+        while (running.get() || !queue.isEmpty()) {
+            try {
+                long wait = Math.max(1, deadline - System.currentTimeMillis());
+                TelemetryDto next = queue.poll(wait, TimeUnit.MILLISECONDS);
+                if (next != null) {
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                if (batch.size() >= batchSize || System.currentTimeMillis() >= deadline) {
+                    flush(batch);
+                    batch.clear();
+                    deadline = System.currentTimeMillis() + flushIntervalMs;
+                    flushSpillWriter();
+                    if (queue.isEmpty() && System.currentTimeMillis() >= nextReplayAt) {
+                        replaySpill();
+                    }
+                }
+            } catch (InterruptedException e) {
+                if (!running.get()) {
+                    break;
+                }
+            } catch (Exception e) {
+                logger.error("Unexpected error in telemetry ingest writer", e);
+            }
+        }
+        flush(batch);
+    }
+
+    // Write a batch; rows the database could not take (unavailable or similar) are spilled for replay
+    private void flush(List<TelemetryDto> batch) {
+        List<TelemetryDto> unwritten = write(batch);
+        if (!unwritten.isEmpty()) {
+            logger.warn("Spilling {} telemetry rows for replay", unwritten.size());
+            for (TelemetryDto telemetryDto : unwritten) {
+                spill(telemetryDto);
+            }
+        }
+    }
+
+    // Insert a batch, isolating rows the database rejects; returns the rows left unwritten by any other failure
+    private List<TelemetryDto> write(List<TelemetryDto> batch) {
+        if (batch.isEmpty()) {
+            return List.of();
+        }
+        try {
+            insert(batch);
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+            logger.debug("Flushed {} telemetry rows", batch.size());
+            return List.of();
+        } catch (DataIntegrityViolationException e) {
+            // A bad row (e.g. car or trip deleted meanwhile) fails the whole batch; split it to isolate the row
+            if (batch.size() == 1) {
+                reject(batch.get(0), e);
+                return List.of();
+            }
+            bisected.incrementAndGet();
+            int middle = batch.size() / 2;
+            List<TelemetryDto> second = new ArrayList<>(batch.subList(middle, batch.size()));
+            List<TelemetryDto> unwritten = write(new ArrayList<>(batch.subList(0, middle)));
+            if (unwritten.isEmpty()) {
+                return write(second);
+            }
+            // The database went away meanwhile; do not try the second half
+            List<TelemetryDto> rest = new ArrayList<>(unwritten);
+            rest.addAll(second);
+            return rest;
+        } catch (Exception e) {
+            logger.error("Failed to write {} telemetry rows", batch.size(), e);
+            return batch;
+        }
+    }
+
+    // One transaction per batch so a failed batch leaves no rows behind before it is split
+    private void insert(List<TelemetryDto> batch) {
+        List<Long> ids = transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<List<Long>>) con -> {
+            Timestamp audit = Timestamp.valueOf(LocalDateTime.now());
+            try (PreparedStatement ps = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (TelemetryDto t : batch) {
+                    ps.setLong(1, t.getCarId());
+                    if (t.getTripId() != null) {
+                        ps.setLong(2, t.getTripId());
+                    } else {
+                        ps.setNull(2, Types.BIGINT);
+                    }
+                    ps.setTimestamp(3, Timestamp.valueOf(t.getTimestamp()));
+                    ps.setInt(4, t.getSpeed());
+                    ps.setInt(5, t.getFuelLevel());
+                    ps.setInt(6, t.getTemperature());
+                    ps.setString(7, t.getLocation() != null ? t.getLocation() : "");
+                    ps.setTimestamp(8, audit);
+                    ps.setTimestamp(9, audit);
+                    ps.setBoolean(10, true);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                List<Long> keys = new ArrayList<>(batch.size());
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    while (rs.next()) {
+                        keys.add(rs.getLong(1));
+                    }
+                }
+                return keys;
+            }
+        }));
+        // Keys come back in insert order; give the live state its row id
+        if (ids != null && ids.size() == batch.size()) {
+            for (int i = 0; i < batch.size(); i++) {
+                vehicleStateCache.persisted(batch.get(i), ids.get(i));
+            }
+        }
+    }
+
+    // A row the database refuses on its own is kept in the rejected file rather than retried forever
+    private void reject(TelemetryDto telemetryDto, DataIntegrityViolationException cause) {
+        failed.incrementAndGet();
+        logger.warn("Rejected telemetry for car {} at {}: {}", telemetryDto.getCarId(), telemetryDto.getTimestamp(),
+                cause.getMostSpecificCause().getMessage());
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(spillFile + ".rejected"),
+                    StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(objectMapper.writeValueAsString(telemetryDto));
+                writer.newLine();
+            } catch (IOException e) {
+                logger.error("Failed to record rejected telemetry for car {}", telemetryDto.getCarId(), e);
+            }
+        }
+    }
+
+    // Appends to the spill file through one writer kept open while the spill file exists
+    private void spill(TelemetryDto telemetryDto) {
+        synchronized (spillLock) {
+            try {
+                if (spillWriter == null) {
+                    spillWriter = Files.newBufferedWriter(Paths.get(spillFile), StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                spillWriter.write(objectMapper.writeValueAsString(telemetryDto));
+                spillWriter.newLine();
+                spilled.incrementAndGet();
+            } catch (IOException e) {
+                dropped.incrementAndGet();
+                logger.error("Failed to spill telemetry for car {}", telemetryDto.getCarId(), e);
+                closeSpillWriter();
+            }
+        }
+    }
+
+    // Push buffered spill lines to the file; called on every writer tick
+    private void flushSpillWriter() {
+        synchronized (spillLock) {
+            if (spillWriter != null) {
+                try {
+                    spillWriter.flush();
+                } catch (IOException e) {
+                    logger.error("Failed to flush telemetry spill file", e);
+                }
+            }
+        }
+    }
+
+    private void closeSpillWriter() {
+        synchronized (spillLock) {
+            if (spillWriter != null) {
+                try {
+                    spillWriter.close();
+                } catch (IOException e) {
+                    logger.error("Failed to close telemetry spill file", e);
+                }
+                spillWriter = null;
+            }
+        }
+    }
+
+    /**
+     * Re-ingests spilled samples once the in-memory queue has caught up. The
+     * spill file is rotated to a ".replay" file that is deleted only after
+     * it has been read to the end; a replay file left behind by a failed pass
+     * is finished first and never overwritten. When a batch cannot be
+     * written the pass stops: that batch and the unread rest become the new
+     * replay file and the next pass waits for the backoff.
+     */
+    void replaySpill() {
+        Path source = Paths.get(spillFile);
+        Path replay = Paths.get(spillFile + ".replay");
+        synchronized (spillLock) {
+            if (!Files.exists(replay)) {
+                if (!Files.exists(source)) {
+                    return;
+                }
+                closeSpillWriter();
+                try {
+                    Files.move(source, replay);
+                } catch (IOException e) {
+                    logger.error("Failed to rotate telemetry spill file", e);
+                    return;
+                }
+            }
+        }
+        List<TelemetryDto> batch = new ArrayList<>(batchSize);
+        Path remainder = null;
+        try (BufferedReader reader = Files.newBufferedReader(replay, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, TelemetryDto.class));
+                } catch (JsonProcessingException e) {
+                    malformed.incrementAndGet();
+                    logger.warn("Skipping malformed line in telemetry spill file: {}", e.getOriginalMessage());
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    List<TelemetryDto> unwritten = write(batch);
+                    if (!unwritten.isEmpty()) {
+                        remainder = keepUnwritten(replay, unwritten, reader);
+                        break;
+                    }
+                    batch.clear();
+                }
+            }
+            if (remainder == null) {
+                List<TelemetryDto> unwritten = write(batch);
+                if (!unwritten.isEmpty()) {
+                    remainder = keepUnwritten(replay, unwritten, reader);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to replay telemetry spill file {}; retrying on the next pass", replay, e);
+            backOff();
+            return;
+        }
+        try {
+            if (remainder != null) {
+                Files.move(remainder, replay, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                backOff();
+                logger.warn("Telemetry spill replay stopped at a failed batch; next attempt in {} ms",
+                        currentReplayBackoffMs);
+                return;
+            }
+            Files.deleteIfExists(replay);
+            replayed.incrementAndGet();
+            currentReplayBackoffMs = 0;
+            nextReplayAt = 0;
+        } catch (IOException e) {
+            logger.error("Failed to update telemetry replay file {}", replay, e);
+            backOff();
+        }
+    }
+
+    // Write the rows that failed and the unread rest of the replay file to a file that replaces it
+    private Path keepUnwritten(Path replay, List<TelemetryDto> unwritten, BufferedReader rest) throws IOException {
+        Path remainder = Paths.get(replay + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(remainder, StandardCharsets.UTF_8)) {
+            for (TelemetryDto telemetryDto : unwritten) {
+                writer.write(objectMapper.writeValueAsString(telemetryDto));
+                writer.newLine();
+            }
+            String line;
+            while ((line = rest.readLine()) != null) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        return remainder;
+    }
+
+    // Double the wait before the next replay, starting at replay-backoff-ms and capped at replay-max-backoff-ms
+    private void backOff() {
+        failedReplays.incrementAndGet();
+        currentReplayBackoffMs = currentReplayBackoffMs == 0 ? replayBackoffMs
+                : Math.min(currentReplayBackoffMs * 2, replayMaxBackoffMs);
+        nextReplayAt = System.currentTimeMillis() + currentReplayBackoffMs;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    // Counters for the ingest pipeline
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("backpressure", backpressure.name());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("queueDepth", queue.size());
+        stats.put("enqueued", enqueued.get());
+        stats.put("written", written.get());
+        stats.put("batches", batches.get());
+        stats.put("dropped", dropped.get());
+        stats.put("spilled", spilled.get());
+        stats.put("failed", failed.get());
+        stats.put("bisectedBatches", bisected.get());
+        stats.put("spillReplays", replayed.get());
+        stats.put("malformedSpillLines", malformed.get());
+        stats.put("failedSpillReplays", failedReplays.get());
+        stats.put("replayBackoffMs", currentReplayBackoffMs);
+        return stats;
+    }
+}
@@ -0,0 +1,236 @@
+package com.smartcar.monitoring.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the telemetry table RANGE-partitioned by month on its timestamp, so
+ * time-bounded queries are pruned to the partitions they cover and expired
+ * months are removed with DROP PARTITION instead of row-by-row deletes. A
+ * partition is optionally archived to a gzipped NDJSON file first, and is
+ * only dropped once the rollup compactor has folded all of its rows. The
+ * table itself is partitioned by the V3 schema migration; this service only
+ * maintains the partitions and does nothing on an unpartitioned table.
+ */
+@Service
+public class TelemetryPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryPartitionService.class);
+
+    private static final String FUTURE_PARTITION = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final String PARTITIONS_SQL = "SELECT PARTITION_NAME, TABLE_ROWS FROM information_schema.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'telemetry' AND PARTITION_NAME IS NOT NULL "
+            + "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private static final String ARCHIVE_COLUMNS = "id, car_id, trip_id, timestamp, speed, fuel, temperature, location, "
+            + "creation_date, last_update_on, is_active";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TelemetryRollupService telemetryRollupService;
+
+    @Value("${telemetry.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${telemetry.partitioning.premake-months:3}")
+    private int premakeMonths;
+
+    // 0 keeps every month
+    @Value("${telemetry.retention.months:0}")
+    private int retentionMonths;
+
+    @Value("${telemetry.retention.archive:true}")
+    private boolean archive;
+
+    @Value("${telemetry.retention.archive-dir:${java.io.tmpdir}/smart-car-telemetry-archive}")
+    private String archiveDir;
+
+    private final AtomicLong droppedPartitions = new AtomicLong();
+    private final AtomicLong archivedRows = new AtomicLong();
+
+    // Bring partitions up to date at startup (the migration only creates them up to the current month)
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            maintain();
+        } catch (Exception e) {
+            logger.error("Failed to initialize telemetry partitions", e);
+        }
+    }
+
+    // Pre-create upcoming months and drop (or archive and drop) expired ones
+    @Scheduled(cron = "${telemetry.partitioning.maintenance-cron:0 15 0 * * *}")
+    public synchronized void maintain() {
+        if (!enabled) {
+            return;
+        }
+        List<String> partitions = new ArrayList<>();
+        for (Map<String, Object> row : listPartitions()) {
+            partitions.add((String) row.get("PARTITION_NAME"));
+        }
+        if (partitions.isEmpty()) {
+            logger.warn("Telemetry table is not partitioned; partition maintenance and retention are skipped");
+            return;
+        }
+        ensureFuturePartitions(partitions);
+        applyRetention(partitions);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("retentionMonths", retentionMonths);
+        stats.put("archive", archive);
+        stats.put("archiveDir", archiveDir);
+        stats.put("droppedPartitions", droppedPartitions.get());
+        stats.put("archivedRows", archivedRows.get());
+        stats.put("partitions", enabled ? listPartitions() : List.of());
+        return stats;
+    }
+
+    private List<Map<String, Object>> listPartitions() {
+        return jdbcTemplate.queryForList(PARTITIONS_SQL);
+    }
+
+    // Split the catch-all partition so every month up to the premake horizon has its own
+    private void ensureFuturePartitions(List<String> partitions) {
+        YearMonth newest = null;
+        for (String name : partitions) {
+            YearMonth month = monthOf(name);
+            if (month != null && (newest == null || month.isAfter(newest))) {
+                newest = month;
+            }
+        }
+        YearMonth horizon = YearMonth.now().plusMonths(premakeMonths);
+        YearMonth month = newest != null ? newest.plusMonths(1) : YearMonth.now();
+        for (; !month.isAfter(horizon); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("ALTER TABLE telemetry REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO ("
+                    + partitionDefinition(month) + ", PARTITION " + FUTURE_PARTITION
+                    + " VALUES LESS THAN (MAXVALUE))");
+            logger.info("Created telemetry partition {}", PARTITION_NAME.format(month));
+        }
+    }
+
+    private void applyRetention(List<String> partitions) {
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        for (String name : partitions) {
+            YearMonth month = monthOf(name);
+            if (month == null || !month.isBefore(oldestKept)) {
+                continue;
+            }
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM telemetry PARTITION (" + name + ")",
+                    Long.class);
+            if (maxId != null && telemetryRollupService.isEnabled() && maxId > telemetryRollupService.getWatermark()) {
+                logger.info("Keeping expired partition {} until the rollup compactor reaches id {}", name, maxId);
+                continue;
+            }
+            if (archive && maxId != null) {
+                archivePartition(name);
+            }
+            jdbcTemplate.execute("ALTER TABLE telemetry DROP PARTITION " + name);
+            droppedPartitions.incrementAndGet();
+            logger.info("Dropped expired telemetry partition {}", name);
+        }
+    }
+
+    // Stream one partition to <archiveDir>/telemetry-<partition>.ndjson.gz, written via a temp file
+    private void archivePartition(String name) {
+        Path dir = Paths.get(archiveDir);
+        Path target = dir.resolve("telemetry-" + name + ".ndjson.gz");
+        Path temp = dir.resolve("telemetry-" + name + ".ndjson.gz.part");
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(1000);
+        AtomicLong rows = new AtomicLong();
+        try {
+            Files.createDirectories(dir);
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8))) {
+                streaming.query("SELECT " + ARCHIVE_COLUMNS + " FROM telemetry PARTITION (" + name + ") ORDER BY id",
+                        rs -> {
+                            Map<String, Object> row = new LinkedHashMap<>();
+                            row.put("id", rs.getLong("id"));
+                            row.put("carId", rs.getObject("car_id"));
+                            row.put("tripId", rs.getObject("trip_id"));
+                            row.put("timestamp", toLocal(rs.getTimestamp("timestamp")));
+                            row.put("speed", rs.getInt("speed"));
+                            row.put("fuel", rs.getInt("fuel"));
+                            row.put("temperature", rs.getInt("temperature"));
+                            row.put("location", rs.getString("location"));
+                            row.put("creationDate", toLocal(rs.getTimestamp("creation_date")));
+                            row.put("lastUpdateOn", toLocal(rs.getTimestamp("last_update_on")));
+                            row.put("isActive", rs.getBoolean("is_active"));
+                            try {
+                                writer.write(objectMapper.writeValueAsString(row));
+                                writer.newLine();
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            rows.incrementAndGet();
+                        });
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalStateException("Failed to archive telemetry partition " + name, e);
+        }
+        archivedRows.addAndGet(rows.get());
+        logger.info("Archived {} telemetry rows from partition {} to {}", rows.get(), name, target);
+    }
+
+    private static String partitionDefinition(YearMonth month) {
+        return "PARTITION " + PARTITION_NAME.format(month) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1)
+                + " 00:00:00')";
+    }
+
+    private static YearMonth monthOf(String partitionName) {
+        if (partitionName == null || !partitionName.matches("p\\d{6}")) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(partitionName.substring(1, 5)),
+                Integer.parseInt(partitionName.substring(5)));
+    }
+
+    private static LocalDateTime toLocal(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,332 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.TelemetryBucketDto;
+import com.smartcar.monitoring.model.RollupWatermark;
+import com.smartcar.monitoring.repository.RollupWatermarkRepository;
+import com.smartcar.monitoring.repository.TelemetryRepository;
+import com.smartcar.monitoring.repository.TelemetryRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Continuous per-car rollups of telemetry at one-minute and one-hour
+ * resolution. A scheduled compactor folds only the rows past a watermark into
+ * telemetry_rollups, and bucket queries read the coarsest rollup whose
+ * resolution divides the requested bucket width, topped up with the raw rows
+ * the compactor has not reached yet. Editing, deactivating or reactivating a
+ * row the compactor already folded in rebuilds that row's two buckets from
+ * the raw rows once the change commits. Retention only drops raw partitions;
+ * the rollups of dropped months are kept.
+ */
+@Service
+public class TelemetryRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryRollupService.class);
+
+    public static final int MINUTE = 60;
+    public static final int HOUR = 3600;
+
+    private static final String WATERMARK = "telemetry_rollup";
+
+    // Last id of the next batch, only counting rows old enough that no earlier id can still be in flight
+    private static final String UPPER_BOUND_SQL = "SELECT MAX(id) FROM (SELECT id FROM telemetry "
+            + "WHERE id > ? AND creation_date <= ? ORDER BY id LIMIT ?) batch";
+
+    // Rollup bucket boundaries are counted from this instant (same origin as upsertSql)
+    private static final LocalDateTime BUCKET_ORIGIN = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private static final String DELETE_BUCKET_SQL = "DELETE FROM telemetry_rollups "
+            + "WHERE car_id = ? AND resolution_seconds = ? AND bucket_start = ?";
+
+    // One bucket recounted from the raw rows the compactor has reached
+    private static final String REBUILD_BUCKET_SQL = "INSERT INTO telemetry_rollups (car_id, resolution_seconds, "
+            + "bucket_start, sample_count, speed_sum, speed_min, speed_max, fuel_sum, fuel_min, fuel_max, "
+            + "temperature_sum, temperature_min, temperature_max, last_update_on) "
+            + "SELECT ?, ?, ?, COUNT(*), SUM(t.speed), MIN(t.speed), MAX(t.speed), SUM(t.fuel), MIN(t.fuel), "
+            + "MAX(t.fuel), SUM(t.temperature), MIN(t.temperature), MAX(t.temperature), NOW() "
+            + "FROM telemetry t WHERE t.car_id = ? AND t.is_active = true AND t.timestamp >= ? AND t.timestamp < ? "
+            + "AND t.id <= ? HAVING COUNT(*) > 0";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TelemetryRepository telemetryRepository;
+
+    @Autowired
+    private TelemetryRollupRepository telemetryRollupRepository;
+
+    @Autowired
+    private RollupWatermarkRepository rollupWatermarkRepository;
+
+    @Value("${telemetry.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${telemetry.rollup.batch-size:50000}")
+    private int batchSize;
+
+    @Value("${telemetry.rollup.settle-seconds:10}")
+    private long settleSeconds;
+
+    private final AtomicLong compactedRows = new AtomicLong();
+    private final AtomicLong recomputedBuckets = new AtomicLong();
+    private volatile long lastRunMs;
+    private volatile LocalDateTime lastRunAt;
+
+    // Fold the next batch of raw rows past the watermark into both rollup resolutions
+    @Scheduled(fixedDelayString = "${telemetry.rollup.interval-ms:30000}",
+            initialDelayString = "${telemetry.rollup.interval-ms:30000}")
+    @Transactional
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        RollupWatermark watermark = rollupWatermarkRepository.findByName(WATERMARK)
+                .orElseGet(() -> new RollupWatermark(WATERMARK));
+        long from = watermark.getLastTelemetryId();
+        Long to = jdbcTemplate.queryForObject(UPPER_BOUND_SQL, Long.class, from,
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(settleSeconds)), batchSize);
+        if (to == null) {
+            return;
+        }
+
+        jdbcTemplate.update(upsertSql(MINUTE), from, to);
+        jdbcTemplate.update(upsertSql(HOUR), from, to);
+
+        watermark.setLastTelemetryId(to);
+        watermark.setLastUpdateOn(LocalDateTime.now());
+        rollupWatermarkRepository.save(watermark);
+
+        compactedRows.addAndGet(to - from);
+        lastRunMs = System.currentTimeMillis() - started;
+        lastRunAt = LocalDateTime.now();
+        logger.debug("Telemetry rollup advanced watermark {} -> {} in {} ms", from, to, lastRunMs);
+    }
+
+    /**
+     * Rebuilds the one-minute and one-hour buckets holding a telemetry row after
+     * the row was edited, deactivated or reactivated. Runs after the current
+     * transaction commits, in its own transaction that locks the watermark
+     * first, so it cannot interleave with the compactor. Rows past the
+     * watermark are not rolled up yet and need nothing.
+     */
+    public void recomputeBucketsAfterCommit(Long carId, Long telemetryId, LocalDateTime timestamp) {
+        if (!enabled || carId == null || telemetryId == null || timestamp == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recomputeBuckets(carId, telemetryId, timestamp);
+                }
+            });
+        } else {
+            recomputeBuckets(carId, telemetryId, timestamp);
+        }
+    }
+
+    void recomputeBuckets(Long carId, Long telemetryId, LocalDateTime timestamp) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transaction.executeWithoutResult(status -> {
+                RollupWatermark watermark = rollupWatermarkRepository.findByName(WATERMARK).orElse(null);
+                if (watermark == null || telemetryId > watermark.getLastTelemetryId()) {
+                    return;
+                }
+                for (int resolution : new int[] { MINUTE, HOUR }) {
+                    Timestamp bucketStart = Timestamp.valueOf(bucketStart(timestamp, resolution));
+                    Timestamp bucketEnd = Timestamp.valueOf(bucketStart.toLocalDateTime().plusSeconds(resolution));
+                    jdbcTemplate.update(DELETE_BUCKET_SQL, carId, resolution, bucketStart);
+                    jdbcTemplate.update(REBUILD_BUCKET_SQL, carId, resolution, bucketStart, carId, bucketStart,
+                            bucketEnd, watermark.getLastTelemetryId());
+                    recomputedBuckets.incrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("Failed to recompute telemetry rollups of car {} at {}", carId, timestamp, e);
+        }
+    }
+
+    static LocalDateTime bucketStart(LocalDateTime timestamp, int resolutionSeconds) {
+        long seconds = Duration.between(BUCKET_ORIGIN, timestamp).getSeconds();
+        return BUCKET_ORIGIN.plusSeconds(Math.floorDiv(seconds, resolutionSeconds) * resolutionSeconds);
+    }
+
+    /**
+     * Min/avg/max per bucket for a car. Bucket width is resolutionSeconds, or
+     * sized to fit maxPoints and rounded up to a whole rollup resolution so the
+     * rollups can serve it. Buckets are aligned to the rollup resolution, so
+     * the first one may start before startTime; only samples inside
+     * [startTime, endTime] are counted. Rollups serve the rollup buckets that
+     * lie wholly inside the range, and the partial ones at either end are read
+     * from the raw rows (which retention may already have dropped).
+     */
+    @Transactional(readOnly = true)
+    public List<TelemetryBucketDto> getBuckets(Long carId, LocalDateTime startTime, LocalDateTime endTime,
+            Long resolutionSeconds, int maxPoints) {
+        long bucketSeconds = resolutionSeconds != null && resolutionSeconds > 0 ? resolutionSeconds
+                : alignWidth((long) Math.ceil(Duration.between(startTime, endTime).getSeconds()
+                        / (double) Math.max(1, Math.min(maxPoints, TelemetryService.MAX_PAGE_SIZE))));
+        int resolution = bucketSeconds % HOUR == 0 ? HOUR : bucketSeconds % MINUTE == 0 ? MINUTE : 0;
+        if (resolution == 0) {
+            return toBuckets(startTime, bucketSeconds, List.of(),
+                    telemetryRepository.aggregateByCarIdAndTimeBucket(carId, startTime, startTime, endTime,
+                            bucketSeconds, 0L));
+        }
+
+        LocalDateTime origin = startTime.truncatedTo(resolution == HOUR ? ChronoUnit.HOURS : ChronoUnit.MINUTES);
+        // Rollup buckets starting in [wholeFrom, wholeTo) lie wholly inside the range
+        LocalDateTime wholeFrom = origin.equals(startTime) ? origin : origin.plusSeconds(resolution);
+        LocalDateTime wholeTo = bucketStart(endTime, resolution);
+        if (!wholeFrom.isBefore(wholeTo)) {
+            return toBuckets(origin, bucketSeconds, List.of(),
+                    telemetryRepository.aggregateByCarIdAndTimeBucket(carId, origin, startTime, endTime,
+                            bucketSeconds, 0L));
+        }
+
+        long watermark = getWatermark();
+        List<Object[]> rolledUp = telemetryRollupRepository.aggregateByCarIdAndTimeBucket(carId, resolution, origin,
+                wholeFrom, wholeTo, bucketSeconds);
+        List<Object[]> raw = new ArrayList<>();
+        raw.addAll(telemetryRepository.aggregateByCarIdAndTimeBucketBefore(carId, origin, startTime, wholeFrom,
+                bucketSeconds, 0L));
+        raw.addAll(telemetryRepository.aggregateByCarIdAndTimeBucketBefore(carId, origin, wholeFrom, wholeTo,
+                bucketSeconds, watermark));
+        raw.addAll(telemetryRepository.aggregateByCarIdAndTimeBucket(carId, origin, wholeTo, endTime, bucketSeconds,
+                0L));
+        return toBuckets(origin, bucketSeconds, rolledUp, raw);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Highest telemetry id already folded into the rollups
+    @Transactional(readOnly = true)
+    public long getWatermark() {
+        return rollupWatermarkRepository.findById(WATERMARK).map(RollupWatermark::getLastTelemetryId).orElse(0L);
+    }
+
+    // Compactor progress for the metrics endpoint
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("watermark", getWatermark());
+        stats.put("compactedRows", compactedRows.get());
+        stats.put("recomputedBuckets", recomputedBuckets.get());
+        stats.put("lastRunMs", lastRunMs);
+        stats.put("lastRunAt", lastRunAt);
+        return stats;
+    }
+
+    private static long alignWidth(long seconds) {
+        if (seconds >= HOUR) {
+            return (seconds + HOUR - 1) / HOUR * HOUR;
+        }
+        if (seconds >= MINUTE) {
+            return (seconds + MINUTE - 1) / MINUTE * MINUTE;
+        }
+        return Math.max(1, seconds);
+    }
+
+    // Merge rollup and raw-tail rows (bucket, count, then sum/min/max per metric) by bucket index
+    private static List<TelemetryBucketDto> toBuckets(LocalDateTime origin, long bucketSeconds,
+            List<Object[]> rolledUp, List<Object[]> tail) {
+        TreeMap<Long, long[]> merged = new TreeMap<>();
+        for (List<Object[]> rows : List.of(rolledUp, tail)) {
+            for (Object[] row : rows) {
+                long[] acc = merged.get(((Number) row[0]).longValue());
+                if (acc == null) {
+                    acc = new long[10];
+                    for (int i = 0; i < 10; i++) {
+                        acc[i] = ((Number) row[i + 1]).longValue();
+                    }
+                    merged.put(((Number) row[0]).longValue(), acc);
+                    continue;
+                }
+                acc[0] += ((Number) row[1]).longValue();
+                for (int metric = 1; metric < 10; metric += 3) {
+                    acc[metric] += ((Number) row[metric + 1]).longValue();
+                    acc[metric + 1] = Math.min(acc[metric + 1], ((Number) row[metric + 2]).longValue());
+                    acc[metric + 2] = Math.max(acc[metric + 2], ((Number) row[metric + 3]).longValue());
+                }
+            }
+        }
+
+        List<TelemetryBucketDto> buckets = new ArrayList<>(merged.size());
+        for (Map.Entry<Long, long[]> entry : merged.entrySet()) {
+            long[] acc = entry.getValue();
+            long count = acc[0];
+            TelemetryBucketDto bucket = new TelemetryBucketDto();
+            bucket.setBucketStart(origin.plusSeconds(entry.getKey() * bucketSeconds));
+            bucket.setCount(count);
+            bucket.setAvgSpeed(Math.round(acc[1] * 100.0 / count) / 100.0);
+            bucket.setMinSpeed((int) acc[2]);
+            bucket.setMaxSpeed((int) acc[3]);
+            bucket.setAvgFuel(Math.round(acc[4] * 100.0 / count) / 100.0);
+            bucket.setMinFuel((int) acc[5]);
+            bucket.setMaxFuel((int) acc[6]);
+            bucket.setAvgTemperature(Math.round(acc[7] * 100.0 / count) / 100.0);
+            bucket.setMinTemperature((int) acc[8]);
+            bucket.setMaxTemperature((int) acc[9]);
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+
+    // INSERT ... SELECT of one resolution's buckets for an id range, accumulating into existing rows
+    private static String upsertSql(int resolutionSeconds) {
+        String bucketStart = "TIMESTAMPADD(SECOND, FLOOR(TIMESTAMPDIFF(SECOND, '2000-01-01', t.timestamp) / "
+                + resolutionSeconds + ") * " + resolutionSeconds + ", '2000-01-01')";
+        return "INSERT INTO telemetry_rollups (car_id, resolution_seconds, bucket_start, sample_count, "
+                + "speed_sum, speed_min, speed_max, fuel_sum, fuel_min, fuel_max, "
+                + "temperature_sum, temperature_min, temperature_max, last_update_on) "
+                + "SELECT * FROM (SELECT t.car_id, " + resolutionSeconds + " AS resolution_seconds, "
+                + bucketStart + " AS bucket_start, COUNT(*) AS sample_count, "
+                + "SUM(t.speed) AS speed_sum, MIN(t.speed) AS speed_min, MAX(t.speed) AS speed_max, "
+                + "SUM(t.fuel) AS fuel_sum, MIN(t.fuel) AS fuel_min, MAX(t.fuel) AS fuel_max, "
+                + "SUM(t.temperature) AS temperature_sum, MIN(t.temperature) AS temperature_min, "
+                + "MAX(t.temperature) AS temperature_max, NOW() AS last_update_on "
+                + "FROM telemetry t WHERE t.id > ? AND t.id <= ? AND t.car_id IS NOT NULL AND t.is_active = true "
+                + "GROUP BY t.car_id, bucket_start) agg "
+                + "ON DUPLICATE KEY UPDATE sample_count = telemetry_rollups.sample_count + agg.sample_count, "
+                + "speed_sum = telemetry_rollups.speed_sum + agg.speed_sum, "
+                + "speed_min = LEAST(telemetry_rollups.speed_min, agg.speed_min), "
+                + "speed_max = GREATEST(telemetry_rollups.speed_max, agg.speed_max), "
+                + "fuel_sum = telemetry_rollups.fuel_sum + agg.fuel_sum, "
+                + "fuel_min = LEAST(telemetry_rollups.fuel_min, agg.fuel_min), "
+                + "fuel_max = GREATEST(telemetry_rollups.fuel_max, agg.fuel_max), "
+                + "temperature_sum = telemetry_rollups.temperature_sum + agg.temperature_sum, "
+                + "temperature_min = LEAST(telemetry_rollups.temperature_min, agg.temperature_min), "
+                + "temperature_max = GREATEST(telemetry_rollups.temperature_max, agg.temperature_max), "
+                + "last_update_on = agg.last_update_on";
+    }
+}
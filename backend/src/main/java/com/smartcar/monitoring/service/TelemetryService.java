@@ -1,28 +1,76 @@
 // TelemetryService.java
 package com.smartcar.monitoring.service;
 
+import com.smartcar.monitoring.dto.CursorPageDto;
+import com.smartcar.monitoring.dto.TelemetryBucketDto;
+import com.smartcar.monitoring.dto.TelemetryDto;
+import com.smartcar.monitoring.model.Alert;
 import com.smartcar.monitoring.model.Telemetry;
 import com.smartcar.monitoring.model.Car;
+import com.smartcar.monitoring.model.Trip;
+import com.smartcar.monitoring.model.TripSummary;
+import com.smartcar.monitoring.repository.AlertRepository;
 import com.smartcar.monitoring.repository.TelemetryRepository;
 import com.smartcar.monitoring.repository.CarRepository;
+import com.smartcar.monitoring.repository.TripRepository;
+import com.smartcar.monitoring.repository.TripSummaryRepository;
 import com.smartcar.monitoring.exception.TelemetryNotFoundException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class TelemetryService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryService.class);
+
+    // Lower bound for keyset scans that have no time range (MySQL DATETIME minimum)
+    private static final LocalDateTime KEYSET_ORIGIN = LocalDateTime.of(1000, 1, 1, 0, 0);
+
+    public static final int MAX_PAGE_SIZE = 5000;
+
     @Autowired
     private TelemetryRepository telemetryRepository;
 
     @Autowired
     private CarRepository carRepository;
 
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private TripSummaryRepository tripSummaryRepository;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private VehicleStateCache vehicleStateCache;
+
+    @Autowired
+    private TripStatsTracker tripStatsTracker;
+
+    @Autowired
+    private TelemetryRollupService telemetryRollupService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     // Create new telemetry record
     public Telemetry createTelemetry(Telemetry telemetry) {
         telemetry.setCreationDate(LocalDateTime.now());
@@ -33,7 +81,11 @@ public class TelemetryService {
             telemetry.setTimestamp(LocalDateTime.now());
         }
 
-        return telemetryRepository.save(telemetry);
+        Telemetry saved = telemetryRepository.save(telemetry);
+        TelemetryDto savedDto = new TelemetryDto(saved);
+        vehicleStateCache.update(savedDto);
+        tripStatsTracker.record(savedDto);
+        return saved;
     }
 
     // Get telemetry by ID
@@ -74,6 +126,98 @@ public class TelemetryService {
         return telemetryRepository.findByCarIdAndTimestampBetweenAndIsActiveTrue(carId, startTime, endTime);
     }
 
+    // Get one keyset page of a car's telemetry in a time range
+    @Transactional(readOnly = true)
+    public CursorPageDto<TelemetryDto> getTelemetryPageByCarAndTimestampRange(Long carId, LocalDateTime startTime,
+            LocalDateTime endTime, String cursor, int limit) {
+        CursorPageDto.Cursor after = CursorPageDto.decodeCursor(cursor,
+                new CursorPageDto.Cursor(startTime, 0L));
+        int size = clampPageSize(limit);
+        List<Telemetry> rows = telemetryRepository.findPageByCarIdAndTimestampBetween(carId, startTime, endTime,
+                after.getTimestamp(), after.getId(), PageRequest.of(0, size + 1));
+        return toPage(rows, size);
+    }
+
+    // Get one keyset page of a trip's telemetry
+    @Transactional(readOnly = true)
+    public CursorPageDto<TelemetryDto> getTelemetryPageByTrip(Long tripId, String cursor, int limit) {
+        CursorPageDto.Cursor after = CursorPageDto.decodeCursor(cursor,
+                new CursorPageDto.Cursor(KEYSET_ORIGIN, 0L));
+        int size = clampPageSize(limit);
+        List<Telemetry> rows = telemetryRepository.findPageByTripId(tripId, after.getTimestamp(), after.getId(),
+                PageRequest.of(0, size + 1));
+        return toPage(rows, size);
+    }
+
+    // Get one keyset page of all active telemetry
+    @Transactional(readOnly = true)
+    public CursorPageDto<TelemetryDto> getAllActiveTelemetryPage(String cursor, int limit) {
+        CursorPageDto.Cursor after = CursorPageDto.decodeCursor(cursor,
+                new CursorPageDto.Cursor(KEYSET_ORIGIN, 0L));
+        int size = clampPageSize(limit);
+        List<Telemetry> rows = telemetryRepository.findPageAfter(after.getTimestamp(), after.getId(),
+                PageRequest.of(0, size + 1));
+        return toPage(rows, size);
+    }
+
+    // Stream a car's telemetry in a time range to the sink, one row at a time
+    @Transactional(readOnly = true)
+    public void streamTelemetryByCarAndTimestampRange(Long carId, LocalDateTime startTime, LocalDateTime endTime,
+            Consumer<TelemetryDto> sink) {
+        try (Stream<Telemetry> rows = telemetryRepository.streamByCarIdAndTimestampBetween(carId, startTime,
+                endTime)) {
+            drain(rows, sink);
+        }
+    }
+
+    // Stream a trip's telemetry to the sink, one row at a time
+    @Transactional(readOnly = true)
+    public void streamTelemetryByTrip(Long tripId, Consumer<TelemetryDto> sink) {
+        try (Stream<Telemetry> rows = telemetryRepository.streamByTripId(tripId)) {
+            drain(rows, sink);
+        }
+    }
+
+    // Stream all active telemetry to the sink, one row at a time
+    @Transactional(readOnly = true)
+    public void streamAllActiveTelemetry(Consumer<TelemetryDto> sink) {
+        try (Stream<Telemetry> rows = telemetryRepository.streamAllActive()) {
+            drain(rows, sink);
+        }
+    }
+
+    // Get a car's telemetry in a time range reduced to at most maxPoints samples (LTTB on speed)
+    @Transactional(readOnly = true)
+    public List<TelemetryDto> getDownsampledTelemetryByCarAndTimestampRange(Long carId, LocalDateTime startTime,
+            LocalDateTime endTime, int maxPoints) {
+        TelemetryDownsampler downsampler = new TelemetryDownsampler(startTime, endTime, clampPageSize(maxPoints));
+        streamTelemetryByCarAndTimestampRange(carId, startTime, endTime, downsampler);
+        return downsampler.finish();
+    }
+
+    // Get min/avg/max per time bucket, served from the rollups where the bucket width allows
+    @Transactional(readOnly = true)
+    public List<TelemetryBucketDto> getTelemetryBucketsByCarAndTimestampRange(Long carId, LocalDateTime startTime,
+            LocalDateTime endTime, Long resolutionSeconds, int maxPoints) {
+        return telemetryRollupService.getBuckets(carId, startTime, endTime, resolutionSeconds, maxPoints);
+    }
+
+    // Detach each row once mapped so the persistence context stays empty
+    private void drain(Stream<Telemetry> rows, Consumer<TelemetryDto> sink) {
+        rows.forEach(t -> {
+            sink.accept(new TelemetryDto(t));
+            entityManager.detach(t);
+        });
+    }
+
+    private int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private CursorPageDto<TelemetryDto> toPage(List<Telemetry> rows, int size) {
+        return CursorPageDto.fromRows(rows, size, TelemetryDto::new, Telemetry::getTimestamp, Telemetry::getId);
+    }
+
     // Get telemetry by fuel level threshold
     public List<Telemetry> getTelemetryByFuelThreshold(Integer fuelThreshold) {
         return telemetryRepository.findByFuelLessThanAndIsActiveTrue(fuelThreshold);
@@ -104,6 +248,31 @@ public class TelemetryService {
         return telemetryRepository.findLatestTelemetryByCarId(carId);
     }
 
+    // Get latest telemetry for all cars from the live state cache (no DB access)
+    public List<TelemetryDto> getLatestTelemetryStateForAllCars() {
+        return vehicleStateCache.getAll();
+    }
+
+    // Get latest telemetry for specific car from the live state cache (no DB access)
+    public Optional<TelemetryDto> getLatestTelemetryStateByCar(Long carId) {
+        return vehicleStateCache.get(carId);
+    }
+
+    // Seed the live state cache once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmVehicleStateCache() {
+        try {
+            List<TelemetryDto> latest = telemetryRepository.findLatestTelemetryForAllCars().stream()
+                    .map(TelemetryDto::new)
+                    .collect(Collectors.toList());
+            vehicleStateCache.warm(latest);
+            logger.info("Vehicle state cache warmed with {} cars", vehicleStateCache.size());
+        } catch (Exception e) {
+            logger.error("Failed to warm vehicle state cache", e);
+        }
+    }
+
     // Get telemetry records created in date range
     public List<Telemetry> getTelemetryCreatedBetween(LocalDateTime startDate, LocalDateTime endDate) {
         return telemetryRepository.findTelemetryCreatedBetween(startDate, endDate);
@@ -119,7 +288,10 @@ public class TelemetryService {
         telemetry.setLocation(telemetryDetails.getLocation());
         telemetry.setLastUpdateOn(LocalDateTime.now());
 
-        return telemetryRepository.save(telemetry);
+        Telemetry saved = telemetryRepository.save(telemetry);
+        vehicleStateCache.refresh(new TelemetryDto(saved));
+        telemetryRollupService.recomputeBucketsAfterCommit(saved.getCar().getId(), saved.getId(), saved.getTimestamp());
+        return saved;
     }
 
     // Soft delete telemetry
@@ -128,6 +300,16 @@ public class TelemetryService {
         telemetry.setIsActive(false);
         telemetry.setLastUpdateOn(LocalDateTime.now());
         telemetryRepository.save(telemetry);
+        telemetryRollupService.recomputeBucketsAfterCommit(telemetry.getCar().getId(), telemetry.getId(),
+                telemetry.getTimestamp());
+
+        // If the live state was this row, fall back to the car's previous active row
+        Long carId = telemetry.getCar().getId();
+        if (vehicleStateCache.evict(carId, telemetry.getId(), telemetry.getTimestamp())) {
+            telemetryRepository.findFirstByCarIdAndIsActiveTrueOrderByTimestampDescIdDesc(carId)
+                    .map(TelemetryDto::new)
+                    .ifPresent(vehicleStateCache::update);
+        }
     }
 
     // Reactivate telemetry
@@ -135,7 +317,9 @@ public class TelemetryService {
         Telemetry telemetry = getTelemetryById(id);
         telemetry.setIsActive(true);
         telemetry.setLastUpdateOn(LocalDateTime.now());
-        telemetryRepository.save(telemetry);
+        Telemetry saved = telemetryRepository.save(telemetry);
+        vehicleStateCache.update(new TelemetryDto(saved));
+        telemetryRollupService.recomputeBucketsAfterCommit(saved.getCar().getId(), saved.getId(), saved.getTimestamp());
     }
 
     // Count telemetry records by car
@@ -169,56 +353,148 @@ public class TelemetryService {
     }
 
     // Get telemetry statistics for dashboard
+    @Transactional(readOnly = true)
     public TelemetryStatistics getTelemetryStatistics(Long carId, LocalDateTime startTime, LocalDateTime endTime) {
-        List<Telemetry> telemetryList = getTelemetryByCarAndTimestampRange(carId, startTime, endTime);
-
-        if (telemetryList.isEmpty()) {
+        List<Object[]> aggregate = telemetryRepository.aggregateByCarIdAndTimestampBetween(carId, startTime, endTime);
+        if (isEmptyAggregate(aggregate)) {
             return new TelemetryStatistics();
         }
+        return toStatistics(aggregate.get(0),
+                telemetryRepository.speedHistogramByCarIdAndTimestampBetween(carId, startTime, endTime));
+    }
 
-        TelemetryStatistics stats = new TelemetryStatistics();
-        stats.setTotalRecords(telemetryList.size());
-
-        // Calculate averages
-        double avgSpeed = telemetryList.stream().mapToInt(Telemetry::getSpeed).average().orElse(0.0);
-        double avgFuel = telemetryList.stream().mapToInt(Telemetry::getFuel).average().orElse(0.0);
-        double avgTemperature = telemetryList.stream().mapToInt(Telemetry::getTemperature).average().orElse(0.0);
+    // Get telemetry statistics for a specific trip: live running stats, else the stored summary
+    @Transactional(readOnly = true)
+    public TelemetryStatistics getTelemetryStatisticsByTrip(Long tripId) {
+        Optional<TripStatsTracker.RunningTripStats> live = tripStatsTracker.get(tripId);
+        if (live.isPresent()) {
+            return backfill(tripId, live.get()).toStatistics();
+        }
+        Optional<TripSummary> summary = tripSummaryRepository.findByTripIdAndIsActiveTrue(tripId);
+        if (summary.isPresent()) {
+            return toStatistics(summary.get());
+        }
+        // Not tracked: no sample of this trip arrived since startup (so none is queued), the rows are complete
+        return rebuildTripStats(tripId, null).toStatistics();
+    }
 
-        stats.setAverageSpeed(Math.round(avgSpeed * 100.0) / 100.0);
-        stats.setAverageFuel(Math.round(avgFuel * 100.0) / 100.0);
-        stats.setAverageTemperature(Math.round(avgTemperature * 100.0) / 100.0);
+    // Persist the final statistics of a completed trip and stop tracking it
+    public TripSummary completeTripStatistics(Long tripId) {
+        TripStatsTracker.RunningTripStats stats = tripStatsTracker.remove(tripId)
+                .map(tracked -> backfill(tripId, tracked))
+                .orElseGet(() -> rebuildTripStats(tripId, null));
+        TelemetryStatistics totals = stats.toStatistics();
+        TripSummary summary = tripSummaryRepository.findByTripId(tripId).orElseGet(() -> new TripSummary(tripId));
+        summary.setTotalRecords(totals.getTotalRecords());
+        summary.setSpeedSum(stats.getSpeedSum());
+        summary.setMinSpeed(totals.getMinSpeed());
+        summary.setMaxSpeed(totals.getMaxSpeed());
+        summary.setP50Speed(totals.getP50Speed());
+        summary.setP95Speed(totals.getP95Speed());
+        summary.setP99Speed(totals.getP99Speed());
+        summary.setFuelSum(stats.getFuelSum());
+        summary.setMinFuel(totals.getMinFuel());
+        summary.setMaxFuel(totals.getMaxFuel());
+        summary.setTemperatureSum(stats.getTemperatureSum());
+        summary.setMinTemperature(totals.getMinTemperature());
+        summary.setMaxTemperature(totals.getMaxTemperature());
+        summary.setDistanceKm(totals.getDistanceKm());
+        summary.setAlertCount(totals.getAlertCount());
+        summary.setCriticalAlertCount(totals.getCriticalAlertCount());
+        summary.setLastUpdateOn(LocalDateTime.now());
+        summary.setIsActive(true);
+        return tripSummaryRepository.save(summary);
+    }
 
-        // Find min/max values
-        stats.setMinSpeed(telemetryList.stream().mapToInt(Telemetry::getSpeed).min().orElse(0));
-        stats.setMaxSpeed(telemetryList.stream().mapToInt(Telemetry::getSpeed).max().orElse(0));
-        stats.setMinFuel(telemetryList.stream().mapToInt(Telemetry::getFuel).min().orElse(0));
-        stats.setMaxFuel(telemetryList.stream().mapToInt(Telemetry::getFuel).max().orElse(0));
-        stats.setMinTemperature(telemetryList.stream().mapToInt(Telemetry::getTemperature).min().orElse(0));
-        stats.setMaxTemperature(telemetryList.stream().mapToInt(Telemetry::getTemperature).max().orElse(0));
+    // Merge the stored samples before a tracked trip's live window into it, once
+    private TripStatsTracker.RunningTripStats backfill(Long tripId, TripStatsTracker.RunningTripStats stats) {
+        LocalDateTime before = stats.getBackfillBefore();
+        if (before != null) {
+            stats.mergeBackfill(rebuildTripStats(tripId, before));
+        }
+        return stats;
+    }
 
+    // One ordered pass over a trip's stored telemetry (before the given instant, if any), plus its alert counts
+    private TripStatsTracker.RunningTripStats rebuildTripStats(Long tripId, LocalDateTime before) {
+        TripStatsTracker.RunningTripStats stats = new TripStatsTracker.RunningTripStats();
+        if (before == null) {
+            streamTelemetryByTrip(tripId, stats::add);
+            stats.setAlertCounts(alertRepository.countByTripIdAndIsActiveTrue(tripId),
+                    alertRepository.countByTripIdAndSeverityAndIsActiveTrue(tripId, Alert.AlertSeverity.CRITICAL));
+        } else {
+            try (Stream<Telemetry> rows = telemetryRepository.streamByTripIdAndTimestampBefore(tripId, before)) {
+                drain(rows, stats::add);
+            }
+            stats.setAlertCounts(alertRepository.countByTripIdAndTimestampBeforeAndIsActiveTrue(tripId, before),
+                    alertRepository.countByTripIdAndSeverityAndTimestampBeforeAndIsActiveTrue(tripId,
+                            Alert.AlertSeverity.CRITICAL, before));
+        }
         return stats;
     }
 
-    // Get telemetry statistics for a specific trip
-    public TelemetryStatistics getTelemetryStatisticsByTrip(Long tripId) {
-        List<Telemetry> telemetryList = getTelemetryByTrip(tripId);
-        if (telemetryList.isEmpty()) {
-            return new TelemetryStatistics();
+    private static TelemetryStatistics toStatistics(TripSummary summary) {
+        TelemetryStatistics stats = new TelemetryStatistics();
+        int count = summary.getTotalRecords();
+        stats.setTotalRecords(count);
+        if (count > 0) {
+            stats.setAverageSpeed(Math.round(summary.getSpeedSum() * 100.0 / count) / 100.0);
+            stats.setAverageFuel(Math.round(summary.getFuelSum() * 100.0 / count) / 100.0);
+            stats.setAverageTemperature(Math.round(summary.getTemperatureSum() * 100.0 / count) / 100.0);
         }
+        stats.setMinSpeed(summary.getMinSpeed());
+        stats.setMaxSpeed(summary.getMaxSpeed());
+        stats.setMinFuel(summary.getMinFuel());
+        stats.setMaxFuel(summary.getMaxFuel());
+        stats.setMinTemperature(summary.getMinTemperature());
+        stats.setMaxTemperature(summary.getMaxTemperature());
+        stats.setP50Speed(summary.getP50Speed());
+        stats.setP95Speed(summary.getP95Speed());
+        stats.setP99Speed(summary.getP99Speed());
+        stats.setDistanceKm(summary.getDistanceKm());
+        stats.setAlertCount(summary.getAlertCount());
+        stats.setCriticalAlertCount(summary.getCriticalAlertCount());
+        return stats;
+    }
+
+    private static boolean isEmptyAggregate(List<Object[]> aggregate) {
+        return aggregate.isEmpty() || ((Number) aggregate.get(0)[0]).longValue() == 0;
+    }
+
+    // Map a COUNT/AVG/MIN/MAX row and a (speed, count) histogram onto TelemetryStatistics
+    private static TelemetryStatistics toStatistics(Object[] row, List<Object[]> speedHistogram) {
         TelemetryStatistics stats = new TelemetryStatistics();
-        stats.setTotalRecords(telemetryList.size());
-        double avgSpeed = telemetryList.stream().mapToInt(Telemetry::getSpeed).average().orElse(0.0);
-        double avgFuel = telemetryList.stream().mapToInt(Telemetry::getFuel).average().orElse(0.0);
-        double avgTemperature = telemetryList.stream().mapToInt(Telemetry::getTemperature).average().orElse(0.0);
-        stats.setAverageSpeed(Math.round(avgSpeed * 100.0) / 100.0);
-        stats.setAverageFuel(Math.round(avgFuel * 100.0) / 100.0);
-        stats.setAverageTemperature(Math.round(avgTemperature * 100.0) / 100.0);
-        stats.setMinSpeed(telemetryList.stream().mapToInt(Telemetry::getSpeed).min().orElse(0));
-        stats.setMaxSpeed(telemetryList.stream().mapToInt(Telemetry::getSpeed).max().orElse(0));
-        stats.setMinFuel(telemetryList.stream().mapToInt(Telemetry::getFuel).min().orElse(0));
-        stats.setMaxFuel(telemetryList.stream().mapToInt(Telemetry::getFuel).max().orElse(0));
-        stats.setMinTemperature(telemetryList.stream().mapToInt(Telemetry::getTemperature).min().orElse(0));
-        stats.setMaxTemperature(telemetryList.stream().mapToInt(Telemetry::getTemperature).max().orElse(0));
+        stats.setTotalRecords(((Number) row[0]).intValue());
+        stats.setAverageSpeed(Math.round(((Number) row[1]).doubleValue() * 100.0) / 100.0);
+        stats.setMinSpeed(((Number) row[2]).intValue());
+        stats.setMaxSpeed(((Number) row[3]).intValue());
+        stats.setAverageFuel(Math.round(((Number) row[4]).doubleValue() * 100.0) / 100.0);
+        stats.setMinFuel(((Number) row[5]).intValue());
+        stats.setMaxFuel(((Number) row[6]).intValue());
+        stats.setAverageTemperature(Math.round(((Number) row[7]).doubleValue() * 100.0) / 100.0);
+        stats.setMinTemperature(((Number) row[8]).intValue());
+        stats.setMaxTemperature(((Number) row[9]).intValue());
+
+        // Nearest-rank percentiles from the cumulative histogram
+        long total = stats.getTotalRecords();
+        long rank50 = (long) Math.ceil(total * 0.50);
+        long rank95 = (long) Math.ceil(total * 0.95);
+        long rank99 = (long) Math.ceil(total * 0.99);
+        long seen = 0;
+        for (Object[] bin : speedHistogram) {
+            int speed = ((Number) bin[0]).intValue();
+            long before = seen;
+            seen += ((Number) bin[1]).longValue();
+            if (before < rank50 && seen >= rank50) {
+                stats.setP50Speed(speed);
+            }
+            if (before < rank95 && seen >= rank95) {
+                stats.setP95Speed(speed);
+            }
+            if (before < rank99 && seen >= rank99) {
+                stats.setP99Speed(speed);
+            }
+        }
         return stats;
     }
 
@@ -234,6 +510,12 @@ public class TelemetryService {
         private int maxFuel;
         private int minTemperature;
         private int maxTemperature;
+        private int p50Speed;
+        private int p95Speed;
+        private int p99Speed;
+        private double distanceKm;
+        private long alertCount;
+        private long criticalAlertCount;
 
         // Getters and setters
         public int getTotalRecords() {
@@ -315,5 +597,53 @@ public class TelemetryService {
         public void setMaxTemperature(int maxTemperature) {
             this.maxTemperature = maxTemperature;
         }
+
+        public int getP50Speed() {
+            return p50Speed;
+        }
+
+        public void setP50Speed(int p50Speed) {
+            this.p50Speed = p50Speed;
+        }
+
+        public int getP95Speed() {
+            return p95Speed;
+        }
+
+        public void setP95Speed(int p95Speed) {
+            this.p95Speed = p95Speed;
+        }
+
+        public int getP99Speed() {
+            return p99Speed;
+        }
+
+        public void setP99Speed(int p99Speed) {
+            this.p99Speed = p99Speed;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+
+        public void setDistanceKm(double distanceKm) {
+            this.distanceKm = distanceKm;
+        }
+
+        public long getAlertCount() {
+            return alertCount;
+        }
+
+        public void setAlertCount(long alertCount) {
+            this.alertCount = alertCount;
+        }
+
+        public long getCriticalAlertCount() {
+            return criticalAlertCount;
+        }
+
+        public void setCriticalAlertCount(long criticalAlertCount) {
+            this.criticalAlertCount = criticalAlertCount;
+        }
     }
 }
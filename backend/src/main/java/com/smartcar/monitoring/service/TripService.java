@@ -1,6 +1,7 @@
 // TripService.java
 package com.smartcar.monitoring.service;
 
+import com.smartcar.monitoring.dto.CursorPageDto;
 import com.smartcar.monitoring.dto.TripDto;
 import com.smartcar.monitoring.dto.TripRequestDto;
 import com.smartcar.monitoring.exception.DriverNotFoundException;
@@ -9,10 +10,10 @@ import com.smartcar.monitoring.model.*;
 import com.smartcar.monitoring.model.Trip.TripStatus;
 import com.smartcar.monitoring.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -38,6 +39,21 @@ public class TripService {
     @Autowired
     private WebSocketService webSocketService;
 
+    @Autowired
+    private ActiveTripRegistry activeTripRegistry;
+
+    @Autowired
+    private TripStatsTracker tripStatsTracker;
+
+    @Autowired
+    private TelemetryService telemetryService;
+
+    @Autowired
+    private FineLedger fineLedger;
+
+    @Autowired
+    private AlertStateTracker alertStateTracker;
+
     public Optional<Trip> getById(Long id) {
         return tripRepository.findById(id);
     }
@@ -103,6 +119,8 @@ public class TripService {
                 car.setDriver(driver);
             }
             carRepository.save(car);
+            activeTripRegistry.tripStarted(car.getId(), trip.getId());
+            tripStatsTracker.start(trip.getId());
         }
 
         // Broadcast
@@ -132,6 +150,8 @@ public class TripService {
     }
 
     public TripDto stop(Long tripId) {
+        // Fold fines still pending in the ledger into the row before it is read; later fines are rejected
+        fineLedger.closeTrip(tripId);
         Trip trip = tripRepository.findById(tripId).orElseThrow(() -> new RuntimeException("Trip not found"));
         trip.setStatus(TripStatus.COMPLETED);
         trip.setEndedAt(LocalDateTime.now());
@@ -148,7 +168,10 @@ public class TripService {
             car.setStatus("IDLE");
             car.setDriver(null);
             carRepository.save(car);
+            activeTripRegistry.tripEnded(car.getId());
         }
+        telemetryService.completeTripStatistics(saved.getId());
+        alertStateTracker.forgetTrip(saved.getId());
 
         {
             java.util.Map<String, Object> payload = new java.util.HashMap<>();
@@ -179,26 +202,36 @@ public class TripService {
                 .collect(Collectors.toList());
     }
 
+    // One keyset page of trips, most recently requested first; null filters are ignored
+    @Transactional(readOnly = true)
+    public CursorPageDto<TripDto> listTripsPage(TripStatus status, Long driverId, Long carId, LocalDateTime from,
+            LocalDateTime to, String cursor, int limit) {
+        CursorPageDto.Cursor before = CursorPageDto.decodeCursor(cursor, CursorPageDto.FIRST_DESC);
+        int size = CursorPageDto.clampLimit(limit);
+        List<Trip> rows = tripRepository.findPage(status, driverId, carId, from, to, before.getTimestamp(),
+                before.getId(), PageRequest.of(0, size + 1));
+        return CursorPageDto.fromRows(rows, size, TripDto::new, Trip::getRequestedAt, Trip::getId);
+    }
+
     public Optional<Trip> getActiveTripForDriver(Long driverId) {
         return tripRepository.findFirstByDriverIdAndStatus(driverId, TripStatus.ACTIVE);
     }
 
     public Optional<Trip> getActiveTripForCar(Long carId) {
-        return tripRepository.findFirstByCarIdAndStatus(carId, TripStatus.ACTIVE);
+        return getActiveTripIdForCar(carId).flatMap(tripRepository::findById);
     }
 
-    public void addFineForCritical(Long carId, int fineAmountRs) {
-        // Add fine to the active trip associated with this car
-        List<Trip> active = tripRepository.findByCarIdAndStatus(carId, TripStatus.ACTIVE);
-        for (Trip t : active) {
-            BigDecimal fine = t.getAdditionalFine() == null ? BigDecimal.ZERO : t.getAdditionalFine();
-            BigDecimal add = new BigDecimal(fineAmountRs);
-            t.setAdditionalFine(fine.add(add));
+    // Active trip id for a car, served from the registry; the DB is only hit on a cold miss
+    @Transactional(readOnly = true)
+    public Optional<Long> getActiveTripIdForCar(Long carId) {
+        return activeTripRegistry.getActiveTripId(carId,
+                id -> tripRepository.findFirstByCarIdAndStatus(id, TripStatus.ACTIVE).map(Trip::getId));
+    }
 
-            BigDecimal base = t.getBaseCost() == null ? BigDecimal.ZERO : t.getBaseCost();
-            t.setTotalCost(base.add(t.getAdditionalFine()));
-            tripRepository.save(t);
-        }
+    // Unloaded reference to the car's active trip, usable as a foreign key without a select
+    @Transactional(readOnly = true)
+    public Optional<Trip> getActiveTripReferenceForCar(Long carId) {
+        return getActiveTripIdForCar(carId).map(tripRepository::getReferenceById);
     }
 
     /**
@@ -0,0 +1,321 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.TelemetryDto;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Running statistics for every ACTIVE trip, folded in sample by sample by the
+ * ingest path. Reading a trip's stats is O(1) however long the trip runs;
+ * TelemetryService persists the final figures to a trip summary on stop.
+ *
+ * A trip is tracked from its start. A trip that was already running before a
+ * restart is tracked from the first sample this process receives for it, at
+ * enqueue time, so samples still in the ingest queue are covered. Its entry
+ * then waits for a backfill: stats of the stored samples strictly before that
+ * first sample, merged in once by TelemetryService. Samples recorded live and
+ * stored rows never overlap.
+ *
+ * A trip starts being tracked once its start commits. When a trip ends its id
+ * is kept as a tombstone for a while, so samples of it still queued on the
+ * ingest path do not open a new entry that would hide the stored summary.
+ */
+@Service
+public class TripStatsTracker {
+
+    // How long an ended trip's id keeps late samples from tracking it again
+    private static final Duration TOMBSTONE_TTL = Duration.ofMinutes(10);
+
+    private final Map<Long, RunningTripStats> statsByTrip = new ConcurrentHashMap<>();
+    private final Map<Long, LocalDateTime> endedTrips = new ConcurrentHashMap<>();
+
+    // Begin tracking a freshly started trip, once the surrounding transaction commits
+    public void start(Long tripId) {
+        afterCommit(() -> statsByTrip.putIfAbsent(tripId, new RunningTripStats()));
+    }
+
+    // Record a sample of a trip known to be ACTIVE, tracking the trip from this sample if it is not tracked yet
+    public void recordActiveTrip(TelemetryDto telemetryDto) {
+        if (telemetryDto == null || telemetryDto.getTripId() == null) {
+            return;
+        }
+        Long tripId = telemetryDto.getTripId();
+        if (endedTrips.containsKey(tripId)) {
+            return;
+        }
+        RunningTripStats stats = statsByTrip.computeIfAbsent(tripId,
+                id -> RunningTripStats.awaitingBackfill(telemetryDto.getTimestamp()));
+        stats.add(telemetryDto);
+        if (endedTrips.containsKey(tripId)) {
+            // The trip ended while this sample was being recorded; do not leave the entry behind
+            statsByTrip.remove(tripId, stats);
+        }
+    }
+
+    // Record a sample if its trip is tracked
+    public void record(TelemetryDto telemetryDto) {
+        if (telemetryDto == null || telemetryDto.getTripId() == null) {
+            return;
+        }
+        RunningTripStats stats = statsByTrip.get(telemetryDto.getTripId());
+        if (stats != null) {
+            stats.add(telemetryDto);
+        }
+    }
+
+    public void recordAlert(Long tripId, boolean critical) {
+        RunningTripStats stats = tripId != null ? statsByTrip.get(tripId) : null;
+        if (stats != null) {
+            stats.addAlert(critical);
+        }
+    }
+
+    public Optional<RunningTripStats> get(Long tripId) {
+        return Optional.ofNullable(statsByTrip.get(tripId));
+    }
+
+    // Stop tracking an ended trip, handing back what was accumulated; late samples of it are ignored
+    public Optional<RunningTripStats> remove(Long tripId) {
+        LocalDateTime now = LocalDateTime.now();
+        endedTrips.values().removeIf(endedAt -> endedAt.isBefore(now.minus(TOMBSTONE_TTL)));
+        endedTrips.put(tripId, now);
+        return Optional.ofNullable(statsByTrip.remove(tripId));
+    }
+
+    public int size() {
+        return statsByTrip.size();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Count/sum/min/max per metric, a speed histogram for percentiles, and
+     * distance integrated from speed over time (the location field carries
+     * place names, not coordinates). The histogram has one bucket per km/h up
+     * to MAX_SPEED (the validation limit); negative speeds count as 0 and
+     * speeds above the limit share one overflow bucket, so a percentile that
+     * lands there is reported as the observed maximum speed.
+     */
+    public static final class RunningTripStats {
+        private static final int MAX_SPEED = 220;
+        private static final int OVERFLOW = MAX_SPEED + 1;
+        private static final long MAX_GAP_SECONDS = 300;
+
+        private final long[] speedHistogram = new long[OVERFLOW + 1];
+        private int count;
+        private long speedSum;
+        private int minSpeed;
+        private int maxSpeed;
+        private long fuelSum;
+        private int minFuel;
+        private int maxFuel;
+        private long temperatureSum;
+        private int minTemperature;
+        private int maxTemperature;
+        private double distanceKm;
+        private long alertCount;
+        private long criticalAlertCount;
+        private LocalDateTime firstTimestamp;
+        private int firstSpeed;
+        private LocalDateTime lastTimestamp;
+        private int lastSpeed;
+        // Stored samples before this instant are not counted yet; null once merged (or not needed)
+        private LocalDateTime backfillBefore;
+
+        public RunningTripStats() {
+        }
+
+        static RunningTripStats awaitingBackfill(LocalDateTime before) {
+            RunningTripStats stats = new RunningTripStats();
+            stats.backfillBefore = before != null ? before : LocalDateTime.now();
+            return stats;
+        }
+
+        public synchronized void add(TelemetryDto sample) {
+            int speed = sample.getSpeed() != null ? sample.getSpeed() : 0;
+            int fuel = sample.getFuelLevel() != null ? sample.getFuelLevel() : 0;
+            int temperature = sample.getTemperature() != null ? sample.getTemperature() : 0;
+            if (count == 0) {
+                minSpeed = maxSpeed = speed;
+                minFuel = maxFuel = fuel;
+                minTemperature = maxTemperature = temperature;
+            } else {
+                minSpeed = Math.min(minSpeed, speed);
+                maxSpeed = Math.max(maxSpeed, speed);
+                minFuel = Math.min(minFuel, fuel);
+                maxFuel = Math.max(maxFuel, fuel);
+                minTemperature = Math.min(minTemperature, temperature);
+                maxTemperature = Math.max(maxTemperature, temperature);
+            }
+            count++;
+            speedSum += speed;
+            fuelSum += fuel;
+            temperatureSum += temperature;
+            speedHistogram[Math.max(0, Math.min(OVERFLOW, speed))]++;
+
+            LocalDateTime timestamp = sample.getTimestamp();
+            if (timestamp == null) {
+                return;
+            }
+            if (firstTimestamp == null) {
+                firstTimestamp = timestamp;
+                firstSpeed = speed;
+            }
+            if (lastTimestamp != null) {
+                long millis = Duration.between(lastTimestamp, timestamp).toMillis();
+                if (millis < 0) {
+                    // Out-of-order sample: counted above, but it does not move the distance clock
+                    return;
+                }
+                // Trapezoid between consecutive samples; long gaps mean the car was offline
+                if (millis <= MAX_GAP_SECONDS * 1000) {
+                    distanceKm += (lastSpeed + speed) / 2.0 * millis / 3_600_000.0;
+                }
+            }
+            lastTimestamp = timestamp;
+            lastSpeed = speed;
+        }
+
+        public synchronized void addAlert(boolean critical) {
+            alertCount++;
+            if (critical) {
+                criticalAlertCount++;
+            }
+        }
+
+        // Start of the live window when stored samples before it still have to be merged in, else null
+        public synchronized LocalDateTime getBackfillBefore() {
+            return backfillBefore;
+        }
+
+        /**
+         * Folds in stats of the stored samples before the live window. Applied
+         * once; returns false if another caller already merged a backfill.
+         */
+        public synchronized boolean mergeBackfill(RunningTripStats earlier) {
+            if (backfillBefore == null) {
+                return false;
+            }
+            backfillBefore = null;
+            synchronized (earlier) {
+                alertCount += earlier.alertCount;
+                criticalAlertCount += earlier.criticalAlertCount;
+                if (earlier.count == 0) {
+                    return true;
+                }
+                if (count == 0) {
+                    minSpeed = earlier.minSpeed;
+                    maxSpeed = earlier.maxSpeed;
+                    minFuel = earlier.minFuel;
+                    maxFuel = earlier.maxFuel;
+                    minTemperature = earlier.minTemperature;
+                    maxTemperature = earlier.maxTemperature;
+                } else {
+                    minSpeed = Math.min(minSpeed, earlier.minSpeed);
+                    maxSpeed = Math.max(maxSpeed, earlier.maxSpeed);
+                    minFuel = Math.min(minFuel, earlier.minFuel);
+                    maxFuel = Math.max(maxFuel, earlier.maxFuel);
+                    minTemperature = Math.min(minTemperature, earlier.minTemperature);
+                    maxTemperature = Math.max(maxTemperature, earlier.maxTemperature);
+                }
+                count += earlier.count;
+                speedSum += earlier.speedSum;
+                fuelSum += earlier.fuelSum;
+                temperatureSum += earlier.temperatureSum;
+                for (int speed = 0; speed < speedHistogram.length; speed++) {
+                    speedHistogram[speed] += earlier.speedHistogram[speed];
+                }
+                distanceKm += earlier.distanceKm;
+                if (earlier.lastTimestamp != null) {
+                    if (firstTimestamp == null) {
+                        firstTimestamp = earlier.firstTimestamp;
+                        firstSpeed = earlier.firstSpeed;
+                        lastTimestamp = earlier.lastTimestamp;
+                        lastSpeed = earlier.lastSpeed;
+                    } else {
+                        // The stretch between the last stored sample and the first live one
+                        long millis = Duration.between(earlier.lastTimestamp, firstTimestamp).toMillis();
+                        if (millis >= 0 && millis <= MAX_GAP_SECONDS * 1000) {
+                            distanceKm += (earlier.lastSpeed + firstSpeed) / 2.0 * millis / 3_600_000.0;
+                        }
+                        firstTimestamp = earlier.firstTimestamp;
+                        firstSpeed = earlier.firstSpeed;
+                    }
+                }
+            }
+            return true;
+        }
+
+        synchronized void setAlertCounts(long alertCount, long criticalAlertCount) {
+            this.alertCount = alertCount;
+            this.criticalAlertCount = criticalAlertCount;
+        }
+
+        public synchronized TelemetryService.TelemetryStatistics toStatistics() {
+            TelemetryService.TelemetryStatistics stats = new TelemetryService.TelemetryStatistics();
+            stats.setAlertCount(alertCount);
+            stats.setCriticalAlertCount(criticalAlertCount);
+            if (count == 0) {
+                return stats;
+            }
+            stats.setTotalRecords(count);
+            stats.setAverageSpeed(Math.round(speedSum * 100.0 / count) / 100.0);
+            stats.setAverageFuel(Math.round(fuelSum * 100.0 / count) / 100.0);
+            stats.setAverageTemperature(Math.round(temperatureSum * 100.0 / count) / 100.0);
+            stats.setMinSpeed(minSpeed);
+            stats.setMaxSpeed(maxSpeed);
+            stats.setMinFuel(minFuel);
+            stats.setMaxFuel(maxFuel);
+            stats.setMinTemperature(minTemperature);
+            stats.setMaxTemperature(maxTemperature);
+            stats.setP50Speed(percentile(0.50));
+            stats.setP95Speed(percentile(0.95));
+            stats.setP99Speed(percentile(0.99));
+            stats.setDistanceKm(Math.round(distanceKm * 100.0) / 100.0);
+            return stats;
+        }
+
+        public synchronized long getSpeedSum() {
+            return speedSum;
+        }
+
+        public synchronized long getFuelSum() {
+            return fuelSum;
+        }
+
+        public synchronized long getTemperatureSum() {
+            return temperatureSum;
+        }
+
+        // Nearest-rank percentile over the speed histogram; the overflow bucket reports the maximum
+        private int percentile(double p) {
+            long rank = (long) Math.ceil(count * p);
+            long seen = 0;
+            for (int speed = 0; speed <= MAX_SPEED; speed++) {
+                seen += speedHistogram[speed];
+                if (seen >= rank) {
+                    return speed;
+                }
+            }
+            return maxSpeed;
+        }
+    }
+}
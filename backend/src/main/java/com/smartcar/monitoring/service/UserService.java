@@ -1,12 +1,15 @@
 // UserService.java
 package com.smartcar.monitoring.service;
 
+import com.smartcar.monitoring.dto.CursorPageDto;
+import com.smartcar.monitoring.dto.UserDto;
 import com.smartcar.monitoring.model.User;
 import com.smartcar.monitoring.model.User.UserRole;
 import com.smartcar.monitoring.repository.UserRepository;
 import com.smartcar.monitoring.exception.UserNotFoundException;
 import com.smartcar.monitoring.exception.UserAlreadyExistsException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -74,6 +77,16 @@ public class UserService {
         return userRepository.findByIsActiveTrue();
     }
 
+    // Get one keyset page of active users in creation order, optionally by role
+    @Transactional(readOnly = true)
+    public CursorPageDto<UserDto> getUsersPage(UserRole role, String cursor, int limit) {
+        CursorPageDto.Cursor after = CursorPageDto.decodeCursor(cursor, CursorPageDto.FIRST_ASC);
+        int size = CursorPageDto.clampLimit(limit);
+        List<User> rows = userRepository.findPage(role, after.getTimestamp(), after.getId(),
+                PageRequest.of(0, size + 1));
+        return CursorPageDto.fromRows(rows, size, UserDto::new, User::getCreationDate, User::getId);
+    }
+
     // Get users by role
     public List<User> getUsersByRole(UserRole role) {
         return userRepository.findByRoleAndIsActiveTrue(role);
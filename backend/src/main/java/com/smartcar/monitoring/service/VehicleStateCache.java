@@ -0,0 +1,127 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.TelemetryDto;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last known telemetry per car, updated by the ingest path. Reads are
+ * lock-free and never touch the database; the cache is warmed once from the
+ * telemetry table at startup. Samples from the ingest queue get their row id
+ * once the batch is inserted, and an entry is evicted when its row is
+ * deactivated.
+ */
+@Service
+public class VehicleStateCache {
+
+    private final Map<Long, TelemetryDto> latestByCar = new ConcurrentHashMap<>();
+
+    private volatile boolean warm = false;
+
+    /**
+     * Records a sample as the car's latest state unless a newer one is already
+     * held. The DTO is stored as-is and must not be mutated afterwards.
+     */
+    public void update(TelemetryDto telemetryDto) {
+        if (telemetryDto == null || telemetryDto.getCarId() == null) {
+            return;
+        }
+        latestByCar.merge(telemetryDto.getCarId(), telemetryDto, VehicleStateCache::newer);
+    }
+
+    public Optional<TelemetryDto> get(Long carId) {
+        return Optional.ofNullable(latestByCar.get(carId));
+    }
+
+    public List<TelemetryDto> getAll() {
+        return new ArrayList<>(latestByCar.values());
+    }
+
+    public void remove(Long carId) {
+        latestByCar.remove(carId);
+    }
+
+    // Attach the database id to a sample once the ingest writer has inserted it (if it is still the latest)
+    public void persisted(TelemetryDto sample, Long id) {
+        if (sample == null || sample.getCarId() == null || id == null) {
+            return;
+        }
+        latestByCar.computeIfPresent(sample.getCarId(), (carId, current) -> current == sample ? withId(sample, id) : current);
+    }
+
+    // Replace the car's entry when it is the given row, e.g. after the row was edited
+    public void refresh(TelemetryDto persisted) {
+        if (persisted == null || persisted.getCarId() == null) {
+            return;
+        }
+        latestByCar.computeIfPresent(persisted.getCarId(),
+                (carId, current) -> isRow(current, persisted.getId(), persisted.getTimestamp()) ? persisted : current);
+    }
+
+    /**
+     * Drops the car's entry if it is the given row (matched by id, or by
+     * timestamp for samples whose insert has not reported an id yet).
+     * Returns true when the entry was removed and should be reloaded.
+     */
+    public boolean evict(Long carId, Long id, LocalDateTime timestamp) {
+        if (carId == null) {
+            return false;
+        }
+        boolean[] evicted = { false };
+        latestByCar.computeIfPresent(carId, (key, current) -> {
+            if (isRow(current, id, timestamp)) {
+                evicted[0] = true;
+                return null;
+            }
+            return current;
+        });
+        return evicted[0];
+    }
+
+    // Seed from the database; samples that arrived meanwhile win if newer
+    public void warm(List<TelemetryDto> latest) {
+        for (TelemetryDto dto : latest) {
+            update(dto);
+        }
+        warm = true;
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public int size() {
+        return latestByCar.size();
+    }
+
+    private static boolean isRow(TelemetryDto current, Long id, LocalDateTime timestamp) {
+        if (current.getId() != null && id != null) {
+            return current.getId().equals(id);
+        }
+        return current.getTimestamp() != null && current.getTimestamp().equals(timestamp);
+    }
+
+    private static TelemetryDto withId(TelemetryDto sample, Long id) {
+        TelemetryDto copy = new TelemetryDto(sample.getCarId(), sample.getTripId(), sample.getSpeed(),
+                sample.getFuelLevel(), sample.getTemperature(), sample.getLocation(), sample.getTimestamp());
+        copy.setId(id);
+        copy.setIsActive(true);
+        return copy;
+    }
+
+    private static TelemetryDto newer(TelemetryDto current, TelemetryDto candidate) {
+        if (current.getTimestamp() == null) {
+            return candidate;
+        }
+        if (candidate.getTimestamp() == null) {
+            return current;
+        }
+        return candidate.getTimestamp().isBefore(current.getTimestamp()) ? current : candidate;
+    }
+}
@@ -1,55 +1,112 @@
 // WebSocketService.java
 package com.smartcar.monitoring.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.smartcar.monitoring.dto.CarLocationDto;
+import com.smartcar.monitoring.dto.LiveMessage;
+import com.smartcar.monitoring.dto.PreEncodedPayload;
 import com.smartcar.monitoring.dto.TelemetryDto;
 import com.smartcar.monitoring.model.Alert;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
+import jakarta.annotation.PostConstruct;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class WebSocketService {
 
     private static final Logger logger = LoggerFactory.getLogger(WebSocketService.class);
 
+    // CBOR copies of topic messages go to the same destination with this suffix
+    public static final String BINARY_SUFFIX = ".cbor";
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private SubscriptionRegistry subscriptionRegistry;
+
+    // Also publish CBOR frames for clients on the binary endpoint
+    @Value("${websocket.binary.enabled:false}")
+    private boolean binaryEnabled;
+
+    private ObjectMapper cborMapper;
+
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong encodeNanos = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cborMapper = objectMapper.copyWith(new CBORFactory());
+    }
+
+    // Whether a send to the destination (or its CBOR copy) would reach any client on this node
+    public boolean hasSubscribers(String destination) {
+        return subscriptionRegistry.hasSubscribers(destination)
+                || (binaryEnabled && subscriptionRegistry.hasSubscribers(destination + BINARY_SUFFIX));
+    }
+
+    // Encode a value once so it can be embedded in several frames without re-serializing it
+    public PreEncodedPayload preEncode(Object value) throws JsonProcessingException {
+        return PreEncodedPayload.encode(objectMapper, value);
+    }
+
     // Send telemetry updates to all connected clients
     public void broadcastTelemetryUpdate(TelemetryDto telemetryDto) {
         try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("type", "TELEMETRY_UPDATE");
-            message.put("data", telemetryDto);
-            message.put("timestamp", LocalDateTime.now());
-
-            messagingTemplate.convertAndSend("/topic/telemetry", message);
+            send("/topic/telemetry", LiveMessage.of("TELEMETRY_UPDATE", telemetryDto));
             logger.debug("Broadcasted telemetry update for car: {}", telemetryDto.getCarId());
         } catch (Exception e) {
             logger.error("Error broadcasting telemetry update", e);
         }
     }
 
+    // Send the latest telemetry of every car that changed since the last frame
+    public void broadcastTelemetryBatch(List<PreEncodedPayload> batch) {
+        try {
+            send("/topic/telemetry", LiveMessage.batch("TELEMETRY_BATCH", batch));
+            logger.debug("Broadcasted telemetry batch for {} cars", batch.size());
+        } catch (Exception e) {
+            logger.error("Error broadcasting telemetry batch", e);
+        }
+    }
+
     // Send telemetry updates to specific car subscribers
     public void sendTelemetryToCar(Long carId, TelemetryDto telemetryDto) {
-        try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("type", "CAR_TELEMETRY");
-            message.put("carId", carId);
-            message.put("data", telemetryDto);
-            message.put("timestamp", LocalDateTime.now());
+        sendCarTelemetry(carId, telemetryDto);
+    }
+
+    // Send already-encoded telemetry to specific car subscribers
+    public void sendTelemetryToCar(Long carId, PreEncodedPayload telemetry) {
+        sendCarTelemetry(carId, telemetry);
+    }
 
-            messagingTemplate.convertAndSend("/topic/car/" + carId + "/telemetry", message);
+    private void sendCarTelemetry(Long carId, Object telemetry) {
+        String destination = "/topic/car/" + carId + "/telemetry";
+        if (skip(destination)) {
+            return;
+        }
+        try {
+            send(destination, LiveMessage.forCar("CAR_TELEMETRY", carId, telemetry));
             logger.debug("Sent telemetry update to car {} subscribers", carId);
         } catch (Exception e) {
             logger.error("Error sending telemetry to car {}", carId, e);
@@ -59,27 +116,27 @@ public class WebSocketService {
     // Send alert updates to all connected clients
     public void broadcastAlertUpdate(Alert alert) {
         try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("type", "ALERT_UPDATE");
-            message.put("data", alert);
-            message.put("timestamp", LocalDateTime.now());
-
-            messagingTemplate.convertAndSend("/topic/alerts", message);
+            send("/topic/alerts", LiveMessage.of("ALERT_UPDATE", alert));
             logger.debug("Broadcasted alert update: {}", alert.getType());
         } catch (Exception e) {
             logger.error("Error broadcasting alert update", e);
         }
     }
 
+    // Send one summary of a bulk alert change (acknowledge/deactivate) instead of one update per alert
+    public void broadcastAlertBulkUpdate(Map<String, Object> summary) {
+        try {
+            send("/topic/alerts", LiveMessage.of("ALERT_BULK_UPDATE", summary));
+            logger.debug("Broadcasted bulk alert update: {}", summary.get("operation"));
+        } catch (Exception e) {
+            logger.error("Error broadcasting bulk alert update", e);
+        }
+    }
+
     // Send critical alerts to admin dashboard
     public void sendCriticalAlertToAdmins(Alert alert) {
         try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("type", "CRITICAL_ALERT");
-            message.put("data", alert);
-            message.put("timestamp", LocalDateTime.now());
-
-            messagingTemplate.convertAndSend("/topic/admin/critical-alerts", message);
+            send("/topic/admin/critical-alerts", LiveMessage.of("CRITICAL_ALERT", alert));
             logger.debug("Sent critical alert to admin dashboard: {}", alert.getType());
         } catch (Exception e) {
             logger.error("Error sending critical alert to admins", e);
@@ -89,12 +146,7 @@ public class WebSocketService {
     // Send system status updates
     public void broadcastSystemStatus(Map<String, Object> status) {
         try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("type", "SYSTEM_STATUS");
-            message.put("data", status);
-            message.put("timestamp", LocalDateTime.now());
-
-            messagingTemplate.convertAndSend("/topic/system/status", message);
+            send("/topic/system/status", LiveMessage.of("SYSTEM_STATUS", status));
             logger.debug("Broadcasted system status update");
         } catch (Exception e) {
             logger.error("Error broadcasting system status", e);
@@ -104,12 +156,7 @@ public class WebSocketService {
     // Send MQTT connection status
     public void broadcastMqttStatus(boolean connected) {
         try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("type", "MQTT_STATUS");
-            message.put("connected", connected);
-            message.put("timestamp", LocalDateTime.now());
-
-            messagingTemplate.convertAndSend("/topic/system/mqtt-status", message);
+            send("/topic/system/mqtt-status", LiveMessage.connection(connected));
             logger.debug("Broadcasted MQTT status: {}", connected);
         } catch (Exception e) {
             logger.error("Error broadcasting MQTT status", e);
@@ -119,12 +166,7 @@ public class WebSocketService {
     // Send simulator status updates
     public void broadcastSimulatorStatus(boolean running) {
         try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("type", "SIMULATOR_STATUS");
-            message.put("running", running);
-            message.put("timestamp", LocalDateTime.now());
-
-            messagingTemplate.convertAndSend("/topic/system/simulator-status", message);
+            send("/topic/system/simulator-status", LiveMessage.simulator(running));
             logger.debug("Broadcasted simulator status: {}", running);
         } catch (Exception e) {
             logger.error("Error broadcasting simulator status", e);
@@ -134,12 +176,7 @@ public class WebSocketService {
     // Send dashboard statistics updates
     public void broadcastDashboardStats(Map<String, Object> stats) {
         try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("type", "DASHBOARD_STATS");
-            message.put("data", stats);
-            message.put("timestamp", LocalDateTime.now());
-
-            messagingTemplate.convertAndSend("/topic/dashboard/stats", message);
+            send("/topic/dashboard/stats", LiveMessage.of("DASHBOARD_STATS", stats));
             logger.debug("Broadcasted dashboard statistics");
         } catch (Exception e) {
             logger.error("Error broadcasting dashboard stats", e);
@@ -149,12 +186,7 @@ public class WebSocketService {
     // Send user-specific notifications
     public void sendNotificationToUser(String username, String message) {
         try {
-            Map<String, Object> notification = new HashMap<>();
-            notification.put("type", "NOTIFICATION");
-            notification.put("message", message);
-            notification.put("timestamp", LocalDateTime.now());
-
-            messagingTemplate.convertAndSendToUser(username, "/queue/notifications", notification);
+            messagingTemplate.convertAndSendToUser(username, "/queue/notifications", LiveMessage.notification(message));
             logger.debug("Sent notification to user: {}", username);
         } catch (Exception e) {
             logger.error("Error sending notification to user {}", username, e);
@@ -163,31 +195,120 @@ public class WebSocketService {
 
     // Send real-time car location updates
     public void broadcastCarLocation(Long carId, String location) {
+        String destination = "/topic/car/" + carId + "/location";
+        boolean toCar = !skip(destination);
+        boolean toMap = !skip("/topic/map/locations");
+        if (!toCar && !toMap) {
+            return;
+        }
         try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("type", "CAR_LOCATION");
-            message.put("carId", carId);
-            message.put("location", location);
-            message.put("timestamp", LocalDateTime.now());
-
-            messagingTemplate.convertAndSend("/topic/car/" + carId + "/location", message);
-            messagingTemplate.convertAndSend("/topic/map/locations", message);
+            // One encoding shared by both destinations
+            Encoded encoded = encode(LiveMessage.location(carId, location));
+            if (toCar) {
+                send(destination, encoded);
+            }
+            if (toMap) {
+                send("/topic/map/locations", encoded);
+            }
             logger.debug("Broadcasted car location update for car: {}", carId);
         } catch (Exception e) {
             logger.error("Error broadcasting car location for car {}", carId, e);
         }
     }
 
+    // Send a car's location to its own subscribers only
+    public void sendCarLocation(Long carId, String location) {
+        String destination = "/topic/car/" + carId + "/location";
+        if (skip(destination)) {
+            return;
+        }
+        try {
+            send(destination, LiveMessage.location(carId, location));
+        } catch (Exception e) {
+            logger.error("Error sending location to car {} subscribers", carId, e);
+        }
+    }
+
+    // Send the latest location of every car that moved since the last frame to the map
+    public void broadcastCarLocations(List<CarLocationDto> locations) {
+        try {
+            send("/topic/map/locations", LiveMessage.of("CAR_LOCATIONS", locations));
+            logger.debug("Broadcasted locations for {} cars", locations.size());
+        } catch (Exception e) {
+            logger.error("Error broadcasting car locations", e);
+        }
+    }
+
     // Send heartbeat/ping to keep connections alive
     public void sendHeartbeat() {
         try {
-            Map<String, Object> heartbeat = new HashMap<>();
-            heartbeat.put("type", "HEARTBEAT");
-            heartbeat.put("timestamp", LocalDateTime.now());
-
-            messagingTemplate.convertAndSend("/topic/heartbeat", heartbeat);
+            send("/topic/heartbeat", LiveMessage.heartbeat());
         } catch (Exception e) {
             logger.error("Error sending heartbeat", e);
         }
     }
+
+    public Map<String, Object> getStatistics() {
+        long frames = framesSent.get();
+        return Map.of(
+                "binaryEnabled", binaryEnabled,
+                "framesSent", frames,
+                "skippedNoSubscribers", skipped.get(),
+                "subscriptions", subscriptionRegistry.getStatistics(),
+                "bytesSent", bytesSent.get(),
+                "avgEncodeMicros", frames == 0 ? 0 : encodeNanos.get() / frames / 1000);
+    }
+
+    // Count and report a destination nobody listens to, before any message is built for it
+    private boolean skip(String destination) {
+        if (hasSubscribers(destination)) {
+            return false;
+        }
+        skipped.incrementAndGet();
+        return true;
+    }
+
+    private void send(String destination, LiveMessage message) throws JsonProcessingException {
+        if (skip(destination)) {
+            return;
+        }
+        send(destination, encode(message));
+    }
+
+    // The broker hands the same byte[] to every subscriber, so nothing is serialized per subscriber
+    private void send(String destination, Encoded encoded) {
+        if (subscriptionRegistry.hasSubscribers(destination)) {
+            messagingTemplate.send(destination, frame(encoded.json, false));
+            framesSent.incrementAndGet();
+            bytesSent.addAndGet(encoded.json.length);
+        }
+        if (encoded.cbor != null && subscriptionRegistry.hasSubscribers(destination + BINARY_SUFFIX)) {
+            messagingTemplate.send(destination + BINARY_SUFFIX, frame(encoded.cbor, true));
+            bytesSent.addAndGet(encoded.cbor.length);
+        }
+    }
+
+    private Encoded encode(LiveMessage message) throws JsonProcessingException {
+        long start = System.nanoTime();
+        byte[] json = objectMapper.writeValueAsBytes(message);
+        byte[] cbor = binaryEnabled ? cborMapper.writeValueAsBytes(message) : null;
+        encodeNanos.addAndGet(System.nanoTime() - start);
+        return new Encoded(json, cbor);
+    }
+
+    // STOMP only sends a binary WebSocket frame for application/octet-stream, so CBOR is flagged by a header
+    private static Message<byte[]> frame(byte[] payload, boolean cbor) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        if (cbor) {
+            accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+            accessor.setNativeHeader("payload-format", "cbor");
+        } else {
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    private record Encoded(byte[] json, byte[] cbor) {
+    }
 }
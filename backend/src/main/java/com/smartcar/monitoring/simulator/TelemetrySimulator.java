@@ -3,7 +3,6 @@ package com.smartcar.monitoring.simulator;
 
 import com.smartcar.monitoring.dto.TelemetryDto;
 import com.smartcar.monitoring.model.Car;
-import com.smartcar.monitoring.model.Trip;
 import com.smartcar.monitoring.service.CarService;
 import com.smartcar.monitoring.service.MqttService;
 import com.smartcar.monitoring.service.TripService;
@@ -83,19 +82,19 @@ public class TelemetrySimulator {
             }
 
             for (Car car : activeCars) {
-                Optional<Trip> activeTripOpt = tripService.getActiveTripForCar(car.getId());
+                Optional<Long> activeTripOpt = tripService.getActiveTripIdForCar(car.getId());
                 if (activeTripOpt.isEmpty()) {
                     lastByCarId.remove(car.getId());
                     profileByCarId.remove(car.getId());
                     continue;
                 }
 
-                Trip activeTrip = activeTripOpt.get();
+                Long activeTripId = activeTripOpt.get();
 
                 TelemetryDto last = lastByCarId.get(car.getId());
 
                 // Reset telemetry if trip ID has changed
-                if (last != null && !Objects.equals(last.getTripId(), activeTrip.getId())) {
+                if (last != null && !Objects.equals(last.getTripId(), activeTripId)) {
                     lastByCarId.remove(car.getId());
                     profileByCarId.remove(car.getId());
                     last = null;
@@ -104,7 +103,7 @@ public class TelemetrySimulator {
                 TelemetryDto base = last != null ? last : initialFromCar(car);
                 TelemetryDto next = smoothAdvance(base, car.getId());
                 next.setCarId(car.getId());
-                next.setTripId(activeTrip.getId());
+                next.setTripId(activeTripId);
                 lastByCarId.put(car.getId(), next);
 
                 mqttService.publishTelemetry(car.getId(), next);
@@ -0,0 +1,64 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * RANGE-partitions the telemetry table by month on its timestamp. MySQL
+ * requires the partitioning column in every unique key and does not allow
+ * foreign keys on partitioned tables, so the primary key becomes
+ * (id, timestamp) and the car/trip foreign keys are dropped (the entity no
+ * longer asks for them).
+ *
+ * Downtime: both ALTERs copy the whole table and block writes to it while they
+ * run, roughly as long as a full table rebuild. Telemetry that arrives in the
+ * meantime waits in the ingest queue and spill file. Plan the first deploy of
+ * this version accordingly on large tables.
+ *
+ * Partitions are created up to the current month plus a catch-all; later
+ * months are split off by TelemetryPartitionService using the same names.
+ * Other databases (H2 in tests) have no partitioning; there it does nothing.
+ */
+public class V3__Partition_telemetry extends BaseJavaMigration {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        if (!"MySQL".equalsIgnoreCase(context.getConnection().getMetaData().getDatabaseProductName())) {
+            return;
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        Integer partitions = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'telemetry' AND PARTITION_NAME IS NOT NULL",
+                Integer.class);
+        if (partitions != null && partitions > 0) {
+            return;
+        }
+
+        for (String foreignKey : jdbcTemplate.queryForList("SELECT CONSTRAINT_NAME FROM "
+                + "information_schema.TABLE_CONSTRAINTS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'telemetry' "
+                + "AND CONSTRAINT_TYPE = 'FOREIGN KEY'", String.class)) {
+            jdbcTemplate.execute("ALTER TABLE telemetry DROP FOREIGN KEY `" + foreignKey + "`");
+        }
+        jdbcTemplate.execute("ALTER TABLE telemetry DROP PRIMARY KEY, ADD PRIMARY KEY (id, timestamp)");
+
+        LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM telemetry", LocalDateTime.class);
+        YearMonth month = oldest != null ? YearMonth.from(oldest) : YearMonth.now();
+        YearMonth last = YearMonth.now();
+        StringBuilder ddl = new StringBuilder("ALTER TABLE telemetry PARTITION BY RANGE COLUMNS(timestamp) (");
+        for (; !month.isAfter(last); month = month.plusMonths(1)) {
+            ddl.append("PARTITION ").append(PARTITION_NAME.format(month)).append(" VALUES LESS THAN ('")
+                    .append(month.plusMonths(1).atDay(1)).append(" 00:00:00'), ");
+        }
+        ddl.append("PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+        jdbcTemplate.execute(ddl.toString());
+    }
+}
@@ -0,0 +1,42 @@
+-- Composite indexes for the derived and @Query lookups in the repository package.
+-- Tables are still created by Hibernate (ddl-auto=update); these migrations run after it.
+
+-- telemetry
+CREATE INDEX idx_telemetry_car_active_ts ON telemetry (car_id, is_active, timestamp);
+CREATE INDEX idx_telemetry_trip_active_ts ON telemetry (trip_id, is_active, timestamp);
+CREATE INDEX idx_telemetry_active_ts ON telemetry (is_active, timestamp);
+CREATE INDEX idx_telemetry_creation_date ON telemetry (creation_date, is_active);
+CREATE INDEX idx_telemetry_active_fuel ON telemetry (is_active, fuel);
+CREATE INDEX idx_telemetry_active_temperature ON telemetry (is_active, temperature);
+CREATE INDEX idx_telemetry_active_speed ON telemetry (is_active, speed);
+
+-- alerts
+CREATE INDEX idx_alerts_car_ack_active ON alerts (car_id, acknowledged, is_active);
+CREATE INDEX idx_alerts_car_active_ts ON alerts (car_id, is_active, timestamp);
+CREATE INDEX idx_alerts_car_severity_active ON alerts (car_id, severity, is_active);
+CREATE INDEX idx_alerts_car_type_active ON alerts (car_id, type, is_active);
+CREATE INDEX idx_alerts_trip_active_severity ON alerts (trip_id, is_active, severity);
+CREATE INDEX idx_alerts_active_ts ON alerts (is_active, timestamp);
+CREATE INDEX idx_alerts_ack_active_severity ON alerts (acknowledged, is_active, severity);
+CREATE INDEX idx_alerts_severity_active ON alerts (severity, is_active);
+CREATE INDEX idx_alerts_type_active ON alerts (type, is_active);
+
+-- trips
+CREATE INDEX idx_trips_car_status ON trips (car_id, status);
+CREATE INDEX idx_trips_driver_status_created ON trips (driver_id, status, creation_date);
+CREATE INDEX idx_trips_driver_active ON trips (driver_id, is_active);
+CREATE INDEX idx_trips_status ON trips (status);
+
+-- cars
+CREATE INDEX idx_cars_driver_active ON cars (driver_id, is_active);
+CREATE INDEX idx_cars_status_active ON cars (status, is_active);
+CREATE INDEX idx_cars_active_fuel ON cars (is_active, fuel_level);
+
+-- drivers
+CREATE INDEX idx_drivers_user ON drivers (user_id);
+CREATE INDEX idx_drivers_assigned_car_active ON drivers (assigned_car_id, is_active);
+
+-- users / admins
+CREATE INDEX idx_users_role_active ON users (role, is_active);
+CREATE INDEX idx_users_contact_number ON users (contact_number);
+CREATE INDEX idx_admins_user ON admins (user_id);
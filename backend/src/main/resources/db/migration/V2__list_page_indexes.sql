@@ -0,0 +1,8 @@
+-- Keyset indexes for the cursor-paged list endpoints (?limit=&cursor=).
+-- alerts pages are served by idx_alerts_active_ts / idx_alerts_car_active_ts (InnoDB appends the id).
+
+CREATE INDEX idx_trips_requested ON trips (requested_at);
+CREATE INDEX idx_trips_status_requested ON trips (status, requested_at);
+CREATE INDEX idx_cars_active_created ON cars (is_active, creation_date);
+CREATE INDEX idx_drivers_active_created ON drivers (is_active, creation_date);
+CREATE INDEX idx_users_active_created ON users (is_active, creation_date);
@@ -1,13 +1,40 @@
 package com.smartcar.monitoring;
 
+import org.eclipse.paho.client.mqttv3.MqttClient;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
-@SpringBootTest
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Full context on H2 without the MQTT broker; the index check reads MySQL's information_schema, so it is off here
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:context;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"schema.index-check.enabled=false" })
 class SmartCarMonitoringApplicationTests {
 
+	@MockitoBean
+	private MqttClient mqttClient;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void migrationsRunAfterHibernateCreatedTheTables() {
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"success\"",
+				Integer.class)).isGreaterThanOrEqualTo(3);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+				+ "WHERE INDEX_NAME = 'IDX_TELEMETRY_CAR_ACTIVE_TS'", Integer.class)).isEqualTo(1);
+	}
+
 }
@@ -0,0 +1,34 @@
+// EmbeddedStompBrokerConfig.java
+package com.smartcar.monitoring.config;
+
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * In-memory Artemis broker with a STOMP acceptor, standing in for the
+ * external broker in tests. Import it together with
+ * {@code websocket.broker.mode=relay} to run the real relay path on one node;
+ * the relay's port defaults to the acceptor's.
+ */
+@TestConfiguration
+public class EmbeddedStompBrokerConfig {
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int port;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public EmbeddedActiveMQ embeddedStompBroker() throws Exception {
+        ConfigurationImpl configuration = new ConfigurationImpl();
+        configuration.setPersistenceEnabled(false);
+        configuration.setSecurityEnabled(false);
+        // Same destination prefixes the relay uses: /topic is publish-subscribe, /queue point-to-point
+        configuration.addAcceptorConfiguration("stomp", "tcp://127.0.0.1:" + port
+                + "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+        EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        return broker;
+    }
+}
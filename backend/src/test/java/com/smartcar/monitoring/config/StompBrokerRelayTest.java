@@ -0,0 +1,107 @@
+package com.smartcar.monitoring.config;
+
+import com.smartcar.monitoring.service.BrokerLatencyProbe;
+import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the relay path against the embedded Artemis broker: messages published
+ * by the application and by a STOMP client go out through the broker and come
+ * back to a client subscribed on this node.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:relay;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "schema.index-check.enabled=false",
+        "websocket.broker.mode=relay",
+        "websocket.broker.relay.host=127.0.0.1",
+        "websocket.broker.relay.port=61623",
+        // Artemis audits every message at INFO, which would dominate the probe's latencies
+        "logging.level.org.apache.activemq.audit=WARN" })
+@Import(EmbeddedStompBrokerConfig.class)
+class StompBrokerRelayTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompBrokerRelayTest.class);
+
+    @MockitoBean
+    private MqttClient mqttClient;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private String url() {
+        return "ws://127.0.0.1:" + port + "/ws-binary";
+    }
+
+    @Test
+    void serverBroadcastReachesASubscriberThroughTheBroker() throws Exception {
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new StringMessageConverter());
+        client.start();
+        try {
+            StompSession session = client.connectAsync(url(), new StompSessionHandlerAdapter() {
+            }).get(10, TimeUnit.SECONDS);
+            BlockingQueue<String> received = new LinkedBlockingQueue<>();
+            session.subscribe("/topic/system/relay-test", new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return String.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    received.add((String) payload);
+                }
+            });
+
+            // The subscription reaches the broker asynchronously; publish until it is live
+            String message = null;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (message == null && System.nanoTime() < deadline) {
+                messagingTemplate.convertAndSend("/topic/system/relay-test", "hello");
+                message = received.poll(100, TimeUnit.MILLISECONDS);
+            }
+            assertThat(message).isEqualTo("hello");
+            session.disconnect();
+        } finally {
+            client.stop();
+        }
+    }
+
+    @Test
+    void clientMessagesMakeTheRoundTripThroughTheBroker() throws Exception {
+        Map<String, Object> result = BrokerLatencyProbe.run(url(), 500);
+        logger.info("Relay broker probe: {}", result);
+
+        assertThat(result).containsEntry("complete", true).containsEntry("received", 500);
+    }
+}
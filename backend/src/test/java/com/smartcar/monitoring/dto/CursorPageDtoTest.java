@@ -0,0 +1,92 @@
+package com.smartcar.monitoring.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPageDtoTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 8, 30, 15, 123_000_000);
+
+    private record Row(LocalDateTime timestamp, Long id) {
+    }
+
+    @Test
+    void encodedCursorDecodesToTheSamePosition() {
+        String cursor = CursorPageDto.encodeCursor(T0, 42L);
+
+        CursorPageDto.Cursor decoded = CursorPageDto.decodeCursor(cursor, CursorPageDto.FIRST_ASC);
+
+        assertThat(decoded.getTimestamp()).isEqualTo(T0);
+        assertThat(decoded.getId()).isEqualTo(42L);
+        assertThat(cursor).doesNotContain("|", "+", "/", "=");
+    }
+
+    @Test
+    void missingOrBlankCursorStartsFromTheFirstPosition() {
+        assertThat(CursorPageDto.decodeCursor(null, CursorPageDto.FIRST_DESC)).isSameAs(CursorPageDto.FIRST_DESC);
+        assertThat(CursorPageDto.decodeCursor("", CursorPageDto.FIRST_DESC)).isSameAs(CursorPageDto.FIRST_DESC);
+        assertThat(CursorPageDto.decodeCursor("  ", CursorPageDto.FIRST_ASC)).isSameAs(CursorPageDto.FIRST_ASC);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> CursorPageDto.decodeCursor("not-a-cursor", CursorPageDto.FIRST_ASC))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("not-a-cursor");
+    }
+
+    @Test
+    void extraRowSignalsAnotherPageAndTheCursorPointsAtTheLastItem() {
+        List<Row> rows = List.of(new Row(T0, 1L), new Row(T0, 2L), new Row(T0.plusSeconds(1), 3L));
+
+        CursorPageDto<Long> page = CursorPageDto.fromRows(rows, 2, Row::id, Row::timestamp, Row::id);
+
+        assertThat(page.getItems()).containsExactly(1L, 2L);
+        assertThat(page.isHasMore()).isTrue();
+        CursorPageDto.Cursor next = CursorPageDto.decodeCursor(page.getNextCursor(), CursorPageDto.FIRST_ASC);
+        assertThat(next.getTimestamp()).isEqualTo(T0);
+        assertThat(next.getId()).isEqualTo(2L);
+
+        CursorPageDto<Long> last = CursorPageDto.fromRows(rows.subList(2, 3), 2, Row::id, Row::timestamp, Row::id);
+        assertThat(last.isHasMore()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void followingNextCursorVisitsEveryRowOnce() {
+        // Rows share timestamps in runs of three so the id tiebreak matters
+        List<Row> table = LongStream.rangeClosed(1, 11)
+                .mapToObj(id -> new Row(T0.plusSeconds((id - 1) / 3), id)).toList();
+        List<Long> seen = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            CursorPageDto.Cursor after = CursorPageDto.decodeCursor(cursor, CursorPageDto.FIRST_ASC);
+            List<Row> rows = table.stream()
+                    .filter(row -> row.timestamp().isAfter(after.getTimestamp())
+                            || (row.timestamp().isEqual(after.getTimestamp()) && row.id() > after.getId()))
+                    .limit(4 + 1).collect(Collectors.toList());
+            CursorPageDto<Long> page = CursorPageDto.fromRows(rows, 4, Row::id, Row::timestamp, Row::id);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(seen).containsExactlyElementsOf(LongStream.rangeClosed(1, 11).boxed().toList());
+        assertThat(pages).isEqualTo(3);
+    }
+
+    @Test
+    void limitIsClampedToTheMaximum() {
+        assertThat(CursorPageDto.clampLimit(0)).isEqualTo(1);
+        assertThat(CursorPageDto.clampLimit(50)).isEqualTo(50);
+        assertThat(CursorPageDto.clampLimit(10_000)).isEqualTo(CursorPageDto.MAX_LIMIT);
+    }
+}
@@ -0,0 +1,175 @@
+package com.smartcar.monitoring.repository;
+
+import com.smartcar.monitoring.dto.AdminDto;
+import com.smartcar.monitoring.dto.AlertDto;
+import com.smartcar.monitoring.dto.CarDto;
+import com.smartcar.monitoring.dto.CursorPageDto;
+import com.smartcar.monitoring.dto.DriverDto;
+import com.smartcar.monitoring.dto.TripDto;
+import com.smartcar.monitoring.model.Admin;
+import com.smartcar.monitoring.model.Alert;
+import com.smartcar.monitoring.model.Alert.AlertSeverity;
+import com.smartcar.monitoring.model.Car;
+import com.smartcar.monitoring.model.Driver;
+import com.smartcar.monitoring.model.Trip;
+import com.smartcar.monitoring.model.Trip.TripStatus;
+import com.smartcar.monitoring.model.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every list endpoint maps its rows to DTOs that read lazy relations. The
+ * finders behind them fetch those relations up front, so a list costs one
+ * SELECT however many rows it returns.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.smartcar.monitoring.repository.ListQueryStatementBudgetTest$StatementCounter" })
+class ListQueryStatementBudgetTest {
+
+    private static final int ROWS = 5;
+    private static final int BUDGET = 1;
+
+    // Counts every statement Hibernate prepares
+    public static class StatementCounter implements StatementInspector {
+        static final AtomicInteger STATEMENTS = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.incrementAndGet();
+            return sql;
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    private Driver firstDriver;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ROWS; i++) {
+            User driverUser = entityManager.persist(user("driver" + i, User.UserRole.DRIVER));
+            Driver driver = entityManager.persist(new Driver(driverUser));
+            Car car = new Car("ACTIVE", 60, 50, 40, "Colombo");
+            car.setCarNumber("CAR-" + i);
+            car.setDriver(driver);
+            entityManager.persist(car);
+            driver.setAssignedCarId(car.getId());
+
+            Trip trip = new Trip();
+            trip.setDriver(driver);
+            trip.setCar(car);
+            trip.setStartPoint("A");
+            trip.setEndPoint("B");
+            trip.setStatus(TripStatus.ACTIVE);
+            entityManager.persist(trip);
+
+            Alert alert = new Alert(car, "HIGH_SPEED", AlertSeverity.HIGH);
+            alert.setTrip(trip);
+            entityManager.persist(alert);
+
+            User adminUser = entityManager.persist(user("admin" + i, User.UserRole.ADMIN));
+            entityManager.persist(new Admin(adminUser, "ALL"));
+            if (firstDriver == null) {
+                firstDriver = driver;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static User user(String username, User.UserRole role) {
+        return new User(username, "secret", role, "Name " + username, 30, User.Gender.OTHER, "0770000000",
+                username + "@example.com", "LIC-" + username);
+    }
+
+    // Run a list query and its DTO mapping, returning how many statements it issued
+    private <T> int statements(Supplier<List<T>> list) {
+        entityManager.clear();
+        StatementCounter.STATEMENTS.set(0);
+        List<T> items = list.get();
+        assertThat(items).isNotEmpty();
+        return StatementCounter.STATEMENTS.get();
+    }
+
+    @Test
+    void carListsFetchTheDriverAndUser() {
+        assertThat(statements(() -> carRepository.findByIsActiveTrue().stream().map(CarDto::new).toList()))
+                .isLessThanOrEqualTo(BUDGET);
+        assertThat(statements(() -> carRepository.findByStatusAndIsActiveTrue("ACTIVE").stream()
+                .map(CarDto::new).toList())).isLessThanOrEqualTo(BUDGET);
+        assertThat(statements(() -> carRepository.findPage(null, true, CursorPageDto.FIRST_ASC.getTimestamp(),
+                CursorPageDto.FIRST_ASC.getId(), PageRequest.of(0, ROWS + 1)).stream().map(CarDto::new).toList()))
+                .isLessThanOrEqualTo(BUDGET);
+    }
+
+    @Test
+    void tripListsFetchTheDriverUserAndCar() {
+        assertThat(statements(() -> tripRepository.findByStatus(TripStatus.ACTIVE).stream().map(TripDto::new)
+                .toList())).isLessThanOrEqualTo(BUDGET);
+        assertThat(statements(() -> tripRepository.findByDriverIdAndIsActiveTrue(firstDriver.getId()).stream()
+                .map(TripDto::new).toList())).isLessThanOrEqualTo(BUDGET);
+        assertThat(statements(() -> tripRepository.findPage(null, null, null, null, null,
+                CursorPageDto.FIRST_DESC.getTimestamp(), CursorPageDto.FIRST_DESC.getId(),
+                PageRequest.of(0, ROWS + 1)).stream().map(TripDto::new).toList())).isLessThanOrEqualTo(BUDGET);
+    }
+
+    @Test
+    void driverAndAdminListsFetchTheUser() {
+        assertThat(statements(() -> driverRepository.findByIsActiveTrue().stream().map(DriverDto::new).toList()))
+                .isLessThanOrEqualTo(BUDGET);
+        assertThat(statements(() -> driverRepository.findByAssignedCarIdIsNotNullAndIsActiveTrue().stream()
+                .map(DriverDto::new).toList())).isLessThanOrEqualTo(BUDGET);
+        assertThat(statements(() -> driverRepository.findPage(null, CursorPageDto.FIRST_ASC.getTimestamp(),
+                CursorPageDto.FIRST_ASC.getId(), PageRequest.of(0, ROWS + 1)).stream().map(DriverDto::new).toList()))
+                .isLessThanOrEqualTo(BUDGET);
+        assertThat(statements(() -> adminRepository.findByIsActiveTrue().stream().map(AdminDto::new).toList()))
+                .isLessThanOrEqualTo(BUDGET);
+    }
+
+    @Test
+    void alertListsFetchTheCar() {
+        assertThat(statements(() -> alertRepository.findByIsActiveTrue().stream().map(AlertDto::new).toList()))
+                .isLessThanOrEqualTo(BUDGET);
+        assertThat(statements(() -> alertRepository.findByAcknowledgedFalseAndIsActiveTrue().stream()
+                .map(AlertDto::new).toList())).isLessThanOrEqualTo(BUDGET);
+        assertThat(statements(() -> alertRepository.findPage(null, null, null, null, true, null, null,
+                CursorPageDto.FIRST_DESC.getTimestamp(), CursorPageDto.FIRST_DESC.getId(),
+                PageRequest.of(0, ROWS + 1)).stream().map(AlertDto::new).toList())).isLessThanOrEqualTo(BUDGET);
+    }
+
+    @Test
+    void listWithoutAGraphLoadsRelationsPerRow() {
+        // Guards the counter itself: plain findAll() leaves the relations lazy
+        assertThat(statements(() -> tripRepository.findAll().stream().map(TripDto::new).toList()))
+                .isGreaterThan(ROWS);
+    }
+}
@@ -0,0 +1,186 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.model.Alert;
+import com.smartcar.monitoring.model.Alert.AlertSeverity;
+import com.smartcar.monitoring.model.Car;
+import com.smartcar.monitoring.repository.AlertRepository;
+import com.smartcar.monitoring.repository.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs bulk operations against H2 with real transactions; each chunk commits
+ * on its own, so the test itself runs outside a transaction.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AlertBulkServiceTest {
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private AlertBulkService service;
+    private AlertStatsService alertStatsService;
+    private AlertStateTracker alertStateTracker;
+    private WebSocketService webSocketService;
+    private final List<Runnable> queued = new ArrayList<>();
+    private Car car;
+    private Car otherCar;
+
+    @BeforeEach
+    void setUp() {
+        alertRepository.deleteAll();
+        carRepository.deleteAll();
+        car = carRepository.save(new Car("ACTIVE", 60, 50, 40, "Colombo"));
+        otherCar = carRepository.save(new Car("ACTIVE", 60, 50, 40, "Kandy"));
+
+        alertStatsService = new AlertStatsService();
+        ReflectionTestUtils.setField(alertStatsService, "alertRepository", alertRepository);
+        alertStateTracker = mock(AlertStateTracker.class);
+        webSocketService = mock(WebSocketService.class);
+
+        service = new AlertBulkService(transactionManager);
+        ReflectionTestUtils.setField(service, "alertRepository", alertRepository);
+        ReflectionTestUtils.setField(service, "alertStatsService", alertStatsService);
+        ReflectionTestUtils.setField(service, "alertStateTracker", alertStateTracker);
+        ReflectionTestUtils.setField(service, "webSocketService", webSocketService);
+        ReflectionTestUtils.setField(service, "executor", (Executor) queued::add);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+    }
+
+    private Alert alert(Car car, String type, AlertSeverity severity) {
+        return alertRepository.save(new Alert(car, type, severity));
+    }
+
+    // Run everything the service queued, as its worker thread would
+    private void runQueued() {
+        while (!queued.isEmpty()) {
+            queued.remove(0).run();
+        }
+    }
+
+    @Test
+    void requestOnlyQueuesTheOperation() {
+        Alert open = alert(car, "HIGH_SPEED", AlertSeverity.HIGH);
+
+        Map<String, Object> operation = service.acknowledge(car.getId(), null, null);
+
+        assertThat(operation).containsEntry("status", "QUEUED").containsEntry("updated", 0L);
+        assertThat(alertRepository.findById(open.getId()).orElseThrow().getAcknowledged()).isFalse();
+
+        runQueued();
+
+        assertThat(alertRepository.findById(open.getId()).orElseThrow().getAcknowledged()).isTrue();
+        assertThat(service.getOperation((Long) operation.get("operation")))
+                .containsEntry("status", "COMPLETED").containsEntry("updated", 1L).containsEntry("progress", 1.0);
+        verify(webSocketService).broadcastAlertBulkUpdate(any());
+    }
+
+    @Test
+    void chunksFollowTheMatchingIdsNotTheIdRange() {
+        // Three matches spread across a long run of other cars' alerts
+        List<Long> matching = new ArrayList<>();
+        matching.add(alert(car, "HIGH_SPEED", AlertSeverity.HIGH).getId());
+        for (int i = 0; i < 20; i++) {
+            alert(otherCar, "HIGH_SPEED", AlertSeverity.HIGH);
+        }
+        matching.add(alert(car, "LOW_FUEL", AlertSeverity.MEDIUM).getId());
+        for (int i = 0; i < 20; i++) {
+            alert(otherCar, "HIGH_SPEED", AlertSeverity.HIGH);
+        }
+        matching.add(alert(car, "HIGH_SPEED", AlertSeverity.CRITICAL).getId());
+
+        Map<String, Object> operation = service.acknowledge(car.getId(), null, null);
+        runQueued();
+
+        // Two chunks of at most two ids, where 2-id windows over the id range would take 21
+        assertThat(service.getStatistics()).containsEntry("updateStatements", 2L).containsEntry("alertsUpdated", 3L);
+        assertThat(service.getOperation((Long) operation.get("operation")))
+                .containsEntry("chunksDone", 2L).containsEntry("chunksTotal", 2L);
+        assertThat(alertRepository.findByCarIdAndAcknowledgedFalseAndIsActiveTrue(car.getId())).isEmpty();
+        assertThat(alertRepository.findByCarIdAndAcknowledgedFalseAndIsActiveTrue(otherCar.getId())).hasSize(40);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> forgotten = ArgumentCaptor.forClass(Collection.class);
+        verify(alertStateTracker, times(2)).forget(forgotten.capture());
+        assertThat(forgotten.getAllValues()).containsExactly(matching.subList(0, 2), matching.subList(2, 3));
+    }
+
+    @Test
+    void deactivateHonoursTheFiltersAndLeavesOtherRows() {
+        Alert acknowledged = alert(car, "HIGH_SPEED", AlertSeverity.HIGH);
+        acknowledged.setAcknowledged(true);
+        alertRepository.save(acknowledged);
+        Alert open = alert(car, "HIGH_SPEED", AlertSeverity.HIGH);
+        Alert otherType = alert(car, "LOW_FUEL", AlertSeverity.HIGH);
+
+        service.deactivate(null, "HIGH_SPEED", null, true);
+        runQueued();
+
+        assertThat(alertRepository.findById(acknowledged.getId()).orElseThrow().getIsActive()).isFalse();
+        assertThat(alertRepository.findById(open.getId()).orElseThrow().getIsActive()).isTrue();
+        assertThat(alertRepository.findById(otherType.getId()).orElseThrow().getIsActive()).isTrue();
+        verify(alertStateTracker).forget(List.of(acknowledged.getId()));
+    }
+
+    @Test
+    void countersFollowTheBulkUpdateWithoutARecount() {
+        for (int i = 0; i < 3; i++) {
+            alert(car, "HIGH_SPEED", AlertSeverity.CRITICAL);
+            alert(car, "LOW_FUEL", AlertSeverity.LOW);
+        }
+        alertStatsService.reconcile();
+
+        service.acknowledge(null, null, AlertSeverity.CRITICAL);
+        service.deactivate(car.getId(), "LOW_FUEL", null, null);
+        runQueued();
+
+        assertThat(alertStatsService.getCounts().totalAlerts()).isEqualTo(3);
+        assertThat(alertStatsService.getCounts().unacknowledgedAlerts()).isZero();
+        assertThat(alertStatsService.getCounts().criticalAlerts()).isEqualTo(3);
+        assertThat(alertStatsService.getStatistics()).containsEntry("reconciles", 1L);
+
+        // A recount agrees with what the transitions produced
+        alertStatsService.reconcile();
+        assertThat(alertStatsService.getStatistics()).containsEntry("correctedDrift", 0L);
+    }
+
+    @Test
+    void nothingMatchingCompletesWithoutAnUpdate() {
+        alert(otherCar, "HIGH_SPEED", AlertSeverity.HIGH);
+
+        Map<String, Object> operation = service.acknowledge(car.getId(), null, null);
+        runQueued();
+
+        assertThat(service.getOperation((Long) operation.get("operation")))
+                .containsEntry("status", "COMPLETED").containsEntry("updated", 0L).containsEntry("chunksTotal", 0L);
+        assertThat(service.getStatistics()).containsEntry("updateStatements", 0L);
+        verify(alertStateTracker, never()).forget(any());
+    }
+}
@@ -0,0 +1,286 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.model.Alert.AlertSeverity;
+import com.smartcar.monitoring.model.AlertRule;
+import com.smartcar.monitoring.model.AlertRule.Metric;
+import com.smartcar.monitoring.model.AlertRule.Operator;
+import com.smartcar.monitoring.repository.AlertRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AlertRuleEngineTest {
+
+    @Mock
+    private AlertRuleRepository alertRuleRepository;
+
+    @InjectMocks
+    private AlertRuleEngine engine;
+
+    private final List<AlertRule> rules = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(engine, "windowCapacity", 16);
+        lenient().when(alertRuleRepository.findByIsActiveTrue()).thenAnswer(invocation -> List.copyOf(rules));
+        lenient().when(alertRuleRepository.findVersionFingerprint()).thenAnswer(invocation -> List.<Object[]>of(
+                new Object[] { (long) rules.size(), rules.stream().map(AlertRule::getLastUpdateOn)
+                        .max(LocalDateTime::compareTo).orElse(null) }));
+    }
+
+    private static AlertRule rule(String type, Metric metric, Operator operator, int threshold,
+            AlertSeverity severity) {
+        return new AlertRule(type, metric, operator, threshold, severity, 10, type + " {value}");
+    }
+
+    private static List<String> matched(AlertRuleEngine.Matches matches) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < matches.size(); i++) {
+            result.add(matches.rule(i).getType() + ":" + matches.rule(i).getSeverity() + ":" + matches.value(i));
+        }
+        return result;
+    }
+
+    @Test
+    void mostSevereMatchingRuleWinsPerType() {
+        rules.add(rule("HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertSeverity.HIGH));
+        rules.add(rule("HIGH_SPEED", Metric.SPEED, Operator.GT, 150, AlertSeverity.CRITICAL));
+        rules.add(rule("LOW_FUEL", Metric.FUEL, Operator.LT, 20, AlertSeverity.HIGH));
+        engine.reload();
+
+        assertThat(matched(engine.evaluate(130, 50, 80))).containsExactly("HIGH_SPEED:HIGH:130");
+        assertThat(matched(engine.evaluate(160, 10, 80)))
+                .containsExactlyInAnyOrder("HIGH_SPEED:CRITICAL:160", "LOW_FUEL:HIGH:10");
+        assertThat(engine.evaluate(100, 50, 80).size()).isZero();
+    }
+
+    @Test
+    void operatorsCompareAgainstTheThresholdInclusivelyOrNot() {
+        rules.add(rule("GT", Metric.TEMPERATURE, Operator.GT, 100, AlertSeverity.LOW));
+        rules.add(rule("GTE", Metric.TEMPERATURE, Operator.GTE, 100, AlertSeverity.LOW));
+        rules.add(rule("LT", Metric.FUEL, Operator.LT, 20, AlertSeverity.LOW));
+        rules.add(rule("LTE", Metric.FUEL, Operator.LTE, 20, AlertSeverity.LOW));
+        engine.reload();
+
+        assertThat(matched(engine.evaluate(0, 20, 100))).containsExactlyInAnyOrder("GTE:LOW:100", "LTE:LOW:20");
+        assertThat(matched(engine.evaluate(0, 19, 101)))
+                .containsExactlyInAnyOrder("GT:LOW:101", "GTE:LOW:101", "LT:LOW:19", "LTE:LOW:19");
+    }
+
+    @Test
+    void incompleteRulesAreSkippedWhenCompiling() {
+        rules.add(rule("HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertSeverity.HIGH));
+        rules.add(rule("NO_METRIC", null, Operator.GT, 1, AlertSeverity.HIGH));
+        rules.add(rule("NO_SEVERITY", Metric.SPEED, Operator.GT, 1, null));
+        rules.add(new AlertRule("NO_WINDOW", Metric.SPEED, Operator.GT, 1, AlertSeverity.HIGH, 0, null,
+                AlertRule.Condition.SUSTAINED, null));
+        engine.reload();
+
+        assertThat(engine.getCompiledRules()).extracting(AlertRuleEngine.Rule::getType).containsExactly("HIGH_SPEED");
+    }
+
+    @Test
+    void messageTemplateDefaultsToTheTypeAndValue() {
+        rules.add(new AlertRule("HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertSeverity.HIGH, null, null));
+        engine.reload();
+
+        AlertRuleEngine.Rule compiled = engine.getCompiledRules().get(0);
+        assertThat(compiled.message(130)).isEqualTo("HIGH_SPEED: 130");
+        assertThat(compiled.getFineAmount()).isZero();
+    }
+
+    @Test
+    void changedRuleTableIsPickedUpWithoutARestart() {
+        rules.add(rule("HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertSeverity.HIGH));
+        engine.reload();
+        assertThat(engine.evaluate(110, 50, 80).size()).isZero();
+
+        AlertRule lowered = rule("HIGH_SPEED", Metric.SPEED, Operator.GT, 100, AlertSeverity.HIGH);
+        lowered.setLastUpdateOn(LocalDateTime.now().plusMinutes(1));
+        rules.set(0, lowered);
+        engine.refreshIfChanged();
+
+        assertThat(matched(engine.evaluate(110, 50, 80))).containsExactly("HIGH_SPEED:HIGH:110");
+    }
+
+    @Test
+    void unchangedRuleTableIsNotRecompiled() {
+        rules.add(rule("HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertSeverity.HIGH));
+        engine.reload();
+
+        engine.refreshIfChanged();
+        engine.refreshIfChanged();
+
+        verify(alertRuleRepository, times(1)).findByIsActiveTrue();
+    }
+
+    @Test
+    void failedRefreshKeepsTheLastCompiledRules() {
+        rules.add(rule("HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertSeverity.HIGH));
+        engine.reload();
+        when(alertRuleRepository.findVersionFingerprint()).thenThrow(new IllegalStateException("database down"));
+
+        engine.refreshIfChanged();
+
+        assertThat(matched(engine.evaluate(130, 50, 80))).containsExactly("HIGH_SPEED:HIGH:130");
+    }
+
+    @Test
+    void clearsOnlyWithTheMarginInsideTheLeastSevereRule() {
+        rules.add(rule("HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertSeverity.HIGH));
+        rules.add(rule("HIGH_SPEED", Metric.SPEED, Operator.GT, 150, AlertSeverity.CRITICAL));
+        rules.add(rule("LOW_FUEL", Metric.FUEL, Operator.LT, 20, AlertSeverity.HIGH));
+        engine.reload();
+
+        assertThat(engine.isClear(1L, "HIGH_SPEED", 115, 50, 80, 5)).isTrue();
+        assertThat(engine.isClear(1L, "HIGH_SPEED", 118, 50, 80, 5)).isFalse();
+        assertThat(engine.isClear(1L, "LOW_FUEL", 0, 25, 80, 5)).isTrue();
+        assertThat(engine.isClear(1L, "LOW_FUEL", 0, 22, 80, 5)).isFalse();
+        assertThat(engine.isClear(1L, "REMOVED_TYPE", 0, 0, 0, 5)).isTrue();
+    }
+
+    @Test
+    void defaultRulesAreSeededOnlyIntoAnEmptyTable() {
+        when(alertRuleRepository.existsByWindowSecondsIsNull()).thenReturn(true);
+        when(alertRuleRepository.existsByWindowSecondsIsNotNull()).thenReturn(true);
+
+        engine.init();
+
+        verify(alertRuleRepository, never()).saveAll(any());
+    }
+
+    private static AlertRule windowed(String type, Metric metric, Operator operator, int threshold,
+            AlertRule.Condition condition, int windowSeconds) {
+        return new AlertRule(type, metric, operator, threshold, AlertSeverity.HIGH, 0, "{value}", condition,
+                windowSeconds);
+    }
+
+    private List<String> sample(long second, int speed, int fuel, int temperature) {
+        return matched(engine.evaluate(1L, second * 1000, speed, fuel, temperature));
+    }
+
+    @Test
+    void sustainedRuleFiresOnlyOnceTheConditionHeldForTheWholeWindow() {
+        rules.add(windowed("SUSTAINED_HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertRule.Condition.SUSTAINED, 30));
+        engine.reload();
+
+        assertThat(sample(0, 130, 50, 80)).isEmpty();
+        assertThat(sample(15, 130, 50, 80)).isEmpty();
+        assertThat(sample(29, 130, 50, 80)).isEmpty();
+        assertThat(sample(30, 125, 50, 80)).containsExactly("SUSTAINED_HIGH_SPEED:HIGH:125");
+        assertThat(sample(35, 140, 50, 80)).containsExactly("SUSTAINED_HIGH_SPEED:HIGH:140");
+    }
+
+    @Test
+    void sustainedRuleRestartsWhenTheConditionBreaks() {
+        rules.add(windowed("SUSTAINED_HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertRule.Condition.SUSTAINED, 30));
+        engine.reload();
+
+        sample(0, 130, 50, 80);
+        sample(20, 100, 50, 80);
+        assertThat(sample(30, 130, 50, 80)).isEmpty();
+        assertThat(sample(55, 130, 50, 80)).isEmpty();
+        assertThat(sample(60, 130, 50, 80)).hasSize(1);
+    }
+
+    @Test
+    void sustainedRuleRestartsAfterAGapLongerThanTheWindow() {
+        rules.add(windowed("SUSTAINED_HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertRule.Condition.SUSTAINED, 30));
+        engine.reload();
+
+        sample(0, 130, 50, 80);
+        assertThat(sample(100, 130, 50, 80)).as("no samples in between").isEmpty();
+        assertThat(sample(130, 130, 50, 80)).hasSize(1);
+    }
+
+    @Test
+    void rateRuleComparesAgainstTheOldestSampleInsideTheWindow() {
+        rules.add(windowed("TEMPERATURE_RISE", Metric.TEMPERATURE, Operator.GT, 5, AlertRule.Condition.RATE, 60));
+        rules.add(windowed("FUEL_DROP", Metric.FUEL, Operator.LT, -10, AlertRule.Condition.RATE, 60));
+        engine.reload();
+
+        assertThat(sample(0, 50, 60, 80)).isEmpty();
+        assertThat(sample(30, 50, 55, 84)).isEmpty();
+        assertThat(sample(50, 50, 49, 86)).containsExactlyInAnyOrder("TEMPERATURE_RISE:HIGH:6",
+                "FUEL_DROP:HIGH:-11");
+        // The 0s sample left the window; the change is now measured from 30s
+        assertThat(sample(70, 50, 48, 88)).isEmpty();
+    }
+
+    @Test
+    void windowedRulesKeepSeparateHistoryPerCar() {
+        rules.add(windowed("TEMPERATURE_RISE", Metric.TEMPERATURE, Operator.GT, 5, AlertRule.Condition.RATE, 60));
+        engine.reload();
+
+        engine.evaluate(1L, 0, 50, 50, 80);
+        engine.evaluate(2L, 0, 50, 50, 90);
+
+        assertThat(matched(engine.evaluate(2L, 10_000, 50, 50, 90))).isEmpty();
+        assertThat(matched(engine.evaluate(1L, 10_000, 50, 50, 90))).containsExactly("TEMPERATURE_RISE:HIGH:10");
+    }
+
+    @Test
+    void windowedRulesNeverMatchWithoutHistory() {
+        rules.add(windowed("SUSTAINED_HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertRule.Condition.SUSTAINED, 30));
+        rules.add(windowed("TEMPERATURE_RISE", Metric.TEMPERATURE, Operator.GT, -100, AlertRule.Condition.RATE, 60));
+        rules.add(rule("HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertSeverity.HIGH));
+        engine.reload();
+
+        assertThat(matched(engine.evaluate(130, 50, 80))).containsExactly("HIGH_SPEED:HIGH:130");
+    }
+
+    @Test
+    void historyOlderThanTheRingCapacityIsNotSeen() {
+        rules.add(windowed("TEMPERATURE_RISE", Metric.TEMPERATURE, Operator.GT, 5, AlertRule.Condition.RATE, 3600));
+        engine.reload();
+
+        sample(0, 50, 50, 80);
+        for (int i = 1; i <= 16; i++) {
+            sample(i, 50, 50, 90);
+        }
+        // Capacity 16: the 80 degree sample was overwritten, so the change is 0
+        assertThat(sample(17, 50, 50, 90)).isEmpty();
+    }
+
+    @Test
+    void reloadResetsWindowedRuleState() {
+        rules.add(windowed("SUSTAINED_HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertRule.Condition.SUSTAINED, 30));
+        engine.reload();
+        sample(0, 130, 50, 80);
+        sample(20, 130, 50, 80);
+
+        engine.reload();
+
+        assertThat(sample(30, 130, 50, 80)).as("holding restarts at 30s").isEmpty();
+        assertThat(sample(60, 130, 50, 80)).hasSize(1);
+    }
+
+    @Test
+    void rateRuleClearsOnTheObservedChange() {
+        rules.add(windowed("TEMPERATURE_RISE", Metric.TEMPERATURE, Operator.GT, 5, AlertRule.Condition.RATE, 60));
+        engine.reload();
+        sample(0, 50, 50, 80);
+        sample(10, 50, 50, 90);
+        assertThat(engine.isClear(1L, "TEMPERATURE_RISE", 50, 50, 90, 2)).isFalse();
+
+        sample(80, 50, 50, 90);
+        assertThat(engine.isClear(1L, "TEMPERATURE_RISE", 50, 50, 90, 2)).isTrue();
+    }
+}
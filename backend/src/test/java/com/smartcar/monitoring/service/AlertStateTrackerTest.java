@@ -0,0 +1,294 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.model.Alert;
+import com.smartcar.monitoring.model.Alert.AlertSeverity;
+import com.smartcar.monitoring.model.AlertRule;
+import com.smartcar.monitoring.model.AlertRule.Metric;
+import com.smartcar.monitoring.model.AlertRule.Operator;
+import com.smartcar.monitoring.model.Car;
+import com.smartcar.monitoring.model.Trip;
+import com.smartcar.monitoring.repository.AlertRepository;
+import com.smartcar.monitoring.repository.AlertRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AlertStateTrackerTest {
+
+    @Mock
+    private AlertRuleRepository alertRuleRepository;
+
+    @Mock
+    private AlertService alertService;
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    private AlertStateTracker tracker;
+    private final Car car = new Car();
+    private final Trip trip = trip(7L);
+    private final List<Alert> created = new ArrayList<>();
+    private final List<String> events = new ArrayList<>();
+    private final AtomicLong ids = new AtomicLong(100);
+
+    private final AlertStateTracker.Listener listener = new AlertStateTracker.Listener() {
+        @Override
+        public void raised(Alert alert, AlertRuleEngine.Rule rule) {
+            events.add("raised " + alert.getId() + " " + alert.getSeverity());
+        }
+
+        @Override
+        public void escalated(Alert alert, AlertRuleEngine.Rule rule) {
+            events.add("escalated " + alert.getId() + " " + alert.getSeverity());
+        }
+
+        @Override
+        public void updated(Alert alert) {
+            events.add("reopened " + alert.getId());
+        }
+
+        @Override
+        public void cleared(Alert alert) {
+            events.add("cleared " + alert.getId());
+        }
+    };
+
+    private static Trip trip(Long id) {
+        Trip trip = new Trip();
+        trip.setId(id);
+        return trip;
+    }
+
+    @BeforeEach
+    void setUp() {
+        car.setId(1L);
+        when(alertRuleRepository.findByIsActiveTrue()).thenReturn(List.of(
+                new AlertRule("HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertSeverity.HIGH, 10, "{value}"),
+                new AlertRule("HIGH_SPEED", Metric.SPEED, Operator.GT, 150, AlertSeverity.CRITICAL, 20, "{value}")));
+        AlertRuleEngine engine = new AlertRuleEngine();
+        ReflectionTestUtils.setField(engine, "alertRuleRepository", alertRuleRepository);
+        ReflectionTestUtils.setField(engine, "windowCapacity", 16);
+        engine.reload();
+
+        tracker = new AlertStateTracker();
+        ReflectionTestUtils.setField(tracker, "alertRuleEngine", engine);
+        ReflectionTestUtils.setField(tracker, "alertService", alertService);
+        ReflectionTestUtils.setField(tracker, "alertRepository", alertRepository);
+        ReflectionTestUtils.setField(tracker, "clearMargin", 5);
+        ReflectionTestUtils.setField(tracker, "clearSamples", 2);
+        ReflectionTestUtils.setField(tracker, "cooldownMs", 60_000L);
+
+        lenient().when(alertService.createAlert(any(), any(), anyString(), anyString(), anyString(), anyInt()))
+                .thenAnswer(invocation -> {
+                    Alert alert = new Alert(invocation.getArgument(0), invocation.getArgument(2),
+                            AlertSeverity.valueOf(invocation.getArgument(3)));
+                    alert.setId(ids.incrementAndGet());
+                    alert.setTrip(invocation.getArgument(1));
+                    created.add(alert);
+                    return alert;
+                });
+    }
+
+    private void sample(Trip trip, int speed) {
+        tracker.process(car, trip, speed, 50, 80, listener);
+    }
+
+    @Test
+    void repeatedMatchesUpdateOneRowAndAreWrittenOnFlush() {
+        sample(trip, 130);
+        sample(trip, 140);
+        sample(trip, 135);
+
+        assertThat(created).hasSize(1);
+        verify(alertService, never()).updateAlertState(any(), any(), anyInt(), any(), any(), any());
+
+        tracker.flush();
+
+        verify(alertService).updateAlertState(eq(101L), eq(AlertSeverity.HIGH), eq(3), eq(140), any(), isNull());
+        assertThat(tracker.getStatistics()).containsEntry("raised", 1L).containsEntry("deduplicated", 2L);
+    }
+
+    @Test
+    void moreSevereMatchEscalatesTheOpenRow() {
+        sample(trip, 130);
+        sample(trip, 160);
+
+        assertThat(created).hasSize(1);
+        verify(alertService).updateAlertState(eq(101L), eq(AlertSeverity.CRITICAL), eq(2), eq(160), any(), isNull());
+        assertThat(events).containsExactly("raised 101 HIGH", "escalated 101 CRITICAL");
+    }
+
+    @Test
+    void alertClearsAfterConsecutiveSamplesPastTheMarginAndReopensWithinTheCooldown() {
+        sample(trip, 130);
+        sample(trip, 118); // inside the margin: does not count
+        sample(trip, 110);
+        sample(trip, 100);
+        assertThat(events).containsExactly("raised 101 HIGH", "cleared 101");
+        verify(alertService).updateAlertState(eq(101L), any(), anyInt(), any(), any(), notNull());
+
+        sample(trip, 125);
+        assertThat(created).hasSize(1);
+        assertThat(events).endsWith("reopened 101");
+    }
+
+    @Test
+    void eachTripGetsItsOwnRow() {
+        sample(trip, 130);
+        sample(trip(8L), 130);
+
+        assertThat(created).extracting(alert -> alert.getTrip().getId()).containsExactly(7L, 8L);
+    }
+
+    @Test
+    void acknowledgedAlertIsForgottenSoTheNextMatchRaisesANewRow() {
+        sample(trip, 130);
+
+        tracker.forget(List.of(101L));
+        sample(trip, 130);
+
+        assertThat(created).extracting(Alert::getId).containsExactly(101L, 102L);
+        assertThat(tracker.getStatistics()).containsEntry("forgotten", 1L);
+    }
+
+    @Test
+    void endedTripIsForgotten() {
+        sample(trip, 130);
+        sample(trip(8L), 130);
+
+        tracker.forgetTrip(7L);
+
+        assertThat(tracker.getStatistics()).containsEntry("openAlerts", 1).containsEntry("forgotten", 1L);
+        tracker.flush();
+        sample(trip, 130);
+        assertThat(created).hasSize(3);
+    }
+
+    @Test
+    void openRowsAreRestoredAtStartup() {
+        Alert open = new Alert(car, "HIGH_SPEED", AlertSeverity.HIGH);
+        open.setId(55L);
+        open.setTrip(trip);
+        open.setOccurrenceCount(4);
+        open.setPeakValue(133);
+        open.setLastSeenAt(LocalDateTime.now().minusSeconds(5));
+        when(alertRepository.findTrackedAlerts(any())).thenReturn(List.of(open));
+
+        tracker.restore();
+        sample(trip, 140);
+        tracker.flush();
+
+        assertThat(created).isEmpty();
+        verify(alertService).updateAlertState(eq(55L), eq(AlertSeverity.HIGH), eq(5), eq(140), any(), isNull());
+        assertThat(tracker.getStatistics()).containsEntry("restored", 1L).containsEntry("openAlerts", 1);
+    }
+
+    @Test
+    void databaseWritesRunWithoutHoldingTheCarLock() throws Exception {
+        List<Map<String, Object>> seenDuringInsert = new ArrayList<>();
+        doAnswer(invocation -> {
+            // Statistics lock every car; this would time out if the insert ran under the lock
+            seenDuringInsert.add(CompletableFuture.supplyAsync(tracker::getStatistics).get(2, TimeUnit.SECONDS));
+            Alert alert = new Alert(car, "HIGH_SPEED", AlertSeverity.HIGH);
+            alert.setId(101L);
+            return alert;
+        }).when(alertService).createAlert(any(), any(), anyString(), anyString(), anyString(), anyInt());
+
+        sample(trip, 130);
+
+        assertThat(seenDuringInsert).hasSize(1);
+        verify(alertService, times(1)).createAlert(any(), any(), anyString(), anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void failedInsertLetsTheNextMatchRetry() {
+        doThrow(new IllegalStateException("database down")).doAnswer(invocation -> {
+            Alert alert = new Alert(car, "HIGH_SPEED", AlertSeverity.HIGH);
+            alert.setId(101L);
+            return alert;
+        }).when(alertService).createAlert(any(), any(), anyString(), anyString(), anyString(), anyInt());
+
+        sample(trip, 130);
+        sample(trip, 130);
+
+        verify(alertService, times(2)).createAlert(any(), any(), anyString(), anyString(), anyString(), anyInt());
+        assertThat(events).containsExactly("raised 101 HIGH");
+    }
+
+    @Test
+    void staleStateCapturedBeforeANewerWriteIsNotStoredOverIt() throws Exception {
+        when(alertRuleRepository.findByIsActiveTrue()).thenReturn(List.of(
+                new AlertRule("HIGH_SPEED", Metric.SPEED, Operator.GT, 120, AlertSeverity.HIGH, 10, "{value}"),
+                new AlertRule("LOW_FUEL", Metric.FUEL, Operator.LT, 20, AlertSeverity.MEDIUM, 5, "{value}"),
+                new AlertRule("LOW_FUEL", Metric.FUEL, Operator.LT, 10, AlertSeverity.CRITICAL, 5, "{value}")));
+        ((AlertRuleEngine) ReflectionTestUtils.getField(tracker, "alertRuleEngine")).reload();
+        CountDownLatch insertStarted = new CountDownLatch(1);
+        CountDownLatch releaseInsert = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            String type = invocation.getArgument(2);
+            if ("HIGH_SPEED".equals(type)) {
+                insertStarted.countDown();
+                releaseInsert.await(5, TimeUnit.SECONDS);
+            }
+            Alert alert = new Alert(invocation.getArgument(0), type, AlertSeverity.valueOf(invocation.getArgument(3)));
+            alert.setId(ids.incrementAndGet());
+            alert.setTrip(invocation.getArgument(1));
+            created.add(alert);
+            return alert;
+        }).when(alertService).createAlert(any(), any(), anyString(), anyString(), anyString(), anyInt());
+        List<Alert> escalatedEvents = new ArrayList<>();
+
+        tracker.process(car, trip, 100, 15, 40, null);
+        // The LOW_FUEL escalation is captured, then waits behind the HIGH_SPEED insert of the same sample
+        CompletableFuture<Void> shard = CompletableFuture.runAsync(() -> tracker.process(car, trip, 130, 8, 40,
+                new AlertStateTracker.Listener() {
+                    @Override
+                    public void escalated(Alert alert, AlertRuleEngine.Rule rule) {
+                        escalatedEvents.add(alert);
+                    }
+                }));
+        assertThat(insertStarted.await(2, TimeUnit.SECONDS)).isTrue();
+        tracker.process(car, trip, 100, 5, 40, null);
+        tracker.flush();
+        releaseInsert.countDown();
+        shard.get(5, TimeUnit.SECONDS);
+
+        verify(alertService).updateAlertState(eq(101L), eq(AlertSeverity.CRITICAL), eq(3), eq(5), any(), isNull());
+        verify(alertService, never()).updateAlertState(eq(101L), any(), eq(2), eq(8), any(), any());
+        assertThat(tracker.getStatistics()).containsEntry("supersededWrites", 1L);
+        // The listener gets the state captured for it, not the row shared with other threads
+        assertThat(escalatedEvents).singleElement().satisfies(alert -> {
+            assertThat(alert.getPeakValue()).isEqualTo(8);
+            assertThat(alert).isNotSameAs(created.get(0));
+        });
+        assertThat(created.get(0).getSeverity()).isEqualTo(AlertSeverity.MEDIUM);
+    }
+}
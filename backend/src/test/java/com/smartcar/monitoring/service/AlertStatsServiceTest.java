@@ -0,0 +1,240 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.DashboardSnapshotDto;
+import com.smartcar.monitoring.model.Alert.AlertSeverity;
+import com.smartcar.monitoring.repository.AlertRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AlertStatsServiceTest {
+
+    private static final AlertStatsService.Key HIGH_OPEN = new AlertStatsService.Key(AlertSeverity.HIGH, false,
+            "HIGH_SPEED");
+    private static final AlertStatsService.Key HIGH_ACKED = new AlertStatsService.Key(AlertSeverity.HIGH, true,
+            "HIGH_SPEED");
+    private static final AlertStatsService.Key CRITICAL_OPEN = new AlertStatsService.Key(AlertSeverity.CRITICAL,
+            false, "LOW_FUEL");
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    private AlertStatsService service;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        service = new AlertStatsService();
+        ReflectionTestUtils.setField(service, "alertRepository", alertRepository);
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    private static Object[] row(AlertStatsService.Key key, long count) {
+        return new Object[] { key.severity(), key.acknowledged(), key.type(), count };
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private DashboardSnapshotDto.AlertCounts counts() {
+        return service.getCounts();
+    }
+
+    @Test
+    void reconcileLoadsTheGroupedCounts() {
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType())
+                .thenReturn(rows(row(HIGH_OPEN, 3), row(HIGH_ACKED, 2), row(CRITICAL_OPEN, 1)));
+
+        service.reconcile();
+
+        assertThat(counts().totalAlerts()).isEqualTo(6);
+        assertThat(counts().unacknowledgedAlerts()).isEqualTo(4);
+        assertThat(counts().criticalAlerts()).isEqualTo(1);
+        assertThat(service.getStatistics()).containsEntry("loaded", true).containsEntry("correctedDrift", 0L);
+    }
+
+    @Test
+    void transitionMovesCountsBetweenKeys() {
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType()).thenReturn(rows(row(HIGH_OPEN, 3)));
+        service.reconcile();
+
+        service.transition(HIGH_OPEN, HIGH_ACKED);
+        service.transition(null, CRITICAL_OPEN);
+        service.transitionAll(HIGH_OPEN, null, 2);
+
+        assertThat(counts().totalAlerts()).isEqualTo(2);
+        assertThat(counts().unacknowledgedAlerts()).isEqualTo(1);
+        assertThat(counts().criticalAlerts()).isEqualTo(1);
+    }
+
+    @Test
+    void transitionAppliesOnlyWhenItsTransactionCommits() {
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType()).thenReturn(rows(row(HIGH_OPEN, 1)));
+        service.reconcile();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            service.transition(null, HIGH_OPEN);
+            assertThat(counts().totalAlerts()).as("not before commit").isEqualTo(1);
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            service.transition(null, HIGH_OPEN);
+            status.setRollbackOnly();
+        });
+
+        assertThat(counts().totalAlerts()).isEqualTo(2);
+    }
+
+    @Test
+    void transitionCommittedWhileTheReconcileQueryRunsIsKept() {
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType()).thenReturn(rows(row(HIGH_OPEN, 2)));
+        service.reconcile();
+
+        // The snapshot is taken before this commit, so it still shows two open alerts
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType()).thenAnswer(invocation -> {
+            transactionTemplate.executeWithoutResult(status -> service.transition(HIGH_OPEN, HIGH_ACKED));
+            return rows(row(HIGH_OPEN, 2));
+        });
+        service.reconcile();
+
+        assertThat(counts().totalAlerts()).isEqualTo(2);
+        assertThat(counts().unacknowledgedAlerts()).isEqualTo(1);
+        assertThat(service.getStatistics()).containsEntry("correctedDrift", 0L);
+    }
+
+    @Test
+    void transitionCommittingAfterTheReconcileQueryStartedIsNotLost() throws Exception {
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType()).thenReturn(rows(row(HIGH_OPEN, 2)));
+        service.reconcile();
+
+        // The query starts before the insert commits, so it only sees two open alerts
+        CountDownLatch queryRunning = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType()).thenAnswer(invocation -> {
+            queryRunning.countDown();
+            assertThat(committed.await(5, TimeUnit.SECONDS)).isTrue();
+            return rows(row(HIGH_OPEN, 2));
+        });
+        CompletableFuture<Void> reconcile = new CompletableFuture<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            service.transition(null, HIGH_OPEN);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    CompletableFuture.runAsync(service::reconcile).whenComplete((result, error) -> {
+                        if (error != null) {
+                            reconcile.completeExceptionally(error);
+                        } else {
+                            reconcile.complete(null);
+                        }
+                    });
+                    try {
+                        assertThat(queryRunning.await(5, TimeUnit.SECONDS)).isTrue();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+        });
+        committed.countDown();
+        reconcile.get(5, TimeUnit.SECONDS);
+
+        assertThat(counts().totalAlerts()).isEqualTo(3);
+        assertThat(service.getStatistics()).containsEntry("journaledTransitions", 1L);
+    }
+
+    @Test
+    void transitionAppliedAfterASnapshotThatSawItIsCorrectedByTheNextReconcile() {
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType()).thenReturn(rows(row(HIGH_OPEN, 2)));
+        service.reconcile();
+
+        // A reconcile sees the new row before afterCommit runs; the transition still applies on top of it
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType()).thenReturn(rows(row(HIGH_OPEN, 3)));
+        transactionTemplate.executeWithoutResult(status -> {
+            service.transition(null, HIGH_OPEN);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    service.reconcile();
+                }
+            });
+        });
+        assertThat(counts().totalAlerts()).isEqualTo(4);
+
+        service.reconcile();
+
+        // One for the row the first reconcile found, one for the double count
+        assertThat(counts().totalAlerts()).isEqualTo(3);
+        assertThat(service.getStatistics()).containsEntry("correctedDrift", 2L);
+    }
+
+    @Test
+    void reconcileCorrectsDriftFromWritesOutsideTheService() {
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType()).thenReturn(rows(row(HIGH_OPEN, 3)));
+        service.reconcile();
+
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType()).thenReturn(rows(row(HIGH_OPEN, 1)));
+        service.reconcile();
+
+        assertThat(counts().totalAlerts()).isEqualTo(1);
+        assertThat(service.getStatistics()).containsEntry("correctedDrift", 2L).containsEntry("reconciles", 2L);
+    }
+
+    @Test
+    void failedReconcileKeepsApplyingTransitions() {
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType()).thenReturn(rows(row(HIGH_OPEN, 1)));
+        service.reconcile();
+
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType())
+                .thenThrow(new IllegalStateException("database down"));
+        assertThatThrownBy(service::reconcile).isInstanceOf(IllegalStateException.class);
+        service.transition(null, HIGH_OPEN);
+
+        assertThat(counts().totalAlerts()).isEqualTo(2);
+    }
+
+    @Test
+    void reconcilesRunOneAtATime() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        when(alertRepository.countActiveBySeverityAndAcknowledgedAndType()).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            firstStarted.countDown();
+            Thread.sleep(100);
+            running.decrementAndGet();
+            return rows(row(HIGH_OPEN, 1));
+        });
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(service::reconcile);
+        assertThat(firstStarted.await(2, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> second = CompletableFuture.runAsync(service::reconcile);
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+        assertThat(maxRunning.get()).isEqualTo(1);
+        assertThat(counts().totalAlerts()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,132 @@
+package com.smartcar.monitoring.service;
+
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures broker delivery of a running node: a STOMP client connects to its
+ * plain WebSocket endpoint, subscribes to a probe topic, and timestamps each
+ * message it sends there until it comes back. Start the application once with
+ * the simple broker and once with the relay to compare the two modes:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.smartcar.monitoring.service.BrokerLatencyProbe \
+ *     -Dexec.args="ws://127.0.0.1:8080/ws-binary 1000"
+ * </pre>
+ */
+public class BrokerLatencyProbe {
+
+    private static final String PROBE_DESTINATION = "/topic/system/broker-probe";
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "ws://127.0.0.1:8080/ws-binary";
+        int messages = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        System.out.println(run(url, messages));
+    }
+
+    public static Map<String, Object> run(String url, int messages) throws Exception {
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new ByteArrayMessageConverter());
+        client.start();
+        StompSession session = null;
+        try {
+            session = client.connectAsync(url, new StompSessionHandlerAdapter() {
+            }).get(5, TimeUnit.SECONDS);
+
+            long[] latencies = new long[messages];
+            AtomicInteger received = new AtomicInteger();
+            CountDownLatch warm = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(messages);
+            session.subscribe(PROBE_DESTINATION, new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return byte[].class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    long now = System.nanoTime();
+                    ByteBuffer buffer = ByteBuffer.wrap((byte[]) payload);
+                    int sequence = buffer.getInt();
+                    long sentAt = buffer.getLong();
+                    if (sequence < 0) {
+                        warm.countDown();
+                        return;
+                    }
+                    if (sequence < latencies.length) {
+                        latencies[sequence] = now - sentAt;
+                        received.incrementAndGet();
+                        done.countDown();
+                    }
+                }
+            });
+
+            // The subscription reaches the broker asynchronously; keep pinging until it is live
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!warm.await(50, TimeUnit.MILLISECONDS)) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Probe subscription did not become active");
+                }
+                publish(session, -1);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                publish(session, i);
+            }
+            boolean complete = done.await(30, TimeUnit.SECONDS);
+            long elapsed = System.nanoTime() - start;
+
+            int count = received.get();
+            long[] delivered = Arrays.stream(latencies).filter(l -> l > 0).sorted().toArray();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("url", url);
+            result.put("sent", messages);
+            result.put("received", count);
+            result.put("complete", complete);
+            result.put("throughputPerSecond", elapsed > 0 ? Math.round(count * 1e9 / elapsed) : 0);
+            result.put("latencyMicrosP50", percentile(delivered, 50));
+            result.put("latencyMicrosP95", percentile(delivered, 95));
+            result.put("latencyMicrosP99", percentile(delivered, 99));
+            result.put("latencyMicrosMax", delivered.length == 0 ? null : delivered[delivered.length - 1] / 1000);
+            return result;
+        } finally {
+            if (session != null && session.isConnected()) {
+                session.disconnect();
+            }
+            client.stop();
+        }
+    }
+
+    private static void publish(StompSession session, int sequence) {
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination(PROBE_DESTINATION);
+        headers.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        session.send(headers, ByteBuffer.allocate(12).putInt(sequence).putLong(System.nanoTime()).array());
+    }
+
+    // Nearest-rank percentile in microseconds
+    private static Long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) {
+            return null;
+        }
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1000;
+    }
+}
@@ -0,0 +1,169 @@
+package com.smartcar.monitoring.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FineLedgerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private FineLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE trips (id BIGINT PRIMARY KEY, status VARCHAR(20), base_cost DECIMAL(10,2), "
+                + "additional_fine DECIMAL(10,2), total_cost DECIMAL(10,2), last_update_on TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE fine_events (id BIGINT AUTO_INCREMENT PRIMARY KEY, trip_id BIGINT, "
+                + "car_id BIGINT, alert_id BIGINT, reason VARCHAR(255), amount DECIMAL(10,2), occurred_at TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO trips (id, status, base_cost, additional_fine, total_cost) "
+                + "VALUES (1, 'ACTIVE', 100, 5, 105)");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        ledger = new FineLedger();
+        ReflectionTestUtils.setField(ledger, "jdbcTemplate", jdbcTemplate);
+    }
+
+    private Map<String, Object> trip() {
+        return jdbcTemplate.queryForMap("SELECT additional_fine, total_cost FROM trips WHERE id = 1");
+    }
+
+    private static BigDecimal amount(Object value) {
+        return (BigDecimal) value;
+    }
+
+    @Test
+    void pendingFinesAreAppliedToTheTripRowWithOneUpdate() {
+        ledger.accrue(1L, 3L, 10L, "HIGH_SPEED HIGH", 10);
+        ledger.accrue(1L, 3L, 11L, "HIGH_SPEED CRITICAL", 20);
+        assertThat(ledger.getPendingAmount(1L)).isEqualTo(30L);
+
+        ledger.flush();
+
+        Map<String, Object> trip = trip();
+        assertThat(amount(trip.get("ADDITIONAL_FINE"))).isEqualByComparingTo("35");
+        assertThat(amount(trip.get("TOTAL_COST"))).isEqualByComparingTo("135");
+        assertThat(ledger.getPendingAmount(1L)).isZero();
+        assertThat(ledger.getStatistics()).containsEntry("tripUpdates", 1L).containsEntry("eventsWritten", 2L);
+        assertThat(jdbcTemplate.queryForList("SELECT reason FROM fine_events ORDER BY id", String.class))
+                .containsExactly("HIGH_SPEED HIGH", "HIGH_SPEED CRITICAL");
+    }
+
+    @Test
+    void finesWithoutATripOrAmountAreIgnored() {
+        ledger.accrue(null, 3L, 10L, "HIGH_SPEED HIGH", 10);
+        ledger.accrue(1L, 3L, 10L, "HIGH_SPEED HIGH", 0);
+
+        assertThat(ledger.getStatistics()).containsEntry("accrued", 0L).containsEntry("pendingEvents", 0);
+    }
+
+    @Test
+    void amountIsPutBackWhenTheCallersTransactionRollsBack() {
+        ledger.accrue(1L, 3L, 10L, "HIGH_SPEED HIGH", 10);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ledger.flushTrip(1L);
+            assertThat(ledger.getPendingAmount(1L)).isZero();
+            status.setRollbackOnly();
+        });
+
+        assertThat(ledger.getPendingAmount(1L)).isEqualTo(10L);
+        assertThat(amount(trip().get("TOTAL_COST"))).isEqualByComparingTo("105");
+
+        ledger.flushTrip(1L);
+        assertThat(amount(trip().get("TOTAL_COST"))).isEqualByComparingTo("115");
+    }
+
+    @Test
+    void committedTransactionDoesNotPutTheAmountBack() {
+        ledger.accrue(1L, 3L, 10L, "HIGH_SPEED HIGH", 10);
+
+        transactionTemplate.executeWithoutResult(status -> ledger.flushTrip(1L));
+
+        assertThat(ledger.getPendingAmount(1L)).isZero();
+        assertThat(amount(trip().get("ADDITIONAL_FINE"))).isEqualByComparingTo("15");
+    }
+
+    @Test
+    void failedUpdateKeepsTheAmountPending() {
+        ledger.accrue(1L, 3L, 10L, "HIGH_SPEED HIGH", 10);
+        jdbcTemplate.execute("ALTER TABLE trips RENAME TO trips_offline");
+
+        assertThatThrownBy(() -> ledger.flushTrip(1L)).isInstanceOf(RuntimeException.class);
+        ledger.accrue(1L, 3L, 11L, "HIGH_SPEED HIGH", 5);
+        assertThat(ledger.getPendingAmount(1L)).isEqualTo(15L);
+
+        jdbcTemplate.execute("ALTER TABLE trips_offline RENAME TO trips");
+        ledger.flushTrip(1L);
+        assertThat(amount(trip().get("TOTAL_COST"))).isEqualByComparingTo("120");
+    }
+
+    @Test
+    void failedEventBatchIsRetriedOnTheNextFlush() {
+        ledger.accrue(1L, 3L, 10L, "HIGH_SPEED HIGH", 10);
+        jdbcTemplate.execute("ALTER TABLE fine_events RENAME TO fine_events_offline");
+
+        ledger.flush();
+        assertThat(ledger.getStatistics()).containsEntry("pendingEvents", 1).containsEntry("eventsWritten", 0L);
+
+        jdbcTemplate.execute("ALTER TABLE fine_events_offline RENAME TO fine_events");
+        ledger.flush();
+        assertThat(ledger.getStatistics()).containsEntry("pendingEvents", 0).containsEntry("eventsWritten", 1L);
+    }
+
+    @Test
+    void finesAccruedAfterTheTripIsClosedAreRejected() {
+        ledger.accrue(1L, 3L, 10L, "HIGH_SPEED HIGH", 10);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ledger.closeTrip(1L);
+            jdbcTemplate.update("UPDATE trips SET status = 'COMPLETED' WHERE id = 1");
+        });
+        ledger.accrue(1L, 3L, 11L, "HIGH_SPEED CRITICAL", 20);
+        ledger.flush();
+
+        assertThat(amount(trip().get("TOTAL_COST"))).isEqualByComparingTo("115");
+        assertThat(ledger.getPendingAmount(1L)).isZero();
+        assertThat(ledger.getStatistics()).containsEntry("rejected", 1L).containsEntry("rejectedAmount", 20L)
+                .containsEntry("eventsWritten", 1L);
+    }
+
+    @Test
+    void amountThatSlipsInWhileTheTripStopsDoesNotChangeTheCompletedTotal() {
+        // Accrued before the ledger knew about the stop, e.g. a trip stopped before a restart
+        jdbcTemplate.update("UPDATE trips SET status = 'COMPLETED' WHERE id = 1");
+        ledger.accrue(1L, 3L, 10L, "HIGH_SPEED HIGH", 10);
+
+        ledger.flush();
+
+        assertThat(amount(trip().get("TOTAL_COST"))).isEqualByComparingTo("105");
+        assertThat(ledger.getPendingAmount(1L)).isZero();
+        assertThat(ledger.getStatistics()).containsEntry("rejectedAmount", 10L).containsEntry("tripUpdates", 0L);
+    }
+
+    @Test
+    void rolledBackStopKeepsAcceptingFines() {
+        transactionTemplate.executeWithoutResult(status -> {
+            ledger.closeTrip(1L);
+            status.setRollbackOnly();
+        });
+        ledger.accrue(1L, 3L, 10L, "HIGH_SPEED HIGH", 10);
+
+        assertThat(ledger.getPendingAmount(1L)).isEqualTo(10L);
+        assertThat(ledger.getStatistics()).containsEntry("rejected", 0L);
+    }
+}
@@ -0,0 +1,135 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.LiveMessage;
+import com.smartcar.monitoring.dto.MapFrameDto;
+import com.smartcar.monitoring.dto.MapViewportRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class MapViewportServiceTest {
+
+    private static final MapViewportRequest PUNE = new MapViewportRequest(18.4, 73.7, 18.7, 74.0, 14);
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final MapViewportService service = new MapViewportService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "locationResolver", new LocationResolver());
+        ReflectionTestUtils.setField(service, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(service, "cellDegrees", 0.01);
+        ReflectionTestUtils.setField(service, "detailZoom", 11);
+        ReflectionTestUtils.setField(service, "maxDetailCars", 500);
+        ReflectionTestUtils.setField(service, "staleAfterMs", 600_000L);
+    }
+
+    private List<MapFrameDto> framesSentTo(String sessionId, int count) {
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(count)).convertAndSendToUser(eq(sessionId), eq(MapViewportService.DESTINATION),
+                payloads.capture(), anyMap());
+        return payloads.getAllValues().stream().map(p -> (MapFrameDto) ((LiveMessage) p).data()).toList();
+    }
+
+    @Test
+    void deltaBuiltAfterTheFullFrameIsNotSentBeforeIt() throws Exception {
+        service.record(1L, "18.5308,73.8475");
+        CountDownLatch fullFrameSending = new CountDownLatch(1);
+        CountDownLatch releaseFullFrame = new CountDownLatch(1);
+        List<MapFrameDto> delivered = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            MapFrameDto frame = (MapFrameDto) ((LiveMessage) invocation.getArgument(2)).data();
+            if (frame.snapshot()) {
+                fullFrameSending.countDown();
+                releaseFullFrame.await(5, TimeUnit.SECONDS);
+            }
+            delivered.add(frame);
+            return null;
+        }).when(messagingTemplate).convertAndSendToUser(anyString(), anyString(), any(Object.class), anyMap());
+
+        Thread register = new Thread(() -> service.register("s1", PUNE));
+        register.start();
+        assertThat(fullFrameSending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The car moves after the full frame was built; its delta must wait for the full frame to go out
+        service.record(1L, "18.5074,73.8077");
+        Thread flush = new Thread(service::flush);
+        flush.start();
+        flush.join(200);
+        assertThat(delivered).isEmpty();
+
+        releaseFullFrame.countDown();
+        register.join(5000);
+        flush.join(5000);
+
+        assertThat(delivered).extracting(MapFrameDto::snapshot).containsExactly(true, false);
+        assertThat(delivered.get(1).cars()).extracting(MapFrameDto.Car::lat).containsExactly(18.5074);
+    }
+
+    @Test
+    void deactivatedCarIsRemovedFromTheGridAndFromViewports() {
+        service.record(1L, "18.5308,73.8475");
+        service.record(2L, "18.5074,73.8077");
+        service.flush();
+        service.register("s1", PUNE);
+
+        service.remove(1L);
+        service.flush();
+
+        List<MapFrameDto> frames = framesSentTo("s1", 2);
+        assertThat(frames.get(0).cars()).hasSize(2);
+        assertThat(frames.get(1).removed()).containsExactly(1L);
+        assertThat(frames.get(1).total()).isEqualTo(1);
+        Map<String, Object> stats = service.getStatistics();
+        assertThat(stats).containsEntry("trackedCars", 1).containsEntry("occupiedCells", 1)
+                .containsEntry("evictedCars", 1L);
+    }
+
+    @Test
+    void carsSilentPastTheTtlAreEvictedOnFlush() {
+        service.record(1L, "18.5308,73.8475");
+        service.flush();
+        service.register("s1", PUNE);
+
+        ReflectionTestUtils.setField(service, "staleAfterMs", -1L);
+        service.flush();
+
+        List<MapFrameDto> frames = framesSentTo("s1", 2);
+        assertThat(frames.get(1).removed()).containsExactly(1L);
+        assertThat(service.getStatistics()).containsEntry("trackedCars", 0).containsEntry("occupiedCells", 0);
+    }
+
+    @Test
+    void reportingTheSamePositionKeepsACarFresh() {
+        service.record(1L, "18.5308,73.8475");
+        service.record(2L, "18.5074,73.8077");
+        service.flush();
+        @SuppressWarnings("unchecked")
+        Map<Long, Long> lastSeen = (Map<Long, Long>) ReflectionTestUtils.getField(service, "lastSeenByCar");
+        lastSeen.replaceAll((carId, seenAt) -> seenAt - 1_000_000);
+
+        // Car 1 reports again from where it already is
+        service.record(1L, "18.5308,73.8475");
+        service.flush();
+
+        assertThat(service.getStatistics()).containsEntry("trackedCars", 1).containsEntry("evictedCars", 1L);
+    }
+}
@@ -0,0 +1,76 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.TelemetryDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryDownsamplerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private static List<TelemetryDto> series(int count, IntUnaryOperator speedAt) {
+        List<TelemetryDto> samples = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            samples.add(new TelemetryDto(1L, null, speedAt.applyAsInt(i), 50, 80, "Pune", START.plusSeconds(i)));
+        }
+        return samples;
+    }
+
+    private static List<TelemetryDto> downsample(List<TelemetryDto> samples, int maxPoints) {
+        LocalDateTime end = samples.isEmpty() ? START : samples.get(samples.size() - 1).getTimestamp();
+        TelemetryDownsampler downsampler = new TelemetryDownsampler(START, end, maxPoints);
+        samples.forEach(downsampler);
+        return downsampler.finish();
+    }
+
+    @Test
+    void emptyAndSingleSampleInputsPassThrough() {
+        assertThat(downsample(List.of(), 10)).isEmpty();
+
+        List<TelemetryDto> one = series(1, i -> 42);
+        assertThat(downsample(one, 10)).containsExactlyElementsOf(one);
+    }
+
+    @Test
+    void twoSamplesAreBothKept() {
+        List<TelemetryDto> two = series(2, i -> i * 10);
+        assertThat(downsample(two, 10)).containsExactlyElementsOf(two);
+    }
+
+    @Test
+    void keepsAtMostMaxPointsIncludingFirstAndLast() {
+        List<TelemetryDto> samples = series(10_000, i -> (i * 37) % 120);
+
+        List<TelemetryDto> result = downsample(samples, 100);
+
+        assertThat(result).hasSizeLessThanOrEqualTo(100).hasSizeGreaterThan(90);
+        assertThat(result.get(0)).isSameAs(samples.get(0));
+        assertThat(result.get(result.size() - 1)).isSameAs(samples.get(samples.size() - 1));
+    }
+
+    @Test
+    void outputIsInTimestampOrderWithoutDuplicates() {
+        List<TelemetryDto> samples = series(5_000, i -> (int) (60 + 40 * Math.sin(i / 50.0)));
+
+        List<TelemetryDto> result = downsample(samples, 200);
+
+        assertThat(result).isSortedAccordingTo(Comparator.comparing(TelemetryDto::getTimestamp));
+        assertThat(result).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void isolatedSpikeSurvivesDownsampling() {
+        List<TelemetryDto> samples = series(2_000, i -> i == 1_234 ? 200 : 50);
+
+        List<TelemetryDto> result = downsample(samples, 20);
+
+        assertThat(result).contains(samples.get(1_234));
+    }
+}
@@ -0,0 +1,252 @@
+package com.smartcar.monitoring.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcar.monitoring.dto.TelemetryDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryIngestServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private ObjectMapper objectMapper;
+    private VehicleStateCache vehicleStateCache;
+    private TelemetryIngestService service;
+    private Path spillFile;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE cars (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE trips (id BIGINT PRIMARY KEY)");
+        createTelemetryTable();
+        jdbcTemplate.update("INSERT INTO cars (id) VALUES (1), (2)");
+
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        spillFile = tempDir.resolve("spill.ndjson");
+
+        service = new TelemetryIngestService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "transactionManager", new DataSourceTransactionManager(dataSource));
+        vehicleStateCache = new VehicleStateCache();
+        ReflectionTestUtils.setField(service, "vehicleStateCache", vehicleStateCache);
+        ReflectionTestUtils.setField(service, "queueCapacity", 100);
+        ReflectionTestUtils.setField(service, "batchSize", 4);
+        // Long interval: the writer only flushes on a full batch or at shutdown
+        ReflectionTestUtils.setField(service, "flushIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(service, "backpressure", TelemetryIngestService.Backpressure.BLOCK);
+        ReflectionTestUtils.setField(service, "spillFile", spillFile.toString());
+        ReflectionTestUtils.setField(service, "replayBackoffMs", 50L);
+        ReflectionTestUtils.setField(service, "replayMaxBackoffMs", 50L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private void createTelemetryTable() {
+        jdbcTemplate.execute("CREATE TABLE telemetry (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "car_id BIGINT NOT NULL REFERENCES cars(id), trip_id BIGINT REFERENCES trips(id), "
+                + "timestamp TIMESTAMP, speed INT, fuel INT, temperature INT, location VARCHAR(255), "
+                + "creation_date TIMESTAMP, last_update_on TIMESTAMP, is_active BOOLEAN)");
+    }
+
+    private TelemetryDto sample(long carId, int speed) {
+        return new TelemetryDto(carId, null, speed, 50, 80, "Pune", LocalDateTime.of(2026, 1, 1, 12, 0, speed % 60));
+    }
+
+    private int rows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM telemetry", Integer.class);
+    }
+
+    private List<Integer> speeds() {
+        return jdbcTemplate.queryForList("SELECT speed FROM telemetry ORDER BY speed", Integer.class);
+    }
+
+    private Object stat(String key) {
+        return service.getStatistics().get(key);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met within 5s").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void writesFullBatchWithoutWaitingForTheInterval() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            service.enqueue(sample(1, i));
+        }
+
+        await(() -> ((Number) stat("written")).longValue() == 4);
+        assertThat(rows()).isEqualTo(4);
+        assertThat(stat("batches")).isEqualTo(1L);
+    }
+
+    @Test
+    void liveStateGetsTheRowIdOnceTheBatchIsInserted() throws Exception {
+        TelemetryDto latest = null;
+        for (int i = 1; i <= 4; i++) {
+            latest = sample(2, i);
+            service.enqueue(latest);
+            vehicleStateCache.update(latest);
+        }
+
+        await(() -> ((Number) stat("written")).longValue() == 4);
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM telemetry WHERE speed = 4", Long.class);
+        TelemetryDto cached = vehicleStateCache.get(2L).orElseThrow();
+        assertThat(cached.getId()).isEqualTo(id);
+        assertThat(cached.getTimestamp()).isEqualTo(latest.getTimestamp());
+        assertThat(latest.getId()).as("queued sample is not mutated").isNull();
+    }
+
+    @Test
+    void badRowIsIsolatedAndRejectedWhileTheRestOfTheBatchIsWritten() throws Exception {
+        service.enqueue(sample(1, 1));
+        service.enqueue(sample(2, 2));
+        service.enqueue(sample(99, 3)); // no such car
+        service.enqueue(sample(1, 4));
+
+        await(() -> ((Number) stat("written")).longValue() == 3);
+        assertThat(speeds()).containsExactly(1, 2, 4);
+        assertThat(stat("failed")).isEqualTo(1L);
+        assertThat((Long) stat("bisectedBatches")).isPositive();
+
+        List<String> rejected = Files.readAllLines(Path.of(spillFile + ".rejected"));
+        assertThat(rejected).hasSize(1);
+        assertThat(objectMapper.readValue(rejected.get(0), TelemetryDto.class).getCarId()).isEqualTo(99L);
+    }
+
+    @Test
+    void batchIsSpilledWhenTheDatabaseFailsAndReplayedAfterTheNextFlush() throws Exception {
+        jdbcTemplate.execute("DROP TABLE telemetry");
+        for (int i = 1; i <= 4; i++) {
+            service.enqueue(sample(1, i));
+        }
+        // The writer spills the batch, then its replay attempt fails and keeps the rows in the replay file
+        await(() -> ((Number) stat("failedSpillReplays")).longValue() >= 1);
+        assertThat(stat("spilled")).isEqualTo(4L);
+        assertThat(stat("written")).isEqualTo(0L);
+        assertThat(stat("failed")).isEqualTo(0L);
+        assertThat(Path.of(spillFile + ".replay")).exists();
+
+        createTelemetryTable();
+        Thread.sleep(100);
+        for (int i = 5; i <= 8; i++) {
+            service.enqueue(sample(1, i));
+        }
+
+        await(() -> ((Number) stat("written")).longValue() == 8);
+        assertThat(speeds()).containsExactly(1, 2, 3, 4, 5, 6, 7, 8);
+        assertThat(stat("spilled")).isEqualTo(4L);
+        assertThat(spillFile).doesNotExist();
+        assertThat(Path.of(spillFile + ".replay")).doesNotExist();
+    }
+
+    @Test
+    void failedReplayStopsAtTheFirstBatchAndKeepsTheRestWithoutRespilling() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            lines.add(objectMapper.writeValueAsString(sample(1, i)));
+        }
+        Files.write(spillFile, lines, StandardCharsets.UTF_8);
+        jdbcTemplate.execute("DROP TABLE telemetry");
+
+        service.replaySpill();
+
+        Path replay = Path.of(spillFile + ".replay");
+        assertThat(Files.readAllLines(replay, StandardCharsets.UTF_8)).hasSize(10);
+        assertThat(spillFile).doesNotExist();
+        assertThat(stat("spilled")).isEqualTo(0L);
+        assertThat(stat("spillReplays")).isEqualTo(0L);
+        assertThat(stat("failedSpillReplays")).isEqualTo(1L);
+        assertThat(stat("replayBackoffMs")).isEqualTo(50L);
+
+        createTelemetryTable();
+        service.replaySpill();
+
+        assertThat(speeds()).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        assertThat(replay).doesNotExist();
+        assertThat(stat("spillReplays")).isEqualTo(1L);
+        assertThat(stat("replayBackoffMs")).isEqualTo(0L);
+    }
+
+    @Test
+    void writerDoesNotRetryTheReplayBeforeTheBackoffElapses() throws Exception {
+        ReflectionTestUtils.setField(service, "replayBackoffMs", 60_000L);
+        ReflectionTestUtils.setField(service, "replayMaxBackoffMs", 60_000L);
+        jdbcTemplate.execute("DROP TABLE telemetry");
+        for (int i = 1; i <= 4; i++) {
+            service.enqueue(sample(1, i));
+        }
+        await(() -> ((Number) stat("failedSpillReplays")).longValue() >= 1);
+
+        createTelemetryTable();
+        for (int i = 5; i <= 8; i++) {
+            service.enqueue(sample(1, i));
+        }
+        await(() -> ((Number) stat("written")).longValue() == 4);
+
+        assertThat(speeds()).containsExactly(5, 6, 7, 8);
+        assertThat(stat("failedSpillReplays")).isEqualTo(1L);
+        assertThat(stat("spillReplays")).isEqualTo(0L);
+        assertThat(Path.of(spillFile + ".replay")).exists();
+    }
+
+    @Test
+    void leftoverReplayFileIsFinishedBeforeTheSpillFileIsRotated() throws Exception {
+        Path replay = Path.of(spillFile + ".replay");
+        Files.write(replay, List.of(objectMapper.writeValueAsString(sample(1, 10))), StandardCharsets.UTF_8);
+        Files.write(spillFile, List.of(objectMapper.writeValueAsString(sample(1, 20))), StandardCharsets.UTF_8);
+
+        service.replaySpill();
+        assertThat(speeds()).containsExactly(10);
+        assertThat(spillFile).exists();
+
+        service.replaySpill();
+        assertThat(speeds()).containsExactly(10, 20);
+        assertThat(spillFile).doesNotExist();
+        assertThat(replay).doesNotExist();
+    }
+
+    @Test
+    void malformedSpillLineIsSkippedAndCounted() throws Exception {
+        Files.write(spillFile, List.of(
+                objectMapper.writeValueAsString(sample(1, 1)),
+                "{\"carId\": 1, \"speed\": ",
+                objectMapper.writeValueAsString(sample(1, 2))), StandardCharsets.UTF_8);
+
+        service.replaySpill();
+
+        assertThat(speeds()).containsExactly(1, 2);
+        assertThat(stat("malformedSpillLines")).isEqualTo(1L);
+        assertThat(Path.of(spillFile + ".replay")).doesNotExist();
+    }
+}
@@ -0,0 +1,239 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.TelemetryBucketDto;
+import com.smartcar.monitoring.model.RollupWatermark;
+import com.smartcar.monitoring.repository.RollupWatermarkRepository;
+import com.smartcar.monitoring.repository.TelemetryRepository;
+import com.smartcar.monitoring.repository.TelemetryRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TelemetryRollupServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private RollupWatermark watermark;
+    private TelemetryRollupService service;
+    // (from, to] id ranges the compactor handed to its upsert
+    private final List<long[]> upsertedRanges = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = spy(new JdbcTemplate(dataSource));
+        jdbcTemplate.execute("CREATE TABLE telemetry (id BIGINT AUTO_INCREMENT PRIMARY KEY, car_id BIGINT, "
+                + "timestamp TIMESTAMP, speed INT, fuel INT, temperature INT, creation_date TIMESTAMP, "
+                + "is_active BOOLEAN)");
+        jdbcTemplate.execute("CREATE TABLE telemetry_rollups (car_id BIGINT, resolution_seconds INT, "
+                + "bucket_start TIMESTAMP, sample_count BIGINT, speed_sum BIGINT, speed_min INT, speed_max INT, "
+                + "fuel_sum BIGINT, fuel_min INT, fuel_max INT, temperature_sum BIGINT, temperature_min INT, "
+                + "temperature_max INT, last_update_on TIMESTAMP, "
+                + "PRIMARY KEY (car_id, resolution_seconds, bucket_start))");
+
+        // The MySQL upsert does not run on H2; record the id range it would fold in
+        doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            upsertedRanges.add(new long[] { ((Number) args[1]).longValue(), ((Number) args[2]).longValue() });
+            return 0;
+        }).when(jdbcTemplate).update(argThat((String sql) -> sql != null && sql.contains("ON DUPLICATE KEY")),
+                any(Object[].class));
+
+        watermark = new RollupWatermark("telemetry_rollup");
+        RollupWatermarkRepository watermarkRepository = mock(RollupWatermarkRepository.class);
+        when(watermarkRepository.findByName(anyString())).thenAnswer(invocation -> Optional.of(watermark));
+        when(watermarkRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service = new TelemetryRollupService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(service, "rollupWatermarkRepository", watermarkRepository);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        ReflectionTestUtils.setField(service, "settleSeconds", 0L);
+    }
+
+    private long insert(int speed, LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO telemetry (car_id, timestamp, speed, fuel, temperature, creation_date, "
+                + "is_active) VALUES (1, ?, ?, 50, 80, ?, true)", Timestamp.valueOf(timestamp), speed,
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(1)));
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM telemetry", Long.class);
+    }
+
+    private Map<String, Object> bucket(int resolution, LocalDateTime start) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT sample_count, speed_sum, speed_min, "
+                + "speed_max FROM telemetry_rollups WHERE car_id = 1 AND resolution_seconds = ? AND bucket_start = ?",
+                resolution, Timestamp.valueOf(start));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    @Test
+    void bucketStartIsAlignedToTheRollupOrigin() {
+        assertThat(TelemetryRollupService.bucketStart(T0.plusSeconds(59), TelemetryRollupService.MINUTE))
+                .isEqualTo(T0);
+        assertThat(TelemetryRollupService.bucketStart(T0.plusMinutes(59).plusSeconds(59), TelemetryRollupService.HOUR))
+                .isEqualTo(T0);
+        assertThat(TelemetryRollupService.bucketStart(T0.plusSeconds(60), TelemetryRollupService.MINUTE))
+                .isEqualTo(T0.plusMinutes(1));
+    }
+
+    @Test
+    void compactingAgainWithoutNewRowsFoldsNothingTwice() {
+        insert(10, T0);
+        long last = insert(20, T0.plusSeconds(5));
+
+        service.compact();
+        service.compact();
+
+        // One range per resolution, from the start to the last row, and none on the second run
+        assertThat(upsertedRanges).hasSize(2);
+        assertThat(upsertedRanges).allSatisfy(range -> assertThat(range).containsExactly(0L, last));
+        assertThat(watermark.getLastTelemetryId()).isEqualTo(last);
+
+        long next = insert(30, T0.plusSeconds(10));
+        service.compact();
+        assertThat(upsertedRanges).hasSize(4);
+        assertThat(upsertedRanges.subList(2, 4)).allSatisfy(range -> assertThat(range).containsExactly(last, next));
+    }
+
+    @Test
+    void deactivatedRowIsTakenOutOfItsCompactedBuckets() {
+        insert(10, T0);
+        long removed = insert(90, T0.plusSeconds(5));
+        insert(30, T0.plusMinutes(2));
+        watermark.setLastTelemetryId(removed + 1);
+        service.recomputeBuckets(1L, removed, T0.plusSeconds(5));
+        assertThat(bucket(TelemetryRollupService.MINUTE, T0)).containsEntry("SAMPLE_COUNT", 2L);
+
+        jdbcTemplate.update("UPDATE telemetry SET is_active = false WHERE id = ?", removed);
+        service.recomputeBuckets(1L, removed, T0.plusSeconds(5));
+
+        assertThat(bucket(TelemetryRollupService.MINUTE, T0))
+                .containsEntry("SAMPLE_COUNT", 1L).containsEntry("SPEED_SUM", 10L).containsEntry("SPEED_MAX", 10);
+        assertThat(bucket(TelemetryRollupService.HOUR, T0))
+                .containsEntry("SAMPLE_COUNT", 2L).containsEntry("SPEED_SUM", 40L);
+    }
+
+    @Test
+    void recomputeIsIdempotent() {
+        long id = insert(10, T0);
+        insert(20, T0.plusSeconds(1));
+        watermark.setLastTelemetryId(id + 1);
+
+        service.recomputeBuckets(1L, id, T0);
+        Map<String, Object> once = bucket(TelemetryRollupService.MINUTE, T0);
+        service.recomputeBuckets(1L, id, T0);
+
+        assertThat(bucket(TelemetryRollupService.MINUTE, T0)).isEqualTo(once).containsEntry("SAMPLE_COUNT", 2L);
+    }
+
+    @Test
+    void bucketWithNoActiveRowsLeftIsRemoved() {
+        long id = insert(10, T0);
+        watermark.setLastTelemetryId(id);
+        service.recomputeBuckets(1L, id, T0);
+        assertThat(bucket(TelemetryRollupService.MINUTE, T0)).isNotNull();
+
+        jdbcTemplate.update("UPDATE telemetry SET is_active = false WHERE id = ?", id);
+        service.recomputeBuckets(1L, id, T0);
+
+        assertThat(bucket(TelemetryRollupService.MINUTE, T0)).isNull();
+        assertThat(bucket(TelemetryRollupService.HOUR, T0)).isNull();
+    }
+
+    @Test
+    void rowsPastTheWatermarkAreLeftToTheCompactor() {
+        long compacted = insert(10, T0);
+        long pending = insert(20, T0.plusSeconds(1));
+        watermark.setLastTelemetryId(compacted);
+
+        service.recomputeBuckets(1L, pending, T0.plusSeconds(1));
+        assertThat(bucket(TelemetryRollupService.MINUTE, T0)).isNull();
+
+        service.recomputeBuckets(1L, compacted, T0);
+        assertThat(bucket(TelemetryRollupService.MINUTE, T0))
+                .as("only rows up to the watermark are counted").containsEntry("SAMPLE_COUNT", 1L);
+    }
+
+    // Aggregate row for one output bucket: count samples of the given speed
+    private static List<Object[]> aggregate(long bucket, long count, int speed) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] { bucket, count, count * speed, speed, speed, count * 50, 50, 50, count * 80, 80, 80 });
+        return rows;
+    }
+
+    @Test
+    void partialBucketsAtTheRangeEdgesAreReadFromTheRawRows() {
+        TelemetryRepository telemetryRepository = mock(TelemetryRepository.class);
+        TelemetryRollupRepository rollupRepository = mock(TelemetryRollupRepository.class);
+        RollupWatermarkRepository watermarkRepository = mock(RollupWatermarkRepository.class);
+        when(watermarkRepository.findById(anyString())).thenReturn(Optional.of(watermark));
+        watermark.setLastTelemetryId(100L);
+        ReflectionTestUtils.setField(service, "telemetryRepository", telemetryRepository);
+        ReflectionTestUtils.setField(service, "telemetryRollupRepository", rollupRepository);
+        ReflectionTestUtils.setField(service, "rollupWatermarkRepository", watermarkRepository);
+
+        LocalDateTime start = T0.plusMinutes(30);
+        LocalDateTime end = T0.plusHours(3).plusMinutes(15);
+        long hour = TelemetryRollupService.HOUR;
+        // Only 13:00 and 14:00 lie wholly inside 12:30-15:15
+        when(rollupRepository.aggregateByCarIdAndTimeBucket(1L, TelemetryRollupService.HOUR, T0, T0.plusHours(1),
+                T0.plusHours(3), hour)).thenReturn(aggregate(1, 60, 40));
+        when(telemetryRepository.aggregateByCarIdAndTimeBucketBefore(1L, T0, start, T0.plusHours(1), hour, 0L))
+                .thenReturn(aggregate(0, 30, 20));
+        when(telemetryRepository.aggregateByCarIdAndTimeBucketBefore(1L, T0, T0.plusHours(1), T0.plusHours(3), hour,
+                100L)).thenReturn(aggregate(2, 5, 60));
+        when(telemetryRepository.aggregateByCarIdAndTimeBucket(1L, T0, T0.plusHours(3), end, hour, 0L))
+                .thenReturn(aggregate(3, 15, 30));
+
+        List<TelemetryBucketDto> buckets = service.getBuckets(1L, start, end, hour, 100);
+
+        assertThat(buckets).extracting(TelemetryBucketDto::getBucketStart)
+                .containsExactly(T0, T0.plusHours(1), T0.plusHours(2), T0.plusHours(3));
+        assertThat(buckets).extracting(TelemetryBucketDto::getCount).containsExactly(30L, 60L, 5L, 15L);
+        assertThat(buckets.get(0).getAvgSpeed()).isEqualTo(20.0);
+        assertThat(buckets.get(3).getMaxSpeed()).isEqualTo(30);
+    }
+
+    @Test
+    void rangeWithinOneRollupBucketIsReadFromTheRawRowsOnly() {
+        TelemetryRepository telemetryRepository = mock(TelemetryRepository.class);
+        TelemetryRollupRepository rollupRepository = mock(TelemetryRollupRepository.class);
+        ReflectionTestUtils.setField(service, "telemetryRepository", telemetryRepository);
+        ReflectionTestUtils.setField(service, "telemetryRollupRepository", rollupRepository);
+
+        LocalDateTime start = T0.plusMinutes(10);
+        LocalDateTime end = T0.plusMinutes(50);
+        when(telemetryRepository.aggregateByCarIdAndTimeBucket(1L, T0, start, end, TelemetryRollupService.HOUR, 0L))
+                .thenReturn(aggregate(0, 4, 70));
+
+        List<TelemetryBucketDto> buckets = service.getBuckets(1L, start, end, (long) TelemetryRollupService.HOUR,
+                100);
+
+        assertThat(buckets).extracting(TelemetryBucketDto::getCount).containsExactly(4L);
+        verifyNoInteractions(rollupRepository);
+    }
+}
@@ -0,0 +1,106 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.TelemetryDto;
+import com.smartcar.monitoring.model.Alert;
+import com.smartcar.monitoring.model.Car;
+import com.smartcar.monitoring.model.Telemetry;
+import com.smartcar.monitoring.model.Trip;
+import com.smartcar.monitoring.repository.AlertRepository;
+import com.smartcar.monitoring.repository.TelemetryRepository;
+import com.smartcar.monitoring.repository.TripSummaryRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TelemetryServiceTripStatsTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 8, 0);
+    private static final Long TRIP_ID = 7L;
+
+    @Mock
+    private TelemetryRepository telemetryRepository;
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    @Mock
+    private TripSummaryRepository tripSummaryRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private TripStatsTracker tripStatsTracker = new TripStatsTracker();
+
+    @InjectMocks
+    private TelemetryService telemetryService;
+
+    private static Telemetry row(int second, int speed) {
+        Car car = new Car();
+        car.setId(1L);
+        Trip trip = new Trip();
+        trip.setId(TRIP_ID);
+        Telemetry telemetry = new Telemetry(car, speed, 50, 80, "Pune");
+        telemetry.setTrip(trip);
+        telemetry.setTimestamp(T0.plusSeconds(second));
+        return telemetry;
+    }
+
+    private static TelemetryDto live(int second, int speed) {
+        return new TelemetryDto(1L, TRIP_ID, speed, 50, 80, "Pune", T0.plusSeconds(second));
+    }
+
+    @Test
+    void trackedTripAfterRestartMergesStoredRowsBeforeItsFirstLiveSample() {
+        // Samples received since startup, some possibly still in the ingest queue
+        tripStatsTracker.recordActiveTrip(live(20, 90));
+        tripStatsTracker.recordActiveTrip(live(25, 100));
+        LocalDateTime boundary = T0.plusSeconds(20);
+        when(telemetryRepository.streamByTripIdAndTimestampBefore(TRIP_ID, boundary))
+                .thenReturn(Stream.of(row(0, 30), row(5, 40), row(10, 50)));
+        when(alertRepository.countByTripIdAndTimestampBeforeAndIsActiveTrue(TRIP_ID, boundary)).thenReturn(2L);
+        when(alertRepository.countByTripIdAndSeverityAndTimestampBeforeAndIsActiveTrue(TRIP_ID,
+                Alert.AlertSeverity.CRITICAL, boundary)).thenReturn(1L);
+
+        TelemetryService.TelemetryStatistics stats = telemetryService.getTelemetryStatisticsByTrip(TRIP_ID);
+
+        assertThat(stats.getTotalRecords()).isEqualTo(5);
+        assertThat(stats.getMinSpeed()).isEqualTo(30);
+        assertThat(stats.getMaxSpeed()).isEqualTo(100);
+        assertThat(stats.getAlertCount()).isEqualTo(2);
+        assertThat(stats.getCriticalAlertCount()).isEqualTo(1);
+
+        // The backfill is merged once; later reads come from memory
+        assertThat(telemetryService.getTelemetryStatisticsByTrip(TRIP_ID).getTotalRecords()).isEqualTo(5);
+        verify(telemetryRepository).streamByTripIdAndTimestampBefore(any(), any());
+    }
+
+    @Test
+    void untrackedTripWithoutSummaryIsCountedFromStoredRowsWithoutBeingTracked() {
+        when(tripSummaryRepository.findByTripIdAndIsActiveTrue(TRIP_ID)).thenReturn(Optional.empty());
+        when(telemetryRepository.streamByTripId(TRIP_ID)).thenReturn(Stream.of(row(0, 30), row(5, 40)));
+
+        TelemetryService.TelemetryStatistics stats = telemetryService.getTelemetryStatisticsByTrip(TRIP_ID);
+
+        assertThat(stats.getTotalRecords()).isEqualTo(2);
+        assertThat(tripStatsTracker.get(TRIP_ID)).isEmpty();
+        verify(tripStatsTracker, never()).recordActiveTrip(any());
+        verify(telemetryRepository, never()).streamByTripIdAndTimestampBefore(eq(TRIP_ID), any());
+    }
+}
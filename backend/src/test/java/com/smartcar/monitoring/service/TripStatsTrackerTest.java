@@ -0,0 +1,165 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.TelemetryDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TripStatsTrackerTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+    private final TripStatsTracker tracker = new TripStatsTracker();
+
+    private static TelemetryDto sample(int second, int speed) {
+        return new TelemetryDto(1L, 7L, speed, 60 - second % 7, 80 + second % 5, "Pune", T0.plusSeconds(second));
+    }
+
+    private static List<TelemetryDto> drive(int samples) {
+        List<TelemetryDto> drive = new ArrayList<>();
+        for (int i = 0; i < samples; i++) {
+            drive.add(sample(i * 5, 40 + (i * 13) % 60));
+        }
+        return drive;
+    }
+
+    private static TripStatsTracker.RunningTripStats onePass(List<TelemetryDto> samples) {
+        TripStatsTracker.RunningTripStats stats = new TripStatsTracker.RunningTripStats();
+        samples.forEach(stats::add);
+        return stats;
+    }
+
+    @Test
+    void samplesOfUntrackedTripsAreIgnoredByRecord() {
+        tracker.record(sample(0, 50));
+
+        assertThat(tracker.get(7L)).isEmpty();
+    }
+
+    @Test
+    void startedTripNeedsNoBackfill() {
+        tracker.start(7L);
+        tracker.record(sample(0, 50));
+
+        assertThat(tracker.get(7L)).get().satisfies(stats -> {
+            assertThat(stats.getBackfillBefore()).isNull();
+            assertThat(stats.toStatistics().getTotalRecords()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void firstLiveSampleOfAnUntrackedActiveTripOpensTheLiveWindow() {
+        tracker.recordActiveTrip(sample(30, 50));
+        tracker.recordActiveTrip(sample(35, 60));
+
+        TripStatsTracker.RunningTripStats stats = tracker.get(7L).orElseThrow();
+        assertThat(stats.getBackfillBefore()).isEqualTo(T0.plusSeconds(30));
+        assertThat(stats.toStatistics().getTotalRecords()).isEqualTo(2);
+    }
+
+    @Test
+    void backfillMergedIntoLiveWindowMatchesOnePassOverAllSamples() {
+        List<TelemetryDto> all = drive(40);
+        List<TelemetryDto> stored = all.subList(0, 25);
+        List<TelemetryDto> live = all.subList(25, all.size());
+
+        live.forEach(tracker::recordActiveTrip);
+        TripStatsTracker.RunningTripStats stats = tracker.get(7L).orElseThrow();
+        assertThat(stats.getBackfillBefore()).isEqualTo(live.get(0).getTimestamp());
+
+        assertThat(stats.mergeBackfill(onePass(stored))).isTrue();
+
+        TelemetryService.TelemetryStatistics merged = stats.toStatistics();
+        TelemetryService.TelemetryStatistics expected = onePass(all).toStatistics();
+        assertThat(merged).usingRecursiveComparison().ignoringFields("distanceKm").isEqualTo(expected);
+        assertThat(merged.getDistanceKm()).isCloseTo(expected.getDistanceKm(), within(0.011));
+        assertThat(stats.getBackfillBefore()).isNull();
+    }
+
+    @Test
+    void backfillIsMergedOnlyOnce() {
+        tracker.recordActiveTrip(sample(60, 50));
+        TripStatsTracker.RunningTripStats stats = tracker.get(7L).orElseThrow();
+        TripStatsTracker.RunningTripStats stored = onePass(List.of(sample(0, 70), sample(5, 80)));
+        stored.addAlert(true);
+
+        assertThat(stats.mergeBackfill(stored)).isTrue();
+        assertThat(stats.mergeBackfill(stored)).isFalse();
+
+        TelemetryService.TelemetryStatistics result = stats.toStatistics();
+        assertThat(result.getTotalRecords()).isEqualTo(3);
+        assertThat(result.getMaxSpeed()).isEqualTo(80);
+        assertThat(result.getAlertCount()).isEqualTo(1);
+        assertThat(result.getCriticalAlertCount()).isEqualTo(1);
+    }
+
+    @Test
+    void speedsAboveTheHistogramRangeReportTheObservedMaximum() {
+        TripStatsTracker.RunningTripStats stats = new TripStatsTracker.RunningTripStats();
+        for (int i = 0; i < 90; i++) {
+            stats.add(sample(i, 100));
+        }
+        for (int i = 90; i < 100; i++) {
+            stats.add(sample(i, 300));
+        }
+
+        TelemetryService.TelemetryStatistics result = stats.toStatistics();
+        assertThat(result.getP50Speed()).isEqualTo(100);
+        assertThat(result.getP95Speed()).isEqualTo(300);
+        assertThat(result.getP99Speed()).isEqualTo(300);
+        assertThat(result.getMaxSpeed()).isEqualTo(300);
+    }
+
+    @Test
+    void distanceSkipsOfflineGapsAndOutOfOrderSamples() {
+        TripStatsTracker.RunningTripStats stats = new TripStatsTracker.RunningTripStats();
+        stats.add(sample(0, 60));
+        stats.add(sample(60, 60));      // 1 km at 60 km/h
+        stats.add(sample(30, 60));      // out of order: counted, no distance
+        stats.add(sample(60 + 3600, 60)); // an hour offline: no distance
+
+        TelemetryService.TelemetryStatistics result = stats.toStatistics();
+        assertThat(result.getTotalRecords()).isEqualTo(4);
+        assertThat(result.getDistanceKm()).isEqualTo(1.0);
+    }
+
+    @Test
+    void samplesQueuedPastTheEndOfATripDoNotTrackItAgain() {
+        tracker.start(7L);
+        tracker.recordActiveTrip(sample(0, 50));
+
+        assertThat(tracker.remove(7L)).isPresent();
+        tracker.recordActiveTrip(sample(5, 55));
+
+        assertThat(tracker.get(7L)).isEmpty();
+        assertThat(tracker.size()).isZero();
+    }
+
+    @Test
+    void startIsAppliedOnlyWhenItsTransactionCommits() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            tracker.start(7L);
+            status.setRollbackOnly();
+        });
+        assertThat(tracker.get(7L)).isEmpty();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            tracker.start(7L);
+            assertThat(tracker.get(7L)).as("not before commit").isEmpty();
+        });
+        assertThat(tracker.get(7L)).get().satisfies(stats -> assertThat(stats.getBackfillBefore()).isNull());
+    }
+}
@@ -0,0 +1,73 @@
+package com.smartcar.monitoring.service;
+
+import com.smartcar.monitoring.dto.TelemetryDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VehicleStateCacheTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final VehicleStateCache cache = new VehicleStateCache();
+
+    private static TelemetryDto sample(Long id, int speed, LocalDateTime timestamp) {
+        TelemetryDto dto = new TelemetryDto(1L, null, speed, 50, 80, "Pune", timestamp);
+        dto.setId(id);
+        return dto;
+    }
+
+    @Test
+    void olderSampleDoesNotReplaceNewerOne() {
+        cache.update(sample(2L, 20, T0.plusSeconds(5)));
+        cache.update(sample(1L, 10, T0));
+
+        assertThat(cache.get(1L)).get().extracting(TelemetryDto::getSpeed).isEqualTo(20);
+    }
+
+    @Test
+    void persistedIdIsAttachedOnlyWhileTheSampleIsStillLatest() {
+        TelemetryDto first = sample(null, 10, T0);
+        cache.update(first);
+        cache.persisted(first, 7L);
+        assertThat(cache.get(1L)).get().extracting(TelemetryDto::getId).isEqualTo(7L);
+
+        TelemetryDto second = sample(null, 20, T0.plusSeconds(5));
+        cache.update(second);
+        cache.persisted(first, 8L);
+        assertThat(cache.get(1L)).get().extracting(TelemetryDto::getSpeed, TelemetryDto::getId)
+                .containsExactly(20, null);
+    }
+
+    @Test
+    void evictRemovesOnlyTheMatchingRow() {
+        cache.update(sample(5L, 10, T0));
+
+        assertThat(cache.evict(1L, 4L, T0)).isFalse();
+        assertThat(cache.get(1L)).isPresent();
+
+        assertThat(cache.evict(1L, 5L, T0)).isTrue();
+        assertThat(cache.get(1L)).isEmpty();
+    }
+
+    @Test
+    void evictMatchesSamplesWithoutIdByTimestamp() {
+        cache.update(sample(null, 10, T0));
+
+        assertThat(cache.evict(1L, 9L, T0.plusSeconds(1))).isFalse();
+        assertThat(cache.evict(1L, 9L, T0)).isTrue();
+    }
+
+    @Test
+    void refreshReplacesTheEntryForTheSameRow() {
+        cache.update(sample(5L, 10, T0));
+
+        cache.refresh(sample(6L, 99, T0));
+        assertThat(cache.get(1L)).get().extracting(TelemetryDto::getSpeed).isEqualTo(10);
+
+        cache.refresh(sample(5L, 30, T0));
+        assertThat(cache.get(1L)).get().extracting(TelemetryDto::getSpeed).isEqualTo(30);
+    }
+}
@@ -0,0 +1,141 @@
+package com.smartcar.monitoring.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcar.monitoring.dto.CarLocationDto;
+import com.smartcar.monitoring.dto.LiveMessage;
+import com.smartcar.monitoring.dto.PreEncodedPayload;
+import com.smartcar.monitoring.dto.TelemetryDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+
+/**
+ * In-process comparison of the old per-destination map serialization against
+ * the conflated, encode-once frames, measured as heap allocation and CPU time
+ * of the test thread per car update. Nothing is sent to a broker. Allocation
+ * figures depend on the JVM, so it is tagged out of the default test run; run
+ * it with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class WebSocketEncodingBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketEncodingBenchmarkTest.class);
+
+    private static final int CARS = 50;
+    private static final int FRAMES = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private static List<TelemetryDto> samples(int cars) {
+        List<TelemetryDto> samples = new ArrayList<>(cars);
+        for (int i = 0; i < cars; i++) {
+            TelemetryDto dto = new TelemetryDto();
+            dto.setId((long) i);
+            dto.setCarId((long) i + 1);
+            dto.setTripId((long) i + 100);
+            dto.setSpeed(60 + i % 80);
+            dto.setFuelLevel(20 + i % 80);
+            dto.setTemperature(80 + i % 30);
+            dto.setLocation("Location " + i);
+            dto.setTimestamp(LocalDateTime.now());
+            samples.add(dto);
+        }
+        return samples;
+    }
+
+    @Test
+    void encodeOnceAllocatesLessPerUpdateThanPerDestinationMaps() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeThat(threads).as("per-thread allocation needs HotSpot").isInstanceOf(com.sun.management.ThreadMXBean.class);
+        List<TelemetryDto> samples = samples(CARS);
+
+        // Warm up both paths so the comparison is not dominated by class loading and JIT
+        legacy(samples, 20);
+        encoded(samples, 20);
+
+        Measurement legacy = measure(() -> legacy(samples, FRAMES));
+        Measurement encoded = measure(() -> encoded(samples, FRAMES));
+        long updates = (long) CARS * FRAMES;
+        logger.info("WebSocket encoding per update: legacy {} B / {} ns, encoded {} B / {} ns",
+                legacy.allocatedBytes / updates, legacy.cpuNanos / updates,
+                encoded.allocatedBytes / updates, encoded.cpuNanos / updates);
+
+        assertThat(encoded.allocatedBytes).isLessThan(legacy.allocatedBytes);
+    }
+
+    // Previous behaviour: a HashMap per destination, each serialized by convertAndSend
+    private void legacy(List<TelemetryDto> samples, int frames) throws Exception {
+        for (int f = 0; f < frames; f++) {
+            for (TelemetryDto dto : samples) {
+                Map<String, Object> update = new HashMap<>();
+                update.put("type", "TELEMETRY_UPDATE");
+                update.put("data", dto);
+                update.put("timestamp", LocalDateTime.now());
+                objectMapper.writeValueAsBytes(update);
+
+                Map<String, Object> carUpdate = new HashMap<>();
+                carUpdate.put("type", "CAR_TELEMETRY");
+                carUpdate.put("carId", dto.getCarId());
+                carUpdate.put("data", dto);
+                carUpdate.put("timestamp", LocalDateTime.now());
+                objectMapper.writeValueAsBytes(carUpdate);
+
+                Map<String, Object> location = new HashMap<>();
+                location.put("type", "CAR_LOCATION");
+                location.put("carId", dto.getCarId());
+                location.put("location", dto.getLocation());
+                location.put("timestamp", LocalDateTime.now());
+                objectMapper.writeValueAsBytes(location);
+                objectMapper.writeValueAsBytes(location);
+            }
+        }
+    }
+
+    // Current behaviour: each sample encoded once, one batch frame per topic plus per-car frames
+    private void encoded(List<TelemetryDto> samples, int frames) throws Exception {
+        for (int f = 0; f < frames; f++) {
+            List<PreEncodedPayload> payloads = new ArrayList<>(samples.size());
+            List<CarLocationDto> locations = new ArrayList<>(samples.size());
+            for (TelemetryDto dto : samples) {
+                payloads.add(PreEncodedPayload.encode(objectMapper, dto));
+                locations.add(new CarLocationDto(dto.getCarId(), dto.getLocation()));
+            }
+            objectMapper.writeValueAsBytes(LiveMessage.batch("TELEMETRY_BATCH", payloads));
+            objectMapper.writeValueAsBytes(LiveMessage.of("CAR_LOCATIONS", locations));
+            for (int i = 0; i < samples.size(); i++) {
+                TelemetryDto dto = samples.get(i);
+                objectMapper.writeValueAsBytes(LiveMessage.forCar("CAR_TELEMETRY", dto.getCarId(), payloads.get(i)));
+                objectMapper.writeValueAsBytes(LiveMessage.location(dto.getCarId(), dto.getLocation()));
+            }
+        }
+    }
+
+    private interface Body {
+        void run() throws Exception;
+    }
+
+    private static Measurement measure(Body body) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        long allocStart = threads.getThreadAllocatedBytes(thread);
+        body.run();
+        return new Measurement(threads.getCurrentThreadCpuTime() - cpuStart,
+                threads.getThreadAllocatedBytes(thread) - allocStart);
+    }
+
+    private record Measurement(long cpuNanos, long allocatedBytes) {
+    }
+}
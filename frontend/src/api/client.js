@@ -15,4 +15,15 @@ api.interceptors.request.use((config) => {
   return config;
 });
 
+// Bulk alert updates run in the background; poll until the queued operation finishes
+export const waitForBulkOperation = async (operation, intervalMs = 500) => {
+  let current = operation;
+  while (current && (current.status === 'QUEUED' || current.status === 'RUNNING')) {
+    await new Promise((resolve) => setTimeout(resolve, intervalMs));
+    const res = await api.get(`/alerts/bulk-operations/${current.operation}`);
+    current = res?.data?.data;
+  }
+  return current;
+};
+
 export default api;
@@ -29,33 +29,24 @@ const AdminDashboard = () => {
 
     const fetchData = async () => {
         try {
-            const [telemetryRes, driversRes, alertsStatsRes, carsRes] = await Promise.all([
-                api.get("/telemetry/latest/all"),
-                api.get("/drivers/assigned"),
-                api.get("/alerts/stats/count"),
-                api.get("/cars"),
-            ]);
+            // One shared server-side snapshot instead of one request per widget
+            const res = await api.get("/dashboard/snapshot");
+            const snapshot = res?.data?.data || {};
+            const vehicleList = snapshot.vehicles || [];
 
-            const telemetryList = telemetryRes?.data?.data || [];
-            const activeCars = carsRes?.data?.data || [];
-            const activeCarIdSet = new Set(activeCars.map((c) => c.id));
-            const activeTelemetry = telemetryList.filter((t) => activeCarIdSet.has(t.carId));
-
-            const drivers = (driversRes?.data?.data || []).reduce((acc, d) => {
-                if (d.assignedCarId) acc[d.assignedCarId] = d.name || d.username;
+            const drivers = vehicleList.reduce((acc, v) => {
+                if (v.driverName) acc[v.carId] = v.driverName;
                 return acc;
             }, {});
 
-            const counts = alertsStatsRes?.data?.data || { totalAlerts: 0, unacknowledgedAlerts: 0, criticalAlerts: 0 };
+            const counts = snapshot.alertCounts || { totalAlerts: 0, unacknowledgedAlerts: 0, criticalAlerts: 0 };
 
-            const carStatusById = activeCars.reduce((acc, c) => {
-                acc[c.id] = c.status || "";
+            const carMap = vehicleList.reduce((acc, v) => {
+                acc[v.carId] = { id: v.carId, carNumber: v.carNumber, carModel: v.carModel, status: v.status };
                 return acc;
             }, {});
 
-            const carMap = activeCars.reduce((acc, c) => { acc[c.id] = c; return acc; }, {});
-
-            const rows = activeTelemetry.map(t => {
+            const rows = vehicleList.map(t => {
                 let formattedTime = "-";
                 if (t.timestamp) {
                     try {
@@ -82,7 +73,7 @@ const AdminDashboard = () => {
                     speed: t.speed ?? 0,
                     fuel: t.fuelLevel ?? 0,
                     temp: t.temperature ?? 0,
-                    status: carStatusById[t.carId] || "-",
+                    status: t.status || "-",
                     lastUpdate: formattedTime,
                 };
             });
@@ -91,31 +82,12 @@ const AdminDashboard = () => {
             setDriversByCarId(drivers);
             setCarsById(carMap);
             setAlertCounts(counts);
+            setCriticalUnack(snapshot.criticalUnacknowledged || []);
         } catch (e) { console.error(e); }
     };
 
     useEffect(() => { fetchData(); }, []);
 
-    // Load critical alerts
-    useEffect(() => {
-        const loadCritical = async () => {
-            try {
-                const res = await api.get('/alerts/critical');
-                const list = (res?.data?.data || [])
-                    .filter(a => !a.acknowledged)
-                    .filter(a => String(a.severity || '').toUpperCase() === 'CRITICAL')
-                    .sort((a, b) => new Date(b.timestamp) - new Date(a.timestamp)); // latest first
-                setCriticalUnack(list);
-            } catch (_) {
-                setCriticalUnack([]);
-            }
-        };
-        loadCritical();
-        const id = setInterval(loadCritical, 30000);
-        return () => clearInterval(id);
-    }, []);
-
-
     const acknowledgeAlert = async (id) => {
         try {
             await api.put(`/alerts/${id}/acknowledge`);
@@ -125,7 +97,7 @@ const AdminDashboard = () => {
 
     const acknowledgeAll = async () => {
         try {
-            await Promise.all(criticalUnack.map(a => api.put(`/alerts/${a.id}/acknowledge`)));
+            await api.put('/alerts/acknowledge-all', null, { params: { severity: 'CRITICAL' } });
             setCriticalUnack([]);
         } catch (_) { }
     };
@@ -1,7 +1,7 @@
 // AlertsPage.js
 import React, { useState, useEffect, useMemo } from "react";
 import { AlertTriangle, Fuel, Thermometer, Wrench, Zap, Clock, Car as CarIcon } from "lucide-react";
-import api from "../api/client";
+import api, { waitForBulkOperation } from "../api/client";
 
 const formatLocalDateTime = (date) => {
   const pad = (n) => String(n).padStart(2, "0");
@@ -30,6 +30,7 @@ const AlertsPage = ({ user }) => {
   const [telemetryWindow, setTelemetryWindow] = useState([]);
   const [page, setPage] = useState(1);
   const PAGE_SIZE = 8;
+  const ALERT_FETCH_LIMIT = 500;
 
   // Admin-specific state
   const [alertStats, setAlertStats] = useState({ totalAlerts: 0, unacknowledgedAlerts: 0, criticalAlerts: 0 });
@@ -48,22 +49,28 @@ const AlertsPage = ({ user }) => {
     } catch (_) { setCarId(null); }
   };
 
+  // Follow nextCursor until the server has returned every page
+  const fetchAllAlerts = async (params) => {
+    const all = [];
+    let cursor = null;
+    do {
+      const res = await api.get("/alerts", { params: { ...params, limit: ALERT_FETCH_LIMIT, ...(cursor ? { cursor } : {}) } });
+      const pageData = res?.data?.data;
+      all.push(...(pageData?.items || []));
+      cursor = pageData?.nextCursor || null;
+    } while (cursor);
+    return all;
+  };
+
   const loadAlerts = async () => {
     try {
       if (user.role === 'DRIVER') {
         if (!carId) return;
-        const res = await api.get(`/alerts/car/${carId}`);
-        const arr = (res?.data?.data || []).sort((a, b) => new Date(b.timestamp) - new Date(a.timestamp));
-        setAlerts(arr);
+        // Newest first from the server; filtered by car in the query
+        setAlerts(await fetchAllAlerts({ carId }));
       } else {
-        const [alertsRes, carsRes] = await Promise.all([
-          api.get("/alerts"),
-          api.get("/cars"),
-        ]);
-        const arrRaw = (alertsRes?.data?.data || []).sort((a, b) => new Date(b.timestamp) - new Date(a.timestamp));
-        const activeCars = carsRes?.data?.data || [];
-        const activeIds = new Set(activeCars.map((c) => c.id));
-        const arr = arrRaw.filter((a) => activeIds.has(a.carId ?? a.car?.id));
+        // Newest first, restricted to active cars by the server
+        const arr = await fetchAllAlerts({ activeCars: true });
         setAlerts(arr);
         // group by car for car-wise section
         const grouped = arr.reduce((acc, a) => {
@@ -340,7 +347,8 @@ const AlertsPage = ({ user }) => {
                 }`}
               onClick={async () => {
                 try {
-                  await api.put("/alerts/acknowledge-all");
+                  const res = await api.put("/alerts/acknowledge-all");
+                  await waitForBulkOperation(res?.data?.data);
                   await loadAlerts();
                 } catch (_) { }
               }}
@@ -156,7 +156,7 @@ const AnalyticsPage = () => {
             const { start, end } = getRange(timeRange);
             try {
                 const [rangeRes, statsRes] = await Promise.all([
-                    api.get(`/telemetry/car/${selectedCarId}/range`, { params: { startTime: formatLocalDateTime(start), endTime: formatLocalDateTime(end) } }),
+                    api.get(`/telemetry/car/${selectedCarId}/range`, { params: { startTime: formatLocalDateTime(start), endTime: formatLocalDateTime(end), maxPoints: 500 } }),
                     api.get(`/telemetry/stats/car/${selectedCarId}`, { params: { startTime: formatLocalDateTime(start), endTime: formatLocalDateTime(end) } }),
                 ]);
                 setCarTelemetry(rangeRes?.data?.data || []);
@@ -459,6 +459,10 @@ const AnalyticsPage = () => {
                                             <div className="text-gray-600">Temp Range</div>
                                             <div className="text-xl font-semibold">{carStats.minTemperature}° - {carStats.maxTemperature}°</div>
                                         </div>
+                                        <div className="p-3 bg-gray-50 rounded">
+                                            <div className="text-gray-600">Speed p50 / p95 / p99</div>
+                                            <div className="text-xl font-semibold">{carStats.p50Speed} / {carStats.p95Speed} / {carStats.p99Speed}</div>
+                                        </div>
                                     </div>
                                 ) : (
                                     <div className="text-gray-500 text-sm">No data available for selected range.</div>
@@ -51,8 +51,7 @@ const CarAlertsPage = () => {
 
   const acknowledgeAll = async () => {
     try {
-      const list = [...alerts];
-      await Promise.all(list.filter(a => !a.acknowledged).map((a) => api.put(`/alerts/${a.id}/acknowledge`)));
+      await api.put("/alerts/acknowledge-all", null, { params: { carId } });
       setAlerts((prev) => prev.map((a) => ({ ...a, acknowledged: true })));
     } catch (_) { }
   };